@@ -0,0 +1,234 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.chain;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import tech.pegasys.pantheon.ethereum.core.Block;
+import tech.pegasys.pantheon.ethereum.core.BlockBody;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.Transaction;
+import tech.pegasys.pantheon.ethereum.core.TransactionReceipt;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Holds blocks appended to it in memory until they are flushed to an underlying blockchain in a
+ * single {@link MutableBlockchain#appendBlocks(List, List)} call.
+ *
+ * <p>Buffered blocks are visible through the query methods, so a block can be validated against
+ * ancestors which haven't been flushed yet. Only blocks extending the current chain head are
+ * buffered. Any other block causes the buffered blocks to be flushed and is then appended to the
+ * underlying blockchain directly.
+ *
+ * <p>Observers are registered with the underlying blockchain, so are only notified when blocks are
+ * flushed, once for each flushed block in order. Not thread safe.
+ */
+public class BufferedMutableBlockchain implements MutableBlockchain {
+
+  private final MutableBlockchain blockchain;
+  private final List<Block> bufferedBlocks = new ArrayList<>();
+  private final List<List<TransactionReceipt>> bufferedReceipts = new ArrayList<>();
+  private final List<UInt256> bufferedTotalDifficulties = new ArrayList<>();
+  private final Map<Hash, Integer> bufferedIndexByHash = new HashMap<>();
+
+  public BufferedMutableBlockchain(final MutableBlockchain blockchain) {
+    this.blockchain = blockchain;
+  }
+
+  /** Appends any buffered blocks to the underlying blockchain. */
+  public void flush() {
+    if (bufferedBlocks.isEmpty()) {
+      return;
+    }
+    blockchain.appendBlocks(new ArrayList<>(bufferedBlocks), new ArrayList<>(bufferedReceipts));
+    bufferedBlocks.clear();
+    bufferedReceipts.clear();
+    bufferedTotalDifficulties.clear();
+    bufferedIndexByHash.clear();
+  }
+
+  @Override
+  public void appendBlock(final Block block, final List<TransactionReceipt> receipts) {
+    checkArgument(
+        block.getBody().getTransactions().size() == receipts.size(),
+        "Supplied receipts do not match block transactions.");
+    if (contains(block.getHash())) {
+      return;
+    }
+    if (!block.getHeader().getParentHash().equals(getChainHeadHash())) {
+      flush();
+      blockchain.appendBlock(block, receipts);
+      return;
+    }
+    final UInt256 parentTotalDifficulty = getChainHead().getTotalDifficulty();
+    bufferedIndexByHash.put(block.getHash(), bufferedBlocks.size());
+    bufferedBlocks.add(block);
+    bufferedReceipts.add(receipts);
+    bufferedTotalDifficulties.add(block.getHeader().getDifficulty().plus(parentTotalDifficulty));
+  }
+
+  @Override
+  public void appendBlocks(
+      final List<Block> blocks, final List<List<TransactionReceipt>> receipts) {
+    checkArgument(blocks.size() == receipts.size(), "Supplied receipts do not match blocks.");
+    for (int i = 0; i < blocks.size(); i++) {
+      appendBlock(blocks.get(i), receipts.get(i));
+    }
+  }
+
+  @Override
+  public void importTrustedBlock(
+      final Block block, final List<TransactionReceipt> receipts, final UInt256 totalDifficulty) {
+    flush();
+    blockchain.importTrustedBlock(block, receipts, totalDifficulty);
+  }
+
+  @Override
+  public void backfillBlocks(
+      final List<Block> blocks, final List<List<TransactionReceipt>> receipts) {
+    flush();
+    blockchain.backfillBlocks(blocks, receipts);
+  }
+
+  @Override
+  public ChainHead getChainHead() {
+    if (bufferedBlocks.isEmpty()) {
+      return blockchain.getChainHead();
+    }
+    final int last = bufferedBlocks.size() - 1;
+    return new ChainHead(bufferedBlocks.get(last).getHash(), bufferedTotalDifficulties.get(last));
+  }
+
+  @Override
+  public long getChainHeadBlockNumber() {
+    if (bufferedBlocks.isEmpty()) {
+      return blockchain.getChainHeadBlockNumber();
+    }
+    return bufferedBlocks.get(bufferedBlocks.size() - 1).getHeader().getNumber();
+  }
+
+  @Override
+  public Hash getChainHeadHash() {
+    if (bufferedBlocks.isEmpty()) {
+      return blockchain.getChainHeadHash();
+    }
+    return bufferedBlocks.get(bufferedBlocks.size() - 1).getHash();
+  }
+
+  @Override
+  public Optional<BlockHeader> getBlockHeader(final long blockNumber) {
+    final Optional<Block> block = getBufferedBlock(blockNumber);
+    return block.isPresent() ? block.map(Block::getHeader) : blockchain.getBlockHeader(blockNumber);
+  }
+
+  @Override
+  public Optional<BlockHeader> getBlockHeader(final Hash blockHeaderHash) {
+    final Optional<Block> block = getBufferedBlock(blockHeaderHash);
+    return block.isPresent()
+        ? block.map(Block::getHeader)
+        : blockchain.getBlockHeader(blockHeaderHash);
+  }
+
+  @Override
+  public Optional<BlockBody> getBlockBody(final Hash blockHeaderHash) {
+    final Optional<Block> block = getBufferedBlock(blockHeaderHash);
+    return block.isPresent() ? block.map(Block::getBody) : blockchain.getBlockBody(blockHeaderHash);
+  }
+
+  @Override
+  public Optional<List<TransactionReceipt>> getTxReceipts(final Hash blockHeaderHash) {
+    final Integer index = bufferedIndexByHash.get(blockHeaderHash);
+    return index != null
+        ? Optional.of(bufferedReceipts.get(index))
+        : blockchain.getTxReceipts(blockHeaderHash);
+  }
+
+  @Override
+  public Optional<Hash> getBlockHashByNumber(final long number) {
+    final Optional<Block> block = getBufferedBlock(number);
+    return block.isPresent() ? block.map(Block::getHash) : blockchain.getBlockHashByNumber(number);
+  }
+
+  @Override
+  public Optional<UInt256> getTotalDifficultyByHash(final Hash blockHeaderHash) {
+    final Integer index = bufferedIndexByHash.get(blockHeaderHash);
+    return index != null
+        ? Optional.of(bufferedTotalDifficulties.get(index))
+        : blockchain.getTotalDifficultyByHash(blockHeaderHash);
+  }
+
+  @Override
+  public Optional<Transaction> getTransactionByHash(final Hash transactionHash) {
+    final Optional<TransactionLocation> location = getBufferedTransactionLocation(transactionHash);
+    return location.isPresent()
+        ? location.map(
+            l ->
+                bufferedBlocks
+                    .get(bufferedIndexByHash.get(l.getBlockHash()))
+                    .getBody()
+                    .getTransactions()
+                    .get(l.getTransactionIndex()))
+        : blockchain.getTransactionByHash(transactionHash);
+  }
+
+  @Override
+  public Optional<TransactionLocation> getTransactionLocation(final Hash transactionHash) {
+    final Optional<TransactionLocation> location = getBufferedTransactionLocation(transactionHash);
+    return location.isPresent() ? location : blockchain.getTransactionLocation(transactionHash);
+  }
+
+  @Override
+  public long observeBlockAdded(final BlockAddedObserver observer) {
+    return blockchain.observeBlockAdded(observer);
+  }
+
+  @Override
+  public boolean removeObserver(final long observerId) {
+    return blockchain.removeObserver(observerId);
+  }
+
+  private Optional<Block> getBufferedBlock(final Hash blockHash) {
+    final Integer index = bufferedIndexByHash.get(blockHash);
+    return index != null ? Optional.of(bufferedBlocks.get(index)) : Optional.empty();
+  }
+
+  private Optional<Block> getBufferedBlock(final long blockNumber) {
+    if (bufferedBlocks.isEmpty()) {
+      return Optional.empty();
+    }
+    final long firstBufferedNumber = bufferedBlocks.get(0).getHeader().getNumber();
+    final long index = blockNumber - firstBufferedNumber;
+    return index >= 0 && index < bufferedBlocks.size()
+        ? Optional.of(bufferedBlocks.get((int) index))
+        : Optional.empty();
+  }
+
+  private Optional<TransactionLocation> getBufferedTransactionLocation(final Hash transactionHash) {
+    for (final Block block : bufferedBlocks) {
+      final List<Transaction> transactions = block.getBody().getTransactions();
+      for (int i = 0; i < transactions.size(); i++) {
+        if (transactions.get(i).hash().equals(transactionHash)) {
+          return Optional.of(new TransactionLocation(block.getHash(), i));
+        }
+      }
+    }
+    return Optional.empty();
+  }
+}
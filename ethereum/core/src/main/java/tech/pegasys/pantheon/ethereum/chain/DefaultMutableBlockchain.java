@@ -14,6 +14,7 @@ package tech.pegasys.pantheon.ethereum.chain;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toList;
 
@@ -27,6 +28,7 @@ import tech.pegasys.pantheon.metrics.MetricCategory;
 import tech.pegasys.pantheon.metrics.MetricsSystem;
 import tech.pegasys.pantheon.util.InvalidConfigurationException;
 import tech.pegasys.pantheon.util.Subscribers;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
 import tech.pegasys.pantheon.util.bytes.BytesValues;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
@@ -113,6 +115,21 @@ public class DefaultMutableBlockchain implements MutableBlockchain {
     return blockchainStorage.getTransactionReceipts(blockHeaderHash);
   }
 
+  @Override
+  public Optional<BytesValue> getBlockHeaderRlp(final Hash blockHeaderHash) {
+    return blockchainStorage.getBlockHeaderRlp(blockHeaderHash);
+  }
+
+  @Override
+  public Optional<BytesValue> getBlockBodyRlp(final Hash blockHeaderHash) {
+    return blockchainStorage.getBlockBodyRlp(blockHeaderHash);
+  }
+
+  @Override
+  public Optional<BytesValue> getTxReceiptsRlp(final Hash blockHeaderHash) {
+    return blockchainStorage.getTransactionReceiptsRlp(blockHeaderHash);
+  }
+
   @Override
   public Optional<Hash> getBlockHashByNumber(final long number) {
     return blockchainStorage.getBlockHash(number);
@@ -155,6 +172,149 @@ public class DefaultMutableBlockchain implements MutableBlockchain {
     notifyBlockAdded(blockAddedEvent);
   }
 
+  @Override
+  public synchronized void appendBlocks(
+      final List<Block> blocks, final List<List<TransactionReceipt>> receipts) {
+    checkArgument(blocks.size() == receipts.size(), "Supplied receipts do not match blocks.");
+    int firstNewBlock = 0;
+    while (firstNewBlock < blocks.size() && blockIsAlreadyTracked(blocks.get(firstNewBlock))) {
+      firstNewBlock++;
+    }
+    if (firstNewBlock == blocks.size()) {
+      return;
+    }
+    for (int i = firstNewBlock; i < blocks.size(); i++) {
+      final Block block = blocks.get(i);
+      checkArgument(
+          block.getBody().getTransactions().size() == receipts.get(i).size(),
+          "Supplied receipts do not match block transactions.");
+      if (i > firstNewBlock) {
+        checkArgument(
+            block.getHeader().getParentHash().equals(blocks.get(i - 1).getHash()),
+            "Attempt to append non-sequential blocks.");
+      }
+    }
+    final Block firstBlock = blocks.get(firstNewBlock);
+    if (!blockIsConnected(firstBlock)) {
+      throw new IllegalArgumentException("Attempt to append non-connected block.");
+    }
+    if (!firstBlock.getHeader().getParentHash().equals(blockchainStorage.getChainHead().get())) {
+      // Forks and reorgs are rare enough to append one block at a time.
+      for (int i = firstNewBlock; i < blocks.size(); i++) {
+        notifyBlockAdded(appendBlockHelper(blocks.get(i), receipts.get(i)));
+      }
+      return;
+    }
+
+    final BlockchainStorage.Updater updater = blockchainStorage.updater();
+    final List<BlockAddedEvent> blockAddedEvents = new ArrayList<>();
+    UInt256 td = calculateTotalDifficulty(firstBlock);
+    for (int i = firstNewBlock; i < blocks.size(); i++) {
+      final Block block = blocks.get(i);
+      final Hash hash = block.getHash();
+      if (i > firstNewBlock) {
+        td = block.getHeader().getDifficulty().plus(td);
+      }
+      updater.putBlockHeader(hash, block.getHeader());
+      updater.putBlockBody(hash, block.getBody());
+      updater.putTransactionReceipts(hash, receipts.get(i));
+      updater.putTotalDifficulty(hash, td);
+      updater.putBlockHash(block.getHeader().getNumber(), hash);
+      indexTransactionForBlock(updater, hash, block.getBody().getTransactions());
+      blockAddedEvents.add(BlockAddedEvent.createForHeadAdvancement(block));
+    }
+    updater.setChainHead(blocks.get(blocks.size() - 1).getHash());
+    updater.commit();
+
+    // Observers expect to see each block the head advances through, so are notified of them in
+    // order once they're all stored.
+    blockAddedEvents.forEach(this::notifyBlockAdded);
+  }
+
+  @Override
+  public synchronized void importTrustedBlock(
+      final Block block, final List<TransactionReceipt> receipts, final UInt256 totalDifficulty) {
+    checkArgument(
+        block.getBody().getTransactions().size() == receipts.size(),
+        "Supplied receipts do not match block transactions.");
+    if (blockIsAlreadyTracked(block)) {
+      return;
+    }
+    checkState(
+        getChainHeadBlockNumber() == BlockHeader.GENESIS_BLOCK_NUMBER,
+        "A trusted block can only be imported into an empty blockchain.");
+
+    final Hash hash = block.getHash();
+    final BlockchainStorage.Updater updater = blockchainStorage.updater();
+    updater.putBlockHeader(hash, block.getHeader());
+    updater.putBlockBody(hash, block.getBody());
+    updater.putTransactionReceipts(hash, receipts);
+    updater.putTotalDifficulty(hash, totalDifficulty);
+    updater.putBlockHash(block.getHeader().getNumber(), hash);
+    updater.setChainHead(hash);
+    indexTransactionForBlock(updater, hash, block.getBody().getTransactions());
+    updater.commit();
+
+    notifyBlockAdded(BlockAddedEvent.createForHeadAdvancement(block));
+  }
+
+  @Override
+  public synchronized void backfillBlocks(
+      final List<Block> blocks, final List<List<TransactionReceipt>> receipts) {
+    checkArgument(blocks.size() == receipts.size(), "Supplied receipts do not match blocks.");
+    if (blocks.isEmpty() || blockIsAlreadyTracked(blocks.get(blocks.size() - 1))) {
+      return;
+    }
+    for (int i = 0; i < blocks.size(); i++) {
+      checkArgument(
+          blocks.get(i).getBody().getTransactions().size() == receipts.get(i).size(),
+          "Supplied receipts do not match block transactions.");
+      if (i > 0) {
+        checkArgument(
+            blocks.get(i).getHeader().getParentHash().equals(blocks.get(i - 1).getHash()),
+            "Attempt to backfill non-sequential blocks.");
+      }
+    }
+    final Block lastBlock = blocks.get(blocks.size() - 1);
+    final Optional<BlockHeader> child = getBlockHeader(lastBlock.getHeader().getNumber() + 1);
+    if (!child.isPresent() || !child.get().getParentHash().equals(lastBlock.getHash())) {
+      throw new IllegalArgumentException("Attempt to backfill non-connected blocks.");
+    }
+
+    // Total difficulties are worked out down from the block above, as the chain below is missing.
+    UInt256 td =
+        blockchainStorage
+            .getTotalDifficulty(child.get().getHash())
+            .get()
+            .minus(child.get().getDifficulty());
+    final BlockchainStorage.Updater updater = blockchainStorage.updater();
+    for (int i = blocks.size() - 1; i >= 0; i--) {
+      final Block block = blocks.get(i);
+      final Hash hash = block.getHash();
+      updater.putBlockHeader(hash, block.getHeader());
+      updater.putBlockBody(hash, block.getBody());
+      updater.putTransactionReceipts(hash, receipts.get(i));
+      updater.putTotalDifficulty(hash, td);
+      updater.putBlockHash(block.getHeader().getNumber(), hash);
+      indexTransactionForBlock(updater, hash, block.getBody().getTransactions());
+      td = td.minus(block.getHeader().getDifficulty());
+    }
+
+    final BlockHeader firstHeader = blocks.get(0).getHeader();
+    if (firstHeader.getNumber() == BlockHeader.GENESIS_BLOCK_NUMBER + 1) {
+      // The chain is now complete, so must lead back to genesis with the total difficulty it was
+      // started with.
+      final Hash genesisHash = getBlockHashByNumber(BlockHeader.GENESIS_BLOCK_NUMBER).get();
+      if (!firstHeader.getParentHash().equals(genesisHash)
+          || !td.equals(blockchainStorage.getTotalDifficulty(genesisHash).get())) {
+        updater.rollback();
+        throw new IllegalStateException(
+            "Backfilled blocks do not match the genesis block and its total difficulty.");
+      }
+    }
+    updater.commit();
+  }
+
   private BlockAddedEvent appendBlockHelper(
       final Block block, final List<TransactionReceipt> receipts) {
     final Hash hash = block.getHash();
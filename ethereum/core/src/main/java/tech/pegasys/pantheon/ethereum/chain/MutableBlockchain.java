@@ -14,6 +14,7 @@ package tech.pegasys.pantheon.ethereum.chain;
 
 import tech.pegasys.pantheon.ethereum.core.Block;
 import tech.pegasys.pantheon.ethereum.core.TransactionReceipt;
+import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.util.List;
 
@@ -30,4 +31,44 @@ public interface MutableBlockchain extends Blockchain {
    * @param receipts The list of receipts associated with this block's transactions.
    */
   void appendBlock(Block block, List<TransactionReceipt> receipts);
+
+  /**
+   * Adds a sequence of blocks to the blockchain, writing them to storage together.
+   *
+   * <p>Each block must be the parent of the block following it and the first block must be
+   * connected to the existing blockchain, otherwise an {@link IllegalArgumentException} is thrown.
+   * When the blocks extend the chain head, observers are notified once, with an event for the last
+   * block which includes the transactions from every block in the sequence.
+   *
+   * @param blocks The blocks to append, in order.
+   * @param receipts The lists of receipts associated with each block's transactions.
+   */
+  void appendBlocks(List<Block> blocks, List<List<TransactionReceipt>> receipts);
+
+  /**
+   * Starts the chain from a trusted block whose ancestors haven't been stored, making it the chain
+   * head.
+   *
+   * <p>Only allowed while the blockchain holds nothing but the genesis block, otherwise an {@link
+   * IllegalStateException} is thrown. The ancestors of the block can be added later with {@link
+   * #backfillBlocks(List, List)}.
+   *
+   * @param block The trusted block.
+   * @param receipts The list of receipts associated with this block's transactions.
+   * @param totalDifficulty The total difficulty of the chain up to and including this block.
+   */
+  void importTrustedBlock(Block block, List<TransactionReceipt> receipts, UInt256 totalDifficulty);
+
+  /**
+   * Adds a sequence of ancestors of the lowest block stored above the genesis block, filling in the
+   * chain below a block added by {@link #importTrustedBlock(Block, List, UInt256)}.
+   *
+   * <p>Each block must be the parent of the block following it and the last block must be the
+   * parent of the lowest block stored above the genesis block, otherwise an {@link
+   * IllegalArgumentException} is thrown. Observers are not notified of backfilled blocks.
+   *
+   * @param blocks The blocks to add, in ascending order.
+   * @param receipts The lists of receipts associated with each block's transactions.
+   */
+  void backfillBlocks(List<Block> blocks, List<List<TransactionReceipt>> receipts);
 }
@@ -15,6 +15,7 @@ package tech.pegasys.pantheon.ethereum.mainnet;
 import static tech.pegasys.pantheon.crypto.Hash.keccak256;
 import static tech.pegasys.pantheon.util.bytes.BytesValues.trimLeadingZeros;
 
+import tech.pegasys.pantheon.ethereum.core.BlockBody;
 import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.ethereum.core.LogsBloomFilter;
@@ -28,9 +29,24 @@ import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.util.List;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
 /** A utility class for body validation tasks. */
 public final class BodyValidation {
 
+  // Weak keys compare bodies by identity and drop an entry once its body is no longer used, so
+  // values calculated ahead of import, possibly on another thread, are reused by validation.
+  private static final LoadingCache<BlockBody, Hash> TRANSACTIONS_ROOTS =
+      CacheBuilder.newBuilder()
+          .weakKeys()
+          .build(CacheLoader.from(body -> transactionsRoot(body.getTransactions())));
+  private static final LoadingCache<BlockBody, Hash> OMMERS_HASHES =
+      CacheBuilder.newBuilder()
+          .weakKeys()
+          .build(CacheLoader.from(body -> ommersHash(body.getOmmers())));
+
   private BodyValidation() {
     // Utility Class
   }
@@ -59,6 +75,17 @@ public final class BodyValidation {
     return Hash.wrap(trie.getRootHash());
   }
 
+  /**
+   * Returns the transaction root for the transactions of a block body, calculating it only the
+   * first time it is requested for that body.
+   *
+   * @param body the block body
+   * @return the transaction root
+   */
+  public static Hash transactionsRoot(final BlockBody body) {
+    return TRANSACTIONS_ROOTS.getUnchecked(body);
+  }
+
   /**
    * Generates the receipt root for a list of receipts
    *
@@ -85,6 +112,17 @@ public final class BodyValidation {
     return Hash.wrap(keccak256(RLP.encode(out -> out.writeList(ommers, BlockHeader::writeTo))));
   }
 
+  /**
+   * Returns the ommers hash for the ommers of a block body, calculating it only the first time it
+   * is requested for that body.
+   *
+   * @param body the block body
+   * @return the ommers hash
+   */
+  public static Hash ommersHash(final BlockBody body) {
+    return OMMERS_HASHES.getUnchecked(body);
+  }
+
   /**
    * Generates the logs bloom filter for a list of transaction receipts
    *
@@ -69,7 +69,7 @@ public class MainnetBlockBodyValidator<C> implements BlockBodyValidator<C> {
     final BlockHeader header = block.getHeader();
     final BlockBody body = block.getBody();
 
-    final Bytes32 transactionsRoot = BodyValidation.transactionsRoot(body.getTransactions());
+    final Bytes32 transactionsRoot = BodyValidation.transactionsRoot(body);
     if (!validateTransactionsRoot(header.getTransactionsRoot(), transactionsRoot)) {
       return false;
     }
@@ -151,7 +151,7 @@ public class MainnetBlockBodyValidator<C> implements BlockBodyValidator<C> {
     final BlockHeader header = block.getHeader();
     final BlockBody body = block.getBody();
 
-    final Bytes32 ommerHash = BodyValidation.ommersHash(body.getOmmers());
+    final Bytes32 ommerHash = BodyValidation.ommersHash(body);
     if (!validateOmmersHash(header.getOmmersHash(), ommerHash)) {
       return false;
     }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.transaction;
+
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.metrics.Counter;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+
+import java.util.Optional;
+
+/*
+ * Estimates the gas a transaction needs by searching for the lowest gas limit it succeeds with.
+ *
+ * The gas used by a run with a generous gas limit is not always enough to succeed, for example
+ * when calls forward 63/64 of the available gas or the contract branches on the gas left. So the
+ * estimate is found by a bounded binary search between the gas used and the upper limit. All runs
+ * share a single world state snapshot so state and code are only loaded from storage once.
+ */
+public class TransactionGasEstimator {
+
+  private static final int MAX_ITERATIONS = 24;
+  private static final long CALL_STIPEND = 2300;
+
+  private final TransactionSimulator transactionSimulator;
+  private final Counter estimateCounter;
+  private final Counter iterationCounter;
+
+  public TransactionGasEstimator(
+      final TransactionSimulator transactionSimulator, final MetricsSystem metricsSystem) {
+    this.transactionSimulator = transactionSimulator;
+    this.estimateCounter =
+        metricsSystem.createCounter(
+            MetricCategory.RPC, "gas_estimates_total", "Total number of gas estimates performed");
+    this.iterationCounter =
+        metricsSystem.createCounter(
+            MetricCategory.RPC,
+            "gas_estimate_iterations_total",
+            "Total number of transaction simulations run to estimate gas");
+  }
+
+  /**
+   * Estimates the gas required by a transaction.
+   *
+   * @param callParams the parameters of the transaction. If a gas limit is specified it is used as
+   *     the upper bound of the search, otherwise the block gas limit is used.
+   * @param header the header of the block to run the transaction against
+   * @return the lowest gas limit found for which the transaction succeeds, or the gas used if it
+   *     fails even with the upper limit. Empty if the block's world state isn't available.
+   */
+  public Optional<Long> estimate(final CallParameter callParams, final BlockHeader header) {
+    final Optional<MutableWorldState> maybeWorldState =
+        transactionSimulator.getWorldStateSnapshot(header);
+    if (!maybeWorldState.isPresent()) {
+      return Optional.empty();
+    }
+    estimateCounter.inc();
+    final Search search = new Search(callParams, header, maybeWorldState.get());
+    final long estimate = search.run();
+    iterationCounter.inc(search.iterations);
+    return Optional.of(estimate);
+  }
+
+  private class Search {
+    private final CallParameter callParams;
+    private final BlockHeader header;
+    private final MutableWorldState worldState;
+    private int iterations = 0;
+
+    private Search(
+        final CallParameter callParams,
+        final BlockHeader header,
+        final MutableWorldState worldState) {
+      this.callParams = callParams;
+      this.header = header;
+      this.worldState = worldState;
+    }
+
+    private long run() {
+      long highest =
+          callParams.getGasLimit() >= 0 ? callParams.getGasLimit() : header.getGasLimit();
+      final TransactionSimulatorResult initialResult = execute(highest);
+      if (!initialResult.isSuccessful()) {
+        return initialResult.getGasEstimate();
+      }
+
+      // Most transactions succeed with exactly the gas they used, so try that before searching.
+      final long gasUsed = initialResult.getGasEstimate();
+      if (gasUsed >= highest || execute(gasUsed).isSuccessful()) {
+        return gasUsed;
+      }
+
+      // Calls only forward 63/64 of the remaining gas, so a little more than was used is usually
+      // enough. Trying that first keeps the search range small even with very large gas limits.
+      long lowest = gasUsed;
+      final long optimisticGasLimit = Math.min(highest, (gasUsed + CALL_STIPEND) * 64 / 63);
+      if (execute(optimisticGasLimit).isSuccessful()) {
+        highest = optimisticGasLimit;
+      } else {
+        lowest = optimisticGasLimit;
+      }
+
+      while (highest - lowest > 1 && iterations < MAX_ITERATIONS) {
+        final long gasLimit = lowest + (highest - lowest) / 2;
+        if (execute(gasLimit).isSuccessful()) {
+          highest = gasLimit;
+        } else {
+          lowest = gasLimit;
+        }
+      }
+      return highest;
+    }
+
+    private TransactionSimulatorResult execute(final long gasLimit) {
+      iterations++;
+      return transactionSimulator.process(withGasLimit(gasLimit), header, worldState);
+    }
+
+    private CallParameter withGasLimit(final long gasLimit) {
+      return new CallParameter(
+          callParams.getFrom(),
+          callParams.getTo(),
+          gasLimit,
+          callParams.getGasPrice(),
+          callParams.getValue(),
+          callParams.getPayload());
+    }
+  }
+}
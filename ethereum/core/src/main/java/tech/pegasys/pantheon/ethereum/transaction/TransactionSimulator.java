@@ -25,10 +25,12 @@ import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSpec;
 import tech.pegasys.pantheon.ethereum.mainnet.TransactionProcessor;
 import tech.pegasys.pantheon.ethereum.vm.BlockHashLookup;
+import tech.pegasys.pantheon.ethereum.worldstate.CachingWorldStateReader;
 import tech.pegasys.pantheon.ethereum.worldstate.WorldStateArchive;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.util.Optional;
+import java.util.function.Function;
 
 /*
  * Used to process transactions for eth_call and eth_estimateGas.
@@ -48,15 +50,29 @@ public class TransactionSimulator {
       Address.fromHexString("0x0000000000000000000000000000000000000000");
 
   private final Blockchain blockchain;
-  private final WorldStateArchive worldStateArchive;
+  private final Function<Hash, Optional<MutableWorldState>> worldStates;
   private final ProtocolSchedule<?> protocolSchedule;
 
   public TransactionSimulator(
       final Blockchain blockchain,
       final WorldStateArchive worldStateArchive,
       final ProtocolSchedule<?> protocolSchedule) {
+    this(blockchain, worldStateArchive::getMutable, protocolSchedule);
+  }
+
+  public TransactionSimulator(
+      final Blockchain blockchain,
+      final CachingWorldStateReader cachingWorldStateReader,
+      final ProtocolSchedule<?> protocolSchedule) {
+    this(blockchain, cachingWorldStateReader::getWorldState, protocolSchedule);
+  }
+
+  private TransactionSimulator(
+      final Blockchain blockchain,
+      final Function<Hash, Optional<MutableWorldState>> worldStates,
+      final ProtocolSchedule<?> protocolSchedule) {
     this.blockchain = blockchain;
-    this.worldStateArchive = worldStateArchive;
+    this.worldStates = worldStates;
     this.protocolSchedule = protocolSchedule;
   }
 
@@ -81,12 +97,35 @@ public class TransactionSimulator {
     if (header == null) {
       return Optional.empty();
     }
-    final MutableWorldState worldState =
-        worldStateArchive.getMutable(header.getStateRoot()).orElse(null);
-    if (worldState == null) {
-      return Optional.empty();
-    }
+    return getWorldStateSnapshot(header)
+        .map(worldState -> process(callParams, header, worldState));
+  }
+
+  /**
+   * Opens the world state at the given block for simulating transactions. The trie nodes loaded
+   * while running a simulation are kept by the world state, so running several simulations against
+   * it only loads each from storage once.
+   *
+   * @param header the header of the block whose world state should be opened
+   * @return the world state, or empty if it isn't available
+   */
+  public Optional<MutableWorldState> getWorldStateSnapshot(final BlockHeader header) {
+    return worldStates.apply(header.getStateRoot());
+  }
 
+  /**
+   * Simulates a transaction against the given world state. Changes are made through a fresh
+   * updater which is discarded, so the same world state can be reused for further simulations.
+   *
+   * @param callParams the parameters of the transaction to simulate
+   * @param header the header of the block the transaction is simulated in
+   * @param worldState the world state to simulate the transaction against
+   * @return the result of the simulation
+   */
+  public TransactionSimulatorResult process(
+      final CallParameter callParams,
+      final BlockHeader header,
+      final MutableWorldState worldState) {
     final Address senderAddress =
         callParams.getFrom() != null ? callParams.getFrom() : DEFAULT_FROM;
     final Account sender = worldState.get(senderAddress);
@@ -124,6 +163,6 @@ public class TransactionSimulator {
             new BlockHashLookup(header, blockchain),
             false);
 
-    return Optional.of(new TransactionSimulatorResult(transaction, result));
+    return new TransactionSimulatorResult(transaction, result);
   }
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.worldstate;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+
+import java.util.Optional;
+
+/**
+ * Opens read-only views of world states which all read through a single {@link
+ * CachingWorldStateStorage}.
+ *
+ * <p>Each call opens a new view, which is released along with the trie nodes it has loaded once the
+ * caller is done with it. The shared cache is bounded in bytes, so state which is read by many
+ * views, or which doesn't change between blocks, is only loaded from storage once without keeping
+ * whole tries in memory.
+ *
+ * <p>Views must only be changed through an updater which is discarded afterwards.
+ */
+public class CachingWorldStateReader {
+
+  public static final long DEFAULT_CACHE_SIZE_IN_BYTES = 64L * 1024 * 1024;
+
+  private final WorldStateStorage storage;
+
+  public CachingWorldStateReader(final WorldStateArchive worldStateArchive) {
+    this(worldStateArchive, DEFAULT_CACHE_SIZE_IN_BYTES);
+  }
+
+  public CachingWorldStateReader(
+      final WorldStateArchive worldStateArchive, final long cacheSizeInBytes) {
+    this.storage = new CachingWorldStateStorage(worldStateArchive.getStorage(), cacheSizeInBytes);
+  }
+
+  /**
+   * Opens a view of the world state with the given root hash.
+   *
+   * @param stateRoot the root hash of the world state
+   * @return a new view, or empty if the world state isn't available
+   */
+  public Optional<MutableWorldState> getWorldState(final Hash stateRoot) {
+    if (!storage.isWorldStateAvailable(stateRoot)) {
+      return Optional.empty();
+    }
+    return Optional.of(new DefaultMutableWorldState(stateRoot, storage));
+  }
+}
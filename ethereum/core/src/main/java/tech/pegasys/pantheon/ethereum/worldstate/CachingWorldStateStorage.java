@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.worldstate;
+
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A read-only view of a {@link WorldStateStorage} which keeps the code and trie nodes it has read
+ * in memory, up to a maximum total size in bytes. Entries are keyed by their hash so they never go
+ * stale, which lets a single instance be shared by any number of simulations against the same or
+ * related world states.
+ */
+public class CachingWorldStateStorage implements WorldStateStorage {
+
+  private final WorldStateStorage storage;
+  private final Cache<Bytes32, BytesValue> code;
+  private final Cache<Bytes32, BytesValue> trieNodes;
+
+  public CachingWorldStateStorage(
+      final WorldStateStorage storage, final long maximumCacheSizeInBytes) {
+    this.storage = storage;
+    this.code = createCache(maximumCacheSizeInBytes / 2);
+    this.trieNodes = createCache(maximumCacheSizeInBytes / 2);
+  }
+
+  private static Cache<Bytes32, BytesValue> createCache(final long maximumSizeInBytes) {
+    return CacheBuilder.newBuilder()
+        .maximumWeight(maximumSizeInBytes)
+        .weigher((final Bytes32 hash, final BytesValue value) -> value.size())
+        .build();
+  }
+
+  @Override
+  public Optional<BytesValue> getCode(final Bytes32 codeHash) {
+    return getCached(code, codeHash, storage::getCode);
+  }
+
+  @Override
+  public Optional<BytesValue> getAccountStateTrieNode(final Bytes32 nodeHash) {
+    return getCached(trieNodes, nodeHash, storage::getAccountStateTrieNode);
+  }
+
+  @Override
+  public Optional<BytesValue> getAccountStorageTrieNode(final Bytes32 nodeHash) {
+    return getCached(trieNodes, nodeHash, storage::getAccountStorageTrieNode);
+  }
+
+  @Override
+  public Optional<BytesValue> getNodeData(final Bytes32 hash) {
+    return storage.getNodeData(hash);
+  }
+
+  @Override
+  public boolean isWorldStateAvailable(final Bytes32 rootHash) {
+    return getAccountStateTrieNode(rootHash).isPresent();
+  }
+
+  @Override
+  public Updater updater() {
+    throw new UnsupportedOperationException("Cached world state storage is read-only");
+  }
+
+  private Optional<BytesValue> getCached(
+      final Cache<Bytes32, BytesValue> cache,
+      final Bytes32 hash,
+      final Function<Bytes32, Optional<BytesValue>> loader) {
+    final BytesValue cached = cache.getIfPresent(hash);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    // Missing values aren't cached as they may be written to the underlying storage later.
+    final Optional<BytesValue> loaded = loader.apply(hash);
+    loaded.ifPresent(value -> cache.put(hash, value));
+    return loaded;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.chain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.ethereum.core.Block;
+import tech.pegasys.pantheon.ethereum.core.BlockDataGenerator;
+import tech.pegasys.pantheon.ethereum.core.BlockDataGenerator.BlockOptions;
+import tech.pegasys.pantheon.ethereum.core.Transaction;
+import tech.pegasys.pantheon.ethereum.core.TransactionReceipt;
+import tech.pegasys.pantheon.ethereum.mainnet.MainnetBlockHashFunction;
+import tech.pegasys.pantheon.ethereum.storage.keyvalue.KeyValueStoragePrefixedKeyBlockchainStorage;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class BufferedMutableBlockchainTest {
+
+  private final BlockDataGenerator gen = new BlockDataGenerator();
+  private final List<Block> chain = gen.blockSequence(4);
+  private final List<List<TransactionReceipt>> blockReceipts =
+      chain.stream().map(gen::receipts).collect(Collectors.toList());
+  private final DefaultMutableBlockchain blockchain =
+      new DefaultMutableBlockchain(
+          chain.get(0),
+          new KeyValueStoragePrefixedKeyBlockchainStorage(
+              new InMemoryKeyValueStorage(), MainnetBlockHashFunction::createHash),
+          new NoOpMetricsSystem());
+  private final BufferedMutableBlockchain bufferedBlockchain =
+      new BufferedMutableBlockchain(blockchain);
+
+  @Test
+  public void shouldMakeBufferedBlocksVisibleBeforeFlush() {
+    appendToBuffer(1, 3);
+
+    final Block head = chain.get(3);
+    assertThat(bufferedBlockchain.getChainHeadHash()).isEqualTo(head.getHash());
+    assertThat(bufferedBlockchain.getChainHeadBlockNumber()).isEqualTo(3);
+    for (int i = 1; i <= 3; i++) {
+      final Block block = chain.get(i);
+      assertThat(bufferedBlockchain.getBlockHeader(block.getHash())).contains(block.getHeader());
+      assertThat(bufferedBlockchain.getBlockHeader(i)).contains(block.getHeader());
+      assertThat(bufferedBlockchain.getBlockBody(block.getHash())).contains(block.getBody());
+      assertThat(bufferedBlockchain.getTxReceipts(block.getHash())).contains(blockReceipts.get(i));
+      for (final Transaction transaction : block.getBody().getTransactions()) {
+        assertThat(bufferedBlockchain.getTransactionByHash(transaction.hash()))
+            .contains(transaction);
+      }
+    }
+    assertThat(bufferedBlockchain.getChainHead().getTotalDifficulty())
+        .isEqualTo(
+            blockchain
+                .getChainHead()
+                .getTotalDifficulty()
+                .plus(chain.get(1).getHeader().getDifficulty())
+                .plus(chain.get(2).getHeader().getDifficulty())
+                .plus(chain.get(3).getHeader().getDifficulty()));
+
+    assertThat(blockchain.getChainHeadHash()).isEqualTo(chain.get(0).getHash());
+    assertThat(blockchain.contains(chain.get(1).getHash())).isFalse();
+  }
+
+  @Test
+  public void shouldAppendBufferedBlocksOnFlush() {
+    final List<BlockAddedEvent> events = new ArrayList<>();
+    bufferedBlockchain.observeBlockAdded((event, observedChain) -> events.add(event));
+    appendToBuffer(1, 3);
+
+    bufferedBlockchain.flush();
+
+    assertThat(blockchain.getChainHeadHash()).isEqualTo(chain.get(3).getHash());
+    for (int i = 1; i <= 3; i++) {
+      assertThat(blockchain.getTxReceipts(chain.get(i).getHash())).contains(blockReceipts.get(i));
+    }
+    assertThat(events)
+        .extracting(BlockAddedEvent::getBlock)
+        .containsExactlyElementsOf(chain.subList(1, 4));
+    assertThat(bufferedBlockchain.getChainHeadHash()).isEqualTo(chain.get(3).getHash());
+  }
+
+  @Test
+  public void shouldFlushBeforeAppendingBlockNotExtendingChainHead() {
+    appendToBuffer(1, 2);
+    final Block fork =
+        gen.block(new BlockOptions().setBlockNumber(2).setParentHash(chain.get(1).getHash()));
+
+    bufferedBlockchain.appendBlock(fork, gen.receipts(fork));
+
+    assertThat(blockchain.contains(chain.get(2).getHash())).isTrue();
+    assertThat(blockchain.contains(fork.getHash())).isTrue();
+  }
+
+  private void appendToBuffer(final int from, final int to) {
+    for (int i = from; i <= to; i++) {
+      bufferedBlockchain.appendBlock(chain.get(i), blockReceipts.get(i));
+    }
+  }
+}
@@ -30,6 +30,7 @@ import tech.pegasys.pantheon.services.kvstore.KeyValueStorage;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -158,6 +159,117 @@ public class DefaultMutableBlockchainTest {
     assertThat(blockchain.getForks()).isEmpty();
   }
 
+  @Test
+  public void appendBlocks() {
+    final BlockDataGenerator gen = new BlockDataGenerator();
+    final List<Block> chain = gen.blockSequence(5);
+    final List<List<TransactionReceipt>> blockReceipts =
+        chain.stream().map(gen::receipts).collect(Collectors.toList());
+
+    final KeyValueStorage kvStore = new InMemoryKeyValueStorage();
+    final DefaultMutableBlockchain blockchain = createBlockchain(kvStore, chain.get(0));
+    final List<BlockAddedEvent> events = new ArrayList<>();
+    blockchain.observeBlockAdded((event, chainObserved) -> events.add(event));
+    blockchain.appendBlocks(chain, blockReceipts);
+
+    for (int i = 1; i < chain.size(); i++) {
+      assertBlockDataIsStored(blockchain, chain.get(i), blockReceipts.get(i));
+    }
+
+    final Block head = chain.get(chain.size() - 1);
+    assertBlockIsHead(blockchain, head);
+    assertTotalDifficultiesAreConsistent(blockchain, head);
+    assertThat(blockchain.getForks()).isEmpty();
+
+    assertThat(events).hasSize(chain.size() - 1);
+    for (int i = 1; i < chain.size(); i++) {
+      final BlockAddedEvent event = events.get(i - 1);
+      assertThat(event.getBlock()).isEqualTo(chain.get(i));
+      assertThat(event.isNewCanonicalHead()).isTrue();
+      assertThat(event.getAddedTransactions())
+          .isEqualTo(chain.get(i).getBody().getTransactions());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void appendNonSequentialBlocks() {
+    final BlockDataGenerator gen = new BlockDataGenerator();
+    final List<Block> chain = gen.blockSequence(4);
+    final List<Block> blocks = Arrays.asList(chain.get(1), chain.get(3));
+    final List<List<TransactionReceipt>> blockReceipts =
+        blocks.stream().map(gen::receipts).collect(Collectors.toList());
+
+    final KeyValueStorage kvStore = new InMemoryKeyValueStorage();
+    final DefaultMutableBlockchain blockchain = createBlockchain(kvStore, chain.get(0));
+    blockchain.appendBlocks(blocks, blockReceipts);
+  }
+
+  @Test
+  public void importTrustedBlockAndBackfillAncestors() {
+    final BlockDataGenerator gen = new BlockDataGenerator();
+    final List<Block> chain = gen.blockSequence(6);
+    final List<List<TransactionReceipt>> blockReceipts =
+        chain.stream().map(gen::receipts).collect(Collectors.toList());
+
+    final KeyValueStorage kvStore = new InMemoryKeyValueStorage();
+    final DefaultMutableBlockchain blockchain = createBlockchain(kvStore, chain.get(0));
+    final List<BlockAddedEvent> events = new ArrayList<>();
+    blockchain.observeBlockAdded((event, chainObserved) -> events.add(event));
+
+    final Block trustedBlock = chain.get(5);
+    blockchain.importTrustedBlock(trustedBlock, blockReceipts.get(5), totalDifficulty(chain));
+    assertBlockDataIsStored(blockchain, trustedBlock, blockReceipts.get(5));
+    assertBlockIsHead(blockchain, trustedBlock);
+    assertThat(blockchain.getBlockHeader(4)).isEmpty();
+    assertThat(events).hasSize(1);
+
+    blockchain.backfillBlocks(chain.subList(3, 5), blockReceipts.subList(3, 5));
+    blockchain.backfillBlocks(chain.subList(1, 3), blockReceipts.subList(1, 3));
+
+    for (int i = 1; i < chain.size(); i++) {
+      assertBlockDataIsStored(blockchain, chain.get(i), blockReceipts.get(i));
+    }
+    assertBlockIsHead(blockchain, trustedBlock);
+    assertTotalDifficultiesAreConsistent(blockchain, trustedBlock);
+    assertThat(events).hasSize(1);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void importTrustedBlockIntoNonEmptyChain() {
+    final BlockDataGenerator gen = new BlockDataGenerator();
+    final List<Block> chain = gen.blockSequence(4);
+
+    final KeyValueStorage kvStore = new InMemoryKeyValueStorage();
+    final DefaultMutableBlockchain blockchain = createBlockchain(kvStore, chain.get(0));
+    blockchain.appendBlock(chain.get(1), gen.receipts(chain.get(1)));
+    blockchain.importTrustedBlock(chain.get(3), gen.receipts(chain.get(3)), totalDifficulty(chain));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void backfillUnconnectedBlocks() {
+    final BlockDataGenerator gen = new BlockDataGenerator();
+    final List<Block> chain = gen.blockSequence(5);
+
+    final KeyValueStorage kvStore = new InMemoryKeyValueStorage();
+    final DefaultMutableBlockchain blockchain = createBlockchain(kvStore, chain.get(0));
+    blockchain.importTrustedBlock(chain.get(4), gen.receipts(chain.get(4)), totalDifficulty(chain));
+    blockchain.backfillBlocks(
+        chain.subList(1, 3), Arrays.asList(gen.receipts(chain.get(1)), gen.receipts(chain.get(2))));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void backfillToGenesisWithWrongTotalDifficulty() {
+    final BlockDataGenerator gen = new BlockDataGenerator();
+    final List<Block> chain = gen.blockSequence(3);
+
+    final KeyValueStorage kvStore = new InMemoryKeyValueStorage();
+    final DefaultMutableBlockchain blockchain = createBlockchain(kvStore, chain.get(0));
+    blockchain.importTrustedBlock(
+        chain.get(2), gen.receipts(chain.get(2)), totalDifficulty(chain).plus(1));
+    blockchain.backfillBlocks(
+        chain.subList(1, 2), Collections.singletonList(gen.receipts(chain.get(1))));
+  }
+
   @Test
   public void appendBlockWithReorgToChainAtEqualHeight() {
     final BlockDataGenerator gen = new BlockDataGenerator(1);
@@ -708,6 +820,12 @@ public class DefaultMutableBlockchainTest {
     assertEquals(td, blockchain.getChainHead().getTotalDifficulty());
   }
 
+  private UInt256 totalDifficulty(final List<Block> chain) {
+    return chain.stream()
+        .map(block -> block.getHeader().getDifficulty())
+        .reduce(UInt256.of(0), UInt256::plus);
+  }
+
   private DefaultMutableBlockchain createBlockchain(
       final KeyValueStorage kvStore, final Block genesisBlock) {
     return new DefaultMutableBlockchain(
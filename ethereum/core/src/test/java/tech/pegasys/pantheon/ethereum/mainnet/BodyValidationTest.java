@@ -14,6 +14,7 @@ package tech.pegasys.pantheon.ethereum.mainnet;
 
 import tech.pegasys.pantheon.ethereum.core.BlockBody;
 import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.util.bytes.Bytes32;
 
 import java.io.IOException;
@@ -44,4 +45,19 @@ public final class BodyValidationTest {
       Assertions.assertThat(header.getOmmersHash()).isEqualTo(ommersHash);
     }
   }
+
+  @Test
+  public void bodyRootsMatchHeader() throws IOException {
+    for (final int block : Arrays.asList(300006, 4400002)) {
+      final BlockHeader header = ValidationTestUtils.readHeader(block);
+      final BlockBody body = ValidationTestUtils.readBody(block);
+      final Hash transactionsRoot = BodyValidation.transactionsRoot(body);
+      final Hash ommersHash = BodyValidation.ommersHash(body);
+      Assertions.assertThat(transactionsRoot).isEqualTo(header.getTransactionsRoot());
+      Assertions.assertThat(ommersHash).isEqualTo(header.getOmmersHash());
+      // Repeated requests for the same body reuse the values already calculated
+      Assertions.assertThat(BodyValidation.transactionsRoot(body)).isSameAs(transactionsRoot);
+      Assertions.assertThat(BodyValidation.ommersHash(body)).isSameAs(ommersHash);
+    }
+  }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.pantheon.ethereum.core.Address;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.core.Transaction;
+import tech.pegasys.pantheon.ethereum.core.Wei;
+import tech.pegasys.pantheon.ethereum.mainnet.TransactionProcessor.Result;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TransactionGasEstimatorTest {
+
+  private static final long BLOCK_GAS_LIMIT = 8_000_000L;
+
+  @Mock private TransactionSimulator transactionSimulator;
+  @Mock private MutableWorldState worldState;
+  @Mock private BlockHeader header;
+
+  private TransactionGasEstimator estimator;
+
+  @Before
+  public void setUp() {
+    when(header.getGasLimit()).thenReturn(BLOCK_GAS_LIMIT);
+    estimator = new TransactionGasEstimator(transactionSimulator, new NoOpMetricsSystem());
+  }
+
+  @Test
+  public void shouldReturnEmptyWhenWorldStateIsNotAvailable() {
+    when(transactionSimulator.getWorldStateSnapshot(header)).thenReturn(Optional.empty());
+
+    assertThat(estimator.estimate(callParameter(), header)).isEmpty();
+    verify(transactionSimulator, never()).process(any(), any(), any());
+  }
+
+  @Test
+  public void shouldReturnGasUsedWhenTransactionSucceedsWithIt() {
+    mockTransactionRequiring(50_000L, 50_000L);
+
+    assertThat(estimator.estimate(callParameter(), header)).contains(50_000L);
+    verify(transactionSimulator, times(2)).process(any(), eq(header), eq(worldState));
+  }
+
+  @Test
+  public void shouldSearchForLowestSuccessfulGasLimitWhenGasUsedIsNotEnough() {
+    mockTransactionRequiring(50_000L, 50_900L);
+
+    assertThat(estimator.estimate(callParameter(), header)).contains(50_900L);
+  }
+
+  @Test
+  public void shouldReturnGasUsedWhenTransactionFailsWithUpperLimit() {
+    mockTransactionRequiring(50_000L, BLOCK_GAS_LIMIT + 1);
+
+    assertThat(estimator.estimate(callParameter(), header)).contains(50_000L);
+    verify(transactionSimulator, times(1)).process(any(), eq(header), eq(worldState));
+  }
+
+  @Test
+  public void shouldUseSpecifiedGasLimitAsUpperLimit() {
+    mockTransactionRequiring(50_000L, 50_000L);
+
+    estimator.estimate(callParameter(100_000L), header);
+
+    verify(transactionSimulator).process(eq(callParameter(100_000L)), eq(header), eq(worldState));
+  }
+
+  @Test
+  public void shouldLimitNumberOfIterations() {
+    mockTransactionRequiring(21_000L, BLOCK_GAS_LIMIT - 1);
+
+    assertThat(estimator.estimate(callParameter(), header)).isPresent();
+    verify(transactionSimulator, atMost(24)).process(any(), eq(header), eq(worldState));
+  }
+
+  private void mockTransactionRequiring(final long gasUsed, final long gasRequired) {
+    when(transactionSimulator.getWorldStateSnapshot(header)).thenReturn(Optional.of(worldState));
+    when(transactionSimulator.process(any(), eq(header), eq(worldState)))
+        .thenAnswer(
+            invocation -> {
+              final CallParameter callParams = invocation.getArgument(0);
+              return result(callParams.getGasLimit(), gasUsed, gasRequired);
+            });
+  }
+
+  private TransactionSimulatorResult result(
+      final long gasLimit, final long gasUsed, final long gasRequired) {
+    final Transaction transaction = mock(Transaction.class);
+    when(transaction.getGasLimit()).thenReturn(gasLimit);
+    final Result result = mock(Result.class);
+    when(result.isSuccessful()).thenReturn(gasLimit >= gasRequired);
+    when(result.getGasRemaining()).thenReturn(Math.max(0, gasLimit - gasUsed));
+    return new TransactionSimulatorResult(transaction, result);
+  }
+
+  private CallParameter callParameter() {
+    return callParameter(-1L);
+  }
+
+  private CallParameter callParameter(final long gasLimit) {
+    return new CallParameter(
+        Address.fromHexString("0x0"),
+        Address.fromHexString("0x0"),
+        gasLimit,
+        Wei.ZERO,
+        Wei.ZERO,
+        BytesValue.EMPTY);
+  }
+}
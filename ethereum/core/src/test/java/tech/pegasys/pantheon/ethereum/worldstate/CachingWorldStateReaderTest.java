@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.worldstate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.pantheon.ethereum.core.Address;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.InMemoryStorageProvider;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.core.Wei;
+import tech.pegasys.pantheon.ethereum.core.WorldUpdater;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingWorldStateReaderTest {
+
+  private static final Address ADDRESS =
+      Address.fromHexString("0xb94f5374fce5edbc8e2a8697c15331677e6ebf0b");
+
+  private final WorldStateArchive worldStateArchive =
+      InMemoryStorageProvider.createInMemoryWorldStateArchive();
+  private final CachingWorldStateReader worldStateReader =
+      new CachingWorldStateReader(worldStateArchive, 1024 * 1024);
+
+  private Hash stateRoot;
+
+  @Before
+  public void setUp() {
+    final MutableWorldState worldState = worldStateArchive.getMutable();
+    final WorldUpdater updater = worldState.updater();
+    updater.createAccount(ADDRESS).setBalance(Wei.of(100));
+    updater.commit();
+    worldState.persist();
+    stateRoot = worldState.rootHash();
+  }
+
+  @Test
+  public void shouldReturnEmptyWhenWorldStateIsNotAvailable() {
+    assertThat(worldStateReader.getWorldState(Hash.fromHexStringLenient("0x1"))).isEmpty();
+  }
+
+  @Test
+  public void shouldOpenAvailableWorldState() {
+    final MutableWorldState worldState = worldStateReader.getWorldState(stateRoot).get();
+
+    assertThat(worldState.rootHash()).isEqualTo(stateRoot);
+    assertThat(worldState.get(ADDRESS).getBalance()).isEqualTo(Wei.of(100));
+  }
+
+  @Test
+  public void shouldOpenNewViewForEachCall() {
+    assertThat(worldStateReader.getWorldState(stateRoot).get())
+        .isNotSameAs(worldStateReader.getWorldState(stateRoot).get());
+  }
+
+  @Test
+  public void shouldLoadStateSharedBetweenViewsFromStorageOnce() {
+    final WorldStateStorage storage = spy(worldStateArchive.getStorage());
+    final WorldStateArchive archive = mock(WorldStateArchive.class);
+    when(archive.getStorage()).thenReturn(storage);
+    final CachingWorldStateReader spiedStorageReader =
+        new CachingWorldStateReader(archive, 1024 * 1024);
+
+    assertThat(spiedStorageReader.getWorldState(stateRoot).get().get(ADDRESS).getBalance())
+        .isEqualTo(Wei.of(100));
+    assertThat(spiedStorageReader.getWorldState(stateRoot).get().get(ADDRESS).getBalance())
+        .isEqualTo(Wei.of(100));
+
+    verify(storage, times(1)).getAccountStateTrieNode(stateRoot);
+  }
+
+  @Test
+  public void shouldNotExposeChangesMadeThroughUpdaters() {
+    final MutableWorldState worldState = worldStateReader.getWorldState(stateRoot).get();
+
+    final WorldUpdater updater = worldState.updater();
+    updater.getMutable(ADDRESS).setBalance(Wei.of(5));
+
+    assertThat(updater.get(ADDRESS).getBalance()).isEqualTo(Wei.of(5));
+    assertThat(worldState.updater().get(ADDRESS).getBalance()).isEqualTo(Wei.of(100));
+    assertThat(worldStateReader.getWorldState(stateRoot).get().get(ADDRESS).getBalance())
+        .isEqualTo(Wei.of(100));
+  }
+}
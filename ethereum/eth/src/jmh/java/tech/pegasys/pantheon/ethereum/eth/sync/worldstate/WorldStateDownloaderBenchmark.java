@@ -33,8 +33,7 @@ import tech.pegasys.pantheon.metrics.MetricsSystem;
 import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
 import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
 import tech.pegasys.pantheon.services.kvstore.RocksDbConfiguration;
-import tech.pegasys.pantheon.services.tasks.CachingTaskCollection;
-import tech.pegasys.pantheon.services.tasks.RocksDbTaskQueue;
+import tech.pegasys.pantheon.services.tasks.RocksDbPriorityTaskQueue;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.nio.file.Path;
@@ -65,7 +64,7 @@ public class WorldStateDownloaderBenchmark {
   private WorldStateStorage worldStateStorage;
   private RespondingEthPeer peer;
   private Responder responder;
-  private CachingTaskCollection<NodeDataRequest> pendingRequests;
+  private RocksDbPriorityTaskQueue<NodeDataRequest> pendingRequests;
   private StorageProvider storageProvider;
   private EthProtocolManager ethProtocolManager;
   private InMemoryKeyValueStorage remoteKeyValueStorage;
@@ -95,19 +94,21 @@ public class WorldStateDownloaderBenchmark {
             metricsSystem);
     worldStateStorage = storageProvider.createWorldStateStorage();
 
+    // Set up the same as a fast sync download
     pendingRequests =
-        new CachingTaskCollection<>(
-            RocksDbTaskQueue.create(
-                tempDir.resolve("fastsync"),
-                NodeDataRequest::serialize,
-                NodeDataRequest::deserialize,
-                metricsSystem),
-            0);
+        RocksDbPriorityTaskQueue.create(
+            tempDir.resolve("fastsync"),
+            NodeDataRequest::serialize,
+            NodeDataRequest::deserialize,
+            NodeDataRequest::getDepth,
+            1_000_000,
+            metricsSystem);
     worldStateDownloader =
         new WorldStateDownloader(
             ethContext,
             worldStateStorage,
             pendingRequests,
+            true,
             syncConfig.getWorldStateHashCountPerRequest(),
             syncConfig.getWorldStateRequestParallelism(),
             syncConfig.getWorldStateMaxRequestsWithoutProgress(),
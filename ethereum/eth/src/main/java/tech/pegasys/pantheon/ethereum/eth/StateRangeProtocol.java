@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth;
+
+import tech.pegasys.pantheon.ethereum.eth.messages.StateRangePV1;
+import tech.pegasys.pantheon.ethereum.p2p.wire.Capability;
+import tech.pegasys.pantheon.ethereum.p2p.wire.SubProtocol;
+
+/**
+ * Serves contiguous ranges of the accounts in a world state, or of the slots in an account's
+ * storage, in order of their key hashes. Each range comes with the trie nodes proving its first and
+ * last entries, so a node can download the world state as flat ranges instead of node by node.
+ */
+public class StateRangeProtocol implements SubProtocol {
+  public static final String NAME = "psr";
+  public static final int V1 = 1;
+  public static final Capability PSR1 = Capability.create(NAME, V1);
+  private static final StateRangeProtocol INSTANCE = new StateRangeProtocol();
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public int messageSpace(final int protocolVersion) {
+    return protocolVersion == V1 ? 4 : 0;
+  }
+
+  @Override
+  public boolean isValidMessageCode(final int protocolVersion, final int code) {
+    return protocolVersion == V1 && code >= 0 && code < messageSpace(protocolVersion);
+  }
+
+  @Override
+  public String messageName(final int protocolVersion, final int code) {
+    switch (code) {
+      case StateRangePV1.GET_ACCOUNT_RANGE:
+        return "GetAccountRange";
+      case StateRangePV1.ACCOUNT_RANGE:
+        return "AccountRange";
+      case StateRangePV1.GET_STORAGE_RANGE:
+        return "GetStorageRange";
+      case StateRangePV1.STORAGE_RANGE:
+        return "StorageRange";
+      default:
+        return INVALID_MESSAGE_NAME;
+    }
+  }
+
+  public static StateRangeProtocol get() {
+    return INSTANCE;
+  }
+}
@@ -15,6 +15,7 @@ package tech.pegasys.pantheon.ethereum.eth.manager;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.eth.StateRangeProtocol;
 import tech.pegasys.pantheon.ethereum.eth.manager.ChainState.EstimatedHeightListener;
 import tech.pegasys.pantheon.ethereum.eth.manager.RequestManager.ResponseStream;
 import tech.pegasys.pantheon.ethereum.eth.messages.EthPV62;
@@ -23,24 +24,33 @@ import tech.pegasys.pantheon.ethereum.eth.messages.GetBlockBodiesMessage;
 import tech.pegasys.pantheon.ethereum.eth.messages.GetBlockHeadersMessage;
 import tech.pegasys.pantheon.ethereum.eth.messages.GetNodeDataMessage;
 import tech.pegasys.pantheon.ethereum.eth.messages.GetReceiptsMessage;
+import tech.pegasys.pantheon.ethereum.eth.messages.GetStateRangeMessage;
+import tech.pegasys.pantheon.ethereum.eth.messages.StateRangePV1;
 import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
 import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection;
 import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection.PeerNotConnected;
 import tech.pegasys.pantheon.ethereum.p2p.wire.messages.DisconnectMessage.DisconnectReason;
+import tech.pegasys.pantheon.metrics.Counter;
+import tech.pegasys.pantheon.metrics.LabelledMetric;
+import tech.pegasys.pantheon.metrics.OperationTimer;
 import tech.pegasys.pantheon.util.Subscribers;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
+import java.time.Clock;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
+import com.google.common.collect.Iterables;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -56,10 +66,11 @@ public class EthPeer {
   private final AtomicBoolean statusHasBeenSentToPeer = new AtomicBoolean(false);
   private final AtomicBoolean statusHasBeenReceivedFromPeer = new AtomicBoolean(false);
 
-  private final RequestManager headersRequestManager = new RequestManager(this);
-  private final RequestManager bodiesRequestManager = new RequestManager(this);
-  private final RequestManager receiptsRequestManager = new RequestManager(this);
-  private final RequestManager nodeDataRequestManager = new RequestManager(this);
+  private final RequestManager headersRequestManager;
+  private final RequestManager bodiesRequestManager;
+  private final RequestManager receiptsRequestManager;
+  private final RequestManager nodeDataRequestManager;
+  private final RequestManager stateRangeRequestManager;
 
   private final AtomicReference<Consumer<EthPeer>> onStatusesExchanged = new AtomicReference<>();
   private final PeerReputation reputation = new PeerReputation();
@@ -68,9 +79,22 @@ public class EthPeer {
   EthPeer(
       final PeerConnection connection,
       final String protocolName,
-      final Consumer<EthPeer> onStatusesExchanged) {
+      final Consumer<EthPeer> onStatusesExchanged,
+      final Clock clock,
+      final LabelledMetric<OperationTimer> requestLatencyTimer,
+      final LabelledMetric<Counter> responseBytesCounter) {
     this.connection = connection;
     this.protocolName = protocolName;
+    headersRequestManager =
+        createRequestManager("GetBlockHeaders", clock, requestLatencyTimer, responseBytesCounter);
+    bodiesRequestManager =
+        createRequestManager("GetBlockBodies", clock, requestLatencyTimer, responseBytesCounter);
+    receiptsRequestManager =
+        createRequestManager("GetReceipts", clock, requestLatencyTimer, responseBytesCounter);
+    nodeDataRequestManager =
+        createRequestManager("GetNodeData", clock, requestLatencyTimer, responseBytesCounter);
+    stateRangeRequestManager =
+        createRequestManager("GetStateRange", clock, requestLatencyTimer, responseBytesCounter);
     knownBlocks =
         Collections.newSetFromMap(
             Collections.synchronizedMap(
@@ -84,10 +108,27 @@ public class EthPeer {
     this.onStatusesExchanged.set(onStatusesExchanged);
   }
 
+  private RequestManager createRequestManager(
+      final String requestType,
+      final Clock clock,
+      final LabelledMetric<OperationTimer> requestLatencyTimer,
+      final LabelledMetric<Counter> responseBytesCounter) {
+    return new RequestManager(
+        this,
+        new PeerThroughput(
+            clock,
+            requestLatencyTimer.labels(requestType),
+            responseBytesCounter.labels(requestType)));
+  }
+
   public boolean isDisconnected() {
     return connection.isDisconnected();
   }
 
+  public boolean isWritable() {
+    return connection.isWritable();
+  }
+
   public long addChainEstimatedHeightListener(final EstimatedHeightListener listener) {
     return chainHeadState.addEstimatedHeightListener(listener);
   }
@@ -98,6 +139,7 @@ public class EthPeer {
 
   public void recordRequestTimeout(final int requestCode) {
     LOG.debug("Timed out while waiting for response from peer {}", this);
+    requestManager(requestCode).ifPresent(manager -> manager.throughput().recordTimeout());
     reputation.recordRequestTimeout(requestCode).ifPresent(this::disconnect);
   }
 
@@ -121,13 +163,13 @@ public class EthPeer {
   public ResponseStream send(final MessageData messageData) throws PeerNotConnected {
     switch (messageData.getCode()) {
       case EthPV62.GET_BLOCK_HEADERS:
-        return sendHeadersRequest(messageData);
+        return sendHeadersRequest(0, messageData);
       case EthPV62.GET_BLOCK_BODIES:
-        return sendBodiesRequest(messageData);
+        return sendBodiesRequest(0, messageData);
       case EthPV63.GET_RECEIPTS:
-        return sendReceiptsRequest(messageData);
+        return sendReceiptsRequest(0, messageData);
       case EthPV63.GET_NODE_DATA:
-        return sendNodeDataRequest(messageData);
+        return sendNodeDataRequest(0, messageData);
       default:
         connection.sendForProtocol(protocolName, messageData);
         return null;
@@ -139,7 +181,7 @@ public class EthPeer {
       throws PeerNotConnected {
     final GetBlockHeadersMessage message =
         GetBlockHeadersMessage.create(hash, maxHeaders, skip, reverse);
-    return sendHeadersRequest(message);
+    return sendHeadersRequest(maxHeaders, message);
   }
 
   public ResponseStream getHeadersByNumber(
@@ -147,44 +189,75 @@ public class EthPeer {
       throws PeerNotConnected {
     final GetBlockHeadersMessage message =
         GetBlockHeadersMessage.create(blockNumber, maxHeaders, skip, reverse);
-    return sendHeadersRequest(message);
+    return sendHeadersRequest(maxHeaders, message);
   }
 
-  private ResponseStream sendHeadersRequest(final MessageData messageData) throws PeerNotConnected {
+  private ResponseStream sendHeadersRequest(final int items, final MessageData messageData)
+      throws PeerNotConnected {
     return headersRequestManager.dispatchRequest(
-        () -> connection.sendForProtocol(protocolName, messageData));
+        items, () -> connection.sendForProtocol(protocolName, messageData));
   }
 
   public ResponseStream getBodies(final List<Hash> blockHashes) throws PeerNotConnected {
     final GetBlockBodiesMessage message = GetBlockBodiesMessage.create(blockHashes);
-    return sendBodiesRequest(message);
+    return sendBodiesRequest(blockHashes.size(), message);
   }
 
-  private ResponseStream sendBodiesRequest(final MessageData messageData) throws PeerNotConnected {
+  private ResponseStream sendBodiesRequest(final int items, final MessageData messageData)
+      throws PeerNotConnected {
     return bodiesRequestManager.dispatchRequest(
-        () -> connection.sendForProtocol(protocolName, messageData));
+        items, () -> connection.sendForProtocol(protocolName, messageData));
   }
 
   public ResponseStream getReceipts(final List<Hash> blockHashes) throws PeerNotConnected {
     final GetReceiptsMessage message = GetReceiptsMessage.create(blockHashes);
-    return sendReceiptsRequest(message);
+    return sendReceiptsRequest(blockHashes.size(), message);
   }
 
-  private ResponseStream sendReceiptsRequest(final MessageData messageData)
+  private ResponseStream sendReceiptsRequest(final int items, final MessageData messageData)
       throws PeerNotConnected {
     return receiptsRequestManager.dispatchRequest(
-        () -> connection.sendForProtocol(protocolName, messageData));
+        items, () -> connection.sendForProtocol(protocolName, messageData));
   }
 
   public ResponseStream getNodeData(final Iterable<Hash> nodeHashes) throws PeerNotConnected {
     final GetNodeDataMessage message = GetNodeDataMessage.create(nodeHashes);
-    return sendNodeDataRequest(message);
+    return sendNodeDataRequest(Iterables.size(nodeHashes), message);
   }
 
-  private ResponseStream sendNodeDataRequest(final MessageData messageData)
+  private ResponseStream sendNodeDataRequest(final int items, final MessageData messageData)
       throws PeerNotConnected {
     return nodeDataRequestManager.dispatchRequest(
-        () -> connection.sendForProtocol(protocolName, messageData));
+        items, () -> connection.sendForProtocol(protocolName, messageData));
+  }
+
+  /** @return true if the peer serves account and storage ranges with the state range protocol */
+  public boolean supportsStateRanges() {
+    return connection.getAgreedCapabilities().contains(StateRangeProtocol.PSR1);
+  }
+
+  public ResponseStream getAccountRange(
+      final Hash stateRoot, final Bytes32 startKeyHash, final int maxEntries)
+      throws PeerNotConnected {
+    return sendStateRangeRequest(
+        maxEntries, GetStateRangeMessage.createForAccounts(stateRoot, startKeyHash, maxEntries));
+  }
+
+  public ResponseStream getStorageRange(
+      final Hash storageRoot, final Bytes32 startKeyHash, final int maxEntries)
+      throws PeerNotConnected {
+    return sendStateRangeRequest(
+        maxEntries, GetStateRangeMessage.createForStorage(storageRoot, startKeyHash, maxEntries));
+  }
+
+  private ResponseStream sendStateRangeRequest(final int items, final MessageData messageData)
+      throws PeerNotConnected {
+    return stateRangeRequestManager.dispatchRequest(
+        items, () -> connection.sendForProtocol(StateRangeProtocol.NAME, messageData));
+  }
+
+  void sendStateRangeResponse(final MessageData messageData) throws PeerNotConnected {
+    connection.sendForProtocol(StateRangeProtocol.NAME, messageData);
   }
 
   boolean validateReceivedMessage(final EthMessage message) {
@@ -249,6 +322,54 @@ public class EthPeer {
     }
   }
 
+  /**
+   * Routes responses to state range requests originating from this peer to listeners.
+   *
+   * @param message the state range response to dispatch
+   * @return false if the response wasn't requested
+   */
+  boolean dispatchStateRange(final EthMessage message) {
+    checkArgument(message.getPeer().equals(this), "Mismatched message sent to peer for dispatch");
+    if (stateRangeRequestManager.outstandingRequests() == 0) {
+      LOG.warn("Unsolicited state range received.");
+      return false;
+    }
+    reputation.resetTimeoutCount(
+        message.getData().getCode() == StateRangePV1.ACCOUNT_RANGE
+            ? StateRangePV1.GET_ACCOUNT_RANGE
+            : StateRangePV1.GET_STORAGE_RANGE);
+    stateRangeRequestManager.dispatchResponse(message);
+    return true;
+  }
+
+  /**
+   * Returns the measured throughput of responses to a type of request.
+   *
+   * @param requestCode the message code of the request
+   * @return the throughput of responses to the request, or empty if responses aren't tracked
+   */
+  public Optional<PeerThroughput> throughput(final int requestCode) {
+    return requestManager(requestCode).map(RequestManager::throughput);
+  }
+
+  private Optional<RequestManager> requestManager(final int requestCode) {
+    switch (requestCode) {
+      case EthPV62.GET_BLOCK_HEADERS:
+        return Optional.of(headersRequestManager);
+      case EthPV62.GET_BLOCK_BODIES:
+        return Optional.of(bodiesRequestManager);
+      case EthPV63.GET_RECEIPTS:
+        return Optional.of(receiptsRequestManager);
+      case EthPV63.GET_NODE_DATA:
+        return Optional.of(nodeDataRequestManager);
+      case StateRangePV1.GET_ACCOUNT_RANGE:
+      case StateRangePV1.GET_STORAGE_RANGE:
+        return Optional.of(stateRangeRequestManager);
+      default:
+        return Optional.empty();
+    }
+  }
+
   public Map<Integer, AtomicInteger> timeoutCounts() {
     return reputation.timeoutCounts();
   }
@@ -258,6 +379,7 @@ public class EthPeer {
     bodiesRequestManager.close();
     receiptsRequestManager.close();
     nodeDataRequestManager.close();
+    stateRangeRequestManager.close();
     disconnectCallbacks.forEach(callback -> callback.onDisconnect(this));
   }
 
@@ -325,7 +447,8 @@ public class EthPeer {
     return headersRequestManager.outstandingRequests()
         + bodiesRequestManager.outstandingRequests()
         + receiptsRequestManager.outstandingRequests()
-        + nodeDataRequestManager.outstandingRequests();
+        + nodeDataRequestManager.outstandingRequests()
+        + stateRangeRequestManager.outstandingRequests();
   }
 
   public BytesValue nodeId() {
@@ -14,14 +14,22 @@ package tech.pegasys.pantheon.ethereum.eth.manager;
 
 import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer.DisconnectCallback;
 import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection;
+import tech.pegasys.pantheon.metrics.Counter;
+import tech.pegasys.pantheon.metrics.LabelledMetric;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.OperationTimer;
 import tech.pegasys.pantheon.util.Subscribers;
 
+import java.time.Clock;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -38,18 +46,49 @@ public class EthPeers {
   public static final Comparator<EthPeer> LEAST_TO_MOST_BUSY =
       Comparator.comparing(EthPeer::outstandingRequests);
 
+  // Slow peers are never asked for less than this fraction of a full batch.
+  static final int MIN_BATCH_SIZE_DIVISOR = 8;
+
   private final int maxOutstandingRequests = 5;
   private final Map<PeerConnection, EthPeer> connections = new ConcurrentHashMap<>();
   private final String protocolName;
+  private final Clock clock;
   private final Subscribers<ConnectCallback> connectCallbacks = new Subscribers<>();
   private final Subscribers<DisconnectCallback> disconnectCallbacks = new Subscribers<>();
 
-  public EthPeers(final String protocolName) {
+  private final LabelledMetric<OperationTimer> requestLatencyTimer;
+  private final LabelledMetric<Counter> responseBytesCounter;
+
+  public EthPeers(final String protocolName, final MetricsSystem metricsSystem) {
+    this(protocolName, Clock.systemUTC(), metricsSystem);
+  }
+
+  EthPeers(final String protocolName, final Clock clock, final MetricsSystem metricsSystem) {
     this.protocolName = protocolName;
+    this.clock = clock;
+    requestLatencyTimer =
+        metricsSystem.createLabelledTimer(
+            MetricCategory.NETWORK,
+            "eth_peer_request_latency_seconds",
+            "Time taken for peers to respond to requests",
+            "request");
+    responseBytesCounter =
+        metricsSystem.createLabelledCounter(
+            MetricCategory.NETWORK,
+            "eth_peer_response_bytes",
+            "Total size of responses received from peers",
+            "request");
   }
 
   void registerConnection(final PeerConnection peerConnection) {
-    final EthPeer peer = new EthPeer(peerConnection, protocolName, this::invokeConnectionCallbacks);
+    final EthPeer peer =
+        new EthPeer(
+            peerConnection,
+            protocolName,
+            this::invokeConnectionCallbacks,
+            clock,
+            requestLatencyTimer,
+            responseBytesCounter);
     connections.putIfAbsent(peerConnection, peer);
   }
 
@@ -110,6 +149,105 @@ public class EthPeers {
     return idlePeers().filter(p -> p.chainState().getEstimatedHeight() >= withBlocksUpTo).findAny();
   }
 
+  /**
+   * Selects an idle peer to send a request to, favouring peers which have responded to that type of
+   * request quickly.
+   *
+   * <p>Peers are chosen at random, weighted by the rate they have sent responses at divided by the
+   * number of requests they have outstanding. Peers which haven't responded to the request type yet
+   * are weighted by the average rate of those which have, so they get a chance to be measured.
+   *
+   * @param withBlocksUpTo the minimum estimated chain height of the peer
+   * @param requestCode the message code of the request to be sent
+   * @return the selected peer, or empty if no idle peers are available
+   */
+  public Optional<EthPeer> idlePeer(final long withBlocksUpTo, final int requestCode) {
+    return idlePeer(p -> p.chainState().getEstimatedHeight() >= withBlocksUpTo, requestCode);
+  }
+
+  /**
+   * Selects an idle peer which serves account and storage ranges to send a state range request to,
+   * favouring peers which have responded to that type of request quickly.
+   *
+   * @param requestCode the message code of the request to be sent
+   * @param filter the condition the selected peer must meet
+   * @return the selected peer, or empty if no matching idle peers serving state ranges are
+   *     available
+   */
+  public Optional<EthPeer> idleStateRangePeer(
+      final int requestCode, final Predicate<EthPeer> filter) {
+    return idlePeer(filter.and(EthPeer::supportsStateRanges), requestCode);
+  }
+
+  private Optional<EthPeer> idlePeer(final Predicate<EthPeer> filter, final int requestCode) {
+    final List<EthPeer> peers = idlePeers().filter(filter).collect(Collectors.toList());
+    if (peers.size() <= 1) {
+      return peers.stream().findAny();
+    }
+    final double defaultRate =
+        peers.stream()
+            .map(p -> p.throughput(requestCode))
+            .filter(t -> t.isPresent() && t.get().hasMeasurements())
+            .mapToDouble(t -> t.get().getBytesPerSecond())
+            .average()
+            .orElse(1);
+    final double[] weights = new double[peers.size()];
+    double totalWeight = 0;
+    for (int i = 0; i < peers.size(); i++) {
+      final EthPeer peer = peers.get(i);
+      final double rate =
+          peer.throughput(requestCode)
+              .filter(PeerThroughput::hasMeasurements)
+              .map(PeerThroughput::getBytesPerSecond)
+              .orElse(defaultRate);
+      // Keep a small chance of picking peers which have slowed down so they can recover.
+      weights[i] = Math.max(rate, defaultRate / 100) / (1 + peer.outstandingRequests());
+      totalWeight += weights[i];
+    }
+    if (totalWeight <= 0) {
+      return Optional.of(peers.get(0));
+    }
+    double target = ThreadLocalRandom.current().nextDouble(totalWeight);
+    for (int i = 0; i < peers.size(); i++) {
+      target -= weights[i];
+      if (target < 0) {
+        return Optional.of(peers.get(i));
+      }
+    }
+    return Optional.of(peers.get(peers.size() - 1));
+  }
+
+  /**
+   * Scales the number of items to request from a peer by how quickly it responds compared to the
+   * fastest available peer, so slow peers aren't left holding large requests that faster peers
+   * could have served. Rates are compared as estimated for requests of the full batch size, so a
+   * peer which has only been sent smaller requests isn't held back by their round trip time.
+   *
+   * @param peer the peer the request will be sent to
+   * @param requestCode the message code of the request
+   * @param maxBatchSize the number of items that would be requested from the fastest peer
+   * @return the number of items to request from the peer
+   */
+  public int batchSize(final EthPeer peer, final int requestCode, final int maxBatchSize) {
+    final Optional<Double> peerRate =
+        peer.throughput(requestCode)
+            .filter(PeerThroughput::hasMeasurements)
+            .map(t -> t.getBytesPerSecond(maxBatchSize));
+    final double fastestRate =
+        availablePeers()
+            .map(p -> p.throughput(requestCode))
+            .filter(t -> t.isPresent() && t.get().hasMeasurements())
+            .mapToDouble(t -> t.get().getBytesPerSecond(maxBatchSize))
+            .max()
+            .orElse(0);
+    if (!peerRate.isPresent() || fastestRate <= 0) {
+      return maxBatchSize;
+    }
+    final int minBatchSize = Math.max(1, maxBatchSize / MIN_BATCH_SIZE_DIVISOR);
+    final int batchSize = (int) Math.ceil(maxBatchSize * peerRate.get() / fastestRate);
+    return Math.max(minBatchSize, Math.min(maxBatchSize, batchSize));
+  }
+
   @FunctionalInterface
   public interface ConnectCallback {
     void onPeerConnected(EthPeer newPeer);
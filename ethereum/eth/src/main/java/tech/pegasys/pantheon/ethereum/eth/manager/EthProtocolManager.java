@@ -35,6 +35,7 @@ import tech.pegasys.pantheon.ethereum.worldstate.WorldStateArchive;
 import tech.pegasys.pantheon.metrics.MetricsSystem;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
+import java.time.Clock;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -64,6 +65,7 @@ public class EthProtocolManager implements ProtocolManager, MinedBlockObserver {
   private List<Capability> supportedCapabilities;
   private final Blockchain blockchain;
   private final BlockBroadcaster blockBroadcaster;
+  private final StateRangeProtocolManager stateRangeProtocolManager;
 
   public EthProtocolManager(
       final Blockchain blockchain,
@@ -71,6 +73,7 @@ public class EthProtocolManager implements ProtocolManager, MinedBlockObserver {
       final int networkId,
       final boolean fastSyncEnabled,
       final EthScheduler scheduler,
+      final MetricsSystem metricsSystem,
       final EthereumWireProtocolConfiguration ethereumWireProtocolConfiguration) {
     this.networkId = networkId;
     this.scheduler = scheduler;
@@ -80,14 +83,25 @@ public class EthProtocolManager implements ProtocolManager, MinedBlockObserver {
     this.shutdown = new CountDownLatch(1);
     genesisHash = blockchain.getBlockHashByNumber(0L).get();
 
-    ethPeers = new EthPeers(getSupportedProtocol());
+    ethPeers = new EthPeers(getSupportedProtocol(), metricsSystem);
     ethMessages = new EthMessages();
     ethContext = new EthContext(getSupportedProtocol(), ethPeers, ethMessages, scheduler);
 
     this.blockBroadcaster = new BlockBroadcaster(ethContext);
 
-    // Set up request handlers
-    new EthServer(blockchain, worldStateArchive, ethMessages, ethereumWireProtocolConfiguration);
+    // Set up request handlers, sharing one scheduler so each peer's requests are limited across
+    // both protocols
+    final InboundRequestScheduler requestScheduler =
+        new InboundRequestScheduler(scheduler, metricsSystem, Clock.systemUTC());
+    new EthServer(
+        blockchain,
+        worldStateArchive,
+        ethMessages,
+        requestScheduler,
+        metricsSystem,
+        ethereumWireProtocolConfiguration);
+    stateRangeProtocolManager =
+        new StateRangeProtocolManager(ethPeers, worldStateArchive, requestScheduler, metricsSystem);
   }
 
   public EthProtocolManager(
@@ -105,6 +119,7 @@ public class EthProtocolManager implements ProtocolManager, MinedBlockObserver {
         networkId,
         fastSyncEnabled,
         new EthScheduler(syncWorkers, txWorkers, computationWorkers, metricsSystem),
+        metricsSystem,
         EthereumWireProtocolConfiguration.defaultConfig());
   }
 
@@ -124,6 +139,7 @@ public class EthProtocolManager implements ProtocolManager, MinedBlockObserver {
         networkId,
         fastSyncEnabled,
         new EthScheduler(syncWorkers, txWorkers, computationWorkers, metricsSystem),
+        metricsSystem,
         ethereumWireProtocolConfiguration);
   }
 
@@ -131,6 +147,17 @@ public class EthProtocolManager implements ProtocolManager, MinedBlockObserver {
     return ethContext;
   }
 
+  /**
+   * Returns the manager for the state range protocol, which shares this manager's peers. It must be
+   * registered alongside this manager for peers to be able to request state ranges from us, or us
+   * from them.
+   *
+   * @return the state range protocol manager
+   */
+  public StateRangeProtocolManager stateRangeProtocolManager() {
+    return stateRangeProtocolManager;
+  }
+
   @Override
   public String getSupportedProtocol() {
     return EthProtocol.NAME;
@@ -44,6 +44,9 @@ import org.apache.logging.log4j.Logger;
 public class EthScheduler {
   private static final Logger LOG = LogManager.getLogger();
 
+  // Responding to requests from peers mostly waits on reads from storage
+  private static final int REQUEST_WORKER_COUNT = 4;
+
   private final Duration defaultTimeout = Duration.ofSeconds(5);
 
   private final AtomicBoolean stopped = new AtomicBoolean(false);
@@ -54,6 +57,7 @@ public class EthScheduler {
   protected final ExecutorService txWorkerExecutor;
   protected final ExecutorService servicesExecutor;
   protected final ExecutorService computationExecutor;
+  protected final ExecutorService requestWorkerExecutor;
 
   private final Collection<CompletableFuture<?>> serviceFutures = new ConcurrentLinkedDeque<>();
 
@@ -72,6 +76,10 @@ public class EthScheduler {
         newFixedThreadPool(
             EthScheduler.class.getSimpleName() + "-Computation",
             computationWorkerCount,
+            metricsSystem),
+        newFixedThreadPool(
+            EthScheduler.class.getSimpleName() + "-Requests",
+            REQUEST_WORKER_COUNT,
             metricsSystem));
   }
 
@@ -80,12 +88,14 @@ public class EthScheduler {
       final ScheduledExecutorService scheduler,
       final ExecutorService txWorkerExecutor,
       final ExecutorService servicesExecutor,
-      final ExecutorService computationExecutor) {
+      final ExecutorService computationExecutor,
+      final ExecutorService requestWorkerExecutor) {
     this.syncWorkerExecutor = syncWorkerExecutor;
     this.scheduler = scheduler;
     this.txWorkerExecutor = txWorkerExecutor;
     this.servicesExecutor = servicesExecutor;
     this.computationExecutor = computationExecutor;
+    this.requestWorkerExecutor = requestWorkerExecutor;
   }
 
   public <T> CompletableFuture<T> scheduleSyncWorkerTask(
@@ -111,6 +121,10 @@ public class EthScheduler {
     txWorkerExecutor.submit(command);
   }
 
+  public void scheduleRequestWorkerTask(final Runnable command) {
+    requestWorkerExecutor.submit(command);
+  }
+
   public <T> CompletableFuture<T> scheduleServiceTask(final EthTask<T> task) {
     final CompletableFuture<T> serviceFuture = task.runAsync(servicesExecutor);
     serviceFutures.add(serviceFuture);
@@ -205,6 +219,7 @@ public class EthScheduler {
       scheduler.shutdownNow();
       servicesExecutor.shutdownNow();
       computationExecutor.shutdownNow();
+      requestWorkerExecutor.shutdownNow();
       shutdown.countDown();
     } else {
       LOG.trace("Attempted to stop already stopped " + getClass().getSimpleName());
@@ -233,6 +248,11 @@ public class EthScheduler {
       LOG.error(
           "{} computation executor did not shutdown cleanly.", this.getClass().getSimpleName());
     }
+    if (!requestWorkerExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+      LOG.error(
+          "{} request worker executor did not shutdown cleanly.",
+          this.getClass().getSimpleName());
+    }
     LOG.trace("{} stopped.", this.getClass().getSimpleName());
   }
 
@@ -13,10 +13,8 @@
 package tech.pegasys.pantheon.ethereum.eth.manager;
 
 import tech.pegasys.pantheon.ethereum.chain.Blockchain;
-import tech.pegasys.pantheon.ethereum.core.BlockBody;
 import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.core.Hash;
-import tech.pegasys.pantheon.ethereum.core.TransactionReceipt;
 import tech.pegasys.pantheon.ethereum.eth.EthereumWireProtocolConfiguration;
 import tech.pegasys.pantheon.ethereum.eth.messages.BlockBodiesMessage;
 import tech.pegasys.pantheon.ethereum.eth.messages.BlockHeadersMessage;
@@ -31,113 +29,134 @@ import tech.pegasys.pantheon.ethereum.eth.messages.ReceiptsMessage;
 import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
 import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection.PeerNotConnected;
 import tech.pegasys.pantheon.ethereum.p2p.wire.messages.DisconnectMessage.DisconnectReason;
+import tech.pegasys.pantheon.ethereum.rlp.RLP;
 import tech.pegasys.pantheon.ethereum.rlp.RLPException;
 import tech.pegasys.pantheon.ethereum.worldstate.WorldStateArchive;
+import tech.pegasys.pantheon.metrics.Counter;
+import tech.pegasys.pantheon.metrics.LabelledMetric;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
-import com.google.common.collect.Lists;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 class EthServer {
   private static final Logger LOG = LogManager.getLogger();
 
+  // Responses are served straight from the RLP in storage. Once a response reaches this size no
+  // more items are added to it, leaving the peer to request the remainder separately.
+  static final int MAX_RESPONSE_SIZE = 2 * 1024 * 1024;
+
   private final Blockchain blockchain;
   private final WorldStateArchive worldStateArchive;
   private final EthMessages ethMessages;
   private final EthereumWireProtocolConfiguration ethereumWireProtocolConfiguration;
+  private final InboundRequestScheduler requestScheduler;
+  private final LabelledMetric<Counter> servedRequestsCounter;
+  private final LabelledMetric<Counter> responseBytesCounter;
 
   EthServer(
       final Blockchain blockchain,
       final WorldStateArchive worldStateArchive,
       final EthMessages ethMessages,
+      final InboundRequestScheduler requestScheduler,
+      final MetricsSystem metricsSystem,
       final EthereumWireProtocolConfiguration ethereumWireProtocolConfiguration) {
     this.blockchain = blockchain;
     this.worldStateArchive = worldStateArchive;
     this.ethMessages = ethMessages;
     this.ethereumWireProtocolConfiguration = ethereumWireProtocolConfiguration;
+    this.requestScheduler = requestScheduler;
+    servedRequestsCounter =
+        metricsSystem.createLabelledCounter(
+            MetricCategory.NETWORK,
+            "eth_server_requests_served",
+            "Number of requests from peers which have been responded to",
+            "request");
+    responseBytesCounter =
+        metricsSystem.createLabelledCounter(
+            MetricCategory.NETWORK,
+            "eth_server_response_bytes",
+            "Total size of responses sent to peers",
+            "request");
     this.setupListeners();
   }
 
   EthServer(
       final Blockchain blockchain,
       final WorldStateArchive worldStateArchive,
-      final EthMessages ethMessages) {
+      final EthMessages ethMessages,
+      final InboundRequestScheduler requestScheduler,
+      final MetricsSystem metricsSystem) {
     this(
         blockchain,
         worldStateArchive,
         ethMessages,
+        requestScheduler,
+        metricsSystem,
         EthereumWireProtocolConfiguration.defaultConfig());
   }
 
   private void setupListeners() {
-    ethMessages.subscribe(EthPV62.GET_BLOCK_HEADERS, this::handleGetBlockHeaders);
-    ethMessages.subscribe(EthPV62.GET_BLOCK_BODIES, this::handleGetBlockBodies);
-    ethMessages.subscribe(EthPV63.GET_RECEIPTS, this::handleGetReceipts);
-    ethMessages.subscribe(EthPV63.GET_NODE_DATA, this::handleGetNodeData);
+    ethMessages.subscribe(
+        EthPV62.GET_BLOCK_HEADERS,
+        message -> scheduleResponse(message, "GetBlockHeaders", this::getBlockHeadersResponse));
+    ethMessages.subscribe(
+        EthPV62.GET_BLOCK_BODIES,
+        message -> scheduleResponse(message, "GetBlockBodies", this::getBlockBodiesResponse));
+    ethMessages.subscribe(
+        EthPV63.GET_RECEIPTS,
+        message -> scheduleResponse(message, "GetReceipts", this::getReceiptsResponse));
+    ethMessages.subscribe(
+        EthPV63.GET_NODE_DATA,
+        message -> scheduleResponse(message, "GetNodeData", this::getNodeDataResponse));
   }
 
-  private void handleGetBlockHeaders(final EthMessage message) {
-    LOG.trace("Responding to GET_BLOCK_HEADERS request");
-    try {
-      final MessageData response =
-          constructGetHeadersResponse(
-              blockchain,
-              message.getData(),
-              ethereumWireProtocolConfiguration.getMaxGetBlockHeaders());
-      message.getPeer().send(response);
-    } catch (final RLPException e) {
-      message.getPeer().disconnect(DisconnectReason.BREACH_OF_PROTOCOL);
-    } catch (final PeerNotConnected peerNotConnected) {
-      // Peer disconnected before we could respond - nothing to do
-    }
+  private MessageData getBlockHeadersResponse(final MessageData request) {
+    return constructGetHeadersResponse(
+        blockchain, request, ethereumWireProtocolConfiguration.getMaxGetBlockHeaders());
   }
 
-  private void handleGetBlockBodies(final EthMessage message) {
-    LOG.trace("Responding to GET_BLOCK_BODIES request");
-    try {
-      final MessageData response =
-          constructGetBodiesResponse(
-              blockchain,
-              message.getData(),
-              ethereumWireProtocolConfiguration.getMaxGetBlockBodies());
-      message.getPeer().send(response);
-    } catch (final RLPException e) {
-      message.getPeer().disconnect(DisconnectReason.BREACH_OF_PROTOCOL);
-    } catch (final PeerNotConnected peerNotConnected) {
-      // Peer disconnected before we could respond - nothing to do
-    }
+  private MessageData getBlockBodiesResponse(final MessageData request) {
+    return constructGetBodiesResponse(
+        blockchain, request, ethereumWireProtocolConfiguration.getMaxGetBlockBodies());
   }
 
-  private void handleGetReceipts(final EthMessage message) {
-    LOG.trace("Responding to GET_RECEIPTS request");
-    try {
-      final MessageData response =
-          constructGetReceiptsResponse(
-              blockchain, message.getData(), ethereumWireProtocolConfiguration.getMaxGetReceipts());
-      message.getPeer().send(response);
-    } catch (final RLPException e) {
-      message.getPeer().disconnect(DisconnectReason.BREACH_OF_PROTOCOL);
-    } catch (final PeerNotConnected peerNotConnected) {
-      // Peer disconnected before we could respond - nothing to do
-    }
+  private MessageData getReceiptsResponse(final MessageData request) {
+    return constructGetReceiptsResponse(
+        blockchain, request, ethereumWireProtocolConfiguration.getMaxGetReceipts());
+  }
+
+  private MessageData getNodeDataResponse(final MessageData request) {
+    return constructGetNodeDataResponse(
+        worldStateArchive, request, ethereumWireProtocolConfiguration.getMaxGetNodeData());
   }
 
-  private void handleGetNodeData(final EthMessage message) {
-    LOG.trace("Responding to GET_NODE_DATA request");
+  private void scheduleResponse(
+      final EthMessage message,
+      final String requestType,
+      final Function<MessageData, MessageData> responseBuilder) {
+    // Building responses reads from storage so is kept off the thread handling peer messages
+    requestScheduler.schedule(
+        message.getPeer(), requestType, () -> respond(message, requestType, responseBuilder));
+  }
+
+  private void respond(
+      final EthMessage message,
+      final String requestType,
+      final Function<MessageData, MessageData> responseBuilder) {
+    LOG.trace("Responding to {} request", requestType);
     try {
-      final MessageData response =
-          constructGetNodeDataResponse(
-              worldStateArchive,
-              message.getData(),
-              ethereumWireProtocolConfiguration.getMaxGetNodeData());
+      final MessageData response = responseBuilder.apply(message.getData());
       message.getPeer().send(response);
+      servedRequestsCounter.labels(requestType).inc();
+      responseBytesCounter.labels(requestType).inc(response.getSize());
     } catch (final RLPException e) {
       message.getPeer().disconnect(DisconnectReason.BREACH_OF_PROTOCOL);
     } catch (final PeerNotConnected peerNotConnected) {
@@ -152,76 +171,57 @@ class EthServer {
     final int skip = getHeaders.skip();
     final int maxHeaders = Math.min(requestLimit, getHeaders.maxHeaders());
     final boolean reversed = getHeaders.reverse();
-    final BlockHeader firstHeader;
+    final long firstNumber;
+    final Optional<BytesValue> firstHeader;
     if (hash.isPresent()) {
-      final Hash startHash = hash.get();
-      firstHeader = blockchain.getBlockHeader(startHash).orElse(null);
+      final Optional<BlockHeader> maybeHeader = blockchain.getBlockHeader(hash.get());
+      firstNumber = maybeHeader.map(BlockHeader::getNumber).orElse(0L);
+      firstHeader = maybeHeader.map(header -> RLP.encode(header::writeTo));
     } else {
-      final long firstNumber = getHeaders.blockNumber().getAsLong();
-      firstHeader = blockchain.getBlockHeader(firstNumber).orElse(null);
+      firstNumber = getHeaders.blockNumber().getAsLong();
+      firstHeader = getCanonicalHeaderRlp(blockchain, firstNumber);
     }
-    final Collection<BlockHeader> resp;
-    if (firstHeader == null) {
-      resp = Collections.emptyList();
-    } else {
-      resp = Lists.newArrayList(firstHeader);
+    final List<BytesValue> resp = new ArrayList<>();
+    if (firstHeader.isPresent()) {
+      resp.add(firstHeader.get());
+      int responseSize = firstHeader.get().size();
       final long numberDelta = reversed ? -(skip + 1) : (skip + 1);
-      for (int i = 1; i < maxHeaders; i++) {
-        final long blockNumber = firstHeader.getNumber() + i * numberDelta;
+      for (int i = 1; i < maxHeaders && responseSize < MAX_RESPONSE_SIZE; i++) {
+        final long blockNumber = firstNumber + i * numberDelta;
         if (blockNumber < BlockHeader.GENESIS_BLOCK_NUMBER) {
           break;
         }
-        final Optional<BlockHeader> maybeHeader = blockchain.getBlockHeader(blockNumber);
+        final Optional<BytesValue> maybeHeader = getCanonicalHeaderRlp(blockchain, blockNumber);
         if (maybeHeader.isPresent()) {
           resp.add(maybeHeader.get());
+          responseSize += maybeHeader.get().size();
         } else {
           break;
         }
       }
     }
-    return BlockHeadersMessage.create(resp);
+    return BlockHeadersMessage.createFromRlp(resp);
+  }
+
+  private static Optional<BytesValue> getCanonicalHeaderRlp(
+      final Blockchain blockchain, final long blockNumber) {
+    return blockchain.getBlockHashByNumber(blockNumber).flatMap(blockchain::getBlockHeaderRlp);
   }
 
   static MessageData constructGetBodiesResponse(
       final Blockchain blockchain, final MessageData message, final int requestLimit) {
     final GetBlockBodiesMessage getBlockBodiesMessage = GetBlockBodiesMessage.readFrom(message);
     final Iterable<Hash> hashes = getBlockBodiesMessage.hashes();
-
-    final Collection<BlockBody> bodies = new ArrayList<>();
-    int count = 0;
-    for (final Hash hash : hashes) {
-      if (count >= requestLimit) {
-        break;
-      }
-      count++;
-      final Optional<BlockBody> maybeBody = blockchain.getBlockBody(hash);
-      if (!maybeBody.isPresent()) {
-        continue;
-      }
-      bodies.add(maybeBody.get());
-    }
-    return BlockBodiesMessage.create(bodies);
+    return BlockBodiesMessage.createFromRlp(
+        collectResponse(hashes, requestLimit, blockchain::getBlockBodyRlp));
   }
 
   static MessageData constructGetReceiptsResponse(
       final Blockchain blockchain, final MessageData message, final int requestLimit) {
     final GetReceiptsMessage getReceipts = GetReceiptsMessage.readFrom(message);
     final Iterable<Hash> hashes = getReceipts.hashes();
-
-    final List<List<TransactionReceipt>> receipts = new ArrayList<>();
-    int count = 0;
-    for (final Hash hash : hashes) {
-      if (count >= requestLimit) {
-        break;
-      }
-      count++;
-      final Optional<List<TransactionReceipt>> maybeReceipts = blockchain.getTxReceipts(hash);
-      if (!maybeReceipts.isPresent()) {
-        continue;
-      }
-      receipts.add(maybeReceipts.get());
-    }
-    return ReceiptsMessage.create(receipts);
+    return ReceiptsMessage.createFromRlp(
+        collectResponse(hashes, requestLimit, blockchain::getTxReceiptsRlp));
   }
 
   static MessageData constructGetNodeDataResponse(
@@ -230,17 +230,33 @@ class EthServer {
       final int requestLimit) {
     final GetNodeDataMessage getNodeDataMessage = GetNodeDataMessage.readFrom(message);
     final Iterable<Hash> hashes = getNodeDataMessage.hashes();
+    return NodeDataMessage.create(
+        collectResponse(hashes, requestLimit, worldStateArchive::getNodeData));
+  }
 
-    final List<BytesValue> nodeData = new ArrayList<>();
+  /**
+   * Looks up the data for each requested hash, skipping any which isn't available. At most {@code
+   * requestLimit} hashes are looked up and no more data is added once the response reaches {@link
+   * #MAX_RESPONSE_SIZE}.
+   */
+  private static List<BytesValue> collectResponse(
+      final Iterable<Hash> hashes,
+      final int requestLimit,
+      final Function<Hash, Optional<BytesValue>> lookup) {
+    final List<BytesValue> response = new ArrayList<>();
     int count = 0;
+    int responseSize = 0;
     for (final Hash hash : hashes) {
-      if (count >= requestLimit) {
+      if (count >= requestLimit || responseSize >= MAX_RESPONSE_SIZE) {
         break;
       }
       count++;
-
-      worldStateArchive.getNodeData(hash).ifPresent(nodeData::add);
+      final Optional<BytesValue> maybeData = lookup.apply(hash);
+      if (maybeData.isPresent()) {
+        response.add(maybeData.get());
+        responseSize += maybeData.get().size();
+      }
     }
-    return NodeDataMessage.create(nodeData);
+    return response;
   }
 }
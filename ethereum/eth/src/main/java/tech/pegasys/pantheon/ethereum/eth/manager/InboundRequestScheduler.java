@@ -0,0 +1,235 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.manager;
+
+import tech.pegasys.pantheon.metrics.Counter;
+import tech.pegasys.pantheon.metrics.LabelledMetric;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.OperationTimer;
+import tech.pegasys.pantheon.metrics.OperationTimer.TimingContext;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs the work of responding to requests from peers on the {@link EthScheduler}'s request workers.
+ *
+ * <p>Each peer's requests are queued separately and the queues are served in turn, so a peer which
+ * makes many requests can't hold up responses to others. The number of requests handled at once for
+ * a single peer is capped and the rate at which a peer's requests are started is limited by a token
+ * bucket. Requests which arrive while a peer's queue is full are dropped.
+ */
+class InboundRequestScheduler {
+  private static final Logger LOG = LogManager.getLogger();
+
+  static final int MAX_QUEUED_REQUESTS_PER_PEER = 50;
+  static final int MAX_CONCURRENT_REQUESTS_PER_PEER = 2;
+  static final double REQUESTS_PER_SECOND_PER_PEER = 50;
+  static final int MAX_REQUEST_BURST = 100;
+
+  private final EthScheduler scheduler;
+  private final Clock clock;
+  private final Map<EthPeer, PeerRequests> peers = new HashMap<>();
+  // Peers with queued requests, in the order they will next be served.
+  private final Deque<PeerRequests> waitingPeers = new ArrayDeque<>();
+  private boolean retryScheduled = false;
+
+  private final LabelledMetric<OperationTimer> queueTimer;
+  private final LabelledMetric<Counter> droppedRequestsCounter;
+
+  InboundRequestScheduler(
+      final EthScheduler scheduler, final MetricsSystem metricsSystem, final Clock clock) {
+    this.scheduler = scheduler;
+    this.clock = clock;
+    queueTimer =
+        metricsSystem.createLabelledTimer(
+            MetricCategory.NETWORK,
+            "eth_server_request_queue_time_seconds",
+            "Time requests from peers wait before they are handled",
+            "request");
+    droppedRequestsCounter =
+        metricsSystem.createLabelledCounter(
+            MetricCategory.NETWORK,
+            "eth_server_requests_dropped",
+            "Number of requests from peers dropped because the peer had too many queued",
+            "request");
+  }
+
+  /**
+   * Queues a request from a peer to be handled once the peer's earlier requests have started and
+   * its rate limit allows.
+   *
+   * @param peer the peer which made the request
+   * @param requestType the type of request, used to label metrics
+   * @param handler handles the request
+   */
+  void schedule(final EthPeer peer, final String requestType, final Runnable handler) {
+    synchronized (this) {
+      PeerRequests peerRequests = peers.get(peer);
+      if (peerRequests == null) {
+        peerRequests = new PeerRequests(peer, clock.millis());
+        peers.put(peer, peerRequests);
+        peer.subscribeDisconnect(this::onDisconnect);
+      }
+      // Checked after subscribing, so a peer which disconnects concurrently is either seen here or
+      // removed by onDisconnect once this returns, rather than staying tracked forever.
+      if (peer.isDisconnected()) {
+        onDisconnect(peer);
+        return;
+      }
+      if (peerRequests.queue.size() >= MAX_QUEUED_REQUESTS_PER_PEER) {
+        LOG.debug("Dropping {} request from {}, too many requests queued", requestType, peer);
+        droppedRequestsCounter.labels(requestType).inc();
+        return;
+      }
+      peerRequests.queue.add(
+          new QueuedRequest(peerRequests, handler, queueTimer.labels(requestType).startTimer()));
+      if (peerRequests.queue.size() == 1) {
+        waitingPeers.add(peerRequests);
+      }
+    }
+    scheduler.scheduleRequestWorkerTask(this::handleNextRequest);
+  }
+
+  /**
+   * Stops tracking a peer once it has disconnected, discarding any requests still queued for it.
+   *
+   * @param peer the disconnected peer
+   */
+  private synchronized void onDisconnect(final EthPeer peer) {
+    final PeerRequests peerRequests = peers.remove(peer);
+    if (peerRequests != null) {
+      waitingPeers.remove(peerRequests);
+    }
+  }
+
+  private void handleNextRequest() {
+    final Optional<QueuedRequest> maybeRequest = startNextRequest();
+    if (!maybeRequest.isPresent()) {
+      return;
+    }
+    final QueuedRequest request = maybeRequest.get();
+    final PeerRequests peerRequests = request.peerRequests;
+    request.queueTime.stopTimer();
+    try {
+      request.handler.run();
+    } catch (final RuntimeException e) {
+      LOG.error("Failed to handle request from " + peerRequests.peer, e);
+    } finally {
+      final boolean moreRequestsWaiting;
+      synchronized (this) {
+        peerRequests.activeRequests--;
+        moreRequestsWaiting = !waitingPeers.isEmpty();
+      }
+      // Requests that couldn't be started earlier because a peer had too many active may now be
+      // able to start.
+      if (moreRequestsWaiting) {
+        scheduler.scheduleRequestWorkerTask(this::handleNextRequest);
+      }
+    }
+  }
+
+  private synchronized Optional<QueuedRequest> startNextRequest() {
+    final long now = clock.millis();
+    long millisUntilNextToken = Long.MAX_VALUE;
+    final Iterator<PeerRequests> iterator = waitingPeers.iterator();
+    while (iterator.hasNext()) {
+      final PeerRequests peerRequests = iterator.next();
+      if (peerRequests.activeRequests >= MAX_CONCURRENT_REQUESTS_PER_PEER) {
+        continue;
+      }
+      if (peerRequests.tryAcquireToken(now)) {
+        iterator.remove();
+        final QueuedRequest request = peerRequests.queue.remove();
+        if (!peerRequests.queue.isEmpty()) {
+          // Move to the back so other peers are served first
+          waitingPeers.add(peerRequests);
+        }
+        peerRequests.activeRequests++;
+        return Optional.of(request);
+      }
+      millisUntilNextToken = Math.min(millisUntilNextToken, peerRequests.millisUntilToken(now));
+    }
+    if (millisUntilNextToken != Long.MAX_VALUE && !retryScheduled) {
+      retryScheduled = true;
+      scheduler.scheduleFutureTask(this::retry, Duration.ofMillis(millisUntilNextToken));
+    }
+    return Optional.empty();
+  }
+
+  private void retry() {
+    synchronized (this) {
+      retryScheduled = false;
+    }
+    scheduler.scheduleRequestWorkerTask(this::handleNextRequest);
+  }
+
+  private static class PeerRequests {
+    private final EthPeer peer;
+    private final Deque<QueuedRequest> queue = new ArrayDeque<>();
+    private int activeRequests = 0;
+    private double tokens = MAX_REQUEST_BURST;
+    private long lastRefillMillis;
+
+    PeerRequests(final EthPeer peer, final long now) {
+      this.peer = peer;
+      this.lastRefillMillis = now;
+    }
+
+    boolean tryAcquireToken(final long now) {
+      refill(now);
+      if (tokens < 1) {
+        return false;
+      }
+      tokens--;
+      return true;
+    }
+
+    long millisUntilToken(final long now) {
+      refill(now);
+      return Math.max(1, (long) Math.ceil((1 - tokens) * 1000 / REQUESTS_PER_SECOND_PER_PEER));
+    }
+
+    private void refill(final long now) {
+      final long elapsed = now - lastRefillMillis;
+      if (elapsed > 0) {
+        tokens =
+            Math.min(MAX_REQUEST_BURST, tokens + elapsed * REQUESTS_PER_SECOND_PER_PEER / 1000);
+        lastRefillMillis = now;
+      }
+    }
+  }
+
+  private static class QueuedRequest {
+    private final PeerRequests peerRequests;
+    private final Runnable handler;
+    private final TimingContext queueTime;
+
+    QueuedRequest(
+        final PeerRequests peerRequests, final Runnable handler, final TimingContext queueTime) {
+      this.peerRequests = peerRequests;
+      this.handler = handler;
+      this.queueTime = queueTime;
+    }
+  }
+}
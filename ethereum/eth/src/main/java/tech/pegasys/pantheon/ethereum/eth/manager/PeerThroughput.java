@@ -0,0 +1,186 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.manager;
+
+import tech.pegasys.pantheon.metrics.Counter;
+import tech.pegasys.pantheon.metrics.OperationTimer;
+import tech.pegasys.pantheon.metrics.OperationTimer.TimingContext;
+
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Tracks how quickly a peer responds to one type of request, as exponentially weighted moving
+ * averages of the time taken to respond and the rate data is received at.
+ *
+ * <p>Peers are expected to respond to requests in the order they were sent, so each response is
+ * matched to the oldest request still awaiting one.
+ *
+ * <p>Smaller requests are dominated by the round trip time, so the raw rate of a peer sent small
+ * requests understates how quickly it could serve larger ones. When the number of items requested
+ * is known, the lowest latency seen is taken as the round trip time and the rest of each response's
+ * latency as growing with the number of items, which allows the rate to be estimated for any
+ * number of items.
+ */
+public class PeerThroughput {
+  static final double SMOOTHING_FACTOR = 0.2;
+
+  private final Clock clock;
+  private final OperationTimer latencyTimer;
+  private final Counter responseBytesCounter;
+  private final Queue<PendingRequest> pendingRequests = new ArrayDeque<>();
+
+  private boolean measured = false;
+  private boolean latencyMeasured = false;
+  private double latencyMillis = 0;
+  private double bytesPerSecond = 0;
+
+  private boolean itemsMeasured = false;
+  private long roundTripMillis = 0;
+  private double transferMillisPerItem = 0;
+  private double bytesPerItem = 0;
+
+  PeerThroughput(
+      final Clock clock, final OperationTimer latencyTimer, final Counter responseBytesCounter) {
+    this.clock = clock;
+    this.latencyTimer = latencyTimer;
+    this.responseBytesCounter = responseBytesCounter;
+  }
+
+  synchronized void recordRequest(final int items) {
+    pendingRequests.add(new PendingRequest(clock.millis(), latencyTimer.startTimer(), items));
+  }
+
+  synchronized void recordResponse(final int bytes) {
+    responseBytesCounter.inc(bytes);
+    final PendingRequest request = pendingRequests.poll();
+    if (request == null) {
+      return;
+    }
+    request.timingContext.stopTimer();
+    record(clock.millis() - request.sentAtMillis, bytes, request.items);
+  }
+
+  /**
+   * Records a response arriving the given time after its request was sent.
+   *
+   * @param latencyMillis the time in milliseconds between sending the request and the response
+   *     arriving
+   * @param bytes the size of the response
+   * @param items the number of items requested, or 0 if unknown
+   */
+  synchronized void record(final long latencyMillis, final int bytes, final int items) {
+    final double sampleBytesPerSecond = bytes * 1000.0 / Math.max(1, latencyMillis);
+    if (!latencyMeasured) {
+      latencyMeasured = true;
+      this.latencyMillis = latencyMillis;
+    } else {
+      this.latencyMillis += SMOOTHING_FACTOR * (latencyMillis - this.latencyMillis);
+    }
+    if (!measured) {
+      measured = true;
+      this.bytesPerSecond = sampleBytesPerSecond;
+    } else {
+      this.bytesPerSecond += SMOOTHING_FACTOR * (sampleBytesPerSecond - this.bytesPerSecond);
+    }
+    if (items <= 0) {
+      return;
+    }
+    roundTripMillis = itemsMeasured ? Math.min(roundTripMillis, latencyMillis) : latencyMillis;
+    final double sampleTransferMillisPerItem = (double) (latencyMillis - roundTripMillis) / items;
+    final double sampleBytesPerItem = (double) bytes / items;
+    if (!itemsMeasured) {
+      itemsMeasured = true;
+      transferMillisPerItem = sampleTransferMillisPerItem;
+      bytesPerItem = sampleBytesPerItem;
+      return;
+    }
+    transferMillisPerItem +=
+        SMOOTHING_FACTOR * (sampleTransferMillisPerItem - transferMillisPerItem);
+    bytesPerItem += SMOOTHING_FACTOR * (sampleBytesPerItem - bytesPerItem);
+  }
+
+  /**
+   * Records a request timing out. No data was received so the estimated rate is reduced as if a
+   * response with no data had arrived. The oldest request still awaiting a response is the one
+   * which timed out, so it is discarded and later responses are matched to the requests after it.
+   * The time waited only reflects the timeout, so it isn't recorded as a latency.
+   */
+  synchronized void recordTimeout() {
+    pendingRequests.poll();
+    if (!measured) {
+      measured = true;
+      return;
+    }
+    bytesPerSecond -= SMOOTHING_FACTOR * bytesPerSecond;
+    bytesPerItem -= SMOOTHING_FACTOR * bytesPerItem;
+  }
+
+  synchronized void clearPendingRequests() {
+    pendingRequests.clear();
+  }
+
+  /** @return true if a response or timeout has been recorded */
+  public synchronized boolean hasMeasurements() {
+    return measured;
+  }
+
+  /** @return the average time in milliseconds between sending a request and the response */
+  public synchronized double getLatencyMillis() {
+    return latencyMillis;
+  }
+
+  /** @return the average rate in bytes per second data is received in responses */
+  public synchronized double getBytesPerSecond() {
+    return bytesPerSecond;
+  }
+
+  /**
+   * Estimates the rate data would be received at in responses to requests for the given number of
+   * items, so peers which have been sent requests of different sizes can be compared.
+   *
+   * @param items the number of items requested
+   * @return the estimated rate in bytes per second, or the average rate if the number of items
+   *     requested hasn't been known for any response
+   */
+  public synchronized double getBytesPerSecond(final int items) {
+    if (!itemsMeasured) {
+      return bytesPerSecond;
+    }
+    final double estimatedLatencyMillis = roundTripMillis + transferMillisPerItem * items;
+    return bytesPerItem * items * 1000.0 / Math.max(1, estimatedLatencyMillis);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "PeerThroughput{"
+        + "latencyMillis="
+        + Math.round(latencyMillis)
+        + ", bytesPerSecond="
+        + Math.round(bytesPerSecond)
+        + '}';
+  }
+
+  private static class PendingRequest {
+    private final long sentAtMillis;
+    private final TimingContext timingContext;
+    private final int items;
+
+    PendingRequest(final long sentAtMillis, final TimingContext timingContext, final int items) {
+      this.sentAtMillis = sentAtMillis;
+      this.timingContext = timingContext;
+      this.items = items;
+    }
+  }
+}
@@ -28,20 +28,40 @@ public class RequestManager {
   private final AtomicLong responseStreamId = new AtomicLong(0L);
   private final Map<Long, ResponseStream> responseStreams = new ConcurrentHashMap<>();
   private final EthPeer peer;
+  private final PeerThroughput throughput;
 
   private final AtomicInteger outstandingRequests = new AtomicInteger(0);
 
-  public RequestManager(final EthPeer peer) {
+  public RequestManager(final EthPeer peer, final PeerThroughput throughput) {
     this.peer = peer;
+    this.throughput = throughput;
   }
 
   public int outstandingRequests() {
     return outstandingRequests.get();
   }
 
+  public PeerThroughput throughput() {
+    return throughput;
+  }
+
   public ResponseStream dispatchRequest(final RequestSender sender) throws PeerNotConnected {
+    return dispatchRequest(0, sender);
+  }
+
+  /**
+   * Sends a request and tracks the response to it.
+   *
+   * @param items the number of items requested, or 0 if unknown
+   * @param sender sends the request
+   * @return the stream the response is delivered on
+   * @throws PeerNotConnected if the peer is no longer connected
+   */
+  public ResponseStream dispatchRequest(final int items, final RequestSender sender)
+      throws PeerNotConnected {
     outstandingRequests.incrementAndGet();
     final ResponseStream stream = createStream();
+    throughput.recordRequest(items);
     sender.send();
     return stream;
   }
@@ -49,6 +69,7 @@ public class RequestManager {
   public void dispatchResponse(final EthMessage message) {
     final Collection<ResponseStream> streams = new ArrayList<>(responseStreams.values());
     final int count = outstandingRequests.decrementAndGet();
+    throughput.recordResponse(message.getData().getSize());
 
     streams.forEach(s -> s.processMessage(message.getData()));
     if (count == 0) {
@@ -58,6 +79,7 @@ public class RequestManager {
   }
 
   public void close() {
+    throughput.clearPendingRequests();
     closeOutstandingStreams(responseStreams.values());
   }
 
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.manager;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import tech.pegasys.pantheon.ethereum.eth.StateRangeProtocol;
+import tech.pegasys.pantheon.ethereum.eth.messages.StateRangePV1;
+import tech.pegasys.pantheon.ethereum.p2p.api.Message;
+import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection;
+import tech.pegasys.pantheon.ethereum.p2p.api.ProtocolManager;
+import tech.pegasys.pantheon.ethereum.p2p.wire.Capability;
+import tech.pegasys.pantheon.ethereum.p2p.wire.messages.DisconnectMessage.DisconnectReason;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateArchive;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Handles the state range protocol for peers which are also connected with the eth protocol. Peers
+ * are tracked, and requests scheduled, by the {@link EthProtocolManager} this manager belongs to.
+ */
+public class StateRangeProtocolManager implements ProtocolManager {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final List<Capability> CAPABILITIES =
+      Collections.singletonList(StateRangeProtocol.PSR1);
+
+  private final CountDownLatch shutdown = new CountDownLatch(1);
+  private final EthPeers ethPeers;
+  private final StateRangeServer server;
+
+  StateRangeProtocolManager(
+      final EthPeers ethPeers,
+      final WorldStateArchive worldStateArchive,
+      final InboundRequestScheduler requestScheduler,
+      final MetricsSystem metricsSystem) {
+    this.ethPeers = ethPeers;
+    this.server = new StateRangeServer(worldStateArchive, requestScheduler, metricsSystem);
+  }
+
+  @Override
+  public String getSupportedProtocol() {
+    return StateRangeProtocol.NAME;
+  }
+
+  @Override
+  public List<Capability> getSupportedCapabilities() {
+    return CAPABILITIES;
+  }
+
+  @Override
+  public void stop() {
+    // The scheduler is shared with, and stopped by, the eth protocol manager.
+    shutdown.countDown();
+  }
+
+  @Override
+  public void awaitStop() throws InterruptedException {
+    shutdown.await();
+  }
+
+  @Override
+  public void processMessage(final Capability cap, final Message message) {
+    checkArgument(
+        CAPABILITIES.contains(cap), "Unsupported capability passed to processMessage(): " + cap);
+    final EthPeer peer = ethPeers.peer(message.getConnection());
+    if (peer == null || !peer.statusHasBeenReceived()) {
+      LOG.debug("Ignoring state range message from peer without an eth connection: {}", peer);
+      return;
+    }
+
+    final EthMessage ethMessage = new EthMessage(peer, message.getData());
+    switch (message.getData().getCode()) {
+      case StateRangePV1.GET_ACCOUNT_RANGE:
+      case StateRangePV1.GET_STORAGE_RANGE:
+        server.handleRequest(ethMessage);
+        break;
+      case StateRangePV1.ACCOUNT_RANGE:
+      case StateRangePV1.STORAGE_RANGE:
+        if (!peer.dispatchStateRange(ethMessage)) {
+          LOG.warn("Unsolicited message received from {}, disconnecting", peer);
+          peer.disconnect(DisconnectReason.BREACH_OF_PROTOCOL);
+        }
+        break;
+      default:
+        // Message codes are validated before they reach the protocol manager
+    }
+  }
+
+  @Override
+  public void handleNewConnection(final PeerConnection connection) {
+    // Nothing to do, the eth protocol manager registers the peer.
+  }
+
+  @Override
+  public void handleDisconnect(
+      final PeerConnection connection,
+      final DisconnectReason reason,
+      final boolean initiatedByPeer) {
+    // Nothing to do, the eth protocol manager deregisters the peer.
+  }
+}
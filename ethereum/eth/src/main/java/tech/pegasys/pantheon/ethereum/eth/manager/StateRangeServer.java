@@ -0,0 +1,186 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.manager;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.eth.messages.GetStateRangeMessage;
+import tech.pegasys.pantheon.ethereum.eth.messages.StateRangeMessage;
+import tech.pegasys.pantheon.ethereum.eth.messages.StateRangePV1;
+import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
+import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection.PeerNotConnected;
+import tech.pegasys.pantheon.ethereum.p2p.wire.messages.DisconnectMessage.DisconnectReason;
+import tech.pegasys.pantheon.ethereum.rlp.RLPException;
+import tech.pegasys.pantheon.ethereum.trie.MerklePatriciaTrie;
+import tech.pegasys.pantheon.ethereum.trie.MerkleTrieException;
+import tech.pegasys.pantheon.ethereum.trie.NodeLoader;
+import tech.pegasys.pantheon.ethereum.trie.StoredMerklePatriciaTrie;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateArchive;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
+import tech.pegasys.pantheon.metrics.Counter;
+import tech.pegasys.pantheon.metrics.LabelledMetric;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Responds to requests for ranges of the account trie or a storage trie, read straight from the
+ * tries in world state storage.
+ */
+class StateRangeServer {
+  private static final Logger LOG = LogManager.getLogger();
+
+  // Accounts are around 100 bytes and storage slots smaller still, so this keeps responses well
+  // below the size of the largest eth responses.
+  static final int MAX_ENTRIES_PER_RESPONSE = 4096;
+  private static final Bytes32 LAST_KEY_HASH =
+      Bytes32.fromHexString("0xffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff");
+
+  private final WorldStateArchive worldStateArchive;
+  private final InboundRequestScheduler requestScheduler;
+  private final LabelledMetric<Counter> servedRequestsCounter;
+  private final LabelledMetric<Counter> responseBytesCounter;
+
+  StateRangeServer(
+      final WorldStateArchive worldStateArchive,
+      final InboundRequestScheduler requestScheduler,
+      final MetricsSystem metricsSystem) {
+    this.worldStateArchive = worldStateArchive;
+    this.requestScheduler = requestScheduler;
+    servedRequestsCounter =
+        metricsSystem.createLabelledCounter(
+            MetricCategory.NETWORK,
+            "state_range_server_requests_served",
+            "Number of state range requests from peers which have been responded to",
+            "request");
+    responseBytesCounter =
+        metricsSystem.createLabelledCounter(
+            MetricCategory.NETWORK,
+            "state_range_server_response_bytes",
+            "Total size of state range responses sent to peers",
+            "request");
+  }
+
+  void handleRequest(final EthMessage message) {
+    final String requestType =
+        message.getData().getCode() == StateRangePV1.GET_ACCOUNT_RANGE
+            ? "GetAccountRange"
+            : "GetStorageRange";
+    // Building responses reads from storage so is kept off the thread handling peer messages
+    requestScheduler.schedule(
+        message.getPeer(), requestType, () -> respond(message, requestType));
+  }
+
+  private void respond(final EthMessage message, final String requestType) {
+    LOG.trace("Responding to {} request", requestType);
+    try {
+      final MessageData response =
+          constructStateRangeResponse(
+              worldStateArchive.getStorage(), message.getData(), MAX_ENTRIES_PER_RESPONSE);
+      message.getPeer().sendStateRangeResponse(response);
+      servedRequestsCounter.labels(requestType).inc();
+      responseBytesCounter.labels(requestType).inc(response.getSize());
+    } catch (final RLPException e) {
+      message.getPeer().disconnect(DisconnectReason.BREACH_OF_PROTOCOL);
+    } catch (final PeerNotConnected peerNotConnected) {
+      // Peer disconnected before we could respond - nothing to do
+    }
+  }
+
+  /**
+   * Collects the entries of the requested trie from the start key hash onwards, along with the
+   * nodes needed to prove them. The proof covers the paths from the root to the first and last
+   * entry and, when the range doesn't fill the response, the path showing there are no entries
+   * after it. An empty range is proven by the path showing there are no entries from the start key
+   * hash onwards. If any of the trie is missing, for example because it is still being downloaded,
+   * an empty range is returned without a proof.
+   */
+  static MessageData constructStateRangeResponse(
+      final WorldStateStorage worldStateStorage,
+      final MessageData message,
+      final int requestLimit) {
+    final GetStateRangeMessage request = GetStateRangeMessage.readFrom(message);
+    final boolean accountRange = request.getCode() == StateRangePV1.GET_ACCOUNT_RANGE;
+    final NodeLoader nodeLoader =
+        accountRange
+            ? worldStateStorage::getAccountStateTrieNode
+            : worldStateStorage::getAccountStorageTrieNode;
+    final Hash rootHash = request.rootHash();
+    final int maxEntries = Math.min(requestLimit, request.maxEntries());
+
+    SortedMap<Bytes32, BytesValue> entries = Collections.emptySortedMap();
+    Collection<BytesValue> proof = Collections.emptyList();
+    if (maxEntries > 0) {
+      try {
+        entries =
+            new TreeMap<>(
+                createTrie(nodeLoader, rootHash).entriesFrom(request.startKeyHash(), maxEntries));
+        proof = collectProof(nodeLoader, rootHash, request.startKeyHash(), entries, maxEntries);
+      } catch (final MerkleTrieException e) {
+        entries = Collections.emptySortedMap();
+        proof = Collections.emptyList();
+      }
+    }
+    return accountRange
+        ? StateRangeMessage.createForAccounts(entries, proof)
+        : StateRangeMessage.createForStorage(entries, proof);
+  }
+
+  private static Collection<BytesValue> collectProof(
+      final NodeLoader nodeLoader,
+      final Hash rootHash,
+      final Bytes32 startKeyHash,
+      final SortedMap<Bytes32, BytesValue> entries,
+      final int maxEntries) {
+    final Map<Bytes32, BytesValue> proofNodes = new LinkedHashMap<>();
+    final MerklePatriciaTrie<Bytes32, BytesValue> proofTrie =
+        createTrie(
+            hash -> {
+              final Optional<BytesValue> node = nodeLoader.getNode(hash);
+              node.ifPresent(value -> proofNodes.put(hash, value));
+              return node;
+            },
+            rootHash);
+    if (entries.isEmpty()) {
+      proofTrie.entriesFrom(startKeyHash, 1);
+      return proofNodes.values();
+    }
+    proofTrie.get(entries.firstKey());
+    proofTrie.get(entries.lastKey());
+    if (entries.size() < maxEntries && !entries.lastKey().equals(LAST_KEY_HASH)) {
+      proofTrie.entriesFrom(keyHashAfter(entries.lastKey()), 1);
+    }
+    return proofNodes.values();
+  }
+
+  private static Bytes32 keyHashAfter(final Bytes32 keyHash) {
+    return UInt256.wrap(keyHash).plus(1).getBytes();
+  }
+
+  private static MerklePatriciaTrie<Bytes32, BytesValue> createTrie(
+      final NodeLoader nodeLoader, final Bytes32 rootHash) {
+    return new StoredMerklePatriciaTrie<>(nodeLoader, rootHash, b -> b, b -> b);
+  }
+}
@@ -18,7 +18,6 @@ import tech.pegasys.pantheon.ethereum.core.Block;
 import tech.pegasys.pantheon.ethereum.core.BlockBody;
 import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.core.Hash;
-import tech.pegasys.pantheon.ethereum.core.Transaction;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer;
 import tech.pegasys.pantheon.ethereum.eth.manager.RequestManager.ResponseStream;
@@ -83,8 +82,11 @@ public class GetBodiesFromPeerTask<C> extends AbstractPeerRequestTask<List<Block
 
   @Override
   protected ResponseStream sendRequest(final EthPeer peer) throws PeerNotConnected {
+    // Slower peers are asked for fewer bodies, the remainder are requested again from other peers
+    final int batchSize =
+        ethContext.getEthPeers().batchSize(peer, EthPV62.GET_BLOCK_BODIES, headers.size());
     final List<Hash> blockHashes =
-        headers.stream().map(BlockHeader::getHash).collect(Collectors.toList());
+        headers.stream().limit(batchSize).map(BlockHeader::getHash).collect(Collectors.toList());
     LOG.debug("Requesting {} bodies from peer {}.", blockHashes.size(), peer);
     return peer.getBodies(blockHashes);
   }
@@ -125,7 +127,9 @@ public class GetBodiesFromPeerTask<C> extends AbstractPeerRequestTask<List<Block
 
   @Override
   protected Optional<EthPeer> findSuitablePeer() {
-    return this.ethContext.getEthPeers().idlePeer(headers.get(headers.size() - 1).getNumber());
+    return this.ethContext
+        .getEthPeers()
+        .idlePeer(headers.get(headers.size() - 1).getNumber(), EthPV62.GET_BLOCK_BODIES);
   }
 
   private static class BodyIdentifier {
@@ -138,11 +142,7 @@ public class GetBodiesFromPeerTask<C> extends AbstractPeerRequestTask<List<Block
     }
 
     public BodyIdentifier(final BlockBody body) {
-      this(body.getTransactions(), body.getOmmers());
-    }
-
-    public BodyIdentifier(final List<Transaction> transactions, final List<BlockHeader> ommers) {
-      this(BodyValidation.transactionsRoot(transactions), BodyValidation.ommersHash(ommers));
+      this(BodyValidation.transactionsRoot(body), BodyValidation.ommersHash(body));
     }
 
     public BodyIdentifier(final BlockHeader header) {
@@ -98,6 +98,6 @@ public class GetNodeDataFromPeerTask extends AbstractPeerRequestTask<Map<Hash, B
 
   @Override
   protected Optional<EthPeer> findSuitablePeer() {
-    return ethContext.getEthPeers().idlePeer(pivotBlockNumber);
+    return ethContext.getEthPeers().idlePeer(pivotBlockNumber, EthPV63.GET_NODE_DATA);
   }
 }
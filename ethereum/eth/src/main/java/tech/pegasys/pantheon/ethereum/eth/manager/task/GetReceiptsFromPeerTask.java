@@ -68,13 +68,19 @@ public class GetReceiptsFromPeerTask
 
   @Override
   protected ResponseStream sendRequest(final EthPeer peer) throws PeerNotConnected {
-    LOG.debug("Requesting {} receipts from peer {}.", blockHeaders.size(), peer);
     // Since we have to match up the data by receipt root, we only need to request receipts
     // for one of the headers with each unique receipt root.
+    // Slower peers are asked for fewer receipts, the remainder are requested again from other peers
+    final int batchSize =
+        ethContext
+            .getEthPeers()
+            .batchSize(peer, EthPV63.GET_RECEIPTS, headersByReceiptsRoot.size());
     final List<Hash> blockHashes =
         headersByReceiptsRoot.values().stream()
+            .limit(batchSize)
             .map(headers -> headers.get(0).getHash())
             .collect(toList());
+    LOG.debug("Requesting {} receipts from peer {}.", blockHashes.size(), peer);
     return peer.getReceipts(blockHashes);
   }
 
@@ -116,6 +122,6 @@ public class GetReceiptsFromPeerTask
             .mapToLong(BlockHeader::getNumber)
             .max()
             .orElse(BlockHeader.GENESIS_BLOCK_NUMBER);
-    return this.ethContext.getEthPeers().idlePeer(maximumRequiredBlockNumber);
+    return this.ethContext.getEthPeers().idlePeer(maximumRequiredBlockNumber, EthPV63.GET_RECEIPTS);
   }
 }
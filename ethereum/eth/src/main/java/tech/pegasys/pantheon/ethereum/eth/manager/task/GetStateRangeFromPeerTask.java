@@ -0,0 +1,239 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.manager.task;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer;
+import tech.pegasys.pantheon.ethereum.eth.manager.RequestManager.ResponseStream;
+import tech.pegasys.pantheon.ethereum.eth.messages.StateRangeMessage;
+import tech.pegasys.pantheon.ethereum.eth.messages.StateRangePV1;
+import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
+import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection.PeerNotConnected;
+import tech.pegasys.pantheon.ethereum.trie.MerklePatriciaTrie;
+import tech.pegasys.pantheon.ethereum.trie.MerkleTrieException;
+import tech.pegasys.pantheon.ethereum.trie.StoredMerklePatriciaTrie;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Requests a range of entries of the account trie, or of a storage trie, from a peer which supports
+ * the state range protocol. Responses whose first and last entries aren't proven to be in the trie
+ * are ignored. An empty range is only accepted as the end of the trie if the peer proves there are
+ * no entries from the start key hash onwards, otherwise the peer doesn't have the trie and the
+ * range is reported as unavailable.
+ */
+public class GetStateRangeFromPeerTask
+    extends AbstractPeerRequestTask<GetStateRangeFromPeerTask.StateRange> {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final Bytes32 LAST_KEY_HASH =
+      Bytes32.fromHexString("0xffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff");
+
+  private final int requestCode;
+  private final Hash rootHash;
+  private final Bytes32 startKeyHash;
+  private final int maxEntries;
+  private Set<EthPeer> excludedPeers = Collections.emptySet();
+
+  private GetStateRangeFromPeerTask(
+      final EthContext ethContext,
+      final int requestCode,
+      final Hash rootHash,
+      final Bytes32 startKeyHash,
+      final int maxEntries,
+      final MetricsSystem metricsSystem) {
+    super(ethContext, requestCode, metricsSystem);
+    this.requestCode = requestCode;
+    this.rootHash = rootHash;
+    this.startKeyHash = startKeyHash;
+    this.maxEntries = maxEntries;
+  }
+
+  public static GetStateRangeFromPeerTask forAccounts(
+      final EthContext ethContext,
+      final Hash stateRoot,
+      final Bytes32 startKeyHash,
+      final int maxEntries,
+      final MetricsSystem metricsSystem) {
+    return new GetStateRangeFromPeerTask(
+        ethContext,
+        StateRangePV1.GET_ACCOUNT_RANGE,
+        stateRoot,
+        startKeyHash,
+        maxEntries,
+        metricsSystem);
+  }
+
+  public static GetStateRangeFromPeerTask forStorage(
+      final EthContext ethContext,
+      final Hash storageRoot,
+      final Bytes32 startKeyHash,
+      final int maxEntries,
+      final MetricsSystem metricsSystem) {
+    return new GetStateRangeFromPeerTask(
+        ethContext,
+        StateRangePV1.GET_STORAGE_RANGE,
+        storageRoot,
+        startKeyHash,
+        maxEntries,
+        metricsSystem);
+  }
+
+  @Override
+  protected ResponseStream sendRequest(final EthPeer peer) throws PeerNotConnected {
+    LOG.debug("Requesting range of trie {} from {} from peer {}.", rootHash, startKeyHash, peer);
+    return requestCode == StateRangePV1.GET_ACCOUNT_RANGE
+        ? peer.getAccountRange(rootHash, startKeyHash, maxEntries)
+        : peer.getStorageRange(rootHash, startKeyHash, maxEntries);
+  }
+
+  /**
+   * Avoids sending the request to peers which are already known not to have the trie.
+   *
+   * @param excludedPeers the peers not to send the request to
+   * @return this task
+   */
+  public GetStateRangeFromPeerTask excludePeers(final Set<EthPeer> excludedPeers) {
+    this.excludedPeers = excludedPeers;
+    return this;
+  }
+
+  @Override
+  protected Optional<StateRange> processResponse(
+      final boolean streamClosed, final MessageData message, final EthPeer peer) {
+    if (streamClosed) {
+      // The peer disconnected without responding, so let the request time out.
+      return Optional.empty();
+    }
+    final StateRangeMessage stateRangeMessage = StateRangeMessage.readFrom(message);
+    final SortedMap<Bytes32, BytesValue> entries = stateRangeMessage.entries();
+    final MerklePatriciaTrie<Bytes32, BytesValue> proofTrie =
+        createProofTrie(stateRangeMessage.proof());
+    if (entries.isEmpty()) {
+      if (isProvenEmptyFrom(proofTrie, startKeyHash)) {
+        return Optional.of(new StateRange(entries, true));
+      }
+      // The peer doesn't have the trie, so another peer will have to be asked
+      peer.recordUselessResponse("GetStateRange");
+      return Optional.of(StateRange.unavailable());
+    }
+    if (!isProvenRange(proofTrie, entries)) {
+      // Can't be the response to our request
+      peer.recordUselessResponse("GetStateRange");
+      return Optional.empty();
+    }
+    final Bytes32 lastKeyHash = entries.lastKey();
+    final boolean lastRange =
+        lastKeyHash.equals(LAST_KEY_HASH)
+            || isProvenEmptyFrom(proofTrie, UInt256.wrap(lastKeyHash).plus(1).getBytes());
+    return Optional.of(new StateRange(entries, lastRange));
+  }
+
+  private MerklePatriciaTrie<Bytes32, BytesValue> createProofTrie(final List<BytesValue> proof) {
+    final Map<Bytes32, BytesValue> proofNodes = new HashMap<>();
+    proof.forEach(node -> proofNodes.put(Hash.hash(node), node));
+    return new StoredMerklePatriciaTrie<>(
+        hash -> Optional.ofNullable(proofNodes.get(hash)), rootHash, b -> b, b -> b);
+  }
+
+  private boolean isProvenEmptyFrom(
+      final MerklePatriciaTrie<Bytes32, BytesValue> proofTrie, final Bytes32 keyHash) {
+    try {
+      return proofTrie.entriesFrom(keyHash, 1).isEmpty();
+    } catch (final MerkleTrieException e) {
+      return false;
+    }
+  }
+
+  private boolean isProvenRange(
+      final MerklePatriciaTrie<Bytes32, BytesValue> proofTrie,
+      final SortedMap<Bytes32, BytesValue> entries) {
+    if (entries.size() > maxEntries || entries.firstKey().compareTo(startKeyHash) < 0) {
+      return false;
+    }
+    try {
+      return isProvenEntry(proofTrie, entries, entries.firstKey())
+          && isProvenEntry(proofTrie, entries, entries.lastKey());
+    } catch (final MerkleTrieException e) {
+      return false;
+    }
+  }
+
+  private boolean isProvenEntry(
+      final MerklePatriciaTrie<Bytes32, BytesValue> proofTrie,
+      final SortedMap<Bytes32, BytesValue> entries,
+      final Bytes32 keyHash) {
+    return proofTrie.get(keyHash).map(value -> value.equals(entries.get(keyHash))).orElse(false);
+  }
+
+  @Override
+  protected Optional<EthPeer> findSuitablePeer() {
+    return ethContext
+        .getEthPeers()
+        .idleStateRangePeer(requestCode, peer -> !excludedPeers.contains(peer));
+  }
+
+  /** A range of entries received from a peer. */
+  public static class StateRange {
+    private static final StateRange UNAVAILABLE =
+        new StateRange(Collections.emptySortedMap(), false);
+
+    private final SortedMap<Bytes32, BytesValue> entries;
+    private final boolean lastRange;
+
+    StateRange(final SortedMap<Bytes32, BytesValue> entries, final boolean lastRange) {
+      this.entries = entries;
+      this.lastRange = lastRange;
+    }
+
+    static StateRange unavailable() {
+      return UNAVAILABLE;
+    }
+
+    public SortedMap<Bytes32, BytesValue> getEntries() {
+      return entries;
+    }
+
+    /**
+     * Whether the peer was able to provide the range. A peer which doesn't have the trie responds
+     * with an empty range it can't prove.
+     *
+     * @return true if the entries were provided by the peer
+     */
+    public boolean isAvailable() {
+      return this != UNAVAILABLE;
+    }
+
+    /**
+     * Whether the peer proved there are no entries in the trie after this range.
+     *
+     * @return true if the range reaches the end of the trie
+     */
+    public boolean isLastRange() {
+      return lastRange;
+    }
+  }
+}
@@ -46,6 +46,15 @@ public final class BlockBodiesMessage extends AbstractMessageData {
     return new BlockBodiesMessage(tmp.encoded());
   }
 
+  /** Creates a message from RLP encoded block bodies, such as those read from storage. */
+  public static BlockBodiesMessage createFromRlp(final Iterable<BytesValue> bodiesRlp) {
+    final BytesValueRLPOutput tmp = new BytesValueRLPOutput();
+    tmp.startList();
+    bodiesRlp.forEach(tmp::writeRLPUnsafe);
+    tmp.endList();
+    return new BlockBodiesMessage(tmp.encoded());
+  }
+
   private BlockBodiesMessage(final BytesValue data) {
     super(data);
   }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.messages;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
+import tech.pegasys.pantheon.ethereum.p2p.wire.AbstractMessageData;
+import tech.pegasys.pantheon.ethereum.rlp.BytesValueRLPInput;
+import tech.pegasys.pantheon.ethereum.rlp.BytesValueRLPOutput;
+import tech.pegasys.pantheon.ethereum.rlp.RLPInput;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+/**
+ * Requests the entries of a trie, either the account trie of a world state or the storage trie of
+ * an account, starting at a key hash.
+ */
+public final class GetStateRangeMessage extends AbstractMessageData {
+
+  private final int code;
+
+  public static GetStateRangeMessage readFrom(final MessageData message) {
+    if (message instanceof GetStateRangeMessage) {
+      return (GetStateRangeMessage) message;
+    }
+    final int code = message.getCode();
+    if (code != StateRangePV1.GET_ACCOUNT_RANGE && code != StateRangePV1.GET_STORAGE_RANGE) {
+      throw new IllegalArgumentException(
+          String.format("Message has code %d and thus is not a GetStateRangeMessage.", code));
+    }
+    return new GetStateRangeMessage(code, message.getData());
+  }
+
+  public static GetStateRangeMessage createForAccounts(
+      final Hash stateRoot, final Bytes32 startKeyHash, final int maxEntries) {
+    return create(StateRangePV1.GET_ACCOUNT_RANGE, stateRoot, startKeyHash, maxEntries);
+  }
+
+  public static GetStateRangeMessage createForStorage(
+      final Hash storageRoot, final Bytes32 startKeyHash, final int maxEntries) {
+    return create(StateRangePV1.GET_STORAGE_RANGE, storageRoot, startKeyHash, maxEntries);
+  }
+
+  private static GetStateRangeMessage create(
+      final int code, final Hash rootHash, final Bytes32 startKeyHash, final int maxEntries) {
+    final BytesValueRLPOutput tmp = new BytesValueRLPOutput();
+    tmp.startList();
+    tmp.writeBytesValue(rootHash);
+    tmp.writeBytesValue(startKeyHash);
+    tmp.writeIntScalar(maxEntries);
+    tmp.endList();
+    return new GetStateRangeMessage(code, tmp.encoded());
+  }
+
+  private GetStateRangeMessage(final int code, final BytesValue data) {
+    super(data);
+    this.code = code;
+  }
+
+  @Override
+  public int getCode() {
+    return code;
+  }
+
+  /** @return the root hash of the trie to read entries from */
+  public Hash rootHash() {
+    final RLPInput input = new BytesValueRLPInput(data, false);
+    input.enterList();
+    return Hash.wrap(input.readBytes32());
+  }
+
+  /** @return the key hash of the first entry to return, or where it would be if absent */
+  public Bytes32 startKeyHash() {
+    final RLPInput input = new BytesValueRLPInput(data, false);
+    input.enterList();
+    input.skipNext();
+    return input.readBytes32();
+  }
+
+  /** @return the maximum number of entries to return */
+  public int maxEntries() {
+    final RLPInput input = new BytesValueRLPInput(data, false);
+    input.enterList();
+    input.skipNext();
+    input.skipNext();
+    return input.readIntScalar();
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.messages;
+
+import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
+import tech.pegasys.pantheon.ethereum.p2p.wire.AbstractMessageData;
+import tech.pegasys.pantheon.ethereum.rlp.BytesValueRLPInput;
+import tech.pegasys.pantheon.ethereum.rlp.BytesValueRLPOutput;
+import tech.pegasys.pantheon.ethereum.rlp.RLPInput;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * A range of trie entries in order of their key hashes, along with the trie nodes on the paths from
+ * the root to the first and last entry.
+ */
+public final class StateRangeMessage extends AbstractMessageData {
+
+  private final int code;
+
+  public static StateRangeMessage readFrom(final MessageData message) {
+    if (message instanceof StateRangeMessage) {
+      return (StateRangeMessage) message;
+    }
+    final int code = message.getCode();
+    if (code != StateRangePV1.ACCOUNT_RANGE && code != StateRangePV1.STORAGE_RANGE) {
+      throw new IllegalArgumentException(
+          String.format("Message has code %d and thus is not a StateRangeMessage.", code));
+    }
+    return new StateRangeMessage(code, message.getData());
+  }
+
+  public static StateRangeMessage createForAccounts(
+      final Map<Bytes32, BytesValue> entries, final Iterable<BytesValue> proof) {
+    return create(StateRangePV1.ACCOUNT_RANGE, entries, proof);
+  }
+
+  public static StateRangeMessage createForStorage(
+      final Map<Bytes32, BytesValue> entries, final Iterable<BytesValue> proof) {
+    return create(StateRangePV1.STORAGE_RANGE, entries, proof);
+  }
+
+  private static StateRangeMessage create(
+      final int code, final Map<Bytes32, BytesValue> entries, final Iterable<BytesValue> proof) {
+    final BytesValueRLPOutput tmp = new BytesValueRLPOutput();
+    tmp.startList();
+    tmp.startList();
+    entries.forEach(
+        (keyHash, value) -> {
+          tmp.startList();
+          tmp.writeBytesValue(keyHash);
+          tmp.writeBytesValue(value);
+          tmp.endList();
+        });
+    tmp.endList();
+    tmp.startList();
+    proof.forEach(tmp::writeBytesValue);
+    tmp.endList();
+    tmp.endList();
+    return new StateRangeMessage(code, tmp.encoded());
+  }
+
+  private StateRangeMessage(final int code, final BytesValue data) {
+    super(data);
+    this.code = code;
+  }
+
+  @Override
+  public int getCode() {
+    return code;
+  }
+
+  /** @return the entries in the range, by key hash */
+  public SortedMap<Bytes32, BytesValue> entries() {
+    final RLPInput input = new BytesValueRLPInput(data, false);
+    input.enterList();
+    input.enterList();
+    final SortedMap<Bytes32, BytesValue> entries = new TreeMap<>();
+    while (!input.isEndOfCurrentList()) {
+      input.enterList();
+      entries.put(input.readBytes32(), input.readBytesValue());
+      input.leaveList();
+    }
+    input.leaveList();
+    return entries;
+  }
+
+  /** @return the RLP of the trie nodes proving the first and last entries are in the trie */
+  public List<BytesValue> proof() {
+    final RLPInput input = new BytesValueRLPInput(data, false);
+    input.enterList();
+    input.skipNext();
+    input.enterList();
+    final List<BytesValue> proof = new ArrayList<>();
+    while (!input.isEndOfCurrentList()) {
+      proof.add(input.readBytesValue());
+    }
+    input.leaveList();
+    return proof;
+  }
+}
@@ -47,6 +47,24 @@ public class TransactionsMessage extends AbstractMessageData {
     return new TransactionsMessage(tmp.encoded());
   }
 
+  /**
+   * Creates a message from transactions which have already been RLP encoded, so transactions sent
+   * to several peers only need to be encoded once.
+   *
+   * @param encodedTransactions the RLP encoded transactions
+   * @return the message
+   */
+  public static TransactionsMessage createFromEncoded(
+      final Iterable<BytesValue> encodedTransactions) {
+    final BytesValueRLPOutput tmp = new BytesValueRLPOutput();
+    tmp.startList();
+    for (final BytesValue encodedTransaction : encodedTransactions) {
+      tmp.writeRLPUnsafe(encodedTransaction);
+    }
+    tmp.endList();
+    return new TransactionsMessage(tmp.encoded());
+  }
+
   private TransactionsMessage(final BytesValue data) {
     super(data);
   }
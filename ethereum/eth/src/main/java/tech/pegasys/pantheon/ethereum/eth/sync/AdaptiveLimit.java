@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.util.ExceptionUtils;
+
+import java.time.Clock;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * A limit, such as the number of requests in flight or the number of items per request, which
+ * adapts to how well peers are keeping up using additive increase and multiplicative decrease.
+ *
+ * <p>The limit starts below its maximum and grows by a fixed increment after each successful
+ * response, probing for how much peers can handle. It is halved when a request fails or is cut
+ * short by the peer, and cut by a quarter when a response takes much longer than the recent
+ * average. It never leaves the range between its minimum and maximum, so the configured value
+ * remains an upper bound.
+ *
+ * <p>Thread safe.
+ */
+public class AdaptiveLimit implements IntSupplier {
+  static final double LATENCY_SMOOTHING_FACTOR = 0.2;
+  static final double SLOW_RESPONSE_FACTOR = 2;
+  static final double FAILURE_DECREASE_FACTOR = 0.5;
+  static final double SLOW_RESPONSE_DECREASE_FACTOR = 0.75;
+
+  private final int minimum;
+  private final int maximum;
+  private final int increment;
+
+  private double limit;
+  private boolean measured = false;
+  private double averageLatencyMillis = 0;
+
+  public AdaptiveLimit(
+      final int minimum, final int initial, final int maximum, final int increment) {
+    checkArgument(minimum >= 1, "Minimum must be at least 1");
+    checkArgument(initial >= minimum, "Initial value must not be less than the minimum");
+    checkArgument(maximum >= initial, "Maximum must not be less than the initial value");
+    checkArgument(increment >= 1, "Increment must be at least 1");
+    this.minimum = minimum;
+    this.maximum = maximum;
+    this.increment = increment;
+    this.limit = initial;
+  }
+
+  /**
+   * Creates a limit and exports its current value as a gauge.
+   *
+   * @param metricsSystem the metrics system to register the gauge with
+   * @param name the name of the gauge
+   * @param help the help text for the gauge
+   * @param minimum the smallest value the limit may take
+   * @param initial the value the limit starts at
+   * @param maximum the largest value the limit may take, usually the configured value
+   * @param increment the amount the limit grows by after each successful response
+   * @return the new limit
+   */
+  public static AdaptiveLimit create(
+      final MetricsSystem metricsSystem,
+      final String name,
+      final String help,
+      final int minimum,
+      final int initial,
+      final int maximum,
+      final int increment) {
+    final AdaptiveLimit adaptiveLimit = new AdaptiveLimit(minimum, initial, maximum, increment);
+    metricsSystem.createIntegerGauge(
+        MetricCategory.SYNCHRONIZER, name, help, adaptiveLimit::getAsInt);
+    return adaptiveLimit;
+  }
+
+  /**
+   * Records a complete response.
+   *
+   * @param latencyMillis the time in milliseconds taken to receive the response
+   */
+  public synchronized void recordSuccess(final long latencyMillis) {
+    if (measured && latencyMillis > Math.max(1, averageLatencyMillis) * SLOW_RESPONSE_FACTOR) {
+      decrease(SLOW_RESPONSE_DECREASE_FACTOR);
+    } else {
+      limit = Math.min(maximum, limit + increment);
+    }
+    if (!measured) {
+      measured = true;
+      averageLatencyMillis = latencyMillis;
+    } else {
+      averageLatencyMillis += LATENCY_SMOOTHING_FACTOR * (latencyMillis - averageLatencyMillis);
+    }
+  }
+
+  /** Records a response which the peer cut short because it reached the peer's size limit. */
+  public synchronized void recordCappedResponse() {
+    decrease(FAILURE_DECREASE_FACTOR);
+  }
+
+  /** Records a request which timed out or received no data. */
+  public synchronized void recordFailure() {
+    decrease(FAILURE_DECREASE_FACTOR);
+  }
+
+  private void decrease(final double factor) {
+    limit = Math.max(minimum, limit * factor);
+  }
+
+  @Override
+  public synchronized int getAsInt() {
+    return (int) limit;
+  }
+
+  /**
+   * Wraps an asynchronous pipeline stage so the time taken by each operation and whether it
+   * succeeded is recorded against this limit. Operations cancelled because the pipeline was
+   * aborted are ignored.
+   *
+   * @param step the stage to wrap
+   * @param clock the clock used to time each operation
+   * @param <I> the type of input to the stage
+   * @param <O> the type of output from the stage
+   * @return the wrapped stage
+   */
+  public <I, O> Function<I, CompletableFuture<O>> track(
+      final Function<I, CompletableFuture<O>> step, final Clock clock) {
+    return input -> {
+      final long startMillis = clock.millis();
+      final CompletableFuture<O> result = step.apply(input);
+      // Return the original future so cancelling it still cancels the operation.
+      result.whenComplete(
+          (value, error) -> {
+            if (error == null) {
+              recordSuccess(clock.millis() - startMillis);
+            } else if (!(ExceptionUtils.rootCause(error) instanceof CancellationException)) {
+              recordFailure();
+            }
+          });
+      return result;
+    };
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "AdaptiveLimit{"
+        + "limit="
+        + getAsInt()
+        + ", minimum="
+        + minimum
+        + ", maximum="
+        + maximum
+        + ", averageLatencyMillis="
+        + Math.round(averageLatencyMillis)
+        + '}';
+  }
+}
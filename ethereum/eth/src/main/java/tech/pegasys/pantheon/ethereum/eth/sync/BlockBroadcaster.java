@@ -14,10 +14,19 @@ package tech.pegasys.pantheon.ethereum.eth.sync;
 
 import tech.pegasys.pantheon.ethereum.core.Block;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer;
+import tech.pegasys.pantheon.ethereum.eth.messages.NewBlockHashesMessage;
+import tech.pegasys.pantheon.ethereum.eth.messages.NewBlockHashesMessage.NewBlockHash;
 import tech.pegasys.pantheon.ethereum.eth.messages.NewBlockMessage;
+import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
 import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -31,19 +40,56 @@ public class BlockBroadcaster {
   }
 
   public void propagate(final Block block, final UInt256 totalDifficulty) {
-    final NewBlockMessage newBlockMessage = NewBlockMessage.create(block, totalDifficulty);
-    ethContext
+    send(block, peersWithoutBlock(block), NewBlockMessage.create(block, totalDifficulty));
+  }
+
+  /**
+   * Sends the block to the square root of the number of peers which haven't seen it, chosen at
+   * random. Every node relaying to a subset is enough for the block to reach the whole network
+   * quickly without each peer receiving it in full many times over.
+   *
+   * @param block the block to relay
+   * @param totalDifficulty the total difficulty of the chain ending at the block
+   */
+  public void relayToSubset(final Block block, final UInt256 totalDifficulty) {
+    final List<EthPeer> peers = peersWithoutBlock(block);
+    Collections.shuffle(peers);
+    final int relayCount = (int) Math.ceil(Math.sqrt(peers.size()));
+    send(block, peers.subList(0, relayCount), NewBlockMessage.create(block, totalDifficulty));
+  }
+
+  /**
+   * Announces the hash of the block to every peer which hasn't seen it, leaving them to request
+   * the block if they still need it.
+   *
+   * @param block the block to announce
+   */
+  public void announce(final Block block) {
+    final NewBlockHash newBlockHash =
+        new NewBlockHash(block.getHash(), block.getHeader().getNumber());
+    send(
+        block,
+        peersWithoutBlock(block),
+        NewBlockHashesMessage.create(Collections.singletonList(newBlockHash)));
+  }
+
+  private List<EthPeer> peersWithoutBlock(final Block block) {
+    return ethContext
         .getEthPeers()
         .availablePeers()
         .filter(ethPeer -> !ethPeer.hasSeenBlock(block.getHash()))
-        .forEach(
-            ethPeer -> {
-              ethPeer.registerKnownBlock(block.getHash());
-              try {
-                ethPeer.send(newBlockMessage);
-              } catch (PeerConnection.PeerNotConnected e) {
-                LOG.trace("Failed to broadcast new block to peer", e);
-              }
-            });
+        .collect(Collectors.toList());
+  }
+
+  private void send(final Block block, final Collection<EthPeer> peers, final MessageData message) {
+    peers.forEach(
+        ethPeer -> {
+          ethPeer.registerKnownBlock(block.getHash());
+          try {
+            ethPeer.send(message);
+          } catch (PeerConnection.PeerNotConnected e) {
+            LOG.trace("Failed to broadcast new block to peer", e);
+          }
+        });
   }
 }
@@ -37,7 +37,10 @@ import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSpec;
 import tech.pegasys.pantheon.ethereum.p2p.wire.messages.DisconnectMessage.DisconnectReason;
 import tech.pegasys.pantheon.ethereum.rlp.RLPException;
+import tech.pegasys.pantheon.metrics.MetricCategory;
 import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.OperationTimer;
+import tech.pegasys.pantheon.metrics.OperationTimer.TimingContext;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.util.ArrayList;
@@ -66,6 +69,7 @@ public class BlockPropagationManager<C> {
   private final SyncState syncState;
   private final MetricsSystem metricsSystem;
   private final BlockBroadcaster blockBroadcaster;
+  private final OperationTimer relayLatencyTimer;
 
   private final AtomicBoolean started = new AtomicBoolean(false);
 
@@ -90,6 +94,11 @@ public class BlockPropagationManager<C> {
     this.blockBroadcaster = blockBroadcaster;
     this.syncState = syncState;
     this.pendingBlocks = pendingBlocks;
+    this.relayLatencyTimer =
+        metricsSystem.createTimer(
+            MetricCategory.SYNCHRONIZER,
+            "block_propagation_relay_latency_seconds",
+            "Time between receiving a new block connected to the chain and relaying it to peers");
   }
 
   public void start() {
@@ -245,7 +254,12 @@ public class BlockPropagationManager<C> {
             .getTotalDifficultyByHash(parent.getHash())
             .get()
             .plus(block.getHeader().getDifficulty());
-    blockBroadcaster.propagate(block, totalDifficulty);
+    if (config.blockPropagationRelayToSubset()) {
+      // The remaining peers are sent an announcement once the block is imported
+      blockBroadcaster.relayToSubset(block, totalDifficulty);
+    } else {
+      blockBroadcaster.propagate(block, totalDifficulty);
+    }
   }
 
   @VisibleForTesting
@@ -288,22 +302,37 @@ public class BlockPropagationManager<C> {
                             + block.getHeader().getNumber()
                             + "."));
 
+    final TimingContext relayTimingContext = relayLatencyTimer.startTimer();
     final ProtocolSpec<C> protocolSpec =
         protocolSchedule.getByBlockNumber(block.getHeader().getNumber());
     final BlockHeaderValidator<C> blockHeaderValidator = protocolSpec.getBlockHeaderValidator();
     return ethContext
         .getScheduler()
         .scheduleSyncWorkerTask(
-            () -> validateAndProcessPendingBlock(blockHeaderValidator, block, parent));
+            () ->
+                validateAndProcessPendingBlock(
+                    blockHeaderValidator, block, parent, relayTimingContext));
   }
 
   private CompletableFuture<Block> validateAndProcessPendingBlock(
       final BlockHeaderValidator<C> blockHeaderValidator,
       final Block block,
-      final BlockHeader parent) {
-    if (blockHeaderValidator.validateHeader(
-        block.getHeader(), parent, protocolContext, HeaderValidationMode.FULL)) {
-      ethContext.getScheduler().scheduleSyncWorkerTask(() -> broadcastBlock(block, parent));
+      final BlockHeader parent,
+      final TimingContext relayTimingContext) {
+    // Only the header needs to be valid for the block to be relayed, so it isn't held up by
+    // executing the block
+    final boolean headerValid;
+    try {
+      headerValid =
+          blockHeaderValidator.validateHeader(
+              block.getHeader(), parent, protocolContext, HeaderValidationMode.FULL);
+      if (headerValid) {
+        broadcastBlock(block, parent);
+      }
+    } finally {
+      relayTimingContext.stopTimer();
+    }
+    if (headerValid) {
       return runImportTask(block);
     } else {
       importingBlocks.remove(block.getHash());
@@ -330,6 +359,9 @@ public class BlockPropagationManager<C> {
                     block.getHeader().getNumber(),
                     block.getHash());
               } else {
+                if (config.blockPropagationRelayToSubset()) {
+                  blockBroadcaster.announce(block);
+                }
                 final double timeInS = importTask.getTaskTimeInSec();
                 LOG.info(
                     String.format(
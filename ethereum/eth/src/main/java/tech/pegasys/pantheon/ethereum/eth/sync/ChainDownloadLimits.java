@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync;
+
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+
+/**
+ * The adaptive limits on the number of requests in flight for each downloading stage of a chain
+ * download pipeline. Each starts at half the configured downloader parallelism and is bounded by
+ * it.
+ *
+ * <p>Pipelines are recreated for each sync target, so the limits are created once per sync mode
+ * and shared between them, keeping what has been learnt about peers and registering each gauge
+ * only once.
+ */
+public class ChainDownloadLimits {
+  private final AdaptiveLimit downloadHeadersConcurrency;
+  private final AdaptiveLimit downloadBodiesConcurrency;
+  private final AdaptiveLimit downloadReceiptsConcurrency;
+
+  private ChainDownloadLimits(
+      final AdaptiveLimit downloadHeadersConcurrency,
+      final AdaptiveLimit downloadBodiesConcurrency,
+      final AdaptiveLimit downloadReceiptsConcurrency) {
+    this.downloadHeadersConcurrency = downloadHeadersConcurrency;
+    this.downloadBodiesConcurrency = downloadBodiesConcurrency;
+    this.downloadReceiptsConcurrency = downloadReceiptsConcurrency;
+  }
+
+  /**
+   * Creates the limits and exports their current values as gauges.
+   *
+   * @param syncConfig the synchronizer configuration providing the downloader parallelism
+   * @param metricsSystem the metrics system
+   * @param syncMode the name of the sync mode the limits are for, used as the gauge name prefix
+   * @return the new limits
+   */
+  public static ChainDownloadLimits create(
+      final SynchronizerConfiguration syncConfig,
+      final MetricsSystem metricsSystem,
+      final String syncMode) {
+    final int parallelism = syncConfig.downloaderParallelism();
+    return new ChainDownloadLimits(
+        concurrencyLimit(metricsSystem, syncMode, "headers", parallelism),
+        concurrencyLimit(metricsSystem, syncMode, "bodies", parallelism),
+        concurrencyLimit(metricsSystem, syncMode, "receipts", parallelism));
+  }
+
+  private static AdaptiveLimit concurrencyLimit(
+      final MetricsSystem metricsSystem,
+      final String syncMode,
+      final String stage,
+      final int parallelism) {
+    return AdaptiveLimit.create(
+        metricsSystem,
+        syncMode + "_download_" + stage + "_concurrency_limit",
+        "Current limit on the number of " + stage + " requests the chain download makes at once",
+        1,
+        Math.max(1, parallelism / 2),
+        parallelism,
+        1);
+  }
+
+  public AdaptiveLimit getDownloadHeadersConcurrency() {
+    return downloadHeadersConcurrency;
+  }
+
+  public AdaptiveLimit getDownloadBodiesConcurrency() {
+    return downloadBodiesConcurrency;
+  }
+
+  public AdaptiveLimit getDownloadReceiptsConcurrency() {
+    return downloadReceiptsConcurrency;
+  }
+}
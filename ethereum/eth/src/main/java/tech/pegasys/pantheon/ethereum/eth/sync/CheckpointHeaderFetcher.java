@@ -73,6 +73,24 @@ public class CheckpointHeaderFetcher {
     return requestHeaders(peer, lastHeader, additionalHeaderCount, skip);
   }
 
+  /**
+   * Determines whether the sync target's chain head comes before the next checkpoint after
+   * <i>previousCheckpoint</i>. If so, there are no more checkpoints to retrieve and the remaining
+   * blocks have to be downloaded without one.
+   *
+   * @param peer the peer checkpoints are retrieved from
+   * @param previousCheckpoint the last checkpoint header retrieved
+   * @return true if the blocks after <i>previousCheckpoint</i> lead up to the chain head
+   */
+  public boolean nextCheckpointEndsAtChainHead(
+      final EthPeer peer, final BlockHeader previousCheckpoint) {
+    if (lastCheckpointHeader.isPresent()) {
+      return false;
+    }
+    final int segmentSize = syncConfig.downloaderChainSegmentSize();
+    return previousCheckpoint.getNumber() + segmentSize > peer.chainState().getEstimatedHeight();
+  }
+
   private CompletableFuture<List<BlockHeader>> requestHeaders(
       final EthPeer peer,
       final BlockHeader referenceHeader,
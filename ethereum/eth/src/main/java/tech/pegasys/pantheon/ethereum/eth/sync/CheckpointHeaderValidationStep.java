@@ -39,6 +39,10 @@ public class CheckpointHeaderValidationStep<C>
 
   @Override
   public Stream<BlockHeader> apply(final CheckpointRangeHeaders checkpointRangeHeaders) {
+    if (checkpointRangeHeaders.getHeadersToImport().isEmpty()) {
+      // The sync target had no blocks after the start of a range without an end
+      return Stream.empty();
+    }
     final BlockHeader expectedParent = checkpointRangeHeaders.getCheckpointRange().getStart();
     final BlockHeader firstHeaderToImport = checkpointRangeHeaders.getFirstHeaderToImport();
 
@@ -17,24 +17,41 @@ import static java.lang.Math.toIntExact;
 import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 
 import java.util.Objects;
+import java.util.Optional;
 
 import com.google.common.base.MoreObjects;
 
+/**
+ * A range of blocks to download, starting after the block at <i>start</i>.
+ *
+ * <p>Most ranges end at a checkpoint header that has already been retrieved. The blocks after the
+ * last checkpoint leading up to the sync target's chain head are downloaded as a range with no
+ * end.
+ */
 public class CheckpointRange {
   private final BlockHeader start;
-  private final BlockHeader end;
+  private final Optional<BlockHeader> end;
 
   public CheckpointRange(final BlockHeader start, final BlockHeader end) {
     this.start = start;
-    this.end = end;
+    this.end = Optional.of(end);
+  }
+
+  public CheckpointRange(final BlockHeader start) {
+    this.start = start;
+    this.end = Optional.empty();
   }
 
   public BlockHeader getStart() {
     return start;
   }
 
+  public boolean hasEnd() {
+    return end.isPresent();
+  }
+
   public BlockHeader getEnd() {
-    return end;
+    return end.get();
   }
 
   @Override
@@ -58,11 +75,11 @@ public class CheckpointRange {
   public String toString() {
     return MoreObjects.toStringHelper(this)
         .add("start", start.getNumber())
-        .add("end", end.getNumber())
+        .add("end", end.map(BlockHeader::getNumber))
         .toString();
   }
 
   public int getSegmentLength() {
-    return toIntExact(end.getNumber() - start.getNumber());
+    return toIntExact(getEnd().getNumber() - start.getNumber());
   }
 }
@@ -27,7 +27,9 @@ public class CheckpointRangeHeaders {
 
   public CheckpointRangeHeaders(
       final CheckpointRange checkpointRange, final List<BlockHeader> headersToImport) {
-    checkArgument(!headersToImport.isEmpty(), "Must have at least one header to import");
+    checkArgument(
+        !headersToImport.isEmpty() || !checkpointRange.hasEnd(),
+        "Must have at least one header to import");
     this.checkpointRange = checkpointRange;
     this.headersToImport = headersToImport;
   }
@@ -49,6 +49,7 @@ public class CheckpointRangeSource implements Iterator<CheckpointRange> {
   private Optional<CompletableFuture<List<BlockHeader>>> pendingCheckpointsRequest =
       Optional.empty();
   private int requestFailureCount = 0;
+  private boolean reachedEndOfCheckpoints = false;
 
   public CheckpointRangeSource(
       final CheckpointHeaderFetcher checkpointFetcher,
@@ -71,7 +72,8 @@ public class CheckpointRangeSource implements Iterator<CheckpointRange> {
   public boolean hasNext() {
     return !retrievedRanges.isEmpty()
         || (requestFailureCount < checkpointTimeoutsPermitted
-            && syncTargetChecker.shouldContinueDownloadingFromSyncTarget(peer, lastRangeEnd));
+            && syncTargetChecker.shouldContinueDownloadingFromSyncTarget(peer, lastRangeEnd)
+            && !reachedEndOfCheckpoints);
   }
 
   @Override
@@ -82,6 +84,13 @@ public class CheckpointRangeSource implements Iterator<CheckpointRange> {
     if (pendingCheckpointsRequest.isPresent()) {
       return getCheckpointRangeFromPendingRequest();
     }
+    if (reachedEndOfCheckpoints) {
+      return null;
+    }
+    if (checkpointFetcher.nextCheckpointEndsAtChainHead(peer, lastRangeEnd)) {
+      reachedEndOfCheckpoints = true;
+      return new CheckpointRange(lastRangeEnd);
+    }
     pendingCheckpointsRequest = Optional.of(getNextCheckpointHeaders());
     return getCheckpointRangeFromPendingRequest();
   }
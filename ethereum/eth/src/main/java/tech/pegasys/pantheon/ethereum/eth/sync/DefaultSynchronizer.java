@@ -18,6 +18,7 @@ import tech.pegasys.pantheon.ethereum.ProtocolContext;
 import tech.pegasys.pantheon.ethereum.core.SyncStatus;
 import tech.pegasys.pantheon.ethereum.core.Synchronizer;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.sync.fastsync.ChainBackfiller;
 import tech.pegasys.pantheon.ethereum.eth.sync.fastsync.FastDownloaderFactory;
 import tech.pegasys.pantheon.ethereum.eth.sync.fastsync.FastSyncDownloader;
 import tech.pegasys.pantheon.ethereum.eth.sync.fastsync.FastSyncException;
@@ -49,6 +50,7 @@ public class DefaultSynchronizer<C> implements Synchronizer {
   private final BlockPropagationManager<C> blockPropagationManager;
   private final Optional<FastSyncDownloader<C>> fastSyncDownloader;
   private final FullSyncDownloader<C> fullSyncDownloader;
+  private final ChainBackfiller<C> chainBackfiller;
 
   public DefaultSynchronizer(
       final SynchronizerConfiguration syncConfig,
@@ -83,6 +85,9 @@ public class DefaultSynchronizer<C> implements Synchronizer {
     this.fullSyncDownloader =
         new FullSyncDownloader<>(
             syncConfig, protocolSchedule, protocolContext, ethContext, syncState, metricsSystem);
+    this.chainBackfiller =
+        new ChainBackfiller<>(
+            syncConfig, protocolSchedule, protocolContext, ethContext, syncState, metricsSystem);
     this.fastSyncDownloader =
         FastDownloaderFactory.create(
             syncConfig,
@@ -138,6 +143,13 @@ public class DefaultSynchronizer<C> implements Synchronizer {
     LOG.info("Starting synchronizer.");
     blockPropagationManager.start();
     fullSyncDownloader.start();
+    chainBackfiller.start().whenComplete(this::handleChainBackfillResult);
+  }
+
+  private void handleChainBackfillResult(final Void result, final Throwable error) {
+    if (error != null) {
+      LOG.error("Chain backfill failed.", error);
+    }
   }
 
   @Override
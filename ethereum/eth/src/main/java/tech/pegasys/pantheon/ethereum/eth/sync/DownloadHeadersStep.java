@@ -15,7 +15,12 @@ package tech.pegasys.pantheon.ethereum.eth.sync;
 import tech.pegasys.pantheon.ethereum.ProtocolContext;
 import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.manager.task.AbstractPeerTask.PeerTaskResult;
+import tech.pegasys.pantheon.ethereum.eth.manager.task.GetHeadersFromPeerByHashTask;
 import tech.pegasys.pantheon.ethereum.eth.sync.tasks.DownloadHeaderSequenceTask;
+import tech.pegasys.pantheon.ethereum.eth.sync.tasks.exceptions.InvalidBlockException;
+import tech.pegasys.pantheon.ethereum.mainnet.BlockHeaderValidator;
+import tech.pegasys.pantheon.ethereum.mainnet.HeaderValidationMode;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
 import tech.pegasys.pantheon.metrics.MetricsSystem;
 import tech.pegasys.pantheon.util.FutureUtils;
@@ -32,6 +37,7 @@ public class DownloadHeadersStep<C>
   private final ProtocolContext<C> protocolContext;
   private final EthContext ethContext;
   private final ValidationPolicy validationPolicy;
+  private final int headerRequestSize;
   private final MetricsSystem metricsSystem;
 
   public DownloadHeadersStep(
@@ -39,11 +45,13 @@ public class DownloadHeadersStep<C>
       final ProtocolContext<C> protocolContext,
       final EthContext ethContext,
       final ValidationPolicy validationPolicy,
+      final int headerRequestSize,
       final MetricsSystem metricsSystem) {
     this.protocolSchedule = protocolSchedule;
     this.protocolContext = protocolContext;
     this.ethContext = ethContext;
     this.validationPolicy = validationPolicy;
+    this.headerRequestSize = headerRequestSize;
     this.metricsSystem = metricsSystem;
   }
 
@@ -58,6 +66,19 @@ public class DownloadHeadersStep<C>
 
   private CompletableFuture<List<BlockHeader>> downloadHeaders(
       final CheckpointRange checkpointRange) {
+    if (!checkpointRange.hasEnd()) {
+      final BlockHeader start = checkpointRange.getStart();
+      // + 1 because the range starting header will be returned as well.
+      return GetHeadersFromPeerByHashTask.startingAtHash(
+              protocolSchedule,
+              ethContext,
+              start.getHash(),
+              start.getNumber(),
+              headerRequestSize + 1,
+              metricsSystem)
+          .run()
+          .thenApply(PeerTaskResult::getResult);
+    }
     return DownloadHeaderSequenceTask.endingAtHeader(
             protocolSchedule,
             protocolContext,
@@ -72,8 +93,43 @@ public class DownloadHeadersStep<C>
 
   private CheckpointRangeHeaders processHeaders(
       final CheckpointRange checkpointRange, final List<BlockHeader> headers) {
+    if (!checkpointRange.hasEnd()) {
+      return new CheckpointRangeHeaders(
+          checkpointRange, validateHeadersAfterStart(checkpointRange.getStart(), headers));
+    }
     final List<BlockHeader> headersToImport = new ArrayList<>(headers);
     headersToImport.add(checkpointRange.getEnd());
     return new CheckpointRangeHeaders(checkpointRange, headersToImport);
   }
+
+  /**
+   * Without an end checkpoint the headers haven't been validated as a sequence by the download, so
+   * each one after the first is checked against the one before. The first is checked against the
+   * range start by {@link CheckpointHeaderValidationStep}.
+   */
+  private List<BlockHeader> validateHeadersAfterStart(
+      final BlockHeader start, final List<BlockHeader> headers) {
+    final List<BlockHeader> headersToImport = new ArrayList<>(headers.size());
+    for (final BlockHeader header : headers) {
+      if (header.getNumber() <= start.getNumber()) {
+        continue;
+      }
+      if (!headersToImport.isEmpty()) {
+        final BlockHeader parent = headersToImport.get(headersToImport.size() - 1);
+        final BlockHeaderValidator<C> validator =
+            protocolSchedule.getByBlockNumber(header.getNumber()).getBlockHeaderValidator();
+        final HeaderValidationMode validationMode =
+            validationPolicy.getValidationModeForNextBlock();
+        if (!header.getParentHash().equals(parent.getHash())
+            || !validator.validateHeader(header, parent, protocolContext, validationMode)) {
+          throw new InvalidBlockException(
+              "Invalid header in range after last checkpoint",
+              header.getNumber(),
+              header.getHash());
+        }
+      }
+      headersToImport.add(header);
+    }
+    return headersToImport;
+  }
 }
@@ -16,7 +16,18 @@ public enum SyncMode {
   // Fully validate all blocks as they sync
   FULL,
   // Perform light validation on older blocks, and switch to full validation for more recent blocks
-  FAST;
+  FAST,
+  // As for FAST, but download the world state as ranges of accounts and storage from peers that
+  // support it, then fill in any remaining gaps node by node
+  RANGE,
+  // Start from a configured trusted block, downloading only its world state, and fill in the chain
+  // before it in the background
+  CHECKPOINT;
+
+  /** @return true if the world state is downloaded for a pivot block instead of built by import */
+  public boolean isFastSync() {
+    return this == FAST || this == RANGE || this == CHECKPOINT;
+  }
 
   public static SyncMode fromString(final String str) {
     for (final SyncMode mode : SyncMode.values()) {
@@ -18,6 +18,7 @@ import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.time.Duration;
 import java.util.Iterator;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Splitter;
@@ -45,12 +46,15 @@ public class SynchronizerConfiguration {
   private final int worldStateHashCountPerRequest;
   private final int worldStateRequestParallelism;
   private final int worldStateMaxRequestsWithoutProgress;
+  private final Optional<TrustedBlock> trustedBlock;
 
   // Block propagation config
   private final Range<Long> blockPropagationRange;
+  private final boolean blockPropagationRelayToSubset;
 
   // General config
   private final SyncMode syncMode;
+  private final boolean stateRangeServingEnabled;
 
   // Downloader config
   private final long downloaderChangeTargetThresholdByHeight;
@@ -60,6 +64,7 @@ public class SynchronizerConfiguration {
   private final int downloaderChainSegmentTimeoutsPermitted;
   private final int downloaderChainSegmentSize;
   private final int downloaderParallelism;
+  private final boolean fullSyncPipelineEnabled;
   private final int transactionsParallelism;
   private final int computationParallelism;
   private final int maxTrailingPeers;
@@ -74,8 +79,11 @@ public class SynchronizerConfiguration {
       final int worldStateRequestParallelism,
       final int worldStateMaxRequestsWithoutProgress,
       final long worldStateMinMillisBeforeStalling,
+      final Optional<TrustedBlock> trustedBlock,
       final Range<Long> blockPropagationRange,
+      final boolean blockPropagationRelayToSubset,
       final SyncMode syncMode,
+      final boolean stateRangeServingEnabled,
       final long downloaderChangeTargetThresholdByHeight,
       final UInt256 downloaderChangeTargetThresholdByTd,
       final int downloaderHeaderRequestSize,
@@ -83,6 +91,7 @@ public class SynchronizerConfiguration {
       final int downloaderChainSegmentTimeoutsPermitted,
       final int downloaderChainSegmentSize,
       final int downloaderParallelism,
+      final boolean fullSyncPipelineEnabled,
       final int transactionsParallelism,
       final int computationParallelism,
       final int maxTrailingPeers) {
@@ -94,8 +103,11 @@ public class SynchronizerConfiguration {
     this.worldStateRequestParallelism = worldStateRequestParallelism;
     this.worldStateMaxRequestsWithoutProgress = worldStateMaxRequestsWithoutProgress;
     this.worldStateMinMillisBeforeStalling = worldStateMinMillisBeforeStalling;
+    this.trustedBlock = trustedBlock;
     this.blockPropagationRange = blockPropagationRange;
+    this.blockPropagationRelayToSubset = blockPropagationRelayToSubset;
     this.syncMode = syncMode;
+    this.stateRangeServingEnabled = stateRangeServingEnabled;
     this.downloaderChangeTargetThresholdByHeight = downloaderChangeTargetThresholdByHeight;
     this.downloaderChangeTargetThresholdByTd = downloaderChangeTargetThresholdByTd;
     this.downloaderHeaderRequestSize = downloaderHeaderRequestSize;
@@ -103,6 +115,7 @@ public class SynchronizerConfiguration {
     this.downloaderChainSegmentTimeoutsPermitted = downloaderChainSegmentTimeoutsPermitted;
     this.downloaderChainSegmentSize = downloaderChainSegmentSize;
     this.downloaderParallelism = downloaderParallelism;
+    this.fullSyncPipelineEnabled = fullSyncPipelineEnabled;
     this.transactionsParallelism = transactionsParallelism;
     this.computationParallelism = computationParallelism;
     this.maxTrailingPeers = maxTrailingPeers;
@@ -132,6 +145,27 @@ public class SynchronizerConfiguration {
     return blockPropagationRange;
   }
 
+  /**
+   * Whether new blocks received from the network are relayed in full to only a subset of peers once
+   * their header is valid, and announced by hash to the remaining peers once imported.
+   *
+   * @return true if blocks are relayed to a subset of peers
+   */
+  public boolean blockPropagationRelayToSubset() {
+    return blockPropagationRelayToSubset;
+  }
+
+  /**
+   * Whether the state range protocol is registered with peers, so world state ranges are served
+   * to them. Serving a range reads through a large part of the world state, so this is off unless
+   * asked for. Range sync always registers the protocol, as it's needed to request ranges.
+   *
+   * @return true if the state range protocol is registered
+   */
+  public boolean stateRangeProtocolEnabled() {
+    return stateRangeServingEnabled || syncMode == SyncMode.RANGE;
+  }
+
   /**
    * The distance from the chain head at which we should switch from fast sync to full sync.
    *
@@ -169,6 +203,16 @@ public class SynchronizerConfiguration {
     return downloaderParallelism;
   }
 
+  /**
+   * Whether full sync downloads and imports blocks through a pipeline of concurrent steps, rather
+   * than in chain segments run as a series of tasks.
+   *
+   * @return true if full sync uses the pipeline downloader
+   */
+  public boolean fullSyncPipelineEnabled() {
+    return fullSyncPipelineEnabled;
+  }
+
   public int transactionsParallelism() {
     return transactionsParallelism;
   }
@@ -212,6 +256,15 @@ public class SynchronizerConfiguration {
     return worldStateMinMillisBeforeStalling;
   }
 
+  /**
+   * The block checkpoint sync starts the chain from.
+   *
+   * @return the trusted block, if one is configured
+   */
+  public Optional<TrustedBlock> getTrustedBlock() {
+    return trustedBlock;
+  }
+
   public int getMaxTrailingPeers() {
     return maxTrailingPeers;
   }
@@ -241,6 +294,38 @@ public class SynchronizerConfiguration {
 
     private Range<Long> blockPropagationRange = Range.closed(-10L, 30L);
 
+    @CommandLine.Option(
+        names = "--Xsynchronizer-state-range-serving-enabled",
+        hidden = true,
+        arity = "1",
+        defaultValue = "false",
+        paramLabel = "<BOOLEAN>",
+        description =
+            "Serve world state ranges to peers over the state range protocol (default: ${DEFAULT-VALUE})")
+    private boolean stateRangeServingEnabled = false;
+
+    @CommandLine.Option(
+        names = "--Xsynchronizer-block-propagation-relay-to-subset",
+        hidden = true,
+        arity = "1",
+        defaultValue = "false",
+        paramLabel = "<BOOLEAN>",
+        description =
+            "Relay inbound blocks to a subset of peers before import and announce them to the rest after (default: ${DEFAULT-VALUE})")
+    private boolean blockPropagationRelayToSubset = false;
+
+    @CommandLine.Option(
+        names = "--Xsynchronizer-trusted-block",
+        hidden = true,
+        paramLabel = "<LONG>:<HASH>:<UINT256>",
+        description =
+            "Number, hash and total difficulty of the block checkpoint sync starts the chain from")
+    public void parseTrustedBlock(final String arg) {
+      trustedBlock = Optional.of(TrustedBlock.fromString(arg));
+    }
+
+    private Optional<TrustedBlock> trustedBlock = Optional.empty();
+
     @CommandLine.Option(
         names = "--Xsynchronizer-downloader-change-target-threshold-by-height",
         hidden = true,
@@ -302,6 +387,16 @@ public class SynchronizerConfiguration {
             "Number of threads to provide to chain downloader (default: ${DEFAULT-VALUE})")
     private int downloaderParallelism = 4;
 
+    @CommandLine.Option(
+        names = "--Xsynchronizer-full-sync-pipeline-enabled",
+        hidden = true,
+        arity = "1",
+        defaultValue = "true",
+        paramLabel = "<BOOLEAN>",
+        description =
+            "Download and import blocks during full sync through a pipeline (default: ${DEFAULT-VALUE})")
+    private boolean fullSyncPipelineEnabled = true;
+
     @CommandLine.Option(
         names = "--Xsynchronizer-transactions-parallelism",
         hidden = true,
@@ -429,11 +524,26 @@ public class SynchronizerConfiguration {
       return this;
     }
 
+    public Builder blockPropagationRelayToSubset(final boolean blockPropagationRelayToSubset) {
+      this.blockPropagationRelayToSubset = blockPropagationRelayToSubset;
+      return this;
+    }
+
+    public Builder stateRangeServingEnabled(final boolean stateRangeServingEnabled) {
+      this.stateRangeServingEnabled = stateRangeServingEnabled;
+      return this;
+    }
+
     public Builder downloaderParallelisim(final int downloaderParallelism) {
       this.downloaderParallelism = downloaderParallelism;
       return this;
     }
 
+    public Builder fullSyncPipelineEnabled(final boolean fullSyncPipelineEnabled) {
+      this.fullSyncPipelineEnabled = fullSyncPipelineEnabled;
+      return this;
+    }
+
     public Builder transactionsParallelism(final int transactionsParallelism) {
       this.transactionsParallelism = transactionsParallelism;
       return this;
@@ -475,12 +585,20 @@ public class SynchronizerConfiguration {
       return this;
     }
 
+    public Builder trustedBlock(final TrustedBlock trustedBlock) {
+      this.trustedBlock = Optional.of(trustedBlock);
+      return this;
+    }
+
     public Builder maxTrailingPeers(final int maxTailingPeers) {
       this.maxTrailingPeers = maxTailingPeers;
       return this;
     }
 
     public SynchronizerConfiguration build() {
+      checkArgument(
+          syncMode != SyncMode.CHECKPOINT || trustedBlock.isPresent(),
+          "Checkpoint sync requires a trusted block to start from");
       return new SynchronizerConfiguration(
           fastSyncPivotDistance,
           fastSyncFullValidationRate,
@@ -490,8 +608,11 @@ public class SynchronizerConfiguration {
           worldStateRequestParallelism,
           worldStateMaxRequestsWithoutProgress,
           worldStateMinMillisBeforeStalling,
+          trustedBlock,
           blockPropagationRange,
+          blockPropagationRelayToSubset,
           syncMode,
+          stateRangeServingEnabled,
           downloaderChangeTargetThresholdByHeight,
           downloaderChangeTargetThresholdByTd,
           downloaderHeaderRequestSize,
@@ -499,6 +620,7 @@ public class SynchronizerConfiguration {
           downloaderChainSegmentTimeoutsPermitted,
           downloaderChainSegmentSize,
           downloaderParallelism,
+          fullSyncPipelineEnabled,
           transactionsParallelism,
           computationParallelism,
           maxTrailingPeers);
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
+
+/** A block the node is configured to trust, which checkpoint sync starts the chain from. */
+public class TrustedBlock {
+  private final long number;
+  private final Hash hash;
+  private final UInt256 totalDifficulty;
+
+  public TrustedBlock(final long number, final Hash hash, final UInt256 totalDifficulty) {
+    this.number = number;
+    this.hash = hash;
+    this.totalDifficulty = totalDifficulty;
+  }
+
+  /**
+   * Parses a trusted block given as its number, hash and the total difficulty of the chain up to
+   * and including it, separated by colons.
+   *
+   * @param value the trusted block in the form {@code <LONG>:<HASH>:<UINT256>}
+   * @return the trusted block
+   */
+  public static TrustedBlock fromString(final String value) {
+    final List<String> parts = Splitter.on(':').splitToList(value);
+    checkArgument(
+        parts.size() == 3 && parts.get(0).matches("\\d+") && parts.get(2).matches("\\d+"),
+        "Trusted block should be of the form '<LONG>:<HASH>:<UINT256>'");
+    return new TrustedBlock(
+        Long.parseLong(parts.get(0)),
+        Hash.fromHexString(parts.get(1)),
+        UInt256.of(new BigInteger(parts.get(2))));
+  }
+
+  public long getNumber() {
+    return number;
+  }
+
+  public Hash getHash() {
+    return hash;
+  }
+
+  public UInt256 getTotalDifficulty() {
+    return totalDifficulty;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final TrustedBlock that = (TrustedBlock) o;
+    return number == that.number
+        && Objects.equals(hash, that.hash)
+        && Objects.equals(totalDifficulty, that.totalDifficulty);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(number, hash, totalDifficulty);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("number", number)
+        .add("hash", hash)
+        .add("totalDifficulty", totalDifficulty)
+        .toString();
+  }
+}
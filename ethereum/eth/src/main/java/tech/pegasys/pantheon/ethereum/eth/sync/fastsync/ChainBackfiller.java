@@ -0,0 +1,259 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.stream.Collectors.toList;
+import static tech.pegasys.pantheon.util.FutureUtils.exceptionallyCompose;
+
+import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.chain.MutableBlockchain;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.manager.exceptions.IncompleteResultsException;
+import tech.pegasys.pantheon.ethereum.eth.manager.task.AbstractPeerTask.PeerTaskResult;
+import tech.pegasys.pantheon.ethereum.eth.manager.task.GetHeadersFromPeerByNumberTask;
+import tech.pegasys.pantheon.ethereum.eth.sync.DownloadBodiesStep;
+import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
+import tech.pegasys.pantheon.ethereum.eth.sync.state.SyncState;
+import tech.pegasys.pantheon.ethereum.eth.sync.tasks.exceptions.InvalidBlockException;
+import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+import tech.pegasys.pantheon.metrics.Counter;
+import tech.pegasys.pantheon.metrics.LabelledMetric;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.services.pipeline.Pipeline;
+import tech.pegasys.pantheon.services.pipeline.PipelineBuilder;
+import tech.pegasys.pantheon.util.ExceptionUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Downloads the blocks and receipts missing between genesis and the lowest block stored after a
+ * checkpoint sync, working down from that block towards genesis.
+ *
+ * <p>Each batch of headers is linked by hash to the block above it, so only blocks on the chain
+ * leading to the trusted block are stored. The backfill uses a single request at a time and waits
+ * while the node is behind the head of the chain, so it doesn't compete with keeping up with new
+ * blocks. It resumes from the lowest stored block if restarted.
+ */
+public class ChainBackfiller<C> {
+  private static final Logger LOG = LogManager.getLogger();
+  static final Duration PAUSE_AFTER_ERROR_DURATION = Duration.ofSeconds(5);
+  static final Duration WAIT_FOR_SYNC_DURATION = Duration.ofSeconds(5);
+
+  private final SynchronizerConfiguration syncConfig;
+  private final ProtocolSchedule<C> protocolSchedule;
+  private final ProtocolContext<C> protocolContext;
+  private final EthContext ethContext;
+  private final SyncState syncState;
+  private final MetricsSystem metricsSystem;
+  private final LabelledMetric<Counter> pipelineCounter;
+  private final Counter backfilledBlocksCounter;
+
+  private final AtomicBoolean started = new AtomicBoolean(false);
+
+  public ChainBackfiller(
+      final SynchronizerConfiguration syncConfig,
+      final ProtocolSchedule<C> protocolSchedule,
+      final ProtocolContext<C> protocolContext,
+      final EthContext ethContext,
+      final SyncState syncState,
+      final MetricsSystem metricsSystem) {
+    this.syncConfig = syncConfig;
+    this.protocolSchedule = protocolSchedule;
+    this.protocolContext = protocolContext;
+    this.ethContext = ethContext;
+    this.syncState = syncState;
+    this.metricsSystem = metricsSystem;
+    this.pipelineCounter =
+        metricsSystem.createLabelledCounter(
+            MetricCategory.SYNCHRONIZER,
+            "chain_backfill_pipeline_processed_total",
+            "Number of entries processed by each chain backfill pipeline stage",
+            "step",
+            "action");
+    this.backfilledBlocksCounter =
+        metricsSystem.createCounter(
+            MetricCategory.SYNCHRONIZER,
+            "chain_backfill_blocks_total",
+            "Number of blocks stored below the trusted block of a checkpoint sync");
+  }
+
+  public CompletableFuture<Void> start() {
+    if (!started.compareAndSet(false, true)) {
+      throw new IllegalStateException("Cannot start a chain backfill twice");
+    }
+    final long lowestStoredBlock = lowestStoredBlockNumber();
+    if (lowestStoredBlock <= 1) {
+      return completedFuture(null);
+    }
+    LOG.info("Backfilling the chain below block {}", lowestStoredBlock);
+    return performBackfill();
+  }
+
+  private CompletableFuture<Void> performBackfill() {
+    final long lowestStoredBlock = lowestStoredBlockNumber();
+    if (lowestStoredBlock <= 1) {
+      LOG.info("Chain backfill complete");
+      return completedFuture(null);
+    }
+    final Pipeline<?> pipeline = createPipeline(lowestStoredBlock);
+    return exceptionallyCompose(
+            ethContext.getScheduler().startPipeline(pipeline), this::handleFailedBackfill)
+        .thenCompose(result -> performBackfill());
+  }
+
+  private CompletionStage<Void> handleFailedBackfill(final Throwable error) {
+    if (ExceptionUtils.rootCause(error) instanceof CancellationException) {
+      // The scheduler cancels running pipelines when it shuts down, so stop without completing.
+      return new CompletableFuture<>();
+    }
+    LOG.debug("Chain backfill failed. Restarting after short delay.", error);
+    return ethContext
+        .getScheduler()
+        .scheduleFutureTask(() -> completedFuture(null), PAUSE_AFTER_ERROR_DURATION);
+  }
+
+  private Pipeline<?> createPipeline(final long lowestStoredBlock) {
+    final int batchSize = syncConfig.downloaderHeaderRequestSize();
+    final MutableBlockchain blockchain = protocolContext.getBlockchain();
+    final BlockHeader lowestStoredHeader = blockchain.getBlockHeader(lowestStoredBlock).get();
+    final HeaderLinkValidator validateHeadersStep =
+        new HeaderLinkValidator(lowestStoredHeader.getParentHash());
+    final DownloadBodiesStep<C> downloadBodiesStep =
+        new DownloadBodiesStep<>(protocolSchedule, ethContext, metricsSystem);
+    final DownloadReceiptsStep downloadReceiptsStep =
+        new DownloadReceiptsStep(ethContext, metricsSystem);
+
+    final LongStream batchEnds = batchEnds(lowestStoredBlock, batchSize);
+    return PipelineBuilder.createPipelineFrom("batchEnds", batchEnds.iterator(), 1, pipelineCounter)
+        .thenProcessAsyncOrdered("waitForSync", this::waitUntilInSync, 1)
+        .thenProcessAsyncOrdered(
+            "downloadHeaders", lastBlock -> downloadHeaders(lastBlock, batchSize), 1)
+        .thenProcess("validateHeaders", validateHeadersStep)
+        .thenProcessAsyncOrdered("downloadBodies", downloadBodiesStep, 1)
+        .thenProcessAsyncOrdered("downloadReceipts", downloadReceiptsStep, 1)
+        .andFinishWith("backfillBlocks", this::backfillBlocks);
+  }
+
+  /** Returns the last block number of each batch, working down towards genesis. */
+  @VisibleForTesting
+  static LongStream batchEnds(final long lowestStoredBlock, final int batchSize) {
+    final long highestMissingBlock = lowestStoredBlock - 1;
+    return LongStream.rangeClosed(0, (highestMissingBlock - 1) / batchSize)
+        .map(batch -> highestMissingBlock - batch * batchSize);
+  }
+
+  private CompletableFuture<Long> waitUntilInSync(final Long lastBlock) {
+    if (syncState.isInSync()) {
+      return completedFuture(lastBlock);
+    }
+    return ethContext
+        .getScheduler()
+        .scheduleFutureTask(() -> waitUntilInSync(lastBlock), WAIT_FOR_SYNC_DURATION);
+  }
+
+  private CompletableFuture<List<BlockHeader>> downloadHeaders(
+      final long lastBlock, final int batchSize) {
+    final int count = (int) Math.min(batchSize, lastBlock);
+    return GetHeadersFromPeerByNumberTask.endingAtNumber(
+            protocolSchedule, ethContext, lastBlock, count, metricsSystem)
+        .run()
+        .thenApply(PeerTaskResult::getResult)
+        .thenApply(
+            headers -> {
+              if (headers.size() < count) {
+                throw new IncompleteResultsException();
+              }
+              return headers;
+            });
+  }
+
+  private void backfillBlocks(final List<BlockWithReceipts> blocksWithReceipts) {
+    protocolContext
+        .getBlockchain()
+        .backfillBlocks(
+            blocksWithReceipts.stream().map(BlockWithReceipts::getBlock).collect(toList()),
+            blocksWithReceipts.stream().map(BlockWithReceipts::getReceipts).collect(toList()));
+    backfilledBlocksCounter.inc(blocksWithReceipts.size());
+    LOG.debug(
+        "Backfilled blocks {} to {}",
+        blocksWithReceipts.get(0).getHeader().getNumber(),
+        blocksWithReceipts.get(blocksWithReceipts.size() - 1).getHeader().getNumber());
+  }
+
+  @VisibleForTesting
+  long lowestStoredBlockNumber() {
+    final MutableBlockchain blockchain = protocolContext.getBlockchain();
+    // Blocks are stored from genesis up to a gap, then from the lowest stored block to the head.
+    long low = 1;
+    long high = blockchain.getChainHeadBlockNumber();
+    if (high < low || blockchain.getBlockHashByNumber(low).isPresent()) {
+      return low;
+    }
+    while (high - low > 1) {
+      final long mid = low + (high - low) / 2;
+      if (blockchain.getBlockHashByNumber(mid).isPresent()) {
+        high = mid;
+      } else {
+        low = mid;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * Checks each batch of headers, received in descending order, is the chain leading to the block
+   * above it and returns them in ascending order.
+   */
+  @VisibleForTesting
+  static class HeaderLinkValidator
+      implements Function<List<BlockHeader>, List<BlockHeader>> {
+    private Hash expectedHash;
+
+    HeaderLinkValidator(final Hash expectedHash) {
+      this.expectedHash = expectedHash;
+    }
+
+    @Override
+    public List<BlockHeader> apply(final List<BlockHeader> headers) {
+      for (final BlockHeader header : headers) {
+        if (!header.getHash().equals(expectedHash)) {
+          throw new InvalidBlockException(
+              "Backfilled header does not link to the chain above it",
+              header.getNumber(),
+              header.getHash());
+        }
+        expectedHash = header.getParentHash();
+      }
+      final List<BlockHeader> ascending = new ArrayList<>(headers);
+      Collections.reverse(ascending);
+      return ascending;
+    }
+  }
+}
@@ -19,14 +19,14 @@ import tech.pegasys.pantheon.ethereum.eth.sync.SyncMode;
 import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
 import tech.pegasys.pantheon.ethereum.eth.sync.state.SyncState;
 import tech.pegasys.pantheon.ethereum.eth.sync.worldstate.NodeDataRequest;
+import tech.pegasys.pantheon.ethereum.eth.sync.worldstate.RangeWorldStateDownloader;
 import tech.pegasys.pantheon.ethereum.eth.sync.worldstate.WorldStateDownloader;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
 import tech.pegasys.pantheon.ethereum.mainnet.ScheduleBasedBlockHashFunction;
 import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
 import tech.pegasys.pantheon.metrics.MetricCategory;
 import tech.pegasys.pantheon.metrics.MetricsSystem;
-import tech.pegasys.pantheon.services.tasks.CachingTaskCollection;
-import tech.pegasys.pantheon.services.tasks.RocksDbTaskQueue;
+import tech.pegasys.pantheon.services.tasks.RocksDbPriorityTaskQueue;
 
 import java.io.File;
 import java.nio.file.Path;
@@ -38,6 +38,7 @@ import org.apache.logging.log4j.Logger;
 
 public class FastDownloaderFactory {
   private static final Logger LOG = LogManager.getLogger();
+  private static final int MAX_WORLD_STATE_REQUESTS_IN_MEMORY = 1_000_000;
 
   public static <C> Optional<FastSyncDownloader<C>> create(
       final SynchronizerConfiguration syncConfig,
@@ -49,7 +50,7 @@ public class FastDownloaderFactory {
       final WorldStateStorage worldStateStorage,
       final SyncState syncState,
       final Clock clock) {
-    if (syncConfig.syncMode() != SyncMode.FAST) {
+    if (!syncConfig.syncMode().isFastSync()) {
       return Optional.empty();
     }
 
@@ -66,20 +67,46 @@ public class FastDownloaderFactory {
       return Optional.empty();
     }
 
-    final CachingTaskCollection<NodeDataRequest> taskCollection =
+    final RocksDbPriorityTaskQueue<NodeDataRequest> taskCollection =
         createWorldStateDownloaderTaskCollection(
             getStateQueueDirectory(dataDirectory), metricsSystem);
+    if (!fastSyncState.hasPivotBlockHeader()) {
+      // Queued requests are only resumed for the pivot block they were queued for. The queue is
+      // cleared whenever a download ends, so any requests left without a pivot block are stale.
+      taskCollection.clear();
+    } else if (taskCollection.tasksMayHaveBeenLost()) {
+      // Requests queued since the queue was last flushed were lost when the node stopped, but the
+      // nodes they were the children of may have been stored. Walk the whole trie again from the
+      // root, loading stored nodes locally, so none of their missing children are skipped.
+      LOG.info("World state download queue was not closed cleanly, checking stored nodes again");
+      fastSyncStateStorage.markWorldStateNodesUntracked();
+      taskCollection.add(
+          NodeDataRequest.createAccountDataRequest(
+              fastSyncState.getPivotBlockHeader().get().getStateRoot()));
+    }
     final WorldStateDownloader worldStateDownloader =
-        new WorldStateDownloader(
-            ethContext,
-            worldStateStorage,
-            taskCollection,
-            syncConfig.getWorldStateHashCountPerRequest(),
-            syncConfig.getWorldStateRequestParallelism(),
-            syncConfig.getWorldStateMaxRequestsWithoutProgress(),
-            syncConfig.getWorldStateMinMillisBeforeStalling(),
-            clock,
-            metricsSystem);
+        syncConfig.syncMode() == SyncMode.RANGE
+            ? new RangeWorldStateDownloader(
+                ethContext,
+                worldStateStorage,
+                taskCollection,
+                syncConfig.getWorldStateHashCountPerRequest(),
+                syncConfig.getWorldStateRequestParallelism(),
+                syncConfig.getWorldStateMaxRequestsWithoutProgress(),
+                syncConfig.getWorldStateMinMillisBeforeStalling(),
+                clock,
+                metricsSystem)
+            : new WorldStateDownloader(
+                ethContext,
+                worldStateStorage,
+                taskCollection,
+                !fastSyncStateStorage.hasUntrackedWorldStateNodes(),
+                syncConfig.getWorldStateHashCountPerRequest(),
+                syncConfig.getWorldStateRequestParallelism(),
+                syncConfig.getWorldStateMaxRequestsWithoutProgress(),
+                syncConfig.getWorldStateMinMillisBeforeStalling(),
+                clock,
+                metricsSystem);
     final FastSyncDownloader<C> fastSyncDownloader =
         new FastSyncDownloader<>(
             new FastSyncActions<>(
@@ -115,15 +142,21 @@ public class FastDownloaderFactory {
     }
   }
 
-  private static CachingTaskCollection<NodeDataRequest> createWorldStateDownloaderTaskCollection(
-      final Path dataDirectory, final MetricsSystem metricsSystem) {
-    final CachingTaskCollection<NodeDataRequest> taskCollection =
-        new CachingTaskCollection<>(
-            RocksDbTaskQueue.create(
-                dataDirectory,
-                NodeDataRequest::serialize,
-                NodeDataRequest::deserialize,
-                metricsSystem));
+  private static RocksDbPriorityTaskQueue<NodeDataRequest>
+      createWorldStateDownloaderTaskCollection(
+          final Path dataDirectory, final MetricsSystem metricsSystem) {
+    // Every request is written to the queue on disk so none are lost if the download is stopped
+    // and later resumed. The deepest requests are downloaded first so each subtree is finished,
+    // and its requests completed, before moving on to the next which keeps the number of pending
+    // requests small and writes to the world state storage close together.
+    final RocksDbPriorityTaskQueue<NodeDataRequest> taskCollection =
+        RocksDbPriorityTaskQueue.create(
+            dataDirectory,
+            NodeDataRequest::serialize,
+            NodeDataRequest::deserialize,
+            NodeDataRequest::getDepth,
+            MAX_WORLD_STATE_REQUESTS_IN_MEMORY,
+            metricsSystem);
 
     metricsSystem.createLongGauge(
         MetricCategory.SYNCHRONIZER,
@@ -133,9 +166,15 @@ public class FastDownloaderFactory {
 
     metricsSystem.createIntegerGauge(
         MetricCategory.SYNCHRONIZER,
-        "world_state_pending_requests_cache_size",
-        "Pending request cache size for fast sync world state download",
-        taskCollection::cacheSize);
+        "world_state_pending_requests_in_memory_current",
+        "Number of pending requests for fast sync world state download held in memory",
+        taskCollection::inMemorySize);
+
+    metricsSystem.createLongGauge(
+        MetricCategory.SYNCHRONIZER,
+        "world_state_pending_requests_spilled_current",
+        "Number of pending requests for fast sync world state download held only on disk",
+        taskCollection::spilledSize);
 
     return taskCollection;
   }
@@ -13,6 +13,7 @@
 package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
 
 import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.chain.BufferedMutableBlockchain;
 import tech.pegasys.pantheon.ethereum.core.BlockImporter;
 import tech.pegasys.pantheon.ethereum.eth.sync.ValidationPolicy;
 import tech.pegasys.pantheon.ethereum.eth.sync.tasks.exceptions.InvalidBlockException;
@@ -41,24 +42,36 @@ public class FastImportBlocksStep<C> implements Consumer<List<BlockWithReceipts>
 
   @Override
   public void accept(final List<BlockWithReceipts> blocksWithReceipts) {
+    // Buffer the imported blocks so they are written to storage in one batch, while still being
+    // visible when validating the blocks after them.
+    final BufferedMutableBlockchain blockchain =
+        new BufferedMutableBlockchain(protocolContext.getBlockchain());
+    final ProtocolContext<C> batchContext =
+        new ProtocolContext<>(
+            blockchain,
+            protocolContext.getWorldStateArchive(),
+            protocolContext.getConsensusState());
     for (final BlockWithReceipts blockWithReceipts : blocksWithReceipts) {
-      if (!importBlock(blockWithReceipts)) {
+      if (!importBlock(batchContext, blockWithReceipts)) {
+        blockchain.flush();
         throw new InvalidBlockException(
             "Failed to import block",
             blockWithReceipts.getHeader().getNumber(),
             blockWithReceipts.getHash());
       }
     }
+    blockchain.flush();
     final long firstBlock = blocksWithReceipts.get(0).getNumber();
     final long lastBlock = blocksWithReceipts.get(blocksWithReceipts.size() - 1).getNumber();
     LOG.info("Completed importing chain segment {} to {}", firstBlock, lastBlock);
   }
 
-  private boolean importBlock(final BlockWithReceipts blockWithReceipts) {
+  private boolean importBlock(
+      final ProtocolContext<C> batchContext, final BlockWithReceipts blockWithReceipts) {
     final BlockImporter<C> importer =
         protocolSchedule.getByBlockNumber(blockWithReceipts.getNumber()).getBlockImporter();
     return importer.fastImportBlock(
-        protocolContext,
+        batchContext,
         blockWithReceipts.getBlock(),
         blockWithReceipts.getReceipts(),
         validationPolicy.getValidationModeForNextBlock());
@@ -14,6 +14,7 @@ package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
 
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static tech.pegasys.pantheon.ethereum.eth.sync.fastsync.FastSyncError.CHAIN_TOO_SHORT;
+import static tech.pegasys.pantheon.ethereum.eth.sync.fastsync.FastSyncError.PIVOT_BLOCK_HEADER_MISMATCH;
 import static tech.pegasys.pantheon.util.FutureUtils.completedExceptionally;
 import static tech.pegasys.pantheon.util.FutureUtils.exceptionallyCompose;
 
@@ -22,14 +23,18 @@ import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthScheduler;
 import tech.pegasys.pantheon.ethereum.eth.manager.task.WaitForPeersTask;
+import tech.pegasys.pantheon.ethereum.eth.sync.ChainDownloadLimits;
 import tech.pegasys.pantheon.ethereum.eth.sync.ChainDownloader;
+import tech.pegasys.pantheon.ethereum.eth.sync.SyncMode;
 import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
+import tech.pegasys.pantheon.ethereum.eth.sync.TrustedBlock;
 import tech.pegasys.pantheon.ethereum.eth.sync.state.SyncState;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
 import tech.pegasys.pantheon.metrics.MetricsSystem;
 import tech.pegasys.pantheon.util.ExceptionUtils;
 
 import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
@@ -45,6 +50,7 @@ public class FastSyncActions<C> {
   private final EthContext ethContext;
   private final SyncState syncState;
   private final MetricsSystem metricsSystem;
+  private final ChainDownloadLimits chainDownloadLimits;
 
   public FastSyncActions(
       final SynchronizerConfiguration syncConfig,
@@ -59,10 +65,12 @@ public class FastSyncActions<C> {
     this.ethContext = ethContext;
     this.syncState = syncState;
     this.metricsSystem = metricsSystem;
+    this.chainDownloadLimits = ChainDownloadLimits.create(syncConfig, metricsSystem, "fast_sync");
   }
 
   public CompletableFuture<FastSyncState> waitForSuitablePeers(final FastSyncState fastSyncState) {
-    if (fastSyncState.hasPivotBlockHeader()) {
+    // A trusted block doesn't need to be agreed on by several peers, so one is enough.
+    if (fastSyncState.hasPivotBlockHeader() || trustedBlock().isPresent()) {
       return waitForAnyPeer().thenApply(ignore -> fastSyncState);
     }
 
@@ -121,9 +129,12 @@ public class FastSyncActions<C> {
   }
 
   public CompletableFuture<FastSyncState> selectPivotBlock(final FastSyncState fastSyncState) {
-    return fastSyncState.hasPivotBlockHeader()
-        ? completedFuture(fastSyncState)
-        : selectPivotBlockFromPeers();
+    if (fastSyncState.hasPivotBlockHeader()) {
+      return completedFuture(fastSyncState);
+    }
+    return trustedBlock()
+        .map(trustedBlock -> completedFuture(new FastSyncState(trustedBlock.getNumber())))
+        .orElseGet(this::selectPivotBlockFromPeers);
   }
 
   private CompletableFuture<FastSyncState> selectPivotBlockFromPeers() {
@@ -159,6 +170,10 @@ public class FastSyncActions<C> {
     if (currentState.getPivotBlockHeader().isPresent()) {
       return completedFuture(currentState);
     }
+    final Optional<TrustedBlock> trustedBlock = trustedBlock();
+    if (trustedBlock.isPresent()) {
+      return downloadTrustedBlockHeader(trustedBlock.get());
+    }
     return new PivotBlockRetriever<>(
             protocolSchedule,
             ethContext,
@@ -167,7 +182,45 @@ public class FastSyncActions<C> {
         .downloadPivotBlockHeader();
   }
 
+  private CompletableFuture<FastSyncState> downloadTrustedBlockHeader(
+      final TrustedBlock trustedBlock) {
+    return exceptionallyCompose(
+        new PivotBlockRetriever<>(
+                protocolSchedule,
+                ethContext,
+                metricsSystem,
+                trustedBlock.getNumber(),
+                Optional.of(trustedBlock.getHash()))
+            .downloadPivotBlockHeader(),
+        error -> {
+          final Throwable rootCause = ExceptionUtils.rootCause(error);
+          if (rootCause instanceof FastSyncException
+              && ((FastSyncException) rootCause).getError() == PIVOT_BLOCK_HEADER_MISMATCH) {
+            // No peer has provided the trusted block yet, so keep waiting for one that does.
+            LOG.info("Waiting for peer with trusted block {}", trustedBlock.getHash());
+            return ethContext
+                .getScheduler()
+                .scheduleFutureTask(
+                    () ->
+                        waitForAnyPeer()
+                            .thenCompose(ignore -> downloadTrustedBlockHeader(trustedBlock)),
+                    Duration.ofSeconds(5));
+          }
+          return completedExceptionally(error);
+        });
+  }
+
   public ChainDownloader createChainDownloader(final FastSyncState currentState) {
+    final Optional<TrustedBlock> trustedBlock = trustedBlock();
+    if (trustedBlock.isPresent()) {
+      return new TrustedBlockDownloader<>(
+          protocolSchedule,
+          protocolContext,
+          ethContext,
+          metricsSystem,
+          currentState.getPivotBlockHeader().get(),
+          trustedBlock.get().getTotalDifficulty());
+    }
     return FastSyncChainDownloader.create(
         syncConfig,
         protocolSchedule,
@@ -175,6 +228,13 @@ public class FastSyncActions<C> {
         ethContext,
         syncState,
         metricsSystem,
+        chainDownloadLimits,
         currentState.getPivotBlockHeader().get());
   }
+
+  private Optional<TrustedBlock> trustedBlock() {
+    return syncConfig.syncMode() == SyncMode.CHECKPOINT
+        ? syncConfig.getTrustedBlock()
+        : Optional.empty();
+  }
 }
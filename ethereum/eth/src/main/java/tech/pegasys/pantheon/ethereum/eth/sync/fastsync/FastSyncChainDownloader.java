@@ -15,6 +15,7 @@ package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
 import tech.pegasys.pantheon.ethereum.ProtocolContext;
 import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.sync.ChainDownloadLimits;
 import tech.pegasys.pantheon.ethereum.eth.sync.ChainDownloader;
 import tech.pegasys.pantheon.ethereum.eth.sync.EthTaskChainDownloader;
 import tech.pegasys.pantheon.ethereum.eth.sync.PipelineChainDownloader;
@@ -36,6 +37,7 @@ public class FastSyncChainDownloader {
       final EthContext ethContext,
       final SyncState syncState,
       final MetricsSystem metricsSystem,
+      final ChainDownloadLimits chainDownloadLimits,
       final BlockHeader pivotBlockHeader) {
 
     final FastSyncTargetManager<C> syncTargetManager =
@@ -52,7 +54,8 @@ public class FastSyncChainDownloader {
               protocolContext,
               ethContext,
               pivotBlockHeader,
-              metricsSystem),
+              metricsSystem,
+              chainDownloadLimits),
           ethContext.getScheduler(),
           metricsSystem);
     }
@@ -21,6 +21,8 @@ import tech.pegasys.pantheon.ethereum.ProtocolContext;
 import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer;
+import tech.pegasys.pantheon.ethereum.eth.sync.AdaptiveLimit;
+import tech.pegasys.pantheon.ethereum.eth.sync.ChainDownloadLimits;
 import tech.pegasys.pantheon.ethereum.eth.sync.CheckpointHeaderFetcher;
 import tech.pegasys.pantheon.ethereum.eth.sync.CheckpointHeaderValidationStep;
 import tech.pegasys.pantheon.ethereum.eth.sync.CheckpointRangeSource;
@@ -37,6 +39,7 @@ import tech.pegasys.pantheon.metrics.MetricsSystem;
 import tech.pegasys.pantheon.services.pipeline.Pipeline;
 import tech.pegasys.pantheon.services.pipeline.PipelineBuilder;
 
+import java.time.Clock;
 import java.time.Duration;
 import java.util.Optional;
 
@@ -47,6 +50,8 @@ public class FastSyncDownloadPipelineFactory<C> implements DownloadPipelineFacto
   private final EthContext ethContext;
   private final BlockHeader pivotBlockHeader;
   private final MetricsSystem metricsSystem;
+  private final ChainDownloadLimits chainDownloadLimits;
+  private final Clock clock = Clock.systemUTC();
   private final FastSyncValidationPolicy attachedValidationPolicy;
   private final FastSyncValidationPolicy detachedValidationPolicy;
 
@@ -56,13 +61,15 @@ public class FastSyncDownloadPipelineFactory<C> implements DownloadPipelineFacto
       final ProtocolContext<C> protocolContext,
       final EthContext ethContext,
       final BlockHeader pivotBlockHeader,
-      final MetricsSystem metricsSystem) {
+      final MetricsSystem metricsSystem,
+      final ChainDownloadLimits chainDownloadLimits) {
     this.syncConfig = syncConfig;
     this.protocolSchedule = protocolSchedule;
     this.protocolContext = protocolContext;
     this.ethContext = ethContext;
     this.pivotBlockHeader = pivotBlockHeader;
     this.metricsSystem = metricsSystem;
+    this.chainDownloadLimits = chainDownloadLimits;
     final LabelledMetric<Counter> fastSyncValidationCounter =
         metricsSystem.createLabelledCounter(
             MetricCategory.SYNCHRONIZER,
@@ -104,7 +111,12 @@ public class FastSyncDownloadPipelineFactory<C> implements DownloadPipelineFacto
             Duration.ofSeconds(5));
     final DownloadHeadersStep<C> downloadHeadersStep =
         new DownloadHeadersStep<>(
-            protocolSchedule, protocolContext, ethContext, detachedValidationPolicy, metricsSystem);
+            protocolSchedule,
+            protocolContext,
+            ethContext,
+            detachedValidationPolicy,
+            headerRequestSize,
+            metricsSystem);
     final CheckpointHeaderValidationStep<C> validateHeadersJoinUpStep =
         new CheckpointHeaderValidationStep<>(
             protocolSchedule, protocolContext, detachedValidationPolicy);
@@ -114,6 +126,9 @@ public class FastSyncDownloadPipelineFactory<C> implements DownloadPipelineFacto
         new DownloadReceiptsStep(ethContext, metricsSystem);
     final FastImportBlocksStep<C> importBlockStep =
         new FastImportBlocksStep<>(protocolSchedule, protocolContext, attachedValidationPolicy);
+    final AdaptiveLimit headersLimit = chainDownloadLimits.getDownloadHeadersConcurrency();
+    final AdaptiveLimit bodiesLimit = chainDownloadLimits.getDownloadBodiesConcurrency();
+    final AdaptiveLimit receiptsLimit = chainDownloadLimits.getDownloadReceiptsConcurrency();
 
     return PipelineBuilder.createPipelineFrom(
             "fetchCheckpoints",
@@ -125,11 +140,14 @@ public class FastSyncDownloadPipelineFactory<C> implements DownloadPipelineFacto
                 "Number of entries process by each chain download pipeline stage",
                 "step",
                 "action"))
-        .thenProcessAsyncOrdered("downloadHeaders", downloadHeadersStep, downloaderParallelism)
+        .thenProcessAsyncOrdered(
+            "downloadHeaders", headersLimit.track(downloadHeadersStep, clock), headersLimit)
         .thenFlatMap("validateHeadersJoin", validateHeadersJoinUpStep, singleHeaderBufferSize)
         .inBatches(headerRequestSize)
-        .thenProcessAsyncOrdered("downloadBodies", downloadBodiesStep, downloaderParallelism)
-        .thenProcessAsyncOrdered("downloadReceipts", downloadReceiptsStep, downloaderParallelism)
+        .thenProcessAsyncOrdered(
+            "downloadBodies", bodiesLimit.track(downloadBodiesStep, clock), bodiesLimit)
+        .thenProcessAsyncOrdered(
+            "downloadReceipts", receiptsLimit.track(downloadReceiptsStep, clock), receiptsLimit)
         .andFinishWith("importBlock", importBlockStep);
   }
 
@@ -42,6 +42,7 @@ public class FastSyncDownloader<C> {
   private final Path fastSyncDataDirectory;
   private final FastSyncState initialFastSyncState;
   private volatile Optional<TrailingPeerRequirements> trailingPeerRequirements = Optional.empty();
+  private boolean worldStateDownloadStarted = false;
 
   public FastSyncDownloader(
       final FastSyncActions<C> fastSyncActions,
@@ -91,7 +92,7 @@ public class FastSyncDownloader<C> {
     try {
       taskCollection.close();
       if (fastSyncDataDirectory.toFile().exists()) {
-        // Clean up this data for now (until fast sync resume functionality is in place)
+        // Fast sync has finished, successfully or not, so there is nothing left to resume
         MoreFiles.deleteRecursively(fastSyncDataDirectory, RecursiveDeleteOption.ALLOW_INSECURE);
       }
     } catch (final IOException e) {
@@ -116,6 +117,7 @@ public class FastSyncDownloader<C> {
 
   private CompletableFuture<FastSyncState> downloadChainAndWorldState(
       final FastSyncState currentState) {
+    trackWorldStateNodes();
     final CompletableFuture<Void> worldStateFuture =
         worldStateDownloader.run(currentState.getPivotBlockHeader().get());
     final ChainDownloader chainDownloader = fastSyncActions.createChainDownloader(currentState);
@@ -141,6 +143,18 @@ public class FastSyncDownloader<C> {
             });
   }
 
+  private void trackWorldStateNodes() {
+    // Only the first world state download of a fast sync starts with nothing but complete subtrees
+    // stored. Any download before it that didn't finish may have left trie nodes behind without
+    // their children, which were cleared from the queue along with the rest of its requests.
+    final boolean firstDownload =
+        !worldStateDownloadStarted && !initialFastSyncState.hasPivotBlockHeader();
+    if (taskCollection.isEmpty() && !firstDownload) {
+      fastSyncStateStorage.markWorldStateNodesUntracked();
+    }
+    worldStateDownloadStarted = true;
+  }
+
   public Optional<TrailingPeerRequirements> calculateTrailingPeerRequirements() {
     return trailingPeerRequirements;
   }
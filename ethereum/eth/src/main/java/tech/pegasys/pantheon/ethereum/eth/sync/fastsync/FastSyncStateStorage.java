@@ -37,10 +37,14 @@ import org.apache.logging.log4j.Logger;
 public class FastSyncStateStorage {
   private static final Logger LOG = LogManager.getLogger();
   private static final String PIVOT_BLOCK_HEADER_FILENAME = "pivotBlockHeader.rlp";
+  private static final String UNTRACKED_WORLD_STATE_NODES_FILENAME = "untrackedWorldStateNodes";
   private final File pivotBlockHeaderFile;
+  private final File untrackedWorldStateNodesFile;
 
   public FastSyncStateStorage(final Path fastSyncDataDir) {
     pivotBlockHeaderFile = fastSyncDataDir.resolve(PIVOT_BLOCK_HEADER_FILENAME).toFile();
+    untrackedWorldStateNodesFile =
+        fastSyncDataDir.resolve(UNTRACKED_WORLD_STATE_NODES_FILENAME).toFile();
   }
 
   public boolean isFastSyncInProgress() {
@@ -78,4 +82,23 @@ public class FastSyncStateStorage {
           "Unable to store fast sync status file: " + pivotBlockHeaderFile.getAbsolutePath());
     }
   }
+
+  /**
+   * Records that world state storage may hold trie nodes from a download that didn't finish, whose
+   * missing children are no longer queued. Those nodes can't be taken as the root of a subtree
+   * that is already stored or queued when a later download is resumed.
+   */
+  public void markWorldStateNodesUntracked() {
+    try {
+      Files.touch(untrackedWorldStateNodesFile);
+    } catch (final IOException e) {
+      throw new IllegalStateException(
+          "Unable to store fast sync status file: "
+              + untrackedWorldStateNodesFile.getAbsolutePath());
+    }
+  }
+
+  public boolean hasUntrackedWorldStateNodes() {
+    return untrackedWorldStateNodesFile.isFile();
+  }
 }
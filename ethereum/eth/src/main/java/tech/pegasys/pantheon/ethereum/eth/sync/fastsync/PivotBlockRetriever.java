@@ -13,6 +13,7 @@
 package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
 
 import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer;
 import tech.pegasys.pantheon.ethereum.eth.sync.tasks.RetryingGetHeaderFromPeerByNumberTask;
@@ -22,6 +23,7 @@ import tech.pegasys.pantheon.metrics.MetricsSystem;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -39,6 +41,7 @@ public class PivotBlockRetriever<C> {
   private final EthContext ethContext;
   private final MetricsSystem metricsSystem;
   private final ProtocolSchedule<C> protocolSchedule;
+  private final Optional<Hash> trustedBlockHash;
   private final Map<BlockHeader, AtomicInteger> confirmationsByBlockNumber =
       new ConcurrentHashMap<>();
   private final CompletableFuture<FastSyncState> result = new CompletableFuture<>();
@@ -50,10 +53,25 @@ public class PivotBlockRetriever<C> {
       final EthContext ethContext,
       final MetricsSystem metricsSystem,
       final long pivotBlockNumber) {
+    this(protocolSchedule, ethContext, metricsSystem, pivotBlockNumber, Optional.empty());
+  }
+
+  /**
+   * Creates a retriever which, if given the hash of a trusted block, accepts the first header for
+   * the pivot block number with that hash instead of waiting for a majority of peers to agree.
+   * Headers with any other hash are ignored.
+   */
+  public PivotBlockRetriever(
+      final ProtocolSchedule<C> protocolSchedule,
+      final EthContext ethContext,
+      final MetricsSystem metricsSystem,
+      final long pivotBlockNumber,
+      final Optional<Hash> trustedBlockHash) {
     this.pivotBlockNumber = pivotBlockNumber;
     this.ethContext = ethContext;
     this.metricsSystem = metricsSystem;
     this.protocolSchedule = protocolSchedule;
+    this.trustedBlockHash = trustedBlockHash;
   }
 
   @SuppressWarnings("rawtypes")
@@ -79,7 +97,8 @@ public class PivotBlockRetriever<C> {
             .filter(peer -> peer.chainState().getEstimatedHeight() >= pivotBlockNumber)
             .collect(Collectors.toList());
 
-    final int confirmationsRequired = peersToQuery.size() / 2 + 1;
+    final int confirmationsRequired =
+        trustedBlockHash.isPresent() ? 1 : peersToQuery.size() / 2 + 1;
     return peersToQuery.stream()
         .map(
             peer -> {
@@ -102,6 +121,14 @@ public class PivotBlockRetriever<C> {
   }
 
   private void countHeader(final BlockHeader header, final int confirmationsRequired) {
+    if (trustedBlockHash.isPresent() && !trustedBlockHash.get().equals(header.getHash())) {
+      LOG.warn(
+          "Ignoring header {} for block {} which does not match the trusted block hash {}",
+          header.getHash(),
+          header.getNumber(),
+          trustedBlockHash.get());
+      return;
+    }
     final int confirmations =
         confirmationsByBlockNumber
             .computeIfAbsent(header, key -> new AtomicInteger(0))
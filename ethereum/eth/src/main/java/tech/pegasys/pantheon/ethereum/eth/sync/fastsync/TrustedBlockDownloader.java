@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
+
+import static java.util.Collections.singletonList;
+
+import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.core.Block;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.sync.ChainDownloader;
+import tech.pegasys.pantheon.ethereum.eth.sync.DownloadBodiesStep;
+import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.util.FutureUtils;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Downloads the body and receipts of the trusted block checkpoint sync starts from and makes it the
+ * chain head, without downloading any of the chain before it. The header has already been matched
+ * to the trusted block hash, and the body and receipts are checked against the header as they are
+ * downloaded.
+ */
+public class TrustedBlockDownloader<C> implements ChainDownloader {
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final ProtocolContext<C> protocolContext;
+  private final DownloadBodiesStep<C> downloadBodiesStep;
+  private final DownloadReceiptsStep downloadReceiptsStep;
+  private final BlockHeader trustedBlockHeader;
+  private final UInt256 totalDifficulty;
+  private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+  public TrustedBlockDownloader(
+      final ProtocolSchedule<C> protocolSchedule,
+      final ProtocolContext<C> protocolContext,
+      final EthContext ethContext,
+      final MetricsSystem metricsSystem,
+      final BlockHeader trustedBlockHeader,
+      final UInt256 totalDifficulty) {
+    this.protocolContext = protocolContext;
+    this.downloadBodiesStep = new DownloadBodiesStep<>(protocolSchedule, ethContext, metricsSystem);
+    this.downloadReceiptsStep = new DownloadReceiptsStep(ethContext, metricsSystem);
+    this.trustedBlockHeader = trustedBlockHeader;
+    this.totalDifficulty = totalDifficulty;
+  }
+
+  @Override
+  public CompletableFuture<Void> start() {
+    if (protocolContext.getBlockchain().contains(trustedBlockHeader.getHash())) {
+      result.complete(null);
+      return result;
+    }
+    LOG.info(
+        "Downloading trusted block {} ({})",
+        trustedBlockHeader.getNumber(),
+        trustedBlockHeader.getHash());
+    final CompletableFuture<List<Block>> downloadBlock =
+        downloadBodiesStep.apply(singletonList(trustedBlockHeader));
+    FutureUtils.propagateCancellation(result, downloadBlock);
+    FutureUtils.propagateResult(
+        downloadBlock.thenCompose(downloadReceiptsStep).thenAccept(this::importTrustedBlock),
+        result);
+    return result;
+  }
+
+  private void importTrustedBlock(final List<BlockWithReceipts> blocksWithReceipts) {
+    final BlockWithReceipts blockWithReceipts = blocksWithReceipts.get(0);
+    protocolContext
+        .getBlockchain()
+        .importTrustedBlock(
+            blockWithReceipts.getBlock(), blockWithReceipts.getReceipts(), totalDifficulty);
+    LOG.info(
+        "Imported trusted block {} ({}) as the chain head",
+        trustedBlockHeader.getNumber(),
+        trustedBlockHeader.getHash());
+  }
+
+  @Override
+  public void cancel() {
+    result.cancel(true);
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fullsync;
+
+import tech.pegasys.pantheon.ethereum.core.Block;
+import tech.pegasys.pantheon.ethereum.core.BlockBody;
+import tech.pegasys.pantheon.ethereum.core.Transaction;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthScheduler;
+import tech.pegasys.pantheon.ethereum.mainnet.BodyValidation;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Recovers the sender of each transaction in a batch of blocks on the computation executor, so it
+ * is already cached when the blocks are executed on the single import thread. The transactions
+ * root and ommers hash of each body are calculated at the same time, leaving body validation
+ * during import to compare them with the header.
+ */
+public class ExtractTxSignaturesStep
+    implements Function<List<Block>, CompletableFuture<List<Block>>> {
+
+  private final EthScheduler ethScheduler;
+
+  public ExtractTxSignaturesStep(final EthScheduler ethScheduler) {
+    this.ethScheduler = ethScheduler;
+  }
+
+  @Override
+  public CompletableFuture<List<Block>> apply(final List<Block> blocks) {
+    // One task per block rather than per transaction keeps the scheduling overhead low while
+    // still spreading the recovery across the computation threads.
+    final CompletableFuture<?>[] recoveries = new CompletableFuture<?>[blocks.size()];
+    for (int i = 0; i < blocks.size(); i++) {
+      final Block block = blocks.get(i);
+      recoveries[i] = ethScheduler.scheduleComputationTask(() -> precompute(block));
+    }
+    return CompletableFuture.allOf(recoveries).thenApply(done -> blocks);
+  }
+
+  private Void precompute(final Block block) {
+    final BlockBody body = block.getBody();
+    for (final Transaction transaction : body.getTransactions()) {
+      transaction.getSender();
+    }
+    BodyValidation.transactionsRoot(body);
+    BodyValidation.ommersHash(body);
+    return null;
+  }
+}
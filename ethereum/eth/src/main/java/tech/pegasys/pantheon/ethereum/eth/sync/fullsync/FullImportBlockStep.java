@@ -0,0 +1,54 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fullsync;
+
+import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.core.Block;
+import tech.pegasys.pantheon.ethereum.core.BlockImporter;
+import tech.pegasys.pantheon.ethereum.eth.sync.tasks.exceptions.InvalidBlockException;
+import tech.pegasys.pantheon.ethereum.mainnet.HeaderValidationMode;
+import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public class FullImportBlockStep<C> implements Consumer<List<Block>> {
+  private static final Logger LOG = LogManager.getLogger();
+  private final ProtocolSchedule<C> protocolSchedule;
+  private final ProtocolContext<C> protocolContext;
+
+  public FullImportBlockStep(
+      final ProtocolSchedule<C> protocolSchedule, final ProtocolContext<C> protocolContext) {
+    this.protocolSchedule = protocolSchedule;
+    this.protocolContext = protocolContext;
+  }
+
+  @Override
+  public void accept(final List<Block> blocks) {
+    for (final Block block : blocks) {
+      final BlockImporter<C> importer =
+          protocolSchedule.getByBlockNumber(block.getHeader().getNumber()).getBlockImporter();
+      // Detached header validation was done when the headers were downloaded
+      if (!importer.importBlock(protocolContext, block, HeaderValidationMode.SKIP_DETACHED)) {
+        throw new InvalidBlockException(
+            "Failed to import block", block.getHeader().getNumber(), block.getHash());
+      }
+    }
+    final long firstBlock = blocks.get(0).getHeader().getNumber();
+    final long lastBlock = blocks.get(blocks.size() - 1).getHeader().getNumber();
+    LOG.info("Completed importing chain segment {} to {}", firstBlock, lastBlock);
+  }
+}
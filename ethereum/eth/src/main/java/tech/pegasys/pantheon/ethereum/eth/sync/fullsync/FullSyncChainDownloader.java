@@ -14,9 +14,11 @@ package tech.pegasys.pantheon.ethereum.eth.sync.fullsync;
 
 import tech.pegasys.pantheon.ethereum.ProtocolContext;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.sync.ChainDownloadLimits;
 import tech.pegasys.pantheon.ethereum.eth.sync.ChainDownloader;
 import tech.pegasys.pantheon.ethereum.eth.sync.CheckpointHeaderManager;
 import tech.pegasys.pantheon.ethereum.eth.sync.EthTaskChainDownloader;
+import tech.pegasys.pantheon.ethereum.eth.sync.PipelineChainDownloader;
 import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
 import tech.pegasys.pantheon.ethereum.eth.sync.state.SyncState;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
@@ -33,12 +35,32 @@ public class FullSyncChainDownloader {
       final EthContext ethContext,
       final SyncState syncState,
       final MetricsSystem metricsSystem) {
+
+    final FullSyncTargetManager<C> syncTargetManager =
+        new FullSyncTargetManager<>(
+            config, protocolSchedule, protocolContext, ethContext, metricsSystem);
+
+    if (config.fullSyncPipelineEnabled()) {
+      return new PipelineChainDownloader<>(
+          syncState,
+          syncTargetManager,
+          new FullSyncDownloadPipelineFactory<>(
+              config,
+              protocolSchedule,
+              protocolContext,
+              ethContext,
+              syncTargetManager,
+              metricsSystem,
+              ChainDownloadLimits.create(config, metricsSystem, "full_sync")),
+          ethContext.getScheduler(),
+          metricsSystem);
+    }
+
     return new EthTaskChainDownloader<>(
         config,
         ethContext,
         syncState,
-        new FullSyncTargetManager<>(
-            config, protocolSchedule, protocolContext, ethContext, metricsSystem),
+        syncTargetManager,
         new CheckpointHeaderManager<>(
             config, protocolContext, ethContext, syncState, protocolSchedule, metricsSystem),
         new FullSyncBlockImportTaskFactory<>(
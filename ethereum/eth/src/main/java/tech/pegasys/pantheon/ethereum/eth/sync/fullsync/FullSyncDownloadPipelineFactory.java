@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fullsync;
+
+import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.sync.AdaptiveLimit;
+import tech.pegasys.pantheon.ethereum.eth.sync.ChainDownloadLimits;
+import tech.pegasys.pantheon.ethereum.eth.sync.CheckpointHeaderFetcher;
+import tech.pegasys.pantheon.ethereum.eth.sync.CheckpointHeaderValidationStep;
+import tech.pegasys.pantheon.ethereum.eth.sync.CheckpointRangeSource;
+import tech.pegasys.pantheon.ethereum.eth.sync.DownloadBodiesStep;
+import tech.pegasys.pantheon.ethereum.eth.sync.DownloadHeadersStep;
+import tech.pegasys.pantheon.ethereum.eth.sync.DownloadPipelineFactory;
+import tech.pegasys.pantheon.ethereum.eth.sync.SyncTargetManager;
+import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
+import tech.pegasys.pantheon.ethereum.eth.sync.ValidationPolicy;
+import tech.pegasys.pantheon.ethereum.eth.sync.state.SyncTarget;
+import tech.pegasys.pantheon.ethereum.mainnet.HeaderValidationMode;
+import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.services.pipeline.Pipeline;
+import tech.pegasys.pantheon.services.pipeline.PipelineBuilder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+public class FullSyncDownloadPipelineFactory<C> implements DownloadPipelineFactory {
+  private final SynchronizerConfiguration syncConfig;
+  private final ProtocolSchedule<C> protocolSchedule;
+  private final ProtocolContext<C> protocolContext;
+  private final EthContext ethContext;
+  private final SyncTargetManager<C> syncTargetManager;
+  private final MetricsSystem metricsSystem;
+  private final ChainDownloadLimits chainDownloadLimits;
+  private final Clock clock = Clock.systemUTC();
+  private final ValidationPolicy detachedValidationPolicy =
+      () -> HeaderValidationMode.DETACHED_ONLY;
+
+  public FullSyncDownloadPipelineFactory(
+      final SynchronizerConfiguration syncConfig,
+      final ProtocolSchedule<C> protocolSchedule,
+      final ProtocolContext<C> protocolContext,
+      final EthContext ethContext,
+      final SyncTargetManager<C> syncTargetManager,
+      final MetricsSystem metricsSystem,
+      final ChainDownloadLimits chainDownloadLimits) {
+    this.syncConfig = syncConfig;
+    this.protocolSchedule = protocolSchedule;
+    this.protocolContext = protocolContext;
+    this.ethContext = ethContext;
+    this.syncTargetManager = syncTargetManager;
+    this.metricsSystem = metricsSystem;
+    this.chainDownloadLimits = chainDownloadLimits;
+  }
+
+  @Override
+  public Pipeline<?> createDownloadPipelineForSyncTarget(final SyncTarget target) {
+    final int downloaderParallelism = syncConfig.downloaderParallelism();
+    final int headerRequestSize = syncConfig.downloaderHeaderRequestSize();
+    final int singleHeaderBufferSize = headerRequestSize * downloaderParallelism;
+    // Stop retrieving checkpoints once a better sync target is available so the pipeline
+    // completes and the chain downloader switches to it.
+    final CheckpointRangeSource checkpointRangeSource =
+        new CheckpointRangeSource(
+            new CheckpointHeaderFetcher(
+                syncConfig, protocolSchedule, ethContext, Optional.empty(), metricsSystem),
+            (peer, lastCheckpointHeader) ->
+                !peer.isDisconnected() && !syncTargetManager.shouldSwitchSyncTarget(target),
+            ethContext.getScheduler(),
+            target.peer(),
+            target.commonAncestor(),
+            syncConfig.downloaderCheckpointTimeoutsPermitted(),
+            Duration.ofSeconds(5));
+    final DownloadHeadersStep<C> downloadHeadersStep =
+        new DownloadHeadersStep<>(
+            protocolSchedule,
+            protocolContext,
+            ethContext,
+            detachedValidationPolicy,
+            headerRequestSize,
+            metricsSystem);
+    final CheckpointHeaderValidationStep<C> validateHeadersJoinUpStep =
+        new CheckpointHeaderValidationStep<>(
+            protocolSchedule, protocolContext, detachedValidationPolicy);
+    final DownloadBodiesStep<C> downloadBodiesStep =
+        new DownloadBodiesStep<>(protocolSchedule, ethContext, metricsSystem);
+    final ExtractTxSignaturesStep extractTxSignaturesStep =
+        new ExtractTxSignaturesStep(ethContext.getScheduler());
+    final FullImportBlockStep<C> importBlockStep =
+        new FullImportBlockStep<>(protocolSchedule, protocolContext);
+    final AdaptiveLimit headersLimit = chainDownloadLimits.getDownloadHeadersConcurrency();
+    final AdaptiveLimit bodiesLimit = chainDownloadLimits.getDownloadBodiesConcurrency();
+
+    return PipelineBuilder.createPipelineFrom(
+            "fetchCheckpoints",
+            checkpointRangeSource,
+            downloaderParallelism,
+            metricsSystem.createLabelledCounter(
+                MetricCategory.SYNCHRONIZER,
+                "chain_download_pipeline_processed_total",
+                "Number of entries process by each chain download pipeline stage",
+                "step",
+                "action"))
+        .thenProcessAsyncOrdered(
+            "downloadHeaders", headersLimit.track(downloadHeadersStep, clock), headersLimit)
+        .thenFlatMap("validateHeadersJoin", validateHeadersJoinUpStep, singleHeaderBufferSize)
+        .inBatches(headerRequestSize)
+        .thenProcessAsyncOrdered(
+            "downloadBodies", bodiesLimit.track(downloadBodiesStep, clock), bodiesLimit)
+        .thenProcessAsyncOrdered(
+            "extractTxSignatures", extractTxSignaturesStep, downloaderParallelism)
+        .andFinishWith("importBlock", importBlockStep);
+  }
+}
@@ -16,32 +16,62 @@ import tech.pegasys.pantheon.ethereum.core.Block;
 import tech.pegasys.pantheon.ethereum.core.Hash;
 
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import io.netty.util.internal.ConcurrentSet;
 
+/**
+ * Blocks received from the network which can't be imported until their parent is. The total size
+ * of the blocks held is bounded, and when it is exceeded the blocks furthest ahead of the chain are
+ * dropped first, as they are the least likely to be imported soon.
+ */
 public class PendingBlocks {
+  static final long DEFAULT_MAX_SIZE_IN_BYTES = 32 * 1024 * 1024;
 
+  private final long maxSizeInBytes;
   private final Map<Hash, Block> pendingBlocks = new ConcurrentHashMap<>();
+  private final Map<Hash, Integer> pendingBlockSizes = new ConcurrentHashMap<>();
   private final Map<Hash, Set<Hash>> pendingBlocksByParentHash = new ConcurrentHashMap<>();
+  // Ordered by block number so the block to drop when over the size limit is always the last
+  private final NavigableSet<Block> pendingBlocksByNumber =
+      new TreeSet<>(
+          Comparator.<Block>comparingLong(block -> block.getHeader().getNumber())
+              .thenComparing(Block::getHash));
+  private long sizeInBytes = 0;
+
+  public PendingBlocks() {
+    this(DEFAULT_MAX_SIZE_IN_BYTES);
+  }
+
+  public PendingBlocks(final long maxSizeInBytes) {
+    this.maxSizeInBytes = maxSizeInBytes;
+  }
 
   /**
    * Track the given block.
    *
    * @param pendingBlock the block to track
-   * @return true if the block was added (was not previously present)
+   * @return true if the block was added (was not previously present and not immediately dropped to
+   *     stay within the size limit)
    */
-  public boolean registerPendingBlock(final Block pendingBlock) {
+  public synchronized boolean registerPendingBlock(final Block pendingBlock) {
     final Block previousValue =
         this.pendingBlocks.putIfAbsent(pendingBlock.getHash(), pendingBlock);
     if (previousValue != null) {
       return false;
     }
+    final int blockSize = pendingBlock.calculateSize();
+    pendingBlockSizes.put(pendingBlock.getHash(), blockSize);
+    pendingBlocksByNumber.add(pendingBlock);
+    sizeInBytes += blockSize;
 
     pendingBlocksByParentHash
         .computeIfAbsent(
@@ -55,7 +85,10 @@ public class PendingBlocks {
             })
         .add(pendingBlock.getHash());
 
-    return true;
+    while (sizeInBytes > maxSizeInBytes && !pendingBlocksByNumber.isEmpty()) {
+      deregisterPendingBlock(pendingBlocksByNumber.last());
+    }
+    return pendingBlocks.containsKey(pendingBlock.getHash());
   }
 
   /**
@@ -64,9 +97,14 @@ public class PendingBlocks {
    * @param block the block that is no longer pending
    * @return true if this block was removed
    */
-  public boolean deregisterPendingBlock(final Block block) {
+  public synchronized boolean deregisterPendingBlock(final Block block) {
     final Hash parentHash = block.getHeader().getParentHash();
     final Block removed = pendingBlocks.remove(block.getHash());
+    final Integer removedSize = pendingBlockSizes.remove(block.getHash());
+    if (removedSize != null) {
+      sizeInBytes -= removedSize;
+    }
+    pendingBlocksByNumber.remove(block);
     final Set<Hash> blocksForParent = pendingBlocksByParentHash.get(parentHash);
     if (blocksForParent != null) {
       blocksForParent.remove(block.getHash());
@@ -75,10 +113,16 @@ public class PendingBlocks {
     return removed != null;
   }
 
-  public void purgeBlocksOlderThan(final long blockNumber) {
-    pendingBlocks.values().stream()
-        .filter(b -> b.getHeader().getNumber() < blockNumber)
-        .forEach(this::deregisterPendingBlock);
+  public synchronized void purgeBlocksOlderThan(final long blockNumber) {
+    while (!pendingBlocksByNumber.isEmpty()
+        && pendingBlocksByNumber.first().getHeader().getNumber() < blockNumber) {
+      deregisterPendingBlock(pendingBlocksByNumber.first());
+    }
+  }
+
+  /** @return the total RLP encoded size of the blocks being tracked */
+  public synchronized long sizeInBytes() {
+    return sizeInBytes;
   }
 
   public boolean contains(final Hash blockHash) {
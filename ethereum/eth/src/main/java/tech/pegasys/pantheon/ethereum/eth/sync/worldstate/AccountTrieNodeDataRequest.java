@@ -27,7 +27,11 @@ import java.util.Optional;
 class AccountTrieNodeDataRequest extends TrieNodeDataRequest {
 
   AccountTrieNodeDataRequest(final Hash hash) {
-    super(RequestType.ACCOUNT_TRIE_NODE, hash);
+    this(hash, 0);
+  }
+
+  AccountTrieNodeDataRequest(final Hash hash, final int depth) {
+    super(RequestType.ACCOUNT_TRIE_NODE, hash, depth);
   }
 
   @Override
@@ -42,7 +46,7 @@ class AccountTrieNodeDataRequest extends TrieNodeDataRequest {
 
   @Override
   protected NodeDataRequest createChildNodeDataRequest(final Hash childHash) {
-    return NodeDataRequest.createAccountDataRequest(childHash);
+    return NodeDataRequest.createAccountDataRequest(childHash, getDepth() + 1);
   }
 
   @Override
@@ -51,13 +55,13 @@ class AccountTrieNodeDataRequest extends TrieNodeDataRequest {
     StateTrieAccountValue accountValue = StateTrieAccountValue.readFrom(RLP.input(value));
     // Add code, if appropriate
     if (!accountValue.getCodeHash().equals(Hash.EMPTY)) {
-      nodeData.add(NodeDataRequest.createCodeRequest(accountValue.getCodeHash()));
+      nodeData.add(NodeDataRequest.createCodeRequest(accountValue.getCodeHash(), getDepth() + 1));
     }
     // Add storage, if appropriate
     if (!accountValue.getStorageRoot().equals(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH)) {
       // If storage is non-empty queue download
       NodeDataRequest storageNode =
-          NodeDataRequest.createStorageDataRequest(accountValue.getStorageRoot());
+          NodeDataRequest.createStorageDataRequest(accountValue.getStorageRoot(), getDepth() + 1);
       nodeData.add(storageNode);
     }
     return nodeData;
@@ -23,8 +23,8 @@ import java.util.Optional;
 
 class CodeNodeDataRequest extends NodeDataRequest {
 
-  CodeNodeDataRequest(final Hash hash) {
-    super(RequestType.CODE, hash);
+  CodeNodeDataRequest(final Hash hash, final int depth) {
+    super(RequestType.CODE, hash, depth);
   }
 
   @Override
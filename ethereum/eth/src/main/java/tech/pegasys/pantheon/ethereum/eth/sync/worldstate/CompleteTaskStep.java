@@ -22,12 +22,16 @@ import tech.pegasys.pantheon.services.tasks.Task;
 public class CompleteTaskStep {
 
   private final WorldStateStorage worldStateStorage;
+  private final boolean skipStoredSubtrees;
   private final Counter completedRequestsCounter;
   private final Counter retriedRequestsCounter;
 
   public CompleteTaskStep(
-      final WorldStateStorage worldStateStorage, final MetricsSystem metricsSystem) {
+      final WorldStateStorage worldStateStorage,
+      final MetricsSystem metricsSystem,
+      final boolean skipStoredSubtrees) {
     this.worldStateStorage = worldStateStorage;
+    this.skipStoredSubtrees = skipStoredSubtrees;
 
     completedRequestsCounter =
         metricsSystem.createCounter(
@@ -46,7 +50,7 @@ public class CompleteTaskStep {
       final WorldDownloadState downloadState,
       final Task<NodeDataRequest> task) {
     if (task.getData().getData() != null) {
-      enqueueChildren(task, header, downloadState);
+      enqueueChildrenOfStoredNode(task, downloadState);
       completedRequestsCounter.inc();
       task.markCompleted();
       downloadState.checkCompletion(worldStateStorage, header);
@@ -59,18 +63,13 @@ public class CompleteTaskStep {
     }
   }
 
-  private void enqueueChildren(
-      final Task<NodeDataRequest> task,
-      final BlockHeader blockHeader,
-      final WorldDownloadState downloadState) {
+  private void enqueueChildrenOfStoredNode(
+      final Task<NodeDataRequest> task, final WorldDownloadState downloadState) {
     final NodeDataRequest request = task.getData();
-    // Only queue rootnode children if we started from scratch
-    if (!downloadState.downloadWasResumed() || !isRootState(blockHeader, request)) {
+    // Downloaded nodes have their children queued before they are persisted. Nodes that were
+    // already in storage only need to be walked if that can't be relied on for earlier downloads.
+    if (!request.requiresPersisting() && !skipStoredSubtrees) {
       downloadState.enqueueRequests(request.getChildRequests());
     }
   }
-
-  private boolean isRootState(final BlockHeader blockHeader, final NodeDataRequest request) {
-    return request.getHash().equals(blockHeader.getStateRoot());
-  }
 }
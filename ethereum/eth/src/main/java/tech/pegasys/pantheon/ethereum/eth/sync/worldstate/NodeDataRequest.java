@@ -17,72 +17,109 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.ethereum.rlp.RLP;
 import tech.pegasys.pantheon.ethereum.rlp.RLPInput;
-import tech.pegasys.pantheon.ethereum.rlp.RLPOutput;
 import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.bytes.MutableBytesValue;
 
 import java.util.List;
 import java.util.Optional;
 
 public abstract class NodeDataRequest {
+  // Serialized as the request type, the node hash and a two byte depth
+  private static final int SERIALIZED_SIZE = 1 + Bytes32.SIZE + 2;
+  // Requests serialized as RLP lists, before the fixed width encoding was used
+  private static final int RLP_LIST_PREFIX = 0xc0;
+
   private final RequestType requestType;
   private final Hash hash;
+  private final int depth;
   private BytesValue data;
   private boolean requiresPersisting = true;
 
-  protected NodeDataRequest(final RequestType requestType, final Hash hash) {
+  protected NodeDataRequest(final RequestType requestType, final Hash hash, final int depth) {
     this.requestType = requestType;
     this.hash = hash;
+    this.depth = depth;
   }
 
   public static AccountTrieNodeDataRequest createAccountDataRequest(final Hash hash) {
-    return new AccountTrieNodeDataRequest(hash);
+    return createAccountDataRequest(hash, 0);
+  }
+
+  public static AccountTrieNodeDataRequest createAccountDataRequest(
+      final Hash hash, final int depth) {
+    return new AccountTrieNodeDataRequest(hash, depth);
   }
 
   public static StorageTrieNodeDataRequest createStorageDataRequest(final Hash hash) {
-    return new StorageTrieNodeDataRequest(hash);
+    return createStorageDataRequest(hash, 0);
+  }
+
+  public static StorageTrieNodeDataRequest createStorageDataRequest(
+      final Hash hash, final int depth) {
+    return new StorageTrieNodeDataRequest(hash, depth);
   }
 
   public static CodeNodeDataRequest createCodeRequest(final Hash hash) {
-    return new CodeNodeDataRequest(hash);
+    return createCodeRequest(hash, 0);
+  }
+
+  public static CodeNodeDataRequest createCodeRequest(final Hash hash, final int depth) {
+    return new CodeNodeDataRequest(hash, depth);
   }
 
   public static BytesValue serialize(final NodeDataRequest request) {
-    return RLP.encode(request::writeTo);
+    final MutableBytesValue serialized = MutableBytesValue.create(SERIALIZED_SIZE);
+    serialized.set(0, request.requestType.getValue());
+    request.hash.copyTo(serialized, 1);
+    serialized.set(SERIALIZED_SIZE - 2, (byte) (request.depth >>> 8));
+    serialized.set(SERIALIZED_SIZE - 1, (byte) request.depth);
+    return serialized;
   }
 
   public static NodeDataRequest deserialize(final BytesValue encoded) {
+    if ((encoded.get(0) & 0xff) >= RLP_LIST_PREFIX) {
+      return deserializeRlp(encoded);
+    }
+    if (encoded.size() != SERIALIZED_SIZE) {
+      throw new IllegalArgumentException(
+          "Unable to deserialize provided data into a valid "
+              + NodeDataRequest.class.getSimpleName());
+    }
+    final RequestType requestType = RequestType.fromValue(encoded.get(0));
+    final Hash hash = Hash.wrap(Bytes32.wrap(encoded, 1));
+    final int depthHigh = encoded.get(SERIALIZED_SIZE - 2) & 0xff;
+    final int depthLow = encoded.get(SERIALIZED_SIZE - 1) & 0xff;
+    final int depth = (depthHigh << 8) | depthLow;
+    return create(requestType, hash, depth);
+  }
+
+  private static NodeDataRequest deserializeRlp(final BytesValue encoded) {
     final RLPInput in = RLP.input(encoded);
     in.enterList();
     final RequestType requestType = RequestType.fromValue(in.readByte());
     final Hash hash = Hash.wrap(in.readBytes32());
+    // Requests queued before the depth was recorded don't include it
+    final int depth = in.isEndOfCurrentList() ? 0 : in.readIntScalar();
     in.leaveList();
+    return create(requestType, hash, depth);
+  }
 
-    final NodeDataRequest deserialized;
+  private static NodeDataRequest create(
+      final RequestType requestType, final Hash hash, final int depth) {
     switch (requestType) {
       case ACCOUNT_TRIE_NODE:
-        deserialized = createAccountDataRequest(hash);
-        break;
+        return createAccountDataRequest(hash, depth);
       case STORAGE_TRIE_NODE:
-        deserialized = createStorageDataRequest(hash);
-        break;
+        return createStorageDataRequest(hash, depth);
       case CODE:
-        deserialized = createCodeRequest(hash);
-        break;
+        return createCodeRequest(hash, depth);
       default:
         throw new IllegalArgumentException(
             "Unable to deserialize provided data into a valid "
                 + NodeDataRequest.class.getSimpleName());
     }
-
-    return deserialized;
-  }
-
-  private void writeTo(final RLPOutput out) {
-    out.startList();
-    out.writeByte(requestType.getValue());
-    out.writeBytesValue(hash);
-    out.endList();
   }
 
   public RequestType getRequestType() {
@@ -93,6 +130,17 @@ public abstract class NodeDataRequest {
     return hash;
   }
 
+  /**
+   * The number of nodes between the state root and this node, counting through the account leaf
+   * for storage trie and code nodes. Used to download deeper nodes first, which keeps the number of
+   * pending requests small.
+   *
+   * @return the depth of the node
+   */
+  public int getDepth() {
+    return depth;
+  }
+
   public BytesValue getData() {
     return data;
   }
@@ -102,6 +150,10 @@ public abstract class NodeDataRequest {
     return this;
   }
 
+  public boolean requiresPersisting() {
+    return requiresPersisting;
+  }
+
   public NodeDataRequest setRequiresPersisting(final boolean requiresPersisting) {
     this.requiresPersisting = requiresPersisting;
     return this;
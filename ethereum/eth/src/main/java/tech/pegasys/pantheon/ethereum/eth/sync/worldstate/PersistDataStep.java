@@ -12,6 +12,8 @@
  */
 package tech.pegasys.pantheon.ethereum.eth.sync.worldstate;
 
+import static java.util.stream.Collectors.toList;
+
 import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
 import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage.Updater;
@@ -30,18 +32,27 @@ public class PersistDataStep {
       final List<Task<NodeDataRequest>> tasks,
       final BlockHeader blockHeader,
       final WorldDownloadState downloadState) {
+    final List<NodeDataRequest> downloadedRequests =
+        tasks.stream()
+            .map(Task::getData)
+            .filter(request -> request.getData() != null && request.requiresPersisting())
+            .collect(toList());
+    // Queue children before their parent is stored so every stored node has its children either
+    // stored or queued, even if the download stops part way through.
+    downloadState.enqueueRequests(
+        downloadedRequests.stream()
+            .flatMap(request -> request.getChildRequests().stream())
+            .collect(toList()));
+
     final Updater updater = worldStateStorage.updater();
-    tasks.stream()
-        .map(Task::getData)
-        .filter(request -> request.getData() != null)
-        .forEach(
-            request -> {
-              if (isRootState(blockHeader, request)) {
-                downloadState.setRootNodeData(request.getData());
-              } else {
-                request.persist(updater);
-              }
-            });
+    downloadedRequests.forEach(
+        request -> {
+          if (isRootState(blockHeader, request)) {
+            downloadState.setRootNodeData(request.getData());
+          } else {
+            request.persist(updater);
+          }
+        });
     updater.commit();
     return tasks;
   }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.worldstate;
+
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.services.tasks.TaskCollection;
+
+import java.time.Clock;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Downloads the world state in ranges with a {@link StateRangeDownloader}, then walks the world
+ * state from its root node by node to fill in any gaps. A download which was resumed from its
+ * queued requests goes straight to the walk, as the ranges were downloaded before it started.
+ */
+public class RangeWorldStateDownloader extends WorldStateDownloader {
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final WorldStateStorage worldStateStorage;
+  private final TaskCollection<NodeDataRequest> taskCollection;
+  private final StateRangeDownloader stateRangeDownloader;
+  private volatile CompletableFuture<Void> rangeDownload = CompletableFuture.completedFuture(null);
+
+  public RangeWorldStateDownloader(
+      final EthContext ethContext,
+      final WorldStateStorage worldStateStorage,
+      final TaskCollection<NodeDataRequest> taskCollection,
+      final int hashCountPerRequest,
+      final int maxOutstandingRequests,
+      final int maxNodeRequestsWithoutProgress,
+      final long minMillisBeforeStalling,
+      final Clock clock,
+      final MetricsSystem metricsSystem) {
+    // Nodes stored by a range download aren't tracked by the queue, so the node by node download
+    // that follows has to look below every node it finds in storage.
+    super(
+        ethContext,
+        worldStateStorage,
+        taskCollection,
+        false,
+        hashCountPerRequest,
+        maxOutstandingRequests,
+        maxNodeRequestsWithoutProgress,
+        minMillisBeforeStalling,
+        clock,
+        metricsSystem);
+    this.worldStateStorage = worldStateStorage;
+    this.taskCollection = taskCollection;
+    this.stateRangeDownloader =
+        new StateRangeDownloader(ethContext, worldStateStorage, metricsSystem);
+  }
+
+  @Override
+  public CompletableFuture<Void> run(final BlockHeader header) {
+    synchronized (this) {
+      if (!rangeDownload.isDone()) {
+        final CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(
+            new IllegalStateException(
+                "Cannot run an already running " + this.getClass().getSimpleName()));
+        return failed;
+      }
+      if (!taskCollection.isEmpty()
+          || worldStateStorage.isWorldStateAvailable(header.getStateRoot())) {
+        return super.run(header);
+      }
+
+      final CompletableFuture<Void> result = new CompletableFuture<>();
+      rangeDownload = stateRangeDownloader.download(header.getStateRoot());
+      rangeDownload.whenComplete(
+          (r, error) -> {
+            if (result.isDone()) {
+              return;
+            }
+            if (error instanceof CancellationException) {
+              result.cancel(false);
+              return;
+            }
+            if (error != null) {
+              LOG.warn("World state range download failed, continuing node by node", error);
+            }
+            final CompletableFuture<Void> nodeDownload = super.run(header);
+            nodeDownload.whenComplete(
+                (r2, nodeError) -> {
+                  if (nodeError != null) {
+                    result.completeExceptionally(nodeError);
+                  } else {
+                    result.complete(null);
+                  }
+                });
+            result.whenComplete(
+                (r2, resultError) -> {
+                  if (resultError instanceof CancellationException) {
+                    nodeDownload.cancel(true);
+                  }
+                });
+          });
+      result.whenComplete(
+          (r, error) -> {
+            if (error instanceof CancellationException) {
+              rangeDownload.cancel(true);
+            }
+          });
+      return result;
+    }
+  }
+
+  @Override
+  public void cancel() {
+    synchronized (this) {
+      rangeDownload.cancel(true);
+      super.cancel();
+    }
+  }
+}
@@ -16,13 +16,16 @@ import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
 import tech.pegasys.pantheon.ethereum.eth.manager.exceptions.EthTaskException;
+import tech.pegasys.pantheon.ethereum.eth.manager.exceptions.MaxRetriesReachedException;
 import tech.pegasys.pantheon.ethereum.eth.manager.task.EthTask;
 import tech.pegasys.pantheon.ethereum.eth.manager.task.RetryingGetNodeDataFromPeerTask;
+import tech.pegasys.pantheon.ethereum.eth.sync.AdaptiveLimit;
 import tech.pegasys.pantheon.metrics.MetricsSystem;
 import tech.pegasys.pantheon.services.tasks.Task;
 import tech.pegasys.pantheon.util.ExceptionUtils;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
+import java.time.Clock;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -37,18 +40,47 @@ import org.apache.logging.log4j.Logger;
 
 public class RequestDataStep {
   private static final Logger LOG = LogManager.getLogger();
+  // Peers stop adding data to a response once it reaches this size, as EthServer does
+  static final int CAPPED_RESPONSE_SIZE = 2 * 1024 * 1024;
+
   private final BiFunction<List<Hash>, Long, EthTask<Map<Hash, BytesValue>>> getNodeDataTaskFactory;
+  private final AdaptiveLimit requestConcurrencyLimit;
+  private final AdaptiveLimit hashCountLimit;
+  private final Clock clock;
 
-  public RequestDataStep(final EthContext ethContext, final MetricsSystem metricsSystem) {
+  public RequestDataStep(
+      final EthContext ethContext,
+      final MetricsSystem metricsSystem,
+      final AdaptiveLimit requestConcurrencyLimit,
+      final AdaptiveLimit hashCountLimit,
+      final Clock clock) {
     this(
         (hashes, pivotBlockNumber) ->
             RetryingGetNodeDataFromPeerTask.forHashes(
-                ethContext, hashes, pivotBlockNumber, metricsSystem));
+                ethContext, hashes, pivotBlockNumber, metricsSystem),
+        requestConcurrencyLimit,
+        hashCountLimit,
+        clock);
   }
 
   RequestDataStep(
       final BiFunction<List<Hash>, Long, EthTask<Map<Hash, BytesValue>>> getNodeDataTaskFactory) {
+    this(
+        getNodeDataTaskFactory,
+        new AdaptiveLimit(1, 1, 1, 1),
+        new AdaptiveLimit(1, 1, 1, 1),
+        Clock.systemUTC());
+  }
+
+  RequestDataStep(
+      final BiFunction<List<Hash>, Long, EthTask<Map<Hash, BytesValue>>> getNodeDataTaskFactory,
+      final AdaptiveLimit requestConcurrencyLimit,
+      final AdaptiveLimit hashCountLimit,
+      final Clock clock) {
     this.getNodeDataTaskFactory = getNodeDataTaskFactory;
+    this.requestConcurrencyLimit = requestConcurrencyLimit;
+    this.hashCountLimit = hashCountLimit;
+    this.clock = clock;
   }
 
   public CompletableFuture<List<Task<NodeDataRequest>>> requestData(
@@ -82,6 +114,7 @@ public class RequestDataStep {
     final EthTask<Map<Hash, BytesValue>> task =
         getNodeDataTaskFactory.apply(hashes, blockHeader.getNumber());
     downloadState.addOutstandingTask(task);
+    final long startMillis = clock.millis();
     return task.run()
         .handle(
             (result, error) -> {
@@ -94,10 +127,38 @@ public class RequestDataStep {
                     || rootCause instanceof EthTaskException)) {
                   LOG.debug("GetNodeDataRequest failed", error);
                 }
+                // Retries are only exhausted by repeated timeouts
+                if (rootCause instanceof TimeoutException
+                    || rootCause instanceof MaxRetriesReachedException) {
+                  requestConcurrencyLimit.recordFailure();
+                  hashCountLimit.recordFailure();
+                }
                 return Collections.emptyMap();
               }
+              recordResponse(hashes.size(), result, clock.millis() - startMillis);
               downloadState.requestComplete(!result.isEmpty());
               return result;
             });
   }
+
+  private void recordResponse(
+      final int requestedCount, final Map<Hash, BytesValue> result, final long latencyMillis) {
+    if (result.isEmpty()) {
+      requestConcurrencyLimit.recordFailure();
+      hashCountLimit.recordFailure();
+      return;
+    }
+    requestConcurrencyLimit.recordSuccess(latencyMillis);
+    // Only a response cut short at the peer's size limit calls for fewer hashes per request. Other
+    // partial responses come from peers missing some of the data.
+    if (result.size() < requestedCount && responseSize(result) >= CAPPED_RESPONSE_SIZE) {
+      hashCountLimit.recordCappedResponse();
+    } else {
+      hashCountLimit.recordSuccess(latencyMillis);
+    }
+  }
+
+  private static long responseSize(final Map<Hash, BytesValue> result) {
+    return result.values().stream().mapToLong(BytesValue::size).sum();
+  }
 }
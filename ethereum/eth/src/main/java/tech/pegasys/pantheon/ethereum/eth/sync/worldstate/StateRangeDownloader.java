@@ -0,0 +1,408 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.worldstate;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer;
+import tech.pegasys.pantheon.ethereum.eth.manager.exceptions.NoAvailablePeersException;
+import tech.pegasys.pantheon.ethereum.eth.manager.task.GetStateRangeFromPeerTask;
+import tech.pegasys.pantheon.ethereum.eth.manager.task.GetStateRangeFromPeerTask.StateRange;
+import tech.pegasys.pantheon.ethereum.rlp.RLP;
+import tech.pegasys.pantheon.ethereum.trie.MerklePatriciaTrie;
+import tech.pegasys.pantheon.ethereum.trie.StoredMerklePatriciaTrie;
+import tech.pegasys.pantheon.ethereum.worldstate.StateTrieAccountValue;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
+import tech.pegasys.pantheon.metrics.Counter;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.util.ExceptionUtils;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Downloads as much of a world state as it can as ranges of accounts and storage slots from peers
+ * which support the state range protocol.
+ *
+ * <p>The account key space is split into partitions which are downloaded in parallel, range by
+ * range. The trie nodes for each range are rebuilt locally from its entries. A node which only
+ * covers entries inside the range is identical to the node in the full trie, so is stored, but the
+ * nodes on the paths to the first and last entries may also cover entries outside the range so are
+ * left out. The storage tries of the accounts in each range are downloaded the same way before
+ * moving on to the next range.
+ *
+ * <p>Nothing is assumed about the ranges being complete, so the world state must afterwards be
+ * walked from its root with {@link WorldStateDownloader}, which finds the nodes stored here locally
+ * and requests whatever is missing, including contract code. Ranges which can't be downloaded are
+ * skipped and left to that walk. The root of the account trie is never stored here so the world
+ * state isn't reported as available until the walk completes.
+ */
+public class StateRangeDownloader {
+  private static final Logger LOG = LogManager.getLogger();
+
+  static final int PARTITION_COUNT = 16;
+  static final int MAX_ENTRIES_PER_REQUEST = 4096;
+  static final int MAX_FAILED_REQUESTS = 5;
+  private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+  private static final Duration BUSY_PEERS_DELAY = Duration.ofMillis(100);
+  private static final Bytes32 LAST_KEY_HASH = partitionEnd(PARTITION_COUNT - 1);
+
+  private final EthContext ethContext;
+  private final WorldStateStorage worldStateStorage;
+  private final MetricsSystem metricsSystem;
+  private final Counter accountsCounter;
+  private final Counter storageSlotsCounter;
+  private final Counter persistedNodesCounter;
+
+  public StateRangeDownloader(
+      final EthContext ethContext,
+      final WorldStateStorage worldStateStorage,
+      final MetricsSystem metricsSystem) {
+    this.ethContext = ethContext;
+    this.worldStateStorage = worldStateStorage;
+    this.metricsSystem = metricsSystem;
+    accountsCounter =
+        metricsSystem.createCounter(
+            MetricCategory.SYNCHRONIZER,
+            "world_state_range_accounts_total",
+            "Total number of accounts downloaded in ranges for the world state");
+    storageSlotsCounter =
+        metricsSystem.createCounter(
+            MetricCategory.SYNCHRONIZER,
+            "world_state_range_storage_slots_total",
+            "Total number of storage slots downloaded in ranges for the world state");
+    persistedNodesCounter =
+        metricsSystem.createCounter(
+            MetricCategory.SYNCHRONIZER,
+            "world_state_range_persisted_nodes_total",
+            "Total number of trie nodes rebuilt from downloaded ranges and persisted");
+  }
+
+  /**
+   * Downloads the accounts and storage of a world state in ranges.
+   *
+   * @param stateRoot the root hash of the world state
+   * @return a future completed once every partition has been downloaded or given up on
+   */
+  public CompletableFuture<Void> download(final Hash stateRoot) {
+    LOG.info("Downloading world state {} in ranges of accounts and storage", stateRoot);
+    // Completing the result, including by cancelling it, stops any further requests being made.
+    final CompletableFuture<Void> result = new CompletableFuture<>();
+    final List<CompletableFuture<Void>> partitions = new ArrayList<>();
+    for (int i = 0; i < PARTITION_COUNT; i++) {
+      partitions.add(
+          new TrieRangeDownload(
+                  result,
+                  partitionStart(i),
+                  partitionEnd(i),
+                  startKeyHash ->
+                      GetStateRangeFromPeerTask.forAccounts(
+                          ethContext,
+                          stateRoot,
+                          startKeyHash,
+                          MAX_ENTRIES_PER_REQUEST,
+                          metricsSystem),
+                  accounts -> persistAccountRange(result, accounts))
+              .start());
+    }
+    CompletableFuture.allOf(partitions.toArray(new CompletableFuture<?>[0]))
+        .whenComplete(
+            (r, error) -> {
+              if (error != null) {
+                result.completeExceptionally(error);
+              } else {
+                result.complete(null);
+              }
+            });
+    return result;
+  }
+
+  private static Bytes32 partitionStart(final int partition) {
+    final byte[] keyHash = new byte[Bytes32.SIZE];
+    keyHash[0] = (byte) (partition * (256 / PARTITION_COUNT));
+    return Bytes32.wrap(keyHash);
+  }
+
+  private static Bytes32 partitionEnd(final int partition) {
+    final byte[] keyHash = new byte[Bytes32.SIZE];
+    Arrays.fill(keyHash, (byte) 0xff);
+    keyHash[0] = (byte) ((partition + 1) * (256 / PARTITION_COUNT) - 1);
+    return Bytes32.wrap(keyHash);
+  }
+
+  private CompletableFuture<Void> persistAccountRange(
+      final CompletableFuture<Void> download, final SortedMap<Bytes32, BytesValue> accounts) {
+    accountsCounter.inc(accounts.size());
+    // The account trie root must only be stored once the whole world state is available.
+    final Map<Bytes32, BytesValue> nodes = rebuildTrieNodes(accounts, Optional.empty());
+    final WorldStateStorage.Updater updater = worldStateStorage.updater();
+    nodes.forEach(updater::putAccountStateTrieNode);
+    updater.commit();
+    persistedNodesCounter.inc(nodes.size());
+
+    final Set<Hash> storageRoots = new LinkedHashSet<>();
+    for (final BytesValue account : accounts.values()) {
+      final Hash storageRoot = StateTrieAccountValue.readFrom(RLP.input(account)).getStorageRoot();
+      // Storage tries are only stored in full, so one which is present doesn't need downloading.
+      if (!storageRoot.equals(Hash.EMPTY_TRIE_HASH)
+          && !worldStateStorage.getAccountStorageTrieNode(storageRoot).isPresent()) {
+        storageRoots.add(storageRoot);
+      }
+    }
+    return new StorageDownload(download, storageRoots).start();
+  }
+
+  private CompletableFuture<Void> persistStorageRange(
+      final Hash storageRoot, final SortedMap<Bytes32, BytesValue> slots) {
+    storageSlotsCounter.inc(slots.size());
+    final Map<Bytes32, BytesValue> nodes = rebuildTrieNodes(slots, Optional.of(storageRoot));
+    final WorldStateStorage.Updater updater = worldStateStorage.updater();
+    nodes.forEach(updater::putAccountStorageTrieNode);
+    updater.commit();
+    persistedNodesCounter.inc(nodes.size());
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Rebuilds the trie nodes covering a range of entries, leaving out the nodes on the paths to the
+   * first and last entries unless the entries rebuild the whole trie with the expected root.
+   */
+  static Map<Bytes32, BytesValue> rebuildTrieNodes(
+      final SortedMap<Bytes32, BytesValue> entries, final Optional<Hash> completeTrieRoot) {
+    final Map<Bytes32, BytesValue> nodes = new HashMap<>();
+    if (entries.isEmpty()) {
+      return nodes;
+    }
+    final MerklePatriciaTrie<Bytes32, BytesValue> trie =
+        new StoredMerklePatriciaTrie<>(
+            hash -> Optional.ofNullable(nodes.get(hash)), b -> b, b -> b);
+    entries.forEach(trie::put);
+    trie.commit(nodes::put);
+    if (completeTrieRoot.isPresent() && completeTrieRoot.get().equals(trie.getRootHash())) {
+      return nodes;
+    }
+
+    final Set<Bytes32> edgeNodes = new HashSet<>();
+    final MerklePatriciaTrie<Bytes32, BytesValue> edgeTrie =
+        new StoredMerklePatriciaTrie<>(
+            hash -> {
+              edgeNodes.add(hash);
+              return Optional.ofNullable(nodes.get(hash));
+            },
+            trie.getRootHash(),
+            b -> b,
+            b -> b);
+    edgeTrie.get(entries.firstKey());
+    edgeTrie.get(entries.lastKey());
+    nodes.keySet().removeAll(edgeNodes);
+    return nodes;
+  }
+
+  /** Downloads the storage tries of a set of accounts one after another. */
+  private class StorageDownload {
+    private final CompletableFuture<Void> download;
+    private final Deque<Hash> storageRoots;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    StorageDownload(final CompletableFuture<Void> download, final Set<Hash> storageRoots) {
+      this.download = download;
+      this.storageRoots = new ArrayDeque<>(storageRoots);
+    }
+
+    CompletableFuture<Void> start() {
+      downloadNextStorageTrie();
+      return result;
+    }
+
+    private void downloadNextStorageTrie() {
+      while (!storageRoots.isEmpty() && !download.isDone()) {
+        final Hash storageRoot = storageRoots.poll();
+        final CompletableFuture<Void> storageTrie =
+            new TrieRangeDownload(
+                    download,
+                    Bytes32.ZERO,
+                    LAST_KEY_HASH,
+                    startKeyHash ->
+                        GetStateRangeFromPeerTask.forStorage(
+                            ethContext,
+                            storageRoot,
+                            startKeyHash,
+                            MAX_ENTRIES_PER_REQUEST,
+                            metricsSystem),
+                    slots -> persistStorageRange(storageRoot, slots))
+                .start();
+        if (!storageTrie.isDone()) {
+          storageTrie.whenComplete((r, error) -> downloadNextStorageTrie());
+          return;
+        }
+      }
+      result.complete(null);
+    }
+  }
+
+  /**
+   * Downloads the entries of a trie between two key hashes, one range at a time. Each range is
+   * handled before the next is requested.
+   */
+  private class TrieRangeDownload {
+    private final CompletableFuture<Void> download;
+    private final Bytes32 endKeyHash;
+    private final Function<Bytes32, GetStateRangeFromPeerTask> requestFactory;
+    private final Function<SortedMap<Bytes32, BytesValue>, CompletableFuture<Void>> rangeHandler;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+    private final Set<EthPeer> peersWithoutTrie = new HashSet<>();
+    private Bytes32 nextKeyHash;
+    private int failedRequests = 0;
+
+    TrieRangeDownload(
+        final CompletableFuture<Void> download,
+        final Bytes32 startKeyHash,
+        final Bytes32 endKeyHash,
+        final Function<Bytes32, GetStateRangeFromPeerTask> requestFactory,
+        final Function<SortedMap<Bytes32, BytesValue>, CompletableFuture<Void>> rangeHandler) {
+      this.download = download;
+      this.nextKeyHash = startKeyHash;
+      this.endKeyHash = endKeyHash;
+      this.requestFactory = requestFactory;
+      this.rangeHandler = rangeHandler;
+    }
+
+    CompletableFuture<Void> start() {
+      requestNextRange();
+      return result;
+    }
+
+    private void requestNextRange() {
+      if (download.isDone()) {
+        result.complete(null);
+        return;
+      }
+      requestFactory
+          .apply(nextKeyHash)
+          .excludePeers(peersWithoutTrie)
+          .run()
+          .whenComplete(
+              (range, error) -> {
+                if (error != null) {
+                  retry(ExceptionUtils.rootCause(error));
+                  return;
+                }
+                if (!range.getResult().isAvailable()) {
+                  retryWithoutPeer(range.getPeer());
+                  return;
+                }
+                try {
+                  handleRange(range.getResult());
+                } catch (final RuntimeException e) {
+                  // Most likely an account which couldn't be decoded
+                  retry(e);
+                }
+              });
+    }
+
+    private void handleRange(final StateRange range) {
+      failedRequests = 0;
+      final SortedMap<Bytes32, BytesValue> entries = range.getEntries();
+      if (entries.isEmpty()) {
+        result.complete(null);
+        return;
+      }
+      final boolean finished = range.isLastRange() || entries.lastKey().compareTo(endKeyHash) >= 0;
+      final SortedMap<Bytes32, BytesValue> entriesInRange = new TreeMap<>();
+      entries.forEach(
+          (keyHash, value) -> {
+            if (keyHash.compareTo(endKeyHash) <= 0) {
+              entriesInRange.put(keyHash, value);
+            }
+          });
+      rangeHandler
+          .apply(entriesInRange)
+          .whenComplete(
+              (r, error) -> {
+                if (error != null) {
+                  result.completeExceptionally(error);
+                } else if (finished) {
+                  result.complete(null);
+                } else {
+                  nextKeyHash = UInt256.wrap(entries.lastKey()).plus(1).getBytes();
+                  requestNextRange();
+                }
+              });
+    }
+
+    private void retry(final Throwable error) {
+      if (error instanceof NoAvailablePeersException && hasStateRangePeers()) {
+        // Peers serving state ranges are all busy so wait for one to become idle.
+        ethContext.getScheduler().scheduleFutureTask(this::requestNextRange, BUSY_PEERS_DELAY);
+        return;
+      }
+      if (tooManyFailedRequests()) {
+        LOG.debug(
+            "Unable to download range starting at {}, leaving it to be downloaded node by node",
+            nextKeyHash,
+            error);
+        return;
+      }
+      ethContext.getScheduler().scheduleFutureTask(this::requestNextRange, RETRY_DELAY);
+    }
+
+    private void retryWithoutPeer(final EthPeer peer) {
+      // The peer doesn't have the trie, so ask another peer straight away.
+      peersWithoutTrie.add(peer);
+      if (tooManyFailedRequests()) {
+        LOG.debug(
+            "No peer provided range starting at {}, leaving it to be downloaded node by node",
+            nextKeyHash);
+        return;
+      }
+      requestNextRange();
+    }
+
+    private boolean tooManyFailedRequests() {
+      failedRequests++;
+      if (failedRequests > MAX_FAILED_REQUESTS) {
+        result.complete(null);
+        return true;
+      }
+      return false;
+    }
+
+    private boolean hasStateRangePeers() {
+      return ethContext
+          .getEthPeers()
+          .availablePeers()
+          .anyMatch(peer -> peer.supportsStateRanges() && !peersWithoutTrie.contains(peer));
+    }
+  }
+}
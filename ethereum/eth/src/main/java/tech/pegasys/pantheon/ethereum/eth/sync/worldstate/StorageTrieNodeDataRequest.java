@@ -23,8 +23,8 @@ import java.util.Optional;
 
 class StorageTrieNodeDataRequest extends TrieNodeDataRequest {
 
-  StorageTrieNodeDataRequest(final Hash hash) {
-    super(RequestType.STORAGE_TRIE_NODE, hash);
+  StorageTrieNodeDataRequest(final Hash hash, final int depth) {
+    super(RequestType.STORAGE_TRIE_NODE, hash, depth);
   }
 
   @Override
@@ -39,7 +39,7 @@ class StorageTrieNodeDataRequest extends TrieNodeDataRequest {
 
   @Override
   protected NodeDataRequest createChildNodeDataRequest(final Hash childHash) {
-    return NodeDataRequest.createStorageDataRequest(childHash);
+    return NodeDataRequest.createStorageDataRequest(childHash, getDepth() + 1);
   }
 
   @Override
@@ -14,14 +14,22 @@ package tech.pegasys.pantheon.ethereum.eth.sync.worldstate;
 
 import tech.pegasys.pantheon.services.tasks.Task;
 
+import java.util.ArrayDeque;
 import java.util.Iterator;
+import java.util.Queue;
+import java.util.function.IntSupplier;
 
 class TaskQueueIterator implements Iterator<Task<NodeDataRequest>> {
 
   private final WorldDownloadState downloadState;
+  private final IntSupplier batchSize;
+  // Tasks are dequeued in batches so the queue is locked once per batch rather than per task. The
+  // batch size follows the number of hashes currently requested at once.
+  private final Queue<Task<NodeDataRequest>> dequeuedTasks = new ArrayDeque<>();
 
-  public TaskQueueIterator(final WorldDownloadState downloadState) {
+  public TaskQueueIterator(final WorldDownloadState downloadState, final IntSupplier batchSize) {
     this.downloadState = downloadState;
+    this.batchSize = batchSize;
   }
 
   @Override
@@ -31,6 +39,9 @@ class TaskQueueIterator implements Iterator<Task<NodeDataRequest>> {
 
   @Override
   public Task<NodeDataRequest> next() {
-    return downloadState.dequeueRequestBlocking();
+    if (dequeuedTasks.isEmpty()) {
+      dequeuedTasks.addAll(downloadState.dequeueRequestsBlocking(batchSize.getAsInt()));
+    }
+    return dequeuedTasks.poll();
   }
 }
@@ -26,8 +26,8 @@ import com.google.common.base.Objects;
 
 abstract class TrieNodeDataRequest extends NodeDataRequest {
 
-  TrieNodeDataRequest(final RequestType kind, final Hash hash) {
-    super(kind, hash);
+  TrieNodeDataRequest(final RequestType kind, final Hash hash, final int depth) {
+    super(kind, hash, depth);
   }
 
   @Override
@@ -17,14 +17,15 @@ import tech.pegasys.pantheon.ethereum.eth.manager.EthScheduler;
 import tech.pegasys.pantheon.ethereum.eth.manager.task.EthTask;
 import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
 import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage.Updater;
-import tech.pegasys.pantheon.services.tasks.CachingTaskCollection;
 import tech.pegasys.pantheon.services.tasks.Task;
+import tech.pegasys.pantheon.services.tasks.TaskCollection;
 import tech.pegasys.pantheon.util.ExceptionUtils;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.time.Clock;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
@@ -37,7 +38,7 @@ class WorldDownloadState {
   private static final Logger LOG = LogManager.getLogger();
 
   private final boolean downloadWasResumed;
-  private final CachingTaskCollection<NodeDataRequest> pendingRequests;
+  private final TaskCollection<NodeDataRequest> pendingRequests;
   private final int maxRequestsWithoutProgress;
   private final Clock clock;
   private final Set<EthTask<?>> outstandingRequests =
@@ -52,7 +53,7 @@ class WorldDownloadState {
   private WorldStateDownloadProcess worldStateDownloadProcess;
 
   public WorldDownloadState(
-      final CachingTaskCollection<NodeDataRequest> pendingRequests,
+      final TaskCollection<NodeDataRequest> pendingRequests,
       final int maxRequestsWithoutProgress,
       final long minMillisBeforeStalling,
       final Clock clock) {
@@ -128,25 +129,25 @@ class WorldDownloadState {
 
   public synchronized void enqueueRequests(final Collection<NodeDataRequest> requests) {
     if (!internalFuture.isDone()) {
-      requests.forEach(pendingRequests::add);
+      pendingRequests.addAll(requests);
       notifyAll();
     }
   }
 
-  public synchronized Task<NodeDataRequest> dequeueRequestBlocking() {
+  public synchronized List<Task<NodeDataRequest>> dequeueRequestsBlocking(final int maxRequests) {
     while (!internalFuture.isDone()) {
-      final Task<NodeDataRequest> task = pendingRequests.remove();
-      if (task != null) {
-        return task;
+      final List<Task<NodeDataRequest>> tasks = pendingRequests.removeUpTo(maxRequests);
+      if (!tasks.isEmpty()) {
+        return tasks;
       }
       try {
         wait();
       } catch (final InterruptedException e) {
         Thread.currentThread().interrupt();
-        return null;
+        return Collections.emptyList();
       }
     }
-    return null;
+    return Collections.emptyList();
   }
 
   public synchronized void setRootNodeData(final BytesValue rootNodeData) {
@@ -30,6 +30,7 @@ import tech.pegasys.pantheon.util.ExceptionUtils;
 
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.IntSupplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -129,7 +130,8 @@ public class WorldStateDownloadProcess {
   public static class Builder {
 
     private int hashCountPerRequest;
-    private int maxOutstandingRequests;
+    private IntSupplier hashCountLimit;
+    private IntSupplier maxOutstandingRequests;
     private LoadLocalDataStep loadLocalDataStep;
     private WorldDownloadState downloadState;
     private MetricsSystem metricsSystem;
@@ -143,7 +145,23 @@ public class WorldStateDownloadProcess {
       return this;
     }
 
+    /**
+     * Sets a limit on the number of hashes to request at once which may change as the download
+     * progresses. It is capped at {@link #hashCountPerRequest(int)}.
+     *
+     * @param hashCountLimit supplies the current number of hashes to request at once
+     * @return this builder
+     */
+    public Builder hashCountLimit(final IntSupplier hashCountLimit) {
+      this.hashCountLimit = hashCountLimit;
+      return this;
+    }
+
     public Builder maxOutstandingRequests(final int maxOutstandingRequests) {
+      return maxOutstandingRequests(() -> maxOutstandingRequests);
+    }
+
+    public Builder maxOutstandingRequests(final IntSupplier maxOutstandingRequests) {
       this.maxOutstandingRequests = maxOutstandingRequests;
       return this;
     }
@@ -191,6 +209,9 @@ public class WorldStateDownloadProcess {
       checkNotNull(downloadState);
       checkNotNull(pivotBlockHeader);
       checkNotNull(metricsSystem);
+      checkNotNull(maxOutstandingRequests);
+      final IntSupplier hashCountLimit =
+          this.hashCountLimit != null ? this.hashCountLimit : () -> hashCountPerRequest;
 
       // Room for the requests we expect to do in parallel plus some buffer but not unlimited.
       final int bufferCapacity = hashCountPerRequest * 2;
@@ -215,7 +236,7 @@ public class WorldStateDownloadProcess {
       final Pipeline<Task<NodeDataRequest>> fetchDataPipeline =
           createPipelineFrom(
                   "requestDequeued",
-                  new TaskQueueIterator(downloadState),
+                  new TaskQueueIterator(downloadState, hashCountLimit),
                   bufferCapacity,
                   outputCounter)
               .thenFlatMapInParallel(
@@ -223,7 +244,7 @@ public class WorldStateDownloadProcess {
                   task -> loadLocalDataStep.loadLocalData(task, requestsToComplete),
                   3,
                   bufferCapacity)
-              .inBatches(hashCountPerRequest)
+              .inBatches(hashCountPerRequest, hashCountLimit)
               .thenProcessAsync(
                   "batchDownloadData",
                   requestTasks ->
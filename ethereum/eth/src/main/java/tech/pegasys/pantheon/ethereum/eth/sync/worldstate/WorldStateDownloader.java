@@ -15,10 +15,11 @@ package tech.pegasys.pantheon.ethereum.eth.sync.worldstate;
 import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.sync.AdaptiveLimit;
 import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
 import tech.pegasys.pantheon.metrics.MetricCategory;
 import tech.pegasys.pantheon.metrics.MetricsSystem;
-import tech.pegasys.pantheon.services.tasks.CachingTaskCollection;
+import tech.pegasys.pantheon.services.tasks.TaskCollection;
 
 import java.time.Clock;
 import java.util.concurrent.CompletableFuture;
@@ -37,18 +38,23 @@ public class WorldStateDownloader {
   private final MetricsSystem metricsSystem;
 
   private final EthContext ethContext;
-  private final CachingTaskCollection<NodeDataRequest> taskCollection;
+  private final TaskCollection<NodeDataRequest> taskCollection;
+  // True when every stored trie node has its missing children in the queue, so a resumed download
+  // can stop at nodes it finds in storage instead of walking their subtrees again.
+  private final boolean storedNodesTracked;
   private final int hashCountPerRequest;
-  private final int maxOutstandingRequests;
   private final int maxNodeRequestsWithoutProgress;
   private final WorldStateStorage worldStateStorage;
+  private final AdaptiveLimit requestConcurrencyLimit;
+  private final AdaptiveLimit hashCountLimit;
 
   private final AtomicReference<WorldDownloadState> downloadState = new AtomicReference<>();
 
   public WorldStateDownloader(
       final EthContext ethContext,
       final WorldStateStorage worldStateStorage,
-      final CachingTaskCollection<NodeDataRequest> taskCollection,
+      final TaskCollection<NodeDataRequest> taskCollection,
+      final boolean storedNodesTracked,
       final int hashCountPerRequest,
       final int maxOutstandingRequests,
       final int maxNodeRequestsWithoutProgress,
@@ -58,13 +64,34 @@ public class WorldStateDownloader {
     this.ethContext = ethContext;
     this.worldStateStorage = worldStateStorage;
     this.taskCollection = taskCollection;
+    this.storedNodesTracked = storedNodesTracked;
     this.hashCountPerRequest = hashCountPerRequest;
-    this.maxOutstandingRequests = maxOutstandingRequests;
     this.maxNodeRequestsWithoutProgress = maxNodeRequestsWithoutProgress;
     this.minMillisBeforeStalling = minMillisBeforeStalling;
     this.clock = clock;
     this.metricsSystem = metricsSystem;
 
+    // The configured values are upper bounds. Both limits start lower and grow towards them as
+    // responses arrive, backing off when requests time out or peers can't keep up.
+    requestConcurrencyLimit =
+        AdaptiveLimit.create(
+            metricsSystem,
+            "world_state_request_concurrency_limit",
+            "Current limit on the number of world state requests in progress at once",
+            1,
+            Math.max(1, maxOutstandingRequests / 4),
+            maxOutstandingRequests,
+            Math.max(1, maxOutstandingRequests / 32));
+    hashCountLimit =
+        AdaptiveLimit.create(
+            metricsSystem,
+            "world_state_request_hash_count_limit",
+            "Current limit on the number of hashes requested in each world state request",
+            Math.max(1, hashCountPerRequest / 8),
+            Math.max(1, hashCountPerRequest / 4),
+            hashCountPerRequest,
+            Math.max(1, hashCountPerRequest / 32));
+
     metricsSystem.createIntegerGauge(
         MetricCategory.SYNCHRONIZER,
         "world_state_node_requests_since_last_progress_current",
@@ -124,11 +151,18 @@ public class WorldStateDownloader {
       final WorldStateDownloadProcess downloadProcess =
           WorldStateDownloadProcess.builder()
               .hashCountPerRequest(hashCountPerRequest)
-              .maxOutstandingRequests(maxOutstandingRequests)
+              .hashCountLimit(hashCountLimit)
+              .maxOutstandingRequests(requestConcurrencyLimit)
               .loadLocalDataStep(new LoadLocalDataStep(worldStateStorage, metricsSystem))
-              .requestDataStep(new RequestDataStep(ethContext, metricsSystem))
+              .requestDataStep(
+                  new RequestDataStep(
+                      ethContext, metricsSystem, requestConcurrencyLimit, hashCountLimit, clock))
               .persistDataStep(new PersistDataStep(worldStateStorage))
-              .completeTaskStep(new CompleteTaskStep(worldStateStorage, metricsSystem))
+              .completeTaskStep(
+                  new CompleteTaskStep(
+                      worldStateStorage,
+                      metricsSystem,
+                      storedNodesTracked && newDownloadState.downloadWasResumed()))
               .downloadState(newDownloadState)
               .pivotBlockHeader(header)
               .metricsSystem(metricsSystem)
@@ -14,7 +14,6 @@ package tech.pegasys.pantheon.ethereum.eth.transactions;
 
 import static java.util.Collections.emptySet;
 
-import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.ethereum.core.Transaction;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer.DisconnectCallback;
@@ -27,14 +26,14 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 class PeerTransactionTracker implements DisconnectCallback {
-  private static final int MAX_TRACKED_SEEN_TRANSACTIONS = 10_000;
-  private final Map<EthPeer, Set<Hash>> seenTransactions = new ConcurrentHashMap<>();
+  private static final int MAX_QUEUED_TRANSACTIONS_PER_PEER = 10_000;
+  private final Map<EthPeer, SeenTransactionFilter> seenTransactions = new ConcurrentHashMap<>();
   private final Map<EthPeer, Set<Transaction>> transactionsToSend = new ConcurrentHashMap<>();
 
   public synchronized void markTransactionsAsSeen(
       final EthPeer peer, final Collection<Transaction> transactions) {
-    final Set<Hash> seenTransactionsForPeer = getOrCreateSeenTransactionsForPeer(peer);
-    transactions.stream().map(Transaction::hash).forEach(seenTransactionsForPeer::add);
+    final SeenTransactionFilter seenTransactionsForPeer = getOrCreateSeenTransactionsForPeer(peer);
+    transactions.forEach(transaction -> seenTransactionsForPeer.add(transaction.hash()));
   }
 
   public synchronized void addToPeerSendQueue(final EthPeer peer, final Transaction transaction) {
@@ -57,12 +56,13 @@ class PeerTransactionTracker implements DisconnectCallback {
     }
   }
 
-  private Set<Hash> getOrCreateSeenTransactionsForPeer(final EthPeer peer) {
-    return seenTransactions.computeIfAbsent(peer, key -> createTransactionsSet());
+  private SeenTransactionFilter getOrCreateSeenTransactionsForPeer(final EthPeer peer) {
+    return seenTransactions.computeIfAbsent(peer, key -> new SeenTransactionFilter());
   }
 
-  private boolean hasPeerSeenTransaction(final EthPeer peer, final Transaction transaction) {
-    final Set<Hash> seenTransactionsForPeer = seenTransactions.get(peer);
+  public synchronized boolean hasPeerSeenTransaction(
+      final EthPeer peer, final Transaction transaction) {
+    final SeenTransactionFilter seenTransactionsForPeer = seenTransactions.get(peer);
     return seenTransactionsForPeer != null && seenTransactionsForPeer.contains(transaction.hash());
   }
 
@@ -71,7 +71,7 @@ class PeerTransactionTracker implements DisconnectCallback {
         new LinkedHashMap<T, Boolean>(1 << 4, 0.75f, true) {
           @Override
           protected boolean removeEldestEntry(final Map.Entry<T, Boolean> eldest) {
-            return size() > MAX_TRACKED_SEEN_TRANSACTIONS;
+            return size() > MAX_QUEUED_TRANSACTIONS_PER_PEER;
           }
         });
   }
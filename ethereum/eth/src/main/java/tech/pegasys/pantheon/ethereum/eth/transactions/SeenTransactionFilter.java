@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.transactions;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+
+import java.util.Arrays;
+
+/**
+ * Remembers recently seen transactions in a fixed amount of memory, using a pair of bloom filters
+ * keyed by the first 64 bits of each transaction hash.
+ *
+ * <p>Transactions are added to the current filter until it holds {@link
+ * #MAX_ENTRIES_PER_GENERATION}, then the older filter is cleared and becomes the current one. At
+ * least the most recent {@link #MAX_ENTRIES_PER_GENERATION} transactions are always remembered.
+ * Unseen transactions are occasionally reported as seen, but seen transactions never as unseen.
+ *
+ * <p>Not thread safe.
+ */
+class SeenTransactionFilter {
+  static final int MAX_ENTRIES_PER_GENERATION = 5_000;
+  // 2^17 bits (16KiB) per generation keeps the false positive rate for a full generation below 0.1%
+  private static final int BITS_PER_GENERATION_LOG2 = 17;
+  private static final int BIT_INDEX_MASK = (1 << BITS_PER_GENERATION_LOG2) - 1;
+  private static final int HASH_FUNCTIONS = 4;
+
+  private long[] current = new long[1 << (BITS_PER_GENERATION_LOG2 - 6)];
+  private long[] previous = new long[1 << (BITS_PER_GENERATION_LOG2 - 6)];
+  private int currentEntries = 0;
+
+  void add(final Hash hash) {
+    final long key = hash.getLong(0);
+    if (contains(current, key)) {
+      return;
+    }
+    if (currentEntries >= MAX_ENTRIES_PER_GENERATION) {
+      final long[] cleared = previous;
+      Arrays.fill(cleared, 0L);
+      previous = current;
+      current = cleared;
+      currentEntries = 0;
+    }
+    final int h1 = (int) key;
+    final int h2 = (int) (key >>> 32);
+    for (int i = 0; i < HASH_FUNCTIONS; i++) {
+      final int bit = (h1 + i * h2) & BIT_INDEX_MASK;
+      current[bit >>> 6] |= 1L << bit;
+    }
+    currentEntries++;
+  }
+
+  boolean contains(final Hash hash) {
+    final long key = hash.getLong(0);
+    return contains(current, key) || contains(previous, key);
+  }
+
+  private static boolean contains(final long[] bits, final long key) {
+    final int h1 = (int) key;
+    final int h2 = (int) (key >>> 32);
+    for (int i = 0; i < HASH_FUNCTIONS; i++) {
+      final int bit = (h1 + i * h2) & BIT_INDEX_MASK;
+      if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
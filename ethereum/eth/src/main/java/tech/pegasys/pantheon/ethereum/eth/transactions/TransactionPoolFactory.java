@@ -24,12 +24,44 @@ import java.time.Clock;
 
 public class TransactionPoolFactory {
 
+  public static final int DEFAULT_MAX_PEERS_PER_TRANSACTION = 16;
+
+  public static TransactionPool createTransactionPool(
+      final ProtocolSchedule<?> protocolSchedule,
+      final ProtocolContext<?> protocolContext,
+      final EthContext ethContext,
+      final Clock clock,
+      final int maxPendingTransactions,
+      final MetricsSystem metricsSystem) {
+    return createTransactionPool(
+        protocolSchedule,
+        protocolContext,
+        ethContext,
+        clock,
+        maxPendingTransactions,
+        DEFAULT_MAX_PEERS_PER_TRANSACTION,
+        metricsSystem);
+  }
+
+  /**
+   * Creates a transaction pool which exchanges transactions with peers.
+   *
+   * @param protocolSchedule the protocol schedule
+   * @param protocolContext the protocol context
+   * @param ethContext the eth context
+   * @param clock the clock used to record when transactions were added
+   * @param maxPendingTransactions the maximum number of transactions kept in the pool
+   * @param maxPeersPerTransaction the number of peers each new transaction is sent to
+   * @param metricsSystem the metrics system
+   * @return the transaction pool
+   */
   public static TransactionPool createTransactionPool(
       final ProtocolSchedule<?> protocolSchedule,
       final ProtocolContext<?> protocolContext,
       final EthContext ethContext,
       final Clock clock,
       final int maxPendingTransactions,
+      final int maxPeersPerTransaction,
       final MetricsSystem metricsSystem) {
     final PendingTransactions pendingTransactions =
         new PendingTransactions(maxPendingTransactions, clock, metricsSystem);
@@ -43,7 +75,11 @@ public class TransactionPoolFactory {
             pendingTransactions,
             protocolSchedule,
             protocolContext,
-            new TransactionSender(transactionTracker, transactionsMessageSender, ethContext));
+            new TransactionSender(
+                transactionTracker,
+                transactionsMessageSender,
+                ethContext,
+                maxPeersPerTransaction));
 
     final TransactionsMessageHandler transactionsMessageHandler =
         new TransactionsMessageHandler(
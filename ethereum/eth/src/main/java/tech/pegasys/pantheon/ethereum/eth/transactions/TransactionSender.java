@@ -12,34 +12,63 @@
  */
 package tech.pegasys.pantheon.ethereum.eth.transactions;
 
+import static java.util.stream.Collectors.toList;
+
 import tech.pegasys.pantheon.ethereum.core.Transaction;
 import tech.pegasys.pantheon.ethereum.core.TransactionPool.TransactionBatchAddedListener;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Queues transactions added to the pool to be sent to peers which haven't seen them.
+ *
+ * <p>Each transaction is queued for at most {@code maxPeersPerTransaction} randomly chosen peers,
+ * which pass it on to their own peers, rather than every connected peer. Queued transactions are
+ * sent after {@link #BROADCAST_INTERVAL} so transactions arriving close together share messages.
+ */
 class TransactionSender implements TransactionBatchAddedListener {
 
+  static final Duration BROADCAST_INTERVAL = Duration.ofMillis(100);
+
   private final PeerTransactionTracker transactionTracker;
   private final TransactionsMessageSender transactionsMessageSender;
   private final EthContext ethContext;
+  private final int maxPeersPerTransaction;
+  private final AtomicBoolean broadcastScheduled = new AtomicBoolean(false);
 
   public TransactionSender(
       final PeerTransactionTracker transactionTracker,
       final TransactionsMessageSender transactionsMessageSender,
-      final EthContext ethContext) {
+      final EthContext ethContext,
+      final int maxPeersPerTransaction) {
     this.transactionTracker = transactionTracker;
     this.transactionsMessageSender = transactionsMessageSender;
     this.ethContext = ethContext;
+    this.maxPeersPerTransaction = maxPeersPerTransaction;
   }
 
   @Override
   public void onTransactionsAdded(final Iterable<Transaction> transactions) {
-    ethContext
-        .getEthPeers()
-        .availablePeers()
-        .forEach(
-            peer ->
-                transactions.forEach(
-                    transaction -> transactionTracker.addToPeerSendQueue(peer, transaction)));
+    final List<EthPeer> peers = ethContext.getEthPeers().availablePeers().collect(toList());
+    for (final Transaction transaction : transactions) {
+      Collections.shuffle(peers);
+      peers.stream()
+          .filter(peer -> !transactionTracker.hasPeerSeenTransaction(peer, transaction))
+          .limit(maxPeersPerTransaction)
+          .forEach(peer -> transactionTracker.addToPeerSendQueue(peer, transaction));
+    }
+    if (broadcastScheduled.compareAndSet(false, true)) {
+      ethContext.getScheduler().scheduleFutureTask(this::broadcast, BROADCAST_INTERVAL);
+    }
+  }
+
+  private void broadcast() {
+    broadcastScheduled.set(false);
     ethContext
         .getScheduler()
         .scheduleSyncWorkerTask(transactionsMessageSender::sendTransactionsToPeers);
@@ -12,39 +12,78 @@
  */
 package tech.pegasys.pantheon.ethereum.eth.transactions;
 
-import static java.util.stream.Collectors.toSet;
-
 import tech.pegasys.pantheon.ethereum.core.Transaction;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer;
 import tech.pegasys.pantheon.ethereum.eth.messages.TransactionsMessage;
 import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection.PeerNotConnected;
+import tech.pegasys.pantheon.ethereum.rlp.RLP;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 class TransactionsMessageSender {
 
-  private static final int MAX_BATCH_SIZE = 10;
+  // Transactions larger than this are still sent, on their own.
+  static final int DEFAULT_MAX_MESSAGE_SIZE = 128 * 1024;
+
   private final PeerTransactionTracker transactionTracker;
+  private final int maxMessageSize;
 
   public TransactionsMessageSender(final PeerTransactionTracker transactionTracker) {
+    this(transactionTracker, DEFAULT_MAX_MESSAGE_SIZE);
+  }
+
+  TransactionsMessageSender(
+      final PeerTransactionTracker transactionTracker, final int maxMessageSize) {
     this.transactionTracker = transactionTracker;
+    this.maxMessageSize = maxMessageSize;
   }
 
   public void sendTransactionsToPeers() {
-    transactionTracker.getEthPeersWithUnsentTransactions().forEach(this::sendTransactionsToPeer);
+    // Most transactions are sent to several peers so encode each once per round.
+    final Map<Transaction, BytesValue> encodedTransactions = new HashMap<>();
+    // Transactions for peers that are behind on receiving data stay queued until the next round
+    // rather than adding to the backlog ahead of responses to their requests.
+    for (final EthPeer peer : transactionTracker.getEthPeersWithUnsentTransactions()) {
+      if (peer.isWritable()) {
+        sendTransactionsToPeer(peer, encodedTransactions);
+      }
+    }
   }
 
-  private void sendTransactionsToPeer(final EthPeer peer) {
+  private void sendTransactionsToPeer(
+      final EthPeer peer, final Map<Transaction, BytesValue> encodedTransactions) {
     final Set<Transaction> allTxToSend = transactionTracker.claimTransactionsToSendToPeer(peer);
-    while (!allTxToSend.isEmpty()) {
-      final Set<Transaction> subsetToSend =
-          allTxToSend.stream().limit(MAX_BATCH_SIZE).collect(toSet());
-      allTxToSend.removeAll(subsetToSend);
-      try {
-        peer.send(TransactionsMessage.create(subsetToSend));
-      } catch (final PeerNotConnected e) {
-        return;
+    final List<BytesValue> batch = new ArrayList<>();
+    int batchSize = 0;
+    for (final Transaction transaction : allTxToSend) {
+      final BytesValue encoded =
+          encodedTransactions.computeIfAbsent(transaction, tx -> RLP.encode(tx::writeTo));
+      if (!batch.isEmpty() && batchSize + encoded.size() > maxMessageSize) {
+        if (!send(peer, batch)) {
+          return;
+        }
+        batch.clear();
+        batchSize = 0;
       }
+      batch.add(encoded);
+      batchSize += encoded.size();
+    }
+    if (!batch.isEmpty()) {
+      send(peer, batch);
+    }
+  }
+
+  private boolean send(final EthPeer peer, final List<BytesValue> batch) {
+    try {
+      peer.send(TransactionsMessage.createFromEncoded(batch));
+      return true;
+    } catch (final PeerNotConnected e) {
+      return false;
     }
   }
 }
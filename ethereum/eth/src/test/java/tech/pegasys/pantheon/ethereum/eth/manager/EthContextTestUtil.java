@@ -13,6 +13,7 @@
 package tech.pegasys.pantheon.ethereum.eth.manager;
 
 import tech.pegasys.pantheon.ethereum.eth.manager.DeterministicEthScheduler.TimeoutPolicy;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
 
 public class EthContextTestUtil {
 
@@ -21,7 +22,7 @@ public class EthContextTestUtil {
   public static EthContext createTestEthContext(final TimeoutPolicy timeoutPolicy) {
     return new EthContext(
         PROTOCOL_NAME,
-        new EthPeers(PROTOCOL_NAME),
+        new EthPeers(PROTOCOL_NAME, new NoOpMetricsSystem()),
         new EthMessages(),
         new DeterministicEthScheduler(timeoutPolicy));
   }
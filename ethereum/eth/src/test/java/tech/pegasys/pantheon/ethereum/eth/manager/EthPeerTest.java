@@ -28,7 +28,9 @@ import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
 import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection;
 import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection.PeerNotConnected;
 import tech.pegasys.pantheon.ethereum.p2p.wire.Capability;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
 
+import java.time.Clock;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -283,7 +285,13 @@ public class EthPeerTest {
     final Set<Capability> caps = new HashSet<>(singletonList(EthProtocol.ETH63));
     final PeerConnection peerConnection = new MockPeerConnection(caps);
     final Consumer<EthPeer> onPeerReady = (peer) -> {};
-    return new EthPeer(peerConnection, EthProtocol.NAME, onPeerReady);
+    return new EthPeer(
+        peerConnection,
+        EthProtocol.NAME,
+        onPeerReady,
+        Clock.systemUTC(),
+        NoOpMetricsSystem.NO_OP_LABELLED_1_OPERATION_TIMER,
+        NoOpMetricsSystem.NO_OP_LABELLED_1_COUNTER);
   }
 
   @FunctionalInterface
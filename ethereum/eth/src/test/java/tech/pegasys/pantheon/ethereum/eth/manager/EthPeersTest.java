@@ -14,6 +14,7 @@ package tech.pegasys.pantheon.ethereum.eth.manager;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import tech.pegasys.pantheon.ethereum.eth.messages.EthPV62;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
 import org.junit.Before;
@@ -64,4 +65,88 @@ public class EthPeersTest {
     assertThat(EthPeers.BEST_CHAIN.compare(peerA, peerA)).isEqualTo(0);
     assertThat(EthPeers.BEST_CHAIN.compare(peerB, peerB)).isEqualTo(0);
   }
+
+  @Test
+  public void idlePeerFavoursPeersWithHigherThroughput() {
+    final EthPeer fastPeer =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, UInt256.of(100), 10).getEthPeer();
+    final EthPeer slowPeer =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, UInt256.of(100), 10).getEthPeer();
+    recordResponse(fastPeer, 100, 100_000);
+    recordResponse(slowPeer, 1000, 1_000);
+
+    int fastPeerSelected = 0;
+    for (int i = 0; i < 100; i++) {
+      final EthPeer selected =
+          ethProtocolManager
+              .ethContext()
+              .getEthPeers()
+              .idlePeer(10, EthPV62.GET_BLOCK_BODIES)
+              .get();
+      if (selected == fastPeer) {
+        fastPeerSelected++;
+      }
+    }
+    assertThat(fastPeerSelected).isGreaterThan(90);
+  }
+
+  @Test
+  public void idlePeerOnlySelectsPeersWithRequiredHeight() {
+    final EthPeer shortPeer =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, UInt256.of(100), 5).getEthPeer();
+    final EthPeer tallPeer =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, UInt256.of(100), 10).getEthPeer();
+    recordResponse(shortPeer, 100, 100_000);
+
+    assertThat(ethProtocolManager.ethContext().getEthPeers().idlePeer(10, EthPV62.GET_BLOCK_BODIES))
+        .contains(tallPeer);
+  }
+
+  @Test
+  public void batchSizeScalesWithThroughputRelativeToFastestPeer() {
+    final EthPeers ethPeers = ethProtocolManager.ethContext().getEthPeers();
+    final EthPeer fastPeer =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, UInt256.of(100), 10).getEthPeer();
+    final EthPeer halfSpeedPeer =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, UInt256.of(100), 10).getEthPeer();
+    final EthPeer slowPeer =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, UInt256.of(100), 10).getEthPeer();
+    final EthPeer newPeer =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, UInt256.of(100), 10).getEthPeer();
+    recordResponse(fastPeer, 100, 100_000);
+    recordResponse(halfSpeedPeer, 200, 100_000);
+    recordResponse(slowPeer, 1000, 1_000);
+
+    assertThat(ethPeers.batchSize(fastPeer, EthPV62.GET_BLOCK_BODIES, 128)).isEqualTo(128);
+    assertThat(ethPeers.batchSize(halfSpeedPeer, EthPV62.GET_BLOCK_BODIES, 128)).isEqualTo(64);
+    assertThat(ethPeers.batchSize(slowPeer, EthPV62.GET_BLOCK_BODIES, 128))
+        .isEqualTo(128 / EthPeers.MIN_BATCH_SIZE_DIVISOR);
+    assertThat(ethPeers.batchSize(newPeer, EthPV62.GET_BLOCK_BODIES, 128)).isEqualTo(128);
+    // Throughput is tracked separately for each type of request
+    assertThat(ethPeers.batchSize(slowPeer, EthPV62.GET_BLOCK_HEADERS, 192)).isEqualTo(192);
+  }
+
+  @Test
+  public void batchSizeComparesRatesAtFullBatchSize() {
+    final EthPeers ethPeers = ethProtocolManager.ethContext().getEthPeers();
+    final EthPeer fullBatchPeer =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, UInt256.of(100), 10).getEthPeer();
+    final EthPeer smallBatchPeer =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, UInt256.of(100), 10).getEthPeer();
+    // Both peers send 1000 bytes per item with the same round trip time, but the smaller request
+    // has a lower raw rate as the round trip time dominates it
+    recordResponse(fullBatchPeer, 100, 128_000, 128);
+    recordResponse(smallBatchPeer, 100, 16_000, 16);
+
+    assertThat(ethPeers.batchSize(smallBatchPeer, EthPV62.GET_BLOCK_BODIES, 128)).isEqualTo(128);
+  }
+
+  private void recordResponse(final EthPeer peer, final long latencyMillis, final int bytes) {
+    recordResponse(peer, latencyMillis, bytes, 0);
+  }
+
+  private void recordResponse(
+      final EthPeer peer, final long latencyMillis, final int bytes, final int items) {
+    peer.throughput(EthPV62.GET_BLOCK_BODIES).get().record(latencyMillis, bytes, items);
+  }
 }
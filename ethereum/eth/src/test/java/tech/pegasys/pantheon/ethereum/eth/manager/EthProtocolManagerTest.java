@@ -1027,8 +1027,9 @@ public final class EthProtocolManagerTest {
     final ExecutorService transactions = mock(ExecutorService.class);
     final ExecutorService services = mock(ExecutorService.class);
     final ExecutorService computations = mock(ExecutorService.class);
+    final ExecutorService requests = mock(ExecutorService.class);
     final EthScheduler ethScheduler =
-        new EthScheduler(worker, scheduled, transactions, services, computations);
+        new EthScheduler(worker, scheduled, transactions, services, computations, requests);
 
     // Create the fake TransactionMessage to feed to the EthManager.
     final BlockDataGenerator gen = new BlockDataGenerator(1);
@@ -1044,6 +1045,7 @@ public final class EthProtocolManagerTest {
             1,
             true,
             ethScheduler,
+            metricsSystem,
             EthereumWireProtocolConfiguration.defaultConfig())) {
 
       // Create a transaction pool.  This has a side effect of registring a listener for the
@@ -22,14 +22,19 @@ import tech.pegasys.pantheon.ethereum.chain.ChainHead;
 import tech.pegasys.pantheon.ethereum.chain.GenesisState;
 import tech.pegasys.pantheon.ethereum.eth.EthProtocol;
 import tech.pegasys.pantheon.ethereum.eth.EthereumWireProtocolConfiguration;
+import tech.pegasys.pantheon.ethereum.eth.StateRangeProtocol;
 import tech.pegasys.pantheon.ethereum.eth.manager.DeterministicEthScheduler.TimeoutPolicy;
 import tech.pegasys.pantheon.ethereum.mainnet.MainnetProtocolSchedule;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
 import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
 import tech.pegasys.pantheon.ethereum.p2p.wire.DefaultMessage;
 import tech.pegasys.pantheon.ethereum.worldstate.WorldStateArchive;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
+import java.util.Arrays;
+import java.util.HashSet;
+
 public class EthProtocolManagerTestUtil {
 
   public static EthProtocolManager create(
@@ -50,6 +55,7 @@ public class EthProtocolManagerTestUtil {
         networkId,
         false,
         ethScheduler,
+        new NoOpMetricsSystem(),
         EthereumWireProtocolConfiguration.defaultConfig());
   }
 
@@ -142,6 +148,15 @@ public class EthProtocolManagerTestUtil {
     return RespondingEthPeer.create(ethProtocolManager, UInt256.of(1000L), estimatedHeight);
   }
 
+  public static RespondingEthPeer createStateRangePeer(
+      final EthProtocolManager ethProtocolManager, final long estimatedHeight) {
+    return RespondingEthPeer.create(
+        ethProtocolManager,
+        UInt256.of(1000L),
+        estimatedHeight,
+        new HashSet<>(Arrays.asList(EthProtocol.ETH63, StateRangeProtocol.PSR1)));
+  }
+
   public static RespondingEthPeer createPeer(
       final EthProtocolManager ethProtocolManager, final Blockchain blockchain) {
     final ChainHead head = blockchain.getChainHead();
@@ -30,6 +30,7 @@ public class EthSchedulerShutdownTest {
   private ExecutorService txWorkerExecutor;
   private ExecutorService servicesExecutor;
   private ExecutorService computationExecutor;
+  private ExecutorService requestWorkerExecutor;
 
   @Before
   public void setup() {
@@ -38,13 +39,15 @@ public class EthSchedulerShutdownTest {
     txWorkerExecutor = Executors.newSingleThreadExecutor();
     servicesExecutor = Executors.newSingleThreadExecutor();
     computationExecutor = Executors.newSingleThreadExecutor();
+    requestWorkerExecutor = Executors.newSingleThreadExecutor();
     ethScheduler =
         new EthScheduler(
             syncWorkerExecutor,
             scheduledExecutor,
             txWorkerExecutor,
             servicesExecutor,
-            computationExecutor);
+            computationExecutor,
+            requestWorkerExecutor);
   }
 
   @Test
@@ -141,4 +144,22 @@ public class EthSchedulerShutdownTest {
     assertThat(computationExecutor.isTerminated()).isTrue();
     assertThat(task2.hasBeenStarted()).isFalse();
   }
+
+  @Test
+  public void shutdown_requestWorkerShutsDown() throws InterruptedException {
+    final MockEthTask task1 = new MockEthTask(1);
+    final MockEthTask task2 = new MockEthTask();
+
+    ethScheduler.scheduleRequestWorkerTask(task1::executeTask);
+    ethScheduler.scheduleRequestWorkerTask(task2::executeTask);
+    ethScheduler.stop();
+
+    assertThat(requestWorkerExecutor.isShutdown()).isTrue();
+
+    ethScheduler.awaitStop();
+
+    assertThat(requestWorkerExecutor.isShutdown()).isTrue();
+    assertThat(requestWorkerExecutor.isTerminated()).isTrue();
+    assertThat(task2.hasBeenStarted()).isFalse();
+  }
 }
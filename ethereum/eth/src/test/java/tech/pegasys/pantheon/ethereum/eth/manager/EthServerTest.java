@@ -13,19 +13,30 @@
 package tech.pegasys.pantheon.ethereum.eth.manager;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.core.BlockBody;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.BlockHeaderTestFixture;
 import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.ethereum.eth.EthereumWireProtocolConfiguration;
+import tech.pegasys.pantheon.ethereum.eth.messages.BlockBodiesMessage;
+import tech.pegasys.pantheon.ethereum.eth.messages.BlockHeadersMessage;
+import tech.pegasys.pantheon.ethereum.eth.messages.GetBlockBodiesMessage;
+import tech.pegasys.pantheon.ethereum.eth.messages.GetBlockHeadersMessage;
 import tech.pegasys.pantheon.ethereum.eth.messages.GetNodeDataMessage;
 import tech.pegasys.pantheon.ethereum.eth.messages.NodeDataMessage;
+import tech.pegasys.pantheon.ethereum.rlp.RLP;
 import tech.pegasys.pantheon.ethereum.worldstate.WorldStateArchive;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
+import java.time.Clock;
 import java.util.Optional;
 
 import org.junit.Before;
@@ -50,6 +61,9 @@ public class EthServerTest {
         blockchain,
         worldStateArchive,
         ethMessages,
+        new InboundRequestScheduler(
+            new DeterministicEthScheduler(), new NoOpMetricsSystem(), Clock.systemUTC()),
+        new NoOpMetricsSystem(),
         new EthereumWireProtocolConfiguration(2, 2, 2, 2));
   }
 
@@ -92,4 +106,43 @@ public class EthServerTest {
 
     verify(ethPeer).send(NodeDataMessage.create(singletonList(VALUE1)));
   }
+
+  @Test
+  public void shouldStopAddingNodeDataOnceResponseSizeLimitIsReached() throws Exception {
+    final BytesValue largeValue = BytesValue.wrap(new byte[EthServer.MAX_RESPONSE_SIZE]);
+    when(worldStateArchive.getNodeData(HASH1)).thenReturn(Optional.of(largeValue));
+    when(worldStateArchive.getNodeData(HASH2)).thenReturn(Optional.of(VALUE2));
+    ethMessages.dispatch(new EthMessage(ethPeer, GetNodeDataMessage.create(asList(HASH1, HASH2))));
+
+    verify(ethPeer).send(NodeDataMessage.create(singletonList(largeValue)));
+  }
+
+  @Test
+  public void shouldRespondToBlockHeadersRequestsWithStoredRlp() throws Exception {
+    final BlockHeader header1 = new BlockHeaderTestFixture().number(1).buildHeader();
+    final BlockHeader header2 = new BlockHeaderTestFixture().number(2).buildHeader();
+    mockCanonicalHeader(header1);
+    mockCanonicalHeader(header2);
+    ethMessages.dispatch(new EthMessage(ethPeer, GetBlockHeadersMessage.create(1, 2, 0, false)));
+
+    verify(ethPeer).send(BlockHeadersMessage.create(header1, header2));
+  }
+
+  @Test
+  public void shouldRespondToBlockBodiesRequestsWithStoredRlp() throws Exception {
+    final BlockBody body = new BlockBody(emptyList(), emptyList());
+    when(blockchain.getBlockBodyRlp(HASH1)).thenReturn(Optional.of(RLP.encode(body::writeTo)));
+    when(blockchain.getBlockBodyRlp(HASH2)).thenReturn(Optional.empty());
+    ethMessages.dispatch(
+        new EthMessage(ethPeer, GetBlockBodiesMessage.create(asList(HASH1, HASH2))));
+
+    verify(ethPeer).send(BlockBodiesMessage.create(singletonList(body)));
+  }
+
+  private void mockCanonicalHeader(final BlockHeader header) {
+    when(blockchain.getBlockHashByNumber(header.getNumber()))
+        .thenReturn(Optional.of(header.getHash()));
+    when(blockchain.getBlockHeaderRlp(header.getHash()))
+        .thenReturn(Optional.of(RLP.encode(header::writeTo)));
+  }
 }
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.manager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer.DisconnectCallback;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class InboundRequestSchedulerTest {
+
+  private final EthScheduler ethScheduler = mock(EthScheduler.class);
+  private final Clock clock = mock(Clock.class);
+  private final Deque<Runnable> workerTasks = new ArrayDeque<>();
+  private final EthPeer peer1 = mock(EthPeer.class);
+  private final EthPeer peer2 = mock(EthPeer.class);
+
+  private InboundRequestScheduler requestScheduler;
+
+  @Before
+  public void setUp() {
+    doAnswer(
+            invocation -> {
+              workerTasks.add(invocation.getArgument(0));
+              return null;
+            })
+        .when(ethScheduler)
+        .scheduleRequestWorkerTask(any());
+    requestScheduler = new InboundRequestScheduler(ethScheduler, new NoOpMetricsSystem(), clock);
+  }
+
+  @Test
+  public void shouldServePeersInTurn() {
+    final List<String> handled = new ArrayList<>();
+    requestScheduler.schedule(peer1, "Test", () -> handled.add("a1"));
+    requestScheduler.schedule(peer1, "Test", () -> handled.add("a2"));
+    requestScheduler.schedule(peer1, "Test", () -> handled.add("a3"));
+    requestScheduler.schedule(peer2, "Test", () -> handled.add("b1"));
+    requestScheduler.schedule(peer2, "Test", () -> handled.add("b2"));
+
+    runWorkerTasks();
+
+    assertThat(handled).containsExactly("a1", "b1", "a2", "b2", "a3");
+  }
+
+  @Test
+  public void shouldLimitConcurrentRequestsFromPeer() {
+    final List<Integer> started = new ArrayList<>();
+    final List<Integer> startedWhileFirstTwoActive = new ArrayList<>();
+    requestScheduler.schedule(
+        peer1,
+        "Test",
+        () -> {
+          started.add(1);
+          runNextWorkerTask();
+        });
+    requestScheduler.schedule(
+        peer1,
+        "Test",
+        () -> {
+          started.add(2);
+          runNextWorkerTask();
+          startedWhileFirstTwoActive.addAll(started);
+        });
+    requestScheduler.schedule(peer1, "Test", () -> started.add(3));
+
+    runNextWorkerTask();
+    assertThat(startedWhileFirstTwoActive).containsExactly(1, 2);
+
+    runWorkerTasks();
+    assertThat(started).containsExactly(1, 2, 3);
+  }
+
+  @Test
+  public void shouldDropRequestsWhenPeerHasTooManyQueued() {
+    final AtomicInteger handled = new AtomicInteger();
+    for (int i = 0; i < InboundRequestScheduler.MAX_QUEUED_REQUESTS_PER_PEER + 1; i++) {
+      requestScheduler.schedule(peer1, "Test", handled::incrementAndGet);
+    }
+
+    runWorkerTasks();
+
+    assertThat(handled.get()).isEqualTo(InboundRequestScheduler.MAX_QUEUED_REQUESTS_PER_PEER);
+  }
+
+  @Test
+  public void shouldRateLimitRequestsFromPeer() {
+    when(clock.millis()).thenReturn(0L);
+    final AtomicInteger handled = new AtomicInteger();
+    for (int i = 0; i < InboundRequestScheduler.MAX_REQUEST_BURST + 1; i++) {
+      requestScheduler.schedule(peer1, "Test", handled::incrementAndGet);
+      runWorkerTasks();
+    }
+
+    assertThat(handled.get()).isEqualTo(InboundRequestScheduler.MAX_REQUEST_BURST);
+    final ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+    verify(ethScheduler).scheduleFutureTask(retry.capture(), any(Duration.class));
+
+    // Requests from other peers aren't held up
+    requestScheduler.schedule(peer2, "Test", handled::incrementAndGet);
+    runWorkerTasks();
+    assertThat(handled.get()).isEqualTo(InboundRequestScheduler.MAX_REQUEST_BURST + 1);
+
+    when(clock.millis()).thenReturn(1000L);
+    retry.getValue().run();
+    runWorkerTasks();
+
+    assertThat(handled.get()).isEqualTo(InboundRequestScheduler.MAX_REQUEST_BURST + 2);
+  }
+
+  @Test
+  public void shouldDiscardQueuedRequestsWhenPeerDisconnects() {
+    final ArgumentCaptor<DisconnectCallback> disconnectCallback =
+        ArgumentCaptor.forClass(DisconnectCallback.class);
+    final AtomicInteger handled = new AtomicInteger();
+    requestScheduler.schedule(peer1, "Test", handled::incrementAndGet);
+    verify(peer1).subscribeDisconnect(disconnectCallback.capture());
+
+    disconnectCallback.getValue().onDisconnect(peer1);
+    runWorkerTasks();
+
+    assertThat(handled.get()).isZero();
+  }
+
+  @Test
+  public void shouldIgnoreRequestsFromDisconnectedPeers() {
+    when(peer1.isDisconnected()).thenReturn(true);
+    final AtomicInteger handled = new AtomicInteger();
+    requestScheduler.schedule(peer1, "Test", handled::incrementAndGet);
+
+    runWorkerTasks();
+
+    assertThat(handled.get()).isZero();
+  }
+
+  @Test
+  public void shouldIgnoreRequestsFromPeersWhichDisconnectWhileSubscribing() {
+    doAnswer(
+            invocation -> {
+              when(peer1.isDisconnected()).thenReturn(true);
+              return 1L;
+            })
+        .when(peer1)
+        .subscribeDisconnect(any());
+    final AtomicInteger handled = new AtomicInteger();
+    requestScheduler.schedule(peer1, "Test", handled::incrementAndGet);
+
+    runWorkerTasks();
+
+    assertThat(handled.get()).isZero();
+    verify(ethScheduler, never()).scheduleRequestWorkerTask(any());
+  }
+
+  private void runNextWorkerTask() {
+    final Runnable task = workerTasks.poll();
+    if (task != null) {
+      task.run();
+    }
+  }
+
+  private void runWorkerTasks() {
+    while (!workerTasks.isEmpty()) {
+      runNextWorkerTask();
+    }
+  }
+}
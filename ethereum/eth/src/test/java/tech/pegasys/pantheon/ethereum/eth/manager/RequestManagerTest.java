@@ -13,6 +13,8 @@
 package tech.pegasys.pantheon.ethereum.eth.manager;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import tech.pegasys.pantheon.ethereum.eth.EthProtocol;
 import tech.pegasys.pantheon.ethereum.eth.manager.RequestManager.RequestSender;
@@ -22,8 +24,10 @@ import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
 import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection;
 import tech.pegasys.pantheon.ethereum.p2p.wire.Capability;
 import tech.pegasys.pantheon.ethereum.p2p.wire.RawMessage;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
+import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -36,10 +40,12 @@ import org.junit.Test;
 
 public class RequestManagerTest {
 
+  private final Clock clock = mock(Clock.class);
+
   @Test
   public void dispatchesMessagesReceivedAfterRegisteringCallback() throws Exception {
     final EthPeer peer = createPeer();
-    final RequestManager requestManager = new RequestManager(peer);
+    final RequestManager requestManager = createRequestManager(peer);
 
     final AtomicInteger sendCount = new AtomicInteger(0);
     final RequestSender sender = sendCount::incrementAndGet;
@@ -72,7 +78,7 @@ public class RequestManagerTest {
   @Test
   public void dispatchesMessagesReceivedBeforeRegisteringCallback() throws Exception {
     final EthPeer peer = createPeer();
-    final RequestManager requestManager = new RequestManager(peer);
+    final RequestManager requestManager = createRequestManager(peer);
 
     final AtomicInteger sendCount = new AtomicInteger(0);
     final RequestSender sender = sendCount::incrementAndGet;
@@ -105,7 +111,7 @@ public class RequestManagerTest {
   @Test
   public void dispatchesMessagesReceivedBeforeAndAfterRegisteringCallback() throws Exception {
     final EthPeer peer = createPeer();
-    final RequestManager requestManager = new RequestManager(peer);
+    final RequestManager requestManager = createRequestManager(peer);
 
     final AtomicInteger sendCount = new AtomicInteger(0);
     final RequestSender sender = sendCount::incrementAndGet;
@@ -149,7 +155,7 @@ public class RequestManagerTest {
   @Test
   public void dispatchesMessagesToMultipleStreams() throws Exception {
     final EthPeer peer = createPeer();
-    final RequestManager requestManager = new RequestManager(peer);
+    final RequestManager requestManager = createRequestManager(peer);
 
     final AtomicInteger sendCount = new AtomicInteger(0);
     final RequestSender sender = sendCount::incrementAndGet;
@@ -211,6 +217,104 @@ public class RequestManagerTest {
     assertThat(closedCountB.get()).isEqualTo(1);
   }
 
+  @Test
+  public void recordsThroughputOfResponses() throws Exception {
+    final EthPeer peer = createPeer();
+    final RequestManager requestManager = createRequestManager(peer);
+    final RequestSender sender = () -> {};
+
+    when(clock.millis()).thenReturn(1000L);
+    requestManager.dispatchRequest(sender);
+    requestManager.dispatchRequest(sender);
+    assertThat(requestManager.throughput().hasMeasurements()).isFalse();
+
+    when(clock.millis()).thenReturn(1500L);
+    requestManager.dispatchResponse(
+        new EthMessage(peer, new RawMessage(1, BytesValue.wrap(new byte[1000]))));
+
+    assertThat(requestManager.throughput().hasMeasurements()).isTrue();
+    assertThat(requestManager.throughput().getLatencyMillis()).isEqualTo(500);
+    assertThat(requestManager.throughput().getBytesPerSecond()).isEqualTo(2000);
+
+    when(clock.millis()).thenReturn(3000L);
+    requestManager.dispatchResponse(
+        new EthMessage(peer, new RawMessage(1, BytesValue.wrap(new byte[1000]))));
+
+    // Second response is matched to the second request, sent at the same time as the first
+    final double smoothing = PeerThroughput.SMOOTHING_FACTOR;
+    assertThat(requestManager.throughput().getLatencyMillis())
+        .isEqualTo(500 + smoothing * (2000 - 500));
+    assertThat(requestManager.throughput().getBytesPerSecond())
+        .isEqualTo(2000 + smoothing * (500 - 2000));
+  }
+
+  @Test
+  public void discardsTimedOutRequestsWhenMatchingResponses() throws Exception {
+    final EthPeer peer = createPeer();
+    final RequestManager requestManager = createRequestManager(peer);
+    final RequestSender sender = () -> {};
+
+    when(clock.millis()).thenReturn(1000L);
+    requestManager.dispatchRequest(sender);
+    when(clock.millis()).thenReturn(1200L);
+    requestManager.dispatchRequest(sender);
+
+    requestManager.throughput().recordTimeout();
+
+    // The response is matched to the second request, as the first timed out, and the timeout
+    // isn't counted as a latency
+    when(clock.millis()).thenReturn(1500L);
+    requestManager.dispatchResponse(
+        new EthMessage(peer, new RawMessage(1, BytesValue.wrap(new byte[1000]))));
+    assertThat(requestManager.throughput().getLatencyMillis()).isEqualTo(300);
+    // The timeout still counts against the rate
+    final double smoothing = PeerThroughput.SMOOTHING_FACTOR;
+    assertThat(requestManager.throughput().getBytesPerSecond())
+        .isEqualTo(smoothing * (1000 * 1000.0 / 300));
+
+    // A late response to the timed out request has no request left to be matched to
+    when(clock.millis()).thenReturn(5000L);
+    requestManager.dispatchResponse(
+        new EthMessage(peer, new RawMessage(1, BytesValue.wrap(new byte[1000]))));
+    assertThat(requestManager.throughput().getLatencyMillis()).isEqualTo(300);
+  }
+
+  @Test
+  public void estimatesRateForRequestsOfOtherSizes() throws Exception {
+    final EthPeer peer = createPeer();
+    final RequestManager requestManager = createRequestManager(peer);
+    final RequestSender sender = () -> {};
+
+    when(clock.millis()).thenReturn(1000L);
+    requestManager.dispatchRequest(10, sender);
+    when(clock.millis()).thenReturn(1100L);
+    requestManager.dispatchResponse(
+        new EthMessage(peer, new RawMessage(1, BytesValue.wrap(new byte[1000]))));
+
+    // A single small request is assumed to be dominated by the round trip time
+    assertThat(requestManager.throughput().getBytesPerSecond()).isEqualTo(10_000);
+    assertThat(requestManager.throughput().getBytesPerSecond(40)).isEqualTo(40_000);
+
+    when(clock.millis()).thenReturn(2000L);
+    requestManager.dispatchRequest(20, sender);
+    when(clock.millis()).thenReturn(2300L);
+    requestManager.dispatchResponse(
+        new EthMessage(peer, new RawMessage(1, BytesValue.wrap(new byte[2000]))));
+
+    // The latency beyond the fastest response is taken to grow with the number of items
+    final double smoothing = PeerThroughput.SMOOTHING_FACTOR;
+    final double transferMillisPerItem = smoothing * (300 - 100) / 20;
+    assertThat(requestManager.throughput().getBytesPerSecond(40))
+        .isEqualTo(100 * 40 * 1000 / (100 + transferMillisPerItem * 40));
+  }
+
+  private RequestManager createRequestManager(final EthPeer peer) {
+    return new RequestManager(
+        peer,
+        new PeerThroughput(
+            clock, NoOpMetricsSystem.NO_OP_OPERATION_TIMER, NoOpMetricsSystem.NO_OP_COUNTER));
+  }
+
   private EthMessage mockMessage(final EthPeer peer) {
     return new EthMessage(peer, new RawMessage(1, BytesValue.EMPTY));
   }
@@ -219,6 +323,12 @@ public class RequestManagerTest {
     final Set<Capability> caps = new HashSet<>(Collections.singletonList(EthProtocol.ETH63));
     final PeerConnection peerConnection = new MockPeerConnection(caps);
     final Consumer<EthPeer> onPeerReady = (peer) -> {};
-    return new EthPeer(peerConnection, EthProtocol.NAME, onPeerReady);
+    return new EthPeer(
+        peerConnection,
+        EthProtocol.NAME,
+        onPeerReady,
+        Clock.systemUTC(),
+        NoOpMetricsSystem.NO_OP_LABELLED_1_OPERATION_TIMER,
+        NoOpMetricsSystem.NO_OP_LABELLED_1_COUNTER);
   }
 }
@@ -22,18 +22,23 @@ import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.ethereum.core.TransactionReceipt;
 import tech.pegasys.pantheon.ethereum.eth.EthProtocol;
+import tech.pegasys.pantheon.ethereum.eth.StateRangeProtocol;
 import tech.pegasys.pantheon.ethereum.eth.messages.BlockBodiesMessage;
 import tech.pegasys.pantheon.ethereum.eth.messages.BlockHeadersMessage;
 import tech.pegasys.pantheon.ethereum.eth.messages.EthPV62;
 import tech.pegasys.pantheon.ethereum.eth.messages.EthPV63;
 import tech.pegasys.pantheon.ethereum.eth.messages.NodeDataMessage;
 import tech.pegasys.pantheon.ethereum.eth.messages.ReceiptsMessage;
+import tech.pegasys.pantheon.ethereum.eth.messages.StateRangeMessage;
+import tech.pegasys.pantheon.ethereum.eth.messages.StateRangePV1;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
 import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
+import tech.pegasys.pantheon.ethereum.p2p.api.ProtocolManager;
 import tech.pegasys.pantheon.ethereum.p2p.wire.Capability;
 import tech.pegasys.pantheon.ethereum.p2p.wire.DefaultMessage;
 import tech.pegasys.pantheon.ethereum.p2p.wire.messages.DisconnectMessage.DisconnectReason;
 import tech.pegasys.pantheon.ethereum.worldstate.WorldStateArchive;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
@@ -110,6 +115,14 @@ public class RespondingEthPeer {
     return create(ethProtocolManager, chainHeadHash, totalDifficulty, estimatedHeight);
   }
 
+  public static RespondingEthPeer create(
+      final EthProtocolManager ethProtocolManager,
+      final UInt256 totalDifficulty,
+      final long estimatedHeight,
+      final Set<Capability> caps) {
+    return create(ethProtocolManager, gen.hash(), totalDifficulty, estimatedHeight, caps);
+  }
+
   public static RespondingEthPeer create(
       final EthProtocolManager ethProtocolManager,
       final Hash chainHeadHash,
@@ -122,9 +135,22 @@ public class RespondingEthPeer {
       final Hash chainHeadHash,
       final UInt256 totalDifficulty,
       final long estimatedHeight) {
+    return create(
+        ethProtocolManager,
+        chainHeadHash,
+        totalDifficulty,
+        estimatedHeight,
+        new HashSet<>(Collections.singletonList(EthProtocol.ETH63)));
+  }
+
+  public static RespondingEthPeer create(
+      final EthProtocolManager ethProtocolManager,
+      final Hash chainHeadHash,
+      final UInt256 totalDifficulty,
+      final long estimatedHeight,
+      final Set<Capability> caps) {
     final EthPeers ethPeers = ethProtocolManager.ethContext().getEthPeers();
 
-    final Set<Capability> caps = new HashSet<>(Collections.singletonList(EthProtocol.ETH63));
     final BlockingQueue<OutgoingMessage> outgoingMessages = new ArrayBlockingQueue<>(1000);
     final MockPeerConnection peerConnection =
         new MockPeerConnection(
@@ -201,9 +227,13 @@ public class RespondingEthPeer {
 
   private void respondToMessage(final Responder responder, final OutgoingMessage msg) {
     final Optional<MessageData> maybeResponse = responder.respond(msg.capability, msg.messageData);
+    final ProtocolManager protocolManager =
+        msg.capability.getName().equals(StateRangeProtocol.NAME)
+            ? ethProtocolManager.stateRangeProtocolManager()
+            : ethProtocolManager;
     maybeResponse.ifPresent(
         (response) ->
-            ethProtocolManager.processMessage(
+            protocolManager.processMessage(
                 msg.capability, new DefaultMessage(peerConnection, response)));
   }
 
@@ -260,6 +290,17 @@ public class RespondingEthPeer {
     };
   }
 
+  public static Responder stateRangeResponder(final WorldStateStorage worldStateStorage) {
+    return (cap, msg) -> {
+      if (!cap.getName().equals(StateRangeProtocol.NAME)) {
+        return Optional.empty();
+      }
+      return Optional.of(
+          StateRangeServer.constructStateRangeResponse(
+              worldStateStorage, msg, StateRangeServer.MAX_ENTRIES_PER_RESPONSE));
+    };
+  }
+
   public static Responder wrapResponderWithCollector(
       final Responder responder, final List<MessageData> messageCollector) {
     return (cap, msg) -> {
@@ -347,6 +388,21 @@ public class RespondingEthPeer {
     };
   }
 
+  /** Responds to state range requests with empty ranges and no proof, as if the trie is missing. */
+  public static Responder emptyStateRangeResponder() {
+    return (cap, msg) -> {
+      if (!cap.getName().equals(StateRangeProtocol.NAME)) {
+        return Optional.empty();
+      }
+      return Optional.of(
+          msg.getCode() == StateRangePV1.GET_ACCOUNT_RANGE
+              ? StateRangeMessage.createForAccounts(
+                  Collections.emptyMap(), Collections.emptyList())
+              : StateRangeMessage.createForStorage(
+                  Collections.emptyMap(), Collections.emptyList()));
+    };
+  }
+
   static class OutgoingMessage {
     private final Capability capability;
     private final MessageData messageData;
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.manager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.ethereum.core.BlockDataGenerator;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.eth.messages.GetStateRangeMessage;
+import tech.pegasys.pantheon.ethereum.eth.messages.StateRangeMessage;
+import tech.pegasys.pantheon.ethereum.eth.messages.StateRangePV1;
+import tech.pegasys.pantheon.ethereum.storage.keyvalue.KeyValueStorageWorldStateStorage;
+import tech.pegasys.pantheon.ethereum.trie.MerklePatriciaTrie;
+import tech.pegasys.pantheon.ethereum.trie.StoredMerklePatriciaTrie;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateArchive;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
+import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class StateRangeServerTest {
+
+  private final WorldStateStorage storage =
+      new KeyValueStorageWorldStateStorage(new InMemoryKeyValueStorage());
+  private Hash stateRoot;
+
+  @Before
+  public void setUp() {
+    final MutableWorldState worldState = new WorldStateArchive(storage).getMutable();
+    new BlockDataGenerator(1).createRandomAccounts(worldState, 50);
+    stateRoot = worldState.rootHash();
+  }
+
+  @Test
+  public void shouldRespondWithAccountsFromStartKeyHashAndProof() {
+    final Bytes32 startKeyHash = Hash.hash(BytesValue.of(1));
+    final StateRangeMessage response =
+        StateRangeMessage.readFrom(
+            StateRangeServer.constructStateRangeResponse(
+                storage, GetStateRangeMessage.createForAccounts(stateRoot, startKeyHash, 10), 20));
+
+    assertThat(response.getCode()).isEqualTo(StateRangePV1.ACCOUNT_RANGE);
+    assertThat(response.entries()).isEqualTo(accountsFrom(startKeyHash, 10));
+    assertThat(response.proof()).contains(storage.getAccountStateTrieNode(stateRoot).get());
+  }
+
+  @Test
+  public void shouldLimitEntriesToServerMaximum() {
+    final StateRangeMessage response =
+        StateRangeMessage.readFrom(
+            StateRangeServer.constructStateRangeResponse(
+                storage, GetStateRangeMessage.createForAccounts(stateRoot, Bytes32.ZERO, 100), 5));
+
+    assertThat(response.entries()).isEqualTo(accountsFrom(Bytes32.ZERO, 5));
+  }
+
+  @Test
+  public void shouldRespondWithEmptyRangeWhenTrieIsUnavailable() {
+    final Hash missingRoot = Hash.hash(BytesValue.of(1));
+    final StateRangeMessage response =
+        StateRangeMessage.readFrom(
+            StateRangeServer.constructStateRangeResponse(
+                storage, GetStateRangeMessage.createForStorage(missingRoot, Bytes32.ZERO, 10), 20));
+
+    assertThat(response.getCode()).isEqualTo(StateRangePV1.STORAGE_RANGE);
+    assertThat(response.entries()).isEmpty();
+    assertThat(response.proof()).isEmpty();
+  }
+
+  @Test
+  public void shouldProveThereAreNoEntriesFromStartKeyHashPastLastEntry() {
+    final Bytes32 lastKeyHash =
+        Collections.max(accountsFrom(Bytes32.ZERO, Integer.MAX_VALUE).keySet());
+    final Bytes32 startKeyHash = UInt256.wrap(lastKeyHash).plus(1).getBytes();
+    final StateRangeMessage response =
+        StateRangeMessage.readFrom(
+            StateRangeServer.constructStateRangeResponse(
+                storage, GetStateRangeMessage.createForAccounts(stateRoot, startKeyHash, 10), 20));
+
+    assertThat(response.entries()).isEmpty();
+    assertThat(response.proof()).isNotEmpty();
+    assertThat(proofTrie(response).entriesFrom(startKeyHash, 1)).isEmpty();
+  }
+
+  @Test
+  public void shouldProveThereAreNoEntriesAfterRangeWhichDoesNotFillResponse() {
+    final StateRangeMessage response =
+        StateRangeMessage.readFrom(
+            StateRangeServer.constructStateRangeResponse(
+                storage,
+                GetStateRangeMessage.createForAccounts(stateRoot, Bytes32.ZERO, 100),
+                100));
+
+    assertThat(response.entries()).hasSize(50);
+    final Bytes32 nextKeyHash = UInt256.wrap(response.entries().lastKey()).plus(1).getBytes();
+    assertThat(proofTrie(response).entriesFrom(nextKeyHash, 1)).isEmpty();
+  }
+
+  @Test
+  public void shouldProveEmptyStorageTrieWithoutProofNodes() {
+    final StateRangeMessage response =
+        StateRangeMessage.readFrom(
+            StateRangeServer.constructStateRangeResponse(
+                storage,
+                GetStateRangeMessage.createForStorage(Hash.EMPTY_TRIE_HASH, Bytes32.ZERO, 10),
+                20));
+
+    assertThat(response.entries()).isEmpty();
+    assertThat(response.proof()).isEmpty();
+  }
+
+  private MerklePatriciaTrie<Bytes32, BytesValue> proofTrie(final StateRangeMessage response) {
+    final Map<Bytes32, BytesValue> proofNodes = new HashMap<>();
+    response.proof().forEach(node -> proofNodes.put(Hash.hash(node), node));
+    return new StoredMerklePatriciaTrie<>(
+        hash -> Optional.ofNullable(proofNodes.get(hash)), stateRoot, b -> b, b -> b);
+  }
+
+  private Map<Bytes32, BytesValue> accountsFrom(final Bytes32 startKeyHash, final int limit) {
+    return new StoredMerklePatriciaTrie<Bytes32, BytesValue>(
+            storage::getAccountStateTrieNode, stateRoot, b -> b, b -> b)
+        .entriesFrom(startKeyHash, limit);
+  }
+}
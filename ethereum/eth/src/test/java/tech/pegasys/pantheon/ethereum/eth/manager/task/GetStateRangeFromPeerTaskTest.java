@@ -0,0 +1,174 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.manager.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.ethereum.core.BlockDataGenerator;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManager;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManagerTestUtil;
+import tech.pegasys.pantheon.ethereum.eth.manager.RespondingEthPeer;
+import tech.pegasys.pantheon.ethereum.eth.manager.RespondingEthPeer.Responder;
+import tech.pegasys.pantheon.ethereum.eth.manager.task.AbstractPeerTask.PeerTaskResult;
+import tech.pegasys.pantheon.ethereum.eth.manager.task.GetStateRangeFromPeerTask.StateRange;
+import tech.pegasys.pantheon.ethereum.storage.keyvalue.KeyValueStorageWorldStateStorage;
+import tech.pegasys.pantheon.ethereum.trie.StoredMerklePatriciaTrie;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateArchive;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class GetStateRangeFromPeerTaskTest {
+
+  private static final int ACCOUNT_COUNT = 50;
+
+  private final WorldStateStorage remoteStorage =
+      new KeyValueStorageWorldStateStorage(new InMemoryKeyValueStorage());
+  private final Responder stateRangeResponder =
+      RespondingEthPeer.stateRangeResponder(remoteStorage);
+  private final EthProtocolManager ethProtocolManager = EthProtocolManagerTestUtil.create();
+  private Hash stateRoot;
+
+  @Before
+  public void setUp() {
+    final MutableWorldState worldState = new WorldStateArchive(remoteStorage).getMutable();
+    new BlockDataGenerator(1).createRandomAccounts(worldState, ACCOUNT_COUNT);
+    stateRoot = worldState.rootHash();
+  }
+
+  @Test
+  public void shouldReturnProvenRange() {
+    final RespondingEthPeer peer = createPeer();
+
+    final PeerTaskResult<StateRange> result =
+        requestAccounts(Bytes32.ZERO, 10, peer, stateRangeResponder);
+
+    assertThat(result.getPeer()).isEqualTo(peer.getEthPeer());
+    assertThat(result.getResult().isAvailable()).isTrue();
+    assertThat(result.getResult().getEntries()).isEqualTo(accountsFrom(Bytes32.ZERO, 10));
+    assertThat(result.getResult().isLastRange()).isFalse();
+  }
+
+  @Test
+  public void shouldReturnLastRangeWhenPeerProvesThereAreNoFurtherEntries() {
+    final RespondingEthPeer peer = createPeer();
+
+    final PeerTaskResult<StateRange> result =
+        requestAccounts(Bytes32.ZERO, 100, peer, stateRangeResponder);
+
+    assertThat(result.getResult().getEntries()).hasSize(ACCOUNT_COUNT);
+    assertThat(result.getResult().isLastRange()).isTrue();
+  }
+
+  @Test
+  public void shouldAcceptProvenEmptyRangeAsLastRange() {
+    final RespondingEthPeer peer = createPeer();
+    final Bytes32 startKeyHash =
+        UInt256.wrap(accountsFrom(Bytes32.ZERO, ACCOUNT_COUNT).lastKey()).plus(1).getBytes();
+
+    final PeerTaskResult<StateRange> result =
+        requestAccounts(startKeyHash, 10, peer, stateRangeResponder);
+
+    assertThat(result.getResult().isAvailable()).isTrue();
+    assertThat(result.getResult().getEntries()).isEmpty();
+    assertThat(result.getResult().isLastRange()).isTrue();
+  }
+
+  @Test
+  public void shouldReportUnprovenEmptyRangeAsUnavailable() {
+    final RespondingEthPeer peer = createPeer();
+
+    final PeerTaskResult<StateRange> result =
+        requestAccounts(Bytes32.ZERO, 10, peer, RespondingEthPeer.emptyStateRangeResponder());
+
+    assertThat(result.getPeer()).isEqualTo(peer.getEthPeer());
+    assertThat(result.getResult().isAvailable()).isFalse();
+    assertThat(result.getResult().isLastRange()).isFalse();
+  }
+
+  @Test
+  public void shouldReportRangeAsUnavailableWhenPeerDoesNotHaveTrie() {
+    final Responder responderWithoutTrie =
+        RespondingEthPeer.stateRangeResponder(
+            new KeyValueStorageWorldStateStorage(new InMemoryKeyValueStorage()));
+    final RespondingEthPeer peer = createPeer();
+
+    final PeerTaskResult<StateRange> result =
+        requestAccounts(Bytes32.ZERO, 10, peer, responderWithoutTrie);
+
+    assertThat(result.getResult().isAvailable()).isFalse();
+  }
+
+  @Test
+  public void shouldNotSendRequestToExcludedPeers() {
+    final RespondingEthPeer excludedPeer = createPeer();
+    final RespondingEthPeer peer = createPeer();
+
+    final CompletableFuture<PeerTaskResult<StateRange>> future =
+        GetStateRangeFromPeerTask.forAccounts(
+                ethProtocolManager.ethContext(),
+                stateRoot,
+                Bytes32.ZERO,
+                10,
+                new NoOpMetricsSystem())
+            .excludePeers(Collections.singleton(excludedPeer.getEthPeer()))
+            .run();
+
+    assertThat(excludedPeer.hasOutstandingRequests()).isFalse();
+    peer.respond(stateRangeResponder);
+    assertThat(future).isDone();
+    assertThat(future.join().getPeer()).isEqualTo(peer.getEthPeer());
+  }
+
+  private PeerTaskResult<StateRange> requestAccounts(
+      final Bytes32 startKeyHash,
+      final int maxEntries,
+      final RespondingEthPeer peer,
+      final Responder responder) {
+    final CompletableFuture<PeerTaskResult<StateRange>> future =
+        GetStateRangeFromPeerTask.forAccounts(
+                ethProtocolManager.ethContext(),
+                stateRoot,
+                startKeyHash,
+                maxEntries,
+                new NoOpMetricsSystem())
+            .run();
+    peer.respond(responder);
+    assertThat(future).isDone();
+    return future.join();
+  }
+
+  private RespondingEthPeer createPeer() {
+    return EthProtocolManagerTestUtil.createStateRangePeer(ethProtocolManager, 100);
+  }
+
+  private SortedMap<Bytes32, BytesValue> accountsFrom(final Bytes32 startKeyHash, final int limit) {
+    return new TreeMap<>(
+        new StoredMerklePatriciaTrie<Bytes32, BytesValue>(
+                remoteStorage::getAccountStateTrieNode, stateRoot, b -> b, b -> b)
+            .entriesFrom(startKeyHash, limit));
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+public class AdaptiveLimitTest {
+
+  private final AdaptiveLimit limit = new AdaptiveLimit(2, 8, 16, 2);
+
+  @Test
+  public void shouldStartAtInitialValue() {
+    assertThat(limit.getAsInt()).isEqualTo(8);
+  }
+
+  @Test
+  public void shouldHalveOnFailureAndCappedResponse() {
+    limit.recordFailure();
+    assertThat(limit.getAsInt()).isEqualTo(4);
+
+    limit.recordCappedResponse();
+    assertThat(limit.getAsInt()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldNotDecreaseBelowMinimum() {
+    for (int i = 0; i < 10; i++) {
+      limit.recordFailure();
+    }
+    assertThat(limit.getAsInt()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldIncreaseAfterSuccessUpToMaximum() {
+    for (int i = 0; i < 3; i++) {
+      limit.recordSuccess(100);
+    }
+    assertThat(limit.getAsInt()).isEqualTo(14);
+
+    limit.recordSuccess(100);
+    limit.recordSuccess(100);
+    assertThat(limit.getAsInt()).isEqualTo(16);
+  }
+
+  @Test
+  public void shouldRecoverAfterFailure() {
+    limit.recordFailure();
+    limit.recordFailure();
+    assertThat(limit.getAsInt()).isEqualTo(2);
+
+    for (int i = 0; i < 5; i++) {
+      limit.recordSuccess(100);
+    }
+    assertThat(limit.getAsInt()).isEqualTo(12);
+  }
+
+  @Test
+  public void shouldDecreaseWhenResponseIsMuchSlowerThanAverage() {
+    limit.recordSuccess(100);
+    assertThat(limit.getAsInt()).isEqualTo(10);
+
+    limit.recordSuccess(150);
+    assertThat(limit.getAsInt()).isEqualTo(12);
+
+    limit.recordSuccess(1000);
+    assertThat(limit.getAsInt()).isEqualTo(9);
+  }
+
+  @Test
+  public void shouldRecordOutcomeOfTrackedOperations() {
+    final CompletableFuture<String> future = new CompletableFuture<>();
+    final Function<String, CompletableFuture<String>> step =
+        limit.track(input -> future, Clock.fixed(Instant.ofEpochSecond(1000), ZoneOffset.UTC));
+
+    final CompletableFuture<String> result = step.apply("a");
+    assertThat(limit.getAsInt()).isEqualTo(8);
+
+    future.completeExceptionally(new RuntimeException());
+    assertThat(result).isCompletedExceptionally();
+    assertThat(limit.getAsInt()).isEqualTo(4);
+  }
+}
@@ -12,8 +12,10 @@
  */
 package tech.pegasys.pantheon.ethereum.eth.sync;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -25,11 +27,15 @@ import tech.pegasys.pantheon.ethereum.core.BlockHeaderTestFixture;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthPeers;
+import tech.pegasys.pantheon.ethereum.eth.messages.NewBlockHashesMessage;
+import tech.pegasys.pantheon.ethereum.eth.messages.NewBlockHashesMessage.NewBlockHash;
 import tech.pegasys.pantheon.ethereum.eth.messages.NewBlockMessage;
 import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.stream.Stream;
 
 import org.junit.Test;
@@ -79,6 +85,64 @@ public class BlockBroadcasterTest {
     verify(ethPeer1, times(1)).send(newBlockMessage);
   }
 
+  @Test
+  public void relayToSubsetSendsBlockToSquareRootOfPeers() throws PeerConnection.PeerNotConnected {
+    final List<EthPeer> peers = new ArrayList<>();
+    for (int i = 0; i < 9; i++) {
+      peers.add(mock(EthPeer.class));
+    }
+    final EthPeers ethPeers = mock(EthPeers.class);
+    when(ethPeers.availablePeers()).thenReturn(peers.stream());
+
+    final EthContext ethContext = mock(EthContext.class);
+    when(ethContext.getEthPeers()).thenReturn(ethPeers);
+
+    final BlockBroadcaster blockBroadcaster = new BlockBroadcaster(ethContext);
+    final Block block = generateBlock();
+    final NewBlockMessage newBlockMessage = NewBlockMessage.create(block, UInt256.ZERO);
+
+    blockBroadcaster.relayToSubset(block, UInt256.ZERO);
+
+    int relayedTo = 0;
+    for (final EthPeer peer : peers) {
+      final boolean sent =
+          mockingDetails(peer).getInvocations().stream()
+              .anyMatch(invocation -> invocation.getMethod().getName().equals("send"));
+      if (sent) {
+        verify(peer).registerKnownBlock(block.getHash());
+        verify(peer).send(newBlockMessage);
+        relayedTo++;
+      }
+    }
+    assertThat(relayedTo).isEqualTo(3);
+  }
+
+  @Test
+  public void announceSendsHashToPeersWithoutBlock() throws PeerConnection.PeerNotConnected {
+    final EthPeer ethPeer0 = mock(EthPeer.class);
+    when(ethPeer0.hasSeenBlock(any())).thenReturn(true);
+
+    final EthPeer ethPeer1 = mock(EthPeer.class);
+
+    final EthPeers ethPeers = mock(EthPeers.class);
+    when(ethPeers.availablePeers()).thenReturn(Stream.of(ethPeer0, ethPeer1));
+
+    final EthContext ethContext = mock(EthContext.class);
+    when(ethContext.getEthPeers()).thenReturn(ethPeers);
+
+    final BlockBroadcaster blockBroadcaster = new BlockBroadcaster(ethContext);
+    final Block block = generateBlock();
+    final NewBlockHashesMessage newBlockHashesMessage =
+        NewBlockHashesMessage.create(
+            Collections.singletonList(
+                new NewBlockHash(block.getHash(), block.getHeader().getNumber())));
+
+    blockBroadcaster.announce(block);
+
+    verify(ethPeer0, never()).send(any());
+    verify(ethPeer1, times(1)).send(newBlockHashesMessage);
+  }
+
   private Block generateBlock() {
     final BlockBody body = new BlockBody(Collections.emptyList(), Collections.emptyList());
     return new Block(new BlockHeaderTestFixture().buildHeader(), body);
@@ -15,6 +15,7 @@ package tech.pegasys.pantheon.ethereum.eth.sync;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -544,7 +545,8 @@ public class BlockPropagationManagerTest {
     when(ethScheduler.scheduleSyncWorkerTask(any(Supplier.class)))
         .thenReturn(new CompletableFuture<>());
     final EthContext ethContext =
-        new EthContext("eth", new EthPeers("eth"), new EthMessages(), ethScheduler);
+        new EthContext(
+            "eth", new EthPeers("eth", metricsSystem), new EthMessages(), ethScheduler);
     final BlockPropagationManager<Void> blockPropagationManager =
         new BlockPropagationManager<>(
             syncConfig,
@@ -585,4 +587,41 @@ public class BlockPropagationManagerTest {
 
     verify(blockBroadcaster, times(1)).propagate(block, totalDifficulty);
   }
+
+  @Test
+  public void relayBlockToSubsetAndAnnounceAfterImport() {
+    blockPropagationManager =
+        new BlockPropagationManager<>(
+            SynchronizerConfiguration.builder()
+                .blockPropagationRange(-3, 5)
+                .blockPropagationRelayToSubset(true)
+                .build(),
+            protocolSchedule,
+            protocolContext,
+            ethProtocolManager.ethContext(),
+            syncState,
+            pendingBlocks,
+            metricsSystem,
+            blockBroadcaster);
+    blockchainUtil.importFirstBlocks(2);
+    final Block block = blockchainUtil.getBlock(2);
+    blockPropagationManager.start();
+
+    // Setup peer and messages
+    final RespondingEthPeer peer = EthProtocolManagerTestUtil.createPeer(ethProtocolManager, 0);
+
+    final UInt256 totalDifficulty = fullBlockchain.getTotalDifficultyByHash(block.getHash()).get();
+    final NewBlockMessage newBlockMessage = NewBlockMessage.create(block, totalDifficulty);
+
+    // Broadcast message
+    EthProtocolManagerTestUtil.broadcastMessage(ethProtocolManager, peer, newBlockMessage);
+
+    final Responder responder = RespondingEthPeer.blockchainResponder(fullBlockchain);
+    peer.respondWhile(responder, peer::hasOutstandingRequests);
+
+    assertThat(blockchain.contains(block.getHash())).isTrue();
+    verify(blockBroadcaster, times(1)).relayToSubset(block, totalDifficulty);
+    verify(blockBroadcaster, times(1)).announce(block);
+    verify(blockBroadcaster, never()).propagate(any(), any());
+  }
 }
@@ -141,6 +141,28 @@ public class CheckpointHeaderFetcherTest {
     assertThat(result).isCompletedWithValue(emptyList());
   }
 
+  @Test
+  public void shouldEndAtChainHeadWhenNextCheckpointIsAfterPeersEstimatedHeight() {
+    final CheckpointHeaderFetcher checkpointHeaderFetcher =
+        createCheckpointHeaderFetcher(Optional.empty());
+    final RespondingEthPeer peer = EthProtocolManagerTestUtil.createPeer(ethProtocolManager, 20);
+
+    assertThat(checkpointHeaderFetcher.nextCheckpointEndsAtChainHead(peer.getEthPeer(), header(15)))
+        .isFalse();
+    assertThat(checkpointHeaderFetcher.nextCheckpointEndsAtChainHead(peer.getEthPeer(), header(16)))
+        .isTrue();
+  }
+
+  @Test
+  public void shouldNotEndAtChainHeadWhenTargetHeaderIsKnown() {
+    final CheckpointHeaderFetcher checkpointHeaderFetcher =
+        createCheckpointHeaderFetcher(Optional.of(header(15)));
+    final RespondingEthPeer peer = EthProtocolManagerTestUtil.createPeer(ethProtocolManager, 12);
+
+    assertThat(checkpointHeaderFetcher.nextCheckpointEndsAtChainHead(peer.getEthPeer(), header(11)))
+        .isFalse();
+  }
+
   private CheckpointHeaderFetcher createCheckpointHeaderFetcher(
       final Optional<BlockHeader> targetHeader) {
     final EthContext ethContext = ethProtocolManager.ethContext();
@@ -20,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -173,12 +174,14 @@ public class CheckpointRangeSourceTest {
         .thenReturn(completedFuture(asList(header(25), header(30))));
 
     assertThat(source.next()).isEqualTo(new CheckpointRange(commonAncestor, header(15)));
+    verify(checkpointFetcher).nextCheckpointEndsAtChainHead(peer, commonAncestor);
     verify(checkpointFetcher).getNextCheckpointHeaders(peer, commonAncestor);
 
     assertThat(source.next()).isEqualTo(new CheckpointRange(header(15), header(20)));
     verifyNoMoreInteractions(checkpointFetcher);
 
     assertThat(source.next()).isEqualTo(new CheckpointRange(header(20), header(25)));
+    verify(checkpointFetcher).nextCheckpointEndsAtChainHead(peer, header(20));
     verify(checkpointFetcher).getNextCheckpointHeaders(peer, header(20));
 
     assertThat(source.next()).isEqualTo(new CheckpointRange(header(25), header(30)));
@@ -208,6 +211,7 @@ public class CheckpointRangeSourceTest {
         .thenReturn(new CompletableFuture<>());
 
     assertThat(source.next()).isNull();
+    verify(checkpointFetcher).nextCheckpointEndsAtChainHead(peer, commonAncestor);
     verify(checkpointFetcher).getNextCheckpointHeaders(peer, commonAncestor);
 
     assertThat(source.next()).isNull();
@@ -241,6 +245,22 @@ public class CheckpointRangeSourceTest {
     verify(checkpointFetcher, times(2)).getNextCheckpointHeaders(peer, commonAncestor);
   }
 
+  @Test
+  public void shouldReturnRangeWithoutEndWhenNextCheckpointIsAfterChainHead() {
+    when(syncTargetChecker.shouldContinueDownloadingFromSyncTarget(any(), any())).thenReturn(true);
+    when(checkpointFetcher.getNextCheckpointHeaders(peer, commonAncestor))
+        .thenReturn(completedFuture(asList(header(15), header(20))));
+    when(checkpointFetcher.nextCheckpointEndsAtChainHead(peer, header(20))).thenReturn(true);
+
+    assertThat(source.next()).isEqualTo(new CheckpointRange(commonAncestor, header(15)));
+    assertThat(source.next()).isEqualTo(new CheckpointRange(header(15), header(20)));
+    assertThat(source).hasNext();
+    assertThat(source.next()).isEqualTo(new CheckpointRange(header(20)));
+    verify(checkpointFetcher, never()).getNextCheckpointHeaders(peer, header(20));
+
+    assertThat(source).isExhausted();
+  }
+
   private BlockHeader header(final int number) {
     return new BlockHeaderTestFixture().number(number).buildHeader();
   }
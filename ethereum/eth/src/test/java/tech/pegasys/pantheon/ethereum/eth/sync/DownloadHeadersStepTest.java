@@ -36,6 +36,8 @@ import org.junit.Test;
 
 public class DownloadHeadersStepTest {
 
+  private static final int HEADER_REQUEST_SIZE = 5;
+
   private static ProtocolSchedule<Void> protocolSchedule;
   private static ProtocolContext<Void> protocolContext;
   private static MutableBlockchain blockchain;
@@ -63,6 +65,7 @@ public class DownloadHeadersStepTest {
             protocolContext,
             ethProtocolManager.ethContext(),
             () -> HeaderValidationMode.DETACHED_ONLY,
+            HEADER_REQUEST_SIZE,
             new NoOpMetricsSystem());
 
     checkpointRange =
@@ -82,6 +85,21 @@ public class DownloadHeadersStepTest {
         .isCompletedWithValue(new CheckpointRangeHeaders(checkpointRange, headersFromChain(2, 10)));
   }
 
+  @Test
+  public void shouldRetrieveHeadersAfterStartOfRangeWithoutEnd() {
+    final RespondingEthPeer peer = EthProtocolManagerTestUtil.createPeer(ethProtocolManager, 1000);
+    final CheckpointRange rangeWithoutEnd =
+        new CheckpointRange(blockchain.getBlockHeader(10).get());
+    final CompletableFuture<CheckpointRangeHeaders> result = downloader.apply(rangeWithoutEnd);
+
+    peer.respond(RespondingEthPeer.blockchainResponder(blockchain));
+
+    assertThat(result)
+        .isCompletedWithValue(
+            new CheckpointRangeHeaders(
+                rangeWithoutEnd, headersFromChain(11, 10 + HEADER_REQUEST_SIZE)));
+  }
+
   @Test
   public void shouldCancelRequestToPeerWhenReturnedFutureIsCancelled() {
     final RespondingEthPeer peer = EthProtocolManagerTestUtil.createPeer(ethProtocolManager, 1000);
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import org.junit.Test;
+
+public class TrustedBlockTest {
+
+  private static final String HASH =
+      "0x601a7b0d0267209790cf4c4d9e0cab11b26c537e2ade006412f48b070010e847";
+
+  @Test
+  public void shouldParseNumberHashAndTotalDifficulty() {
+    final TrustedBlock trustedBlock = TrustedBlock.fromString("1000:" + HASH + ":123456789");
+
+    assertThat(trustedBlock.getNumber()).isEqualTo(1000);
+    assertThat(trustedBlock.getHash()).isEqualTo(Hash.fromHexString(HASH));
+    assertThat(trustedBlock.getTotalDifficulty()).isEqualTo(UInt256.of(123456789));
+    assertThat(trustedBlock)
+        .isEqualTo(new TrustedBlock(1000, Hash.fromHexString(HASH), UInt256.of(123456789)));
+  }
+
+  @Test
+  public void shouldRejectMissingParts() {
+    assertThatThrownBy(() -> TrustedBlock.fromString("1000:" + HASH))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void shouldRejectExtraParts() {
+    assertThatThrownBy(() -> TrustedBlock.fromString("1000:" + HASH + ":10:10"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void shouldRejectNonNumericBlockNumber() {
+    assertThatThrownBy(() -> TrustedBlock.fromString("0x10:" + HASH + ":10"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void shouldRejectNonNumericTotalDifficulty() {
+    assertThatThrownBy(() -> TrustedBlock.fromString("1000:" + HASH + ":0x10"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void shouldRejectInvalidHash() {
+    assertThatThrownBy(() -> TrustedBlock.fromString("1000:0x1234:10"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.chain.MutableBlockchain;
+import tech.pegasys.pantheon.ethereum.core.Block;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.TransactionReceipt;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManager;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManagerTestUtil;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthScheduler;
+import tech.pegasys.pantheon.ethereum.eth.manager.RespondingEthPeer;
+import tech.pegasys.pantheon.ethereum.eth.manager.RespondingEthPeer.Responder;
+import tech.pegasys.pantheon.ethereum.eth.manager.ethtaskutils.BlockchainSetupUtil;
+import tech.pegasys.pantheon.ethereum.eth.messages.EthPV62;
+import tech.pegasys.pantheon.ethereum.eth.messages.GetBlockHeadersMessage;
+import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
+import tech.pegasys.pantheon.ethereum.eth.sync.fastsync.ChainBackfiller.HeaderLinkValidator;
+import tech.pegasys.pantheon.ethereum.eth.sync.state.SyncState;
+import tech.pegasys.pantheon.ethereum.eth.sync.tasks.exceptions.InvalidBlockException;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChainBackfillerTest {
+
+  private static final long TRUSTED_BLOCK_NUMBER = 20;
+
+  private final SynchronizerConfiguration syncConfig =
+      SynchronizerConfiguration.builder().downloaderHeadersRequestSize(3).build();
+
+  private BlockchainSetupUtil<Void> localBlockchainSetup;
+  private MutableBlockchain localBlockchain;
+  private Blockchain otherBlockchain;
+  private EthProtocolManager ethProtocolManager;
+
+  @Before
+  public void setup() {
+    final BlockchainSetupUtil<Void> otherBlockchainSetup = BlockchainSetupUtil.forTesting();
+    otherBlockchainSetup.importAllBlocks();
+    otherBlockchain = otherBlockchainSetup.getBlockchain();
+
+    localBlockchainSetup = BlockchainSetupUtil.forTesting();
+    localBlockchain = localBlockchainSetup.getBlockchain();
+    ethProtocolManager =
+        EthProtocolManagerTestUtil.create(
+            localBlockchain,
+            localBlockchainSetup.getWorldArchive(),
+            new EthScheduler(1, 1, 1, new NoOpMetricsSystem()));
+  }
+
+  private ChainBackfiller<Void> backfiller() {
+    final ProtocolContext<Void> protocolContext = localBlockchainSetup.getProtocolContext();
+    final EthContext ethContext = ethProtocolManager.ethContext();
+    return new ChainBackfiller<>(
+        syncConfig,
+        localBlockchainSetup.getProtocolSchedule(),
+        protocolContext,
+        ethContext,
+        new SyncState(localBlockchain, ethContext.getEthPeers()),
+        new NoOpMetricsSystem());
+  }
+
+  @Test
+  public void shouldBackfillBlocksAndReceiptsDownToGenesis() {
+    importTrustedBlock(TRUSTED_BLOCK_NUMBER);
+
+    final RespondingEthPeer peer =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, otherBlockchain);
+    final Responder responder = RespondingEthPeer.blockchainResponder(otherBlockchain);
+    final CompletableFuture<Void> result = backfiller().start();
+
+    peer.respondWhileOtherThreadsWork(responder, () -> !result.isDone());
+
+    assertThat(result).isCompleted();
+    assertChainMatchesOtherChain(TRUSTED_BLOCK_NUMBER);
+  }
+
+  @Test
+  public void shouldResumeFromLowestStoredBlock() {
+    importTrustedBlock(TRUSTED_BLOCK_NUMBER);
+    // A previous run already stored blocks 15 to 19 before the node restarted.
+    localBlockchain.backfillBlocks(otherBlocks(15, 19), otherReceipts(15, 19));
+
+    final ChainBackfiller<Void> backfiller = backfiller();
+    assertThat(backfiller.lowestStoredBlockNumber()).isEqualTo(15);
+
+    final RespondingEthPeer peer =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, otherBlockchain);
+    final Responder blockchainResponder = RespondingEthPeer.blockchainResponder(otherBlockchain);
+    final List<Long> requestedHeaders = new ArrayList<>();
+    final Responder responder =
+        (cap, msg) -> {
+          if (msg.getCode() == EthPV62.GET_BLOCK_HEADERS) {
+            requestedHeaders.add(GetBlockHeadersMessage.readFrom(msg).blockNumber().getAsLong());
+          }
+          return blockchainResponder.respond(cap, msg);
+        };
+    final CompletableFuture<Void> result = backfiller.start();
+
+    peer.respondWhileOtherThreadsWork(responder, () -> !result.isDone());
+
+    assertThat(result).isCompleted();
+    assertThat(requestedHeaders).containsExactly(14L, 11L, 8L, 5L, 2L);
+    assertChainMatchesOtherChain(TRUSTED_BLOCK_NUMBER);
+  }
+
+  @Test
+  public void shouldCompleteImmediatelyWhenNoBlocksAreMissing() {
+    localBlockchainSetup.importFirstBlocks(5);
+
+    final ChainBackfiller<Void> backfiller = backfiller();
+    assertThat(backfiller.lowestStoredBlockNumber()).isEqualTo(1);
+    assertThat(backfiller.start()).isCompleted();
+  }
+
+  @Test
+  public void shouldCompleteImmediatelyWhenOnlyGenesisIsStored() {
+    final ChainBackfiller<Void> backfiller = backfiller();
+    assertThat(backfiller.lowestStoredBlockNumber()).isEqualTo(1);
+    assertThat(backfiller.start()).isCompleted();
+  }
+
+  @Test
+  public void shouldFindLowestStoredBlock() {
+    importTrustedBlock(TRUSTED_BLOCK_NUMBER);
+    assertThat(backfiller().lowestStoredBlockNumber()).isEqualTo(TRUSTED_BLOCK_NUMBER);
+
+    localBlockchain.backfillBlocks(otherBlocks(19, 19), otherReceipts(19, 19));
+    assertThat(backfiller().lowestStoredBlockNumber()).isEqualTo(19);
+
+    localBlockchain.backfillBlocks(otherBlocks(7, 18), otherReceipts(7, 18));
+    assertThat(backfiller().lowestStoredBlockNumber()).isEqualTo(7);
+
+    localBlockchain.backfillBlocks(otherBlocks(2, 6), otherReceipts(2, 6));
+    assertThat(backfiller().lowestStoredBlockNumber()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldCoverEveryMissingBlockWithBatches() {
+    assertThat(ChainBackfiller.batchEnds(21, 5)).containsExactly(20L, 15L, 10L, 5L);
+    assertThat(ChainBackfiller.batchEnds(20, 5)).containsExactly(19L, 14L, 9L, 4L);
+    assertThat(ChainBackfiller.batchEnds(6, 5)).containsExactly(5L);
+    assertThat(ChainBackfiller.batchEnds(2, 5)).containsExactly(1L);
+  }
+
+  @Test
+  public void headerLinkValidatorShouldReturnLinkedHeadersInAscendingOrder() {
+    final HeaderLinkValidator validator =
+        new HeaderLinkValidator(otherHeader(TRUSTED_BLOCK_NUMBER).getParentHash());
+
+    assertThat(validator.apply(otherHeadersDescending(19, 17)))
+        .containsExactly(otherHeader(17), otherHeader(18), otherHeader(19));
+    assertThat(validator.apply(otherHeadersDescending(16, 15)))
+        .containsExactly(otherHeader(15), otherHeader(16));
+  }
+
+  @Test
+  public void headerLinkValidatorShouldRejectHeadersNotLinkedToBlockAbove() {
+    final HeaderLinkValidator validator =
+        new HeaderLinkValidator(otherHeader(TRUSTED_BLOCK_NUMBER).getParentHash());
+
+    assertThatThrownBy(() -> validator.apply(otherHeadersDescending(18, 16)))
+        .isInstanceOf(InvalidBlockException.class);
+  }
+
+  @Test
+  public void headerLinkValidatorShouldRejectHeadersInAscendingOrder() {
+    final HeaderLinkValidator validator =
+        new HeaderLinkValidator(otherHeader(TRUSTED_BLOCK_NUMBER).getParentHash());
+    final List<BlockHeader> ascending = otherHeadersDescending(19, 17);
+    Collections.reverse(ascending);
+
+    assertThatThrownBy(() -> validator.apply(ascending)).isInstanceOf(InvalidBlockException.class);
+  }
+
+  private void importTrustedBlock(final long number) {
+    final Hash hash = otherHeader(number).getHash();
+    localBlockchain.importTrustedBlock(
+        otherBlocks(number, number).get(0),
+        otherBlockchain.getTxReceipts(hash).get(),
+        otherBlockchain.getTotalDifficultyByHash(hash).get());
+  }
+
+  private void assertChainMatchesOtherChain(final long chainHeadNumber) {
+    assertThat(localBlockchain.getChainHeadBlockNumber()).isEqualTo(chainHeadNumber);
+    for (long number = 1; number <= chainHeadNumber; number++) {
+      final Hash hash = otherHeader(number).getHash();
+      assertThat(localBlockchain.getBlockHashByNumber(number)).contains(hash);
+      assertThat(localBlockchain.getBlockBody(hash)).isEqualTo(otherBlockchain.getBlockBody(hash));
+      assertThat(localBlockchain.getTxReceipts(hash))
+          .isEqualTo(otherBlockchain.getTxReceipts(hash));
+      assertThat(localBlockchain.getTotalDifficultyByHash(hash))
+          .isEqualTo(otherBlockchain.getTotalDifficultyByHash(hash));
+    }
+  }
+
+  private BlockHeader otherHeader(final long number) {
+    return otherBlockchain.getBlockHeader(number).get();
+  }
+
+  private List<BlockHeader> otherHeadersDescending(final long from, final long to) {
+    return LongStream.rangeClosed(to, from)
+        .map(number -> from + to - number)
+        .mapToObj(this::otherHeader)
+        .collect(toList());
+  }
+
+  private List<Block> otherBlocks(final long from, final long to) {
+    return LongStream.rangeClosed(from, to)
+        .mapToObj(this::otherHeader)
+        .map(header -> new Block(header, otherBlockchain.getBlockBody(header.getHash()).get()))
+        .collect(toList());
+  }
+
+  private List<List<TransactionReceipt>> otherReceipts(final long from, final long to) {
+    return LongStream.rangeClosed(from, to)
+        .mapToObj(number -> otherBlockchain.getTxReceipts(otherHeader(number).getHash()).get())
+        .collect(toList());
+  }
+}
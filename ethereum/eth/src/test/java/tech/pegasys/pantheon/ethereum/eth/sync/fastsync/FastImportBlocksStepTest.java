@@ -15,20 +15,27 @@ package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static tech.pegasys.pantheon.ethereum.mainnet.HeaderValidationMode.FULL;
 
 import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.chain.ChainHead;
+import tech.pegasys.pantheon.ethereum.chain.MutableBlockchain;
 import tech.pegasys.pantheon.ethereum.core.Block;
 import tech.pegasys.pantheon.ethereum.core.BlockDataGenerator;
 import tech.pegasys.pantheon.ethereum.core.BlockImporter;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.TransactionReceipt;
 import tech.pegasys.pantheon.ethereum.eth.sync.ValidationPolicy;
 import tech.pegasys.pantheon.ethereum.eth.sync.tasks.exceptions.InvalidBlockException;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSpec;
+import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.util.List;
 
@@ -44,6 +51,7 @@ public class FastImportBlocksStepTest {
   @Mock private ProtocolSchedule<Void> protocolSchedule;
   @Mock private ProtocolSpec<Void> protocolSpec;
   @Mock private ProtocolContext<Void> protocolContext;
+  @Mock private MutableBlockchain blockchain;
   @Mock private BlockImporter<Void> blockImporter;
   @Mock private ValidationPolicy validationPolicy;
   private final BlockDataGenerator gen = new BlockDataGenerator();
@@ -55,23 +63,37 @@ public class FastImportBlocksStepTest {
     when(protocolSchedule.getByBlockNumber(anyLong())).thenReturn(protocolSpec);
     when(protocolSpec.getBlockImporter()).thenReturn(blockImporter);
     when(validationPolicy.getValidationModeForNextBlock()).thenReturn(FULL);
+    when(protocolContext.getBlockchain()).thenReturn(blockchain);
 
     importBlocksStep =
         new FastImportBlocksStep<>(protocolSchedule, protocolContext, validationPolicy);
   }
 
   @Test
-  public void shouldImportBlocks() {
+  public void shouldImportBlocksInSingleBatch() {
     final List<Block> blocks = gen.blockSequence(5);
     final List<BlockWithReceipts> blocksWithReceipts =
         blocks.stream()
             .map(block -> new BlockWithReceipts(block, gen.receipts(block)))
             .collect(toList());
+    final Hash chainHeadHash = blocks.get(0).getHeader().getParentHash();
+    when(blockchain.getChainHeadHash()).thenReturn(chainHeadHash);
+    when(blockchain.getChainHead()).thenReturn(new ChainHead(chainHeadHash, UInt256.ZERO));
 
     for (final BlockWithReceipts blockWithReceipts : blocksWithReceipts) {
       when(blockImporter.fastImportBlock(
-              protocolContext, blockWithReceipts.getBlock(), blockWithReceipts.getReceipts(), FULL))
-          .thenReturn(true);
+              any(),
+              eq(blockWithReceipts.getBlock()),
+              eq(blockWithReceipts.getReceipts()),
+              eq(FULL)))
+          .thenAnswer(
+              invocation -> {
+                final ProtocolContext<Void> context = invocation.getArgument(0);
+                context
+                    .getBlockchain()
+                    .appendBlock(blockWithReceipts.getBlock(), blockWithReceipts.getReceipts());
+                return true;
+              });
     }
     importBlocksStep.accept(blocksWithReceipts);
 
@@ -79,6 +101,9 @@ public class FastImportBlocksStepTest {
       verify(protocolSchedule).getByBlockNumber(blockWithReceipts.getNumber());
     }
     verify(validationPolicy, times(blocks.size())).getValidationModeForNextBlock();
+    final List<List<TransactionReceipt>> receipts =
+        blocksWithReceipts.stream().map(BlockWithReceipts::getReceipts).collect(toList());
+    verify(blockchain).appendBlocks(blocks, receipts);
   }
 
   @Test
@@ -87,7 +112,7 @@ public class FastImportBlocksStepTest {
     final BlockWithReceipts blockWithReceipts = new BlockWithReceipts(block, gen.receipts(block));
 
     when(blockImporter.fastImportBlock(
-            protocolContext, block, blockWithReceipts.getReceipts(), FULL))
+            any(), eq(block), eq(blockWithReceipts.getReceipts()), eq(FULL)))
         .thenReturn(false);
     assertThatThrownBy(() -> importBlocksStep.accept(singletonList(blockWithReceipts)))
         .isInstanceOf(InvalidBlockException.class);
@@ -31,8 +31,10 @@ import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManagerTestUtil;
 import tech.pegasys.pantheon.ethereum.eth.manager.RespondingEthPeer;
 import tech.pegasys.pantheon.ethereum.eth.manager.RespondingEthPeer.Responder;
 import tech.pegasys.pantheon.ethereum.eth.manager.ethtaskutils.BlockchainSetupUtil;
+import tech.pegasys.pantheon.ethereum.eth.sync.ChainDownloader;
 import tech.pegasys.pantheon.ethereum.eth.sync.SyncMode;
 import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
+import tech.pegasys.pantheon.ethereum.eth.sync.TrustedBlock;
 import tech.pegasys.pantheon.ethereum.eth.sync.state.SyncState;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
 import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
@@ -60,28 +62,48 @@ public class FastSyncActionsTest {
   private FastSyncActions<Void> fastSyncActions;
   private EthProtocolManager ethProtocolManager;
   private MutableBlockchain blockchain;
+  private ProtocolSchedule<Void> protocolSchedule;
+  private ProtocolContext<Void> protocolContext;
 
   @Before
   public void setUp() {
     final BlockchainSetupUtil<Void> blockchainSetupUtil = BlockchainSetupUtil.forTesting();
     blockchainSetupUtil.importAllBlocks();
     blockchain = blockchainSetupUtil.getBlockchain();
-    final ProtocolSchedule<Void> protocolSchedule = blockchainSetupUtil.getProtocolSchedule();
-    final ProtocolContext<Void> protocolContext = blockchainSetupUtil.getProtocolContext();
+    protocolSchedule = blockchainSetupUtil.getProtocolSchedule();
+    protocolContext = blockchainSetupUtil.getProtocolContext();
     ethProtocolManager =
         EthProtocolManagerTestUtil.create(
             blockchain,
             blockchainSetupUtil.getWorldArchive(),
             () -> timeoutCount.getAndDecrement() > 0);
+    fastSyncActions = createFastSyncActions(syncConfig);
+  }
+
+  private FastSyncActions<Void> createFastSyncActions(final SynchronizerConfiguration config) {
     final EthContext ethContext = ethProtocolManager.ethContext();
-    fastSyncActions =
-        new FastSyncActions<>(
-            syncConfig,
-            protocolSchedule,
-            protocolContext,
-            ethContext,
-            new SyncState(blockchain, ethContext.getEthPeers()),
-            new NoOpMetricsSystem());
+    return new FastSyncActions<>(
+        config,
+        protocolSchedule,
+        protocolContext,
+        ethContext,
+        new SyncState(blockchain, ethContext.getEthPeers()),
+        new NoOpMetricsSystem());
+  }
+
+  private FastSyncActions<Void> createCheckpointSyncActions(final TrustedBlock trustedBlock) {
+    return createFastSyncActions(
+        new SynchronizerConfiguration.Builder()
+            .syncMode(SyncMode.CHECKPOINT)
+            .trustedBlock(trustedBlock)
+            .fastSyncMaximumPeerWaitTime(Duration.ofMinutes(5))
+            .build());
+  }
+
+  private TrustedBlock trustedBlock(final long number) {
+    final BlockHeader header = blockchain.getBlockHeader(number).get();
+    return new TrustedBlock(
+        number, header.getHash(), blockchain.getTotalDifficultyByHash(header.getHash()).get());
   }
 
   @Test
@@ -207,6 +229,69 @@ public class FastSyncActionsTest {
     assertThat(result).isCompletedWithValue(new FastSyncState(blockchain.getBlockHeader(1).get()));
   }
 
+  @Test
+  public void checkpointSyncShouldOnlyWaitForOnePeer() {
+    final FastSyncActions<Void> checkpointSyncActions =
+        createCheckpointSyncActions(trustedBlock(10));
+    final CompletableFuture<FastSyncState> result =
+        checkpointSyncActions.waitForSuitablePeers(EMPTY_SYNC_STATE);
+    assertThat(result).isNotDone();
+
+    EthProtocolManagerTestUtil.createPeer(ethProtocolManager);
+    assertThat(result).isCompletedWithValue(EMPTY_SYNC_STATE);
+  }
+
+  @Test
+  public void checkpointSyncShouldSelectTrustedBlockAsPivotBlock() {
+    final FastSyncActions<Void> checkpointSyncActions =
+        createCheckpointSyncActions(trustedBlock(10));
+
+    final CompletableFuture<FastSyncState> result =
+        checkpointSyncActions.selectPivotBlock(EMPTY_SYNC_STATE);
+    assertThat(result).isCompletedWithValue(new FastSyncState(10));
+  }
+
+  @Test
+  public void checkpointSyncShouldDownloadTrustedBlockHeader() {
+    final FastSyncActions<Void> checkpointSyncActions =
+        createCheckpointSyncActions(trustedBlock(10));
+    final RespondingEthPeer peer = EthProtocolManagerTestUtil.createPeer(ethProtocolManager, 1001);
+    final CompletableFuture<FastSyncState> result =
+        checkpointSyncActions.downloadPivotBlockHeader(new FastSyncState(10));
+    assertThat(result).isNotCompleted();
+
+    peer.respond(RespondingEthPeer.blockchainResponder(blockchain));
+
+    assertThat(result).isCompletedWithValue(new FastSyncState(blockchain.getBlockHeader(10).get()));
+  }
+
+  @Test
+  public void checkpointSyncShouldWaitForPeerWithTrustedBlockHeader() {
+    final TrustedBlock trustedBlock = trustedBlock(10);
+    final FastSyncActions<Void> checkpointSyncActions =
+        createCheckpointSyncActions(
+            new TrustedBlock(
+                10, blockchain.getBlockHashByNumber(9).get(), trustedBlock.getTotalDifficulty()));
+    final RespondingEthPeer peer = EthProtocolManagerTestUtil.createPeer(ethProtocolManager, 1001);
+    final CompletableFuture<FastSyncState> result =
+        checkpointSyncActions.downloadPivotBlockHeader(new FastSyncState(10));
+
+    peer.respond(RespondingEthPeer.blockchainResponder(blockchain));
+
+    assertThat(result).isNotDone();
+  }
+
+  @Test
+  public void checkpointSyncShouldDownloadChainUpToTrustedBlockOnly() {
+    final FastSyncActions<Void> checkpointSyncActions =
+        createCheckpointSyncActions(trustedBlock(10));
+
+    final ChainDownloader chainDownloader =
+        checkpointSyncActions.createChainDownloader(
+            new FastSyncState(blockchain.getBlockHeader(10).get()));
+    assertThat(chainDownloader).isInstanceOf(TrustedBlockDownloader.class);
+  }
+
   private void assertThrowsFastSyncException(
       final FastSyncError expectedError, final ThrowingCallable callable) {
     assertThatThrownBy(callable)
@@ -77,7 +77,7 @@ public class FastSyncBlockHandlerTest {
   private final EthContext ethContext =
       new EthContext(
           PROTOCOL_NAME,
-          new EthPeers(PROTOCOL_NAME),
+          new EthPeers(PROTOCOL_NAME, new NoOpMetricsSystem()),
           new EthMessages(),
           new DeterministicEthScheduler());
   private final MetricsSystem metricsSystem = new NoOpMetricsSystem();
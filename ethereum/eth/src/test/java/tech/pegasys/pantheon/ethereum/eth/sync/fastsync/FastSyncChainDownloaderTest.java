@@ -30,6 +30,7 @@ import tech.pegasys.pantheon.ethereum.eth.manager.RespondingEthPeer.Responder;
 import tech.pegasys.pantheon.ethereum.eth.manager.ethtaskutils.BlockchainSetupUtil;
 import tech.pegasys.pantheon.ethereum.eth.messages.EthPV62;
 import tech.pegasys.pantheon.ethereum.eth.messages.GetBlockHeadersMessage;
+import tech.pegasys.pantheon.ethereum.eth.sync.ChainDownloadLimits;
 import tech.pegasys.pantheon.ethereum.eth.sync.ChainDownloader;
 import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
 import tech.pegasys.pantheon.ethereum.eth.sync.state.SyncState;
@@ -77,13 +78,15 @@ public class FastSyncChainDownloaderTest {
 
   private ChainDownloader downloader(
       final SynchronizerConfiguration syncConfig, final long pivotBlockNumber) {
+    final NoOpMetricsSystem metricsSystem = new NoOpMetricsSystem();
     return FastSyncChainDownloader.create(
         syncConfig,
         protocolSchedule,
         protocolContext,
         ethContext,
         syncState,
-        new NoOpMetricsSystem(),
+        metricsSystem,
+        ChainDownloadLimits.create(syncConfig, metricsSystem, "fast_sync"),
         otherBlockchain.getBlockHeader(pivotBlockNumber).get());
   }
 
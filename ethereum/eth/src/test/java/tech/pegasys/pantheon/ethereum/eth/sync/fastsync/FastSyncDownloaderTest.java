@@ -128,6 +128,37 @@ public class FastSyncDownloaderTest {
     assertThat(result).isCompletedWithValue(fastSyncState);
   }
 
+  @Test
+  public void shouldMarkWorldStateNodesUntrackedWhenResumingWithoutQueuedRequests() {
+    final BlockHeader pivotBlockHeader = new BlockHeaderTestFixture().number(50).buildHeader();
+    final FastSyncState fastSyncState = new FastSyncState(pivotBlockHeader);
+    final CompletableFuture<FastSyncState> complete = completedFuture(fastSyncState);
+    when(fastSyncActions.waitForSuitablePeers(fastSyncState)).thenReturn(complete);
+    when(fastSyncActions.selectPivotBlock(fastSyncState)).thenReturn(complete);
+    when(fastSyncActions.downloadPivotBlockHeader(fastSyncState)).thenReturn(complete);
+    when(fastSyncActions.createChainDownloader(fastSyncState)).thenReturn(chainDownloader);
+    when(chainDownloader.start()).thenReturn(completedFuture(null));
+    when(worldStateDownloader.run(pivotBlockHeader)).thenReturn(completedFuture(null));
+    when(taskCollection.isEmpty()).thenReturn(true);
+
+    final FastSyncDownloader<Void> resumedDownloader =
+        new FastSyncDownloader<>(
+            fastSyncActions,
+            worldStateDownloader,
+            storage,
+            taskCollection,
+            fastSyncDataDirectory,
+            fastSyncState);
+
+    final CompletableFuture<FastSyncState> result = resumedDownloader.start();
+
+    // The queue for the earlier download was cleared, so any nodes it stored aren't tracked
+    verify(storage).storeState(fastSyncState);
+    verify(storage).markWorldStateNodesUntracked();
+    verifyNoMoreInteractions(storage);
+    assertThat(result).isCompletedWithValue(fastSyncState);
+  }
+
   @Test
   public void shouldAbortIfWaitForSuitablePeersFails() {
     when(fastSyncActions.waitForSuitablePeers(EMPTY_SYNC_STATE))
@@ -327,6 +358,7 @@ public class FastSyncDownloaderTest {
         .thenReturn(secondChainDownloader);
     when(secondChainDownloader.start()).thenReturn(completedFuture(null));
     when(worldStateDownloader.run(secondPivotBlockHeader)).thenReturn(secondWorldStateFuture);
+    when(taskCollection.isEmpty()).thenReturn(true);
 
     final CompletableFuture<FastSyncState> result = downloader.start();
 
@@ -350,6 +382,8 @@ public class FastSyncDownloaderTest {
     verify(fastSyncActions, times(2)).selectPivotBlock(EMPTY_SYNC_STATE);
     verify(fastSyncActions).downloadPivotBlockHeader(secondSelectPivotBlockState);
     verify(storage).storeState(secondDownloadPivotBlockHeaderState);
+    // Nodes stored for the first pivot block may be missing children that are no longer queued
+    verify(storage).markWorldStateNodesUntracked();
     verify(fastSyncActions).createChainDownloader(secondDownloadPivotBlockHeaderState);
     verify(worldStateDownloader).run(secondPivotBlockHeader);
     verifyNoMoreInteractions(fastSyncActions, worldStateDownloader, storage);
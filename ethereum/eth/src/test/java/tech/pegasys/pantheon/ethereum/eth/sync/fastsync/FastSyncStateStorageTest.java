@@ -79,4 +79,18 @@ public class FastSyncStateStorageTest {
     storage.storeState(EMPTY_SYNC_STATE);
     assertThat(storage.loadState(MainnetBlockHashFunction::createHash)).isEqualTo(EMPTY_SYNC_STATE);
   }
+
+  @Test
+  public void shouldNotHaveUntrackedWorldStateNodesByDefault() {
+    assertThat(storage.hasUntrackedWorldStateNodes()).isFalse();
+  }
+
+  @Test
+  public void shouldPersistUntrackedWorldStateNodesMarker() {
+    storage.markWorldStateNodesUntracked();
+    assertThat(storage.hasUntrackedWorldStateNodes()).isTrue();
+
+    final FastSyncStateStorage newStorage = new FastSyncStateStorage(tempDir.toPath());
+    assertThat(newStorage.hasUntrackedWorldStateNodes()).isTrue();
+  }
 }
@@ -19,6 +19,7 @@ import static org.mockito.Mockito.when;
 import tech.pegasys.pantheon.ethereum.ProtocolContext;
 import tech.pegasys.pantheon.ethereum.chain.Blockchain;
 import tech.pegasys.pantheon.ethereum.chain.MutableBlockchain;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.core.BlockHeaderTestFixture;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManager;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManagerTestUtil;
@@ -43,6 +44,7 @@ public class PivotBlockRetrieverTest {
   private static final long PIVOT_BLOCK_NUMBER = 10;
 
   private ProtocolContext<Void> protocolContext;
+  private ProtocolSchedule<Void> protocolSchedule;
 
   private final MetricsSystem metricsSystem = new NoOpMetricsSystem();
   private final AtomicBoolean timeout = new AtomicBoolean(false);
@@ -55,7 +57,7 @@ public class PivotBlockRetrieverTest {
     final BlockchainSetupUtil<Void> blockchainSetupUtil = BlockchainSetupUtil.forTesting();
     blockchainSetupUtil.importAllBlocks();
     blockchain = blockchainSetupUtil.getBlockchain();
-    final ProtocolSchedule<Void> protocolSchedule = blockchainSetupUtil.getProtocolSchedule();
+    protocolSchedule = blockchainSetupUtil.getProtocolSchedule();
     protocolContext = blockchainSetupUtil.getProtocolContext();
     ethProtocolManager =
         EthProtocolManagerTestUtil.create(
@@ -159,6 +161,37 @@ public class PivotBlockRetrieverTest {
         .isEqualTo(FastSyncError.PIVOT_BLOCK_HEADER_MISMATCH);
   }
 
+  @Test
+  public void shouldAcceptTrustedBlockFromSinglePeer() {
+    final BlockHeader trustedHeader = blockchain.getBlockHeader(PIVOT_BLOCK_NUMBER).get();
+    pivotBlockRetriever =
+        new PivotBlockRetriever<>(
+            protocolSchedule,
+            ethProtocolManager.ethContext(),
+            metricsSystem,
+            PIVOT_BLOCK_NUMBER,
+            Optional.of(trustedHeader.getHash()));
+    final Responder responder =
+        RespondingEthPeer.blockchainResponder(blockchain, protocolContext.getWorldStateArchive());
+    final Responder fakeResponder = responderForFakeBlock();
+
+    final RespondingEthPeer respondingPeerA =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, 1000);
+    final RespondingEthPeer respondingPeerB =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, 1000);
+    final RespondingEthPeer respondingPeerC =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, 1000);
+
+    final CompletableFuture<FastSyncState> future = pivotBlockRetriever.downloadPivotBlockHeader();
+    while (!future.isDone()) {
+      respondingPeerA.respond(fakeResponder);
+      respondingPeerB.respond(fakeResponder);
+      respondingPeerC.respond(responder);
+    }
+
+    assertThat(future).isCompletedWithValue(new FastSyncState(trustedHeader));
+  }
+
   private Responder responderForFakeBlock() {
     final Blockchain mockBlockchain = mock(Blockchain.class);
     when(mockBlockchain.getBlockHeader(PIVOT_BLOCK_NUMBER))
@@ -49,15 +49,22 @@ import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 
+@RunWith(Parameterized.class)
 public class FullSyncChainDownloaderTest {
 
   protected ProtocolSchedule<Void> protocolSchedule;
@@ -72,6 +79,16 @@ public class FullSyncChainDownloaderTest {
   private BlockchainSetupUtil<Void> otherBlockchainSetup;
   protected Blockchain otherBlockchain;
   private final MetricsSystem metricsSystem = new NoOpMetricsSystem();
+  private final boolean fullSyncPipelineEnabled;
+
+  public FullSyncChainDownloaderTest(final boolean fullSyncPipelineEnabled) {
+    this.fullSyncPipelineEnabled = fullSyncPipelineEnabled;
+  }
+
+  @Parameters(name = "fullSyncPipelineEnabled={0}")
+  public static Collection<Object[]> parameters() {
+    return Arrays.asList(new Object[][] {{true}, {false}});
+  }
 
   @Before
   public void setupTest() {
@@ -92,16 +109,17 @@ public class FullSyncChainDownloaderTest {
     syncState = new SyncState(protocolContext.getBlockchain(), ethContext.getEthPeers());
   }
 
-  // A few tests break encapsulation and access the "current task", hence casting to a concrete type
-  @SuppressWarnings("unchecked")
-  private EthTaskChainDownloader<Void> downloader(final SynchronizerConfiguration syncConfig) {
-    return (EthTaskChainDownloader<Void>)
-        FullSyncChainDownloader.create(
-            syncConfig, protocolSchedule, protocolContext, ethContext, syncState, metricsSystem);
+  private ChainDownloader downloader(final SynchronizerConfiguration syncConfig) {
+    return FullSyncChainDownloader.create(
+        syncConfig, protocolSchedule, protocolContext, ethContext, syncState, metricsSystem);
+  }
+
+  private SynchronizerConfiguration.Builder syncConfigBuilder() {
+    return SynchronizerConfiguration.builder().fullSyncPipelineEnabled(fullSyncPipelineEnabled);
   }
 
-  private EthTaskChainDownloader<Void> downloader() {
-    final SynchronizerConfiguration syncConfig = SynchronizerConfiguration.builder().build();
+  private ChainDownloader downloader() {
+    final SynchronizerConfiguration syncConfig = syncConfigBuilder().build();
     return downloader(syncConfig);
   }
 
@@ -117,7 +135,7 @@ public class FullSyncChainDownloaderTest {
     final Responder responder = RespondingEthPeer.blockchainResponder(otherBlockchain);
 
     final SynchronizerConfiguration syncConfig =
-        SynchronizerConfiguration.builder().downloaderChainSegmentSize(10).build();
+        syncConfigBuilder().downloaderChainSegmentSize(10).build();
     final ChainDownloader downloader = downloader(syncConfig);
     downloader.start();
 
@@ -143,7 +161,7 @@ public class FullSyncChainDownloaderTest {
     final Responder responder = RespondingEthPeer.blockchainResponder(otherBlockchain);
 
     final SynchronizerConfiguration syncConfig =
-        SynchronizerConfiguration.builder().downloaderChainSegmentSize(10).build();
+        syncConfigBuilder().downloaderChainSegmentSize(10).build();
     final ChainDownloader downloader = downloader(syncConfig);
     downloader.start();
 
@@ -169,7 +187,7 @@ public class FullSyncChainDownloaderTest {
     final Responder responder = RespondingEthPeer.blockchainResponder(otherBlockchain);
 
     final SynchronizerConfiguration syncConfig =
-        SynchronizerConfiguration.builder().downloaderChainSegmentSize(4).build();
+        syncConfigBuilder().downloaderChainSegmentSize(4).build();
     final ChainDownloader downloader = downloader(syncConfig);
     downloader.start();
 
@@ -228,7 +246,7 @@ public class FullSyncChainDownloaderTest {
     final Responder responder = RespondingEthPeer.blockchainResponder(otherBlockchain);
 
     final SynchronizerConfiguration syncConfig =
-        SynchronizerConfiguration.builder().downloaderChainSegmentSize(10).build();
+        syncConfigBuilder().downloaderChainSegmentSize(10).build();
     final ChainDownloader downloader = downloader(syncConfig);
     downloader.start();
 
@@ -294,11 +312,11 @@ public class FullSyncChainDownloaderTest {
         EthProtocolManagerTestUtil.createPeer(ethProtocolManager, localTd.plus(100), 50);
 
     final SynchronizerConfiguration syncConfig =
-        SynchronizerConfiguration.builder()
+        syncConfigBuilder()
             .downloaderChainSegmentSize(5)
             .downloaderChangeTargetThresholdByHeight(10)
             .build();
-    final EthTaskChainDownloader<Void> downloader = downloader(syncConfig);
+    final ChainDownloader downloader = downloader(syncConfig);
     downloader.start();
 
     // Process until the sync target is selected
@@ -309,14 +327,7 @@ public class FullSyncChainDownloaderTest {
     // Update Peer B so that its a better target and send some responses to push logic forward
     peerB.getEthPeer().chainState().update(gen.hash(), 100);
 
-    // Process through first task cycle
-    final CompletableFuture<?> firstTask = downloader.getCurrentTask();
-    while (downloader.getCurrentTask() == firstTask) {
-      RespondingEthPeer.respondOnce(responder, peerA, peerB);
-    }
-
-    assertThat(syncState.syncTarget()).isPresent();
-    assertThat(syncState.syncTarget().get().peer()).isEqualTo(peerB.getEthPeer());
+    respondUntilSyncTargetIs(peerB, responder, peerA, peerB);
   }
 
   @Test
@@ -331,11 +342,11 @@ public class FullSyncChainDownloaderTest {
         EthProtocolManagerTestUtil.createPeer(ethProtocolManager, localTd.plus(100));
 
     final SynchronizerConfiguration syncConfig =
-        SynchronizerConfiguration.builder()
+        syncConfigBuilder()
             .downloaderChainSegmentSize(5)
             .downloaderChangeTargetThresholdByHeight(1000)
             .build();
-    final EthTaskChainDownloader<Void> downloader = downloader(syncConfig);
+    final ChainDownloader downloader = downloader(syncConfig);
     downloader.start();
 
     // Process until the sync target is selected
@@ -346,11 +357,7 @@ public class FullSyncChainDownloaderTest {
     // Update otherPeer so that its a better target, but under the threshold to switch
     otherPeer.getEthPeer().chainState().update(gen.hash(), 100);
 
-    // Process through first task cycle
-    final CompletableFuture<?> firstTask = downloader.getCurrentTask();
-    while (downloader.getCurrentTask() == firstTask) {
-      RespondingEthPeer.respondOnce(responder, bestPeer, otherPeer);
-    }
+    respondThroughDownloadCycle(downloader, responder, bestPeer, otherPeer);
 
     assertThat(syncState.syncTarget()).isPresent();
     assertThat(syncState.syncTarget().get().peer()).isEqualTo(bestPeer.getEthPeer());
@@ -368,11 +375,11 @@ public class FullSyncChainDownloaderTest {
         EthProtocolManagerTestUtil.createPeer(ethProtocolManager, localTd.plus(100));
 
     final SynchronizerConfiguration syncConfig =
-        SynchronizerConfiguration.builder()
+        syncConfigBuilder()
             .downloaderChainSegmentSize(5)
             .downloaderChangeTargetThresholdByTd(UInt256.of(10))
             .build();
-    final EthTaskChainDownloader<Void> downloader = downloader(syncConfig);
+    final ChainDownloader downloader = downloader(syncConfig);
     downloader.start();
 
     // Process until the sync target is selected
@@ -387,14 +394,7 @@ public class FullSyncChainDownloaderTest {
         .updateForAnnouncedBlock(
             gen.header(), localBlockchain.getChainHead().getTotalDifficulty().plus(300));
 
-    // Process through first task cycle
-    final CompletableFuture<?> firstTask = downloader.getCurrentTask();
-    while (downloader.getCurrentTask() == firstTask) {
-      RespondingEthPeer.respondOnce(responder, peerA, peerB);
-    }
-
-    assertThat(syncState.syncTarget()).isPresent();
-    assertThat(syncState.syncTarget().get().peer()).isEqualTo(peerB.getEthPeer());
+    respondUntilSyncTargetIs(peerB, responder, peerA, peerB);
   }
 
   @Test
@@ -413,11 +413,11 @@ public class FullSyncChainDownloaderTest {
         EthProtocolManagerTestUtil.createPeer(ethProtocolManager, localTd.plus(100));
 
     final SynchronizerConfiguration syncConfig =
-        SynchronizerConfiguration.builder()
+        syncConfigBuilder()
             .downloaderChainSegmentSize(5)
             .downloaderChangeTargetThresholdByTd(UInt256.of(100_000_000L))
             .build();
-    final EthTaskChainDownloader<Void> downloader = downloader(syncConfig);
+    final ChainDownloader downloader = downloader(syncConfig);
     downloader.start();
 
     // Process until the sync target is selected
@@ -437,11 +437,7 @@ public class FullSyncChainDownloaderTest {
         .updateForAnnouncedBlock(
             gen.header(1000), localBlockchain.getChainHead().getTotalDifficulty().plus(300));
 
-    // Process through first task cycle
-    final CompletableFuture<?> firstTask = downloader.getCurrentTask();
-    while (downloader.getCurrentTask() == firstTask) {
-      RespondingEthPeer.respondOnce(responder, bestPeer, otherPeer);
-    }
+    respondThroughDownloadCycle(downloader, responder, bestPeer, otherPeer);
 
     assertThat(syncState.syncTarget()).isPresent();
     assertThat(syncState.syncTarget().get().peer()).isEqualTo(bestPeer.getEthPeer());
@@ -457,7 +453,7 @@ public class FullSyncChainDownloaderTest {
     assertThat(targetBlock).isGreaterThan(localBlockchain.getChainHeadBlockNumber());
 
     final SynchronizerConfiguration syncConfig =
-        SynchronizerConfiguration.builder()
+        syncConfigBuilder()
             .downloaderChainSegmentSize(5)
             .downloaderHeadersRequestSize(3)
             .build();
@@ -526,7 +522,7 @@ public class FullSyncChainDownloaderTest {
     assertThat(targetBlock).isGreaterThan(localBlockchain.getChainHeadBlockNumber());
 
     final SynchronizerConfiguration syncConfig =
-        SynchronizerConfiguration.builder()
+        syncConfigBuilder()
             .downloaderChainSegmentSize(5)
             .downloaderHeadersRequestSize(3)
             .build();
@@ -583,6 +579,46 @@ public class FullSyncChainDownloaderTest {
     }
   }
 
+  private void respondUntilSyncTargetIs(
+      final RespondingEthPeer expectedTarget,
+      final Responder responder,
+      final RespondingEthPeer... peers) {
+    await()
+        .atMost(10, TimeUnit.SECONDS)
+        .untilAsserted(
+            () -> {
+              RespondingEthPeer.respondOnce(responder, peers);
+              assertThat(syncState.syncTarget()).isPresent();
+              assertThat(syncState.syncTarget().get().peer())
+                  .isEqualTo(expectedTarget.getEthPeer());
+            });
+  }
+
+  // Responds until the downloader has had a chance to switch sync targets. The task based
+  // downloader checks between tasks, while the pipeline checks before each request for checkpoint
+  // headers.
+  private void respondThroughDownloadCycle(
+      final ChainDownloader downloader,
+      final Responder responder,
+      final RespondingEthPeer... peers) {
+    if (downloader instanceof EthTaskChainDownloader) {
+      final EthTaskChainDownloader<?> taskDownloader = (EthTaskChainDownloader<?>) downloader;
+      final CompletableFuture<?> firstTask = taskDownloader.getCurrentTask();
+      while (taskDownloader.getCurrentTask() == firstTask) {
+        RespondingEthPeer.respondOnce(responder, peers);
+      }
+      return;
+    }
+    await()
+        .atMost(10, TimeUnit.SECONDS)
+        .untilAsserted(
+            () -> {
+              RespondingEthPeer.respondOnce(responder, peers);
+              assertThat(Stream.of(peers).anyMatch(RespondingEthPeer::hasOutstandingRequests))
+                  .isFalse();
+            });
+  }
+
   private MutableBlockchain createShortChain(
       final Blockchain blockchain, final long truncateAtBlockNumber) {
     final BlockHeader genesisHeader =
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fullsync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.chain.MutableBlockchain;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManager;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManagerTestUtil;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthScheduler;
+import tech.pegasys.pantheon.ethereum.eth.manager.RespondingEthPeer;
+import tech.pegasys.pantheon.ethereum.eth.manager.RespondingEthPeer.Responder;
+import tech.pegasys.pantheon.ethereum.eth.manager.ethtaskutils.BlockchainSetupUtil;
+import tech.pegasys.pantheon.ethereum.eth.sync.ChainDownloader;
+import tech.pegasys.pantheon.ethereum.eth.sync.EthTaskChainDownloader;
+import tech.pegasys.pantheon.ethereum.eth.sync.PipelineChainDownloader;
+import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
+import tech.pegasys.pantheon.ethereum.eth.sync.state.SyncState;
+import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class FullSyncPipelineChainDownloaderTest {
+
+  protected ProtocolSchedule<Void> protocolSchedule;
+  protected EthProtocolManager ethProtocolManager;
+  protected EthContext ethContext;
+  protected ProtocolContext<Void> protocolContext;
+  private SyncState syncState;
+
+  protected MutableBlockchain localBlockchain;
+  private BlockchainSetupUtil<Void> otherBlockchainSetup;
+  protected Blockchain otherBlockchain;
+  private final NoOpMetricsSystem metricsSystem = new NoOpMetricsSystem();
+
+  @Before
+  public void setup() {
+    final BlockchainSetupUtil<Void> localBlockchainSetup = BlockchainSetupUtil.forTesting();
+    localBlockchain = localBlockchainSetup.getBlockchain();
+    otherBlockchainSetup = BlockchainSetupUtil.forTesting();
+    otherBlockchain = otherBlockchainSetup.getBlockchain();
+
+    protocolSchedule = localBlockchainSetup.getProtocolSchedule();
+    protocolContext = localBlockchainSetup.getProtocolContext();
+    ethProtocolManager =
+        EthProtocolManagerTestUtil.create(
+            localBlockchain,
+            localBlockchainSetup.getWorldArchive(),
+            new EthScheduler(1, 1, 1, new NoOpMetricsSystem()));
+    ethContext = ethProtocolManager.ethContext();
+    syncState = new SyncState(protocolContext.getBlockchain(), ethContext.getEthPeers());
+  }
+
+  private ChainDownloader downloader(final SynchronizerConfiguration syncConfig) {
+    return FullSyncChainDownloader.create(
+        syncConfig, protocolSchedule, protocolContext, ethContext, syncState, metricsSystem);
+  }
+
+  @Test
+  public void shouldUsePipelineDownloaderByDefault() {
+    assertThat(downloader(SynchronizerConfiguration.builder().build()))
+        .isInstanceOf(PipelineChainDownloader.class);
+    assertThat(
+            downloader(SynchronizerConfiguration.builder().fullSyncPipelineEnabled(false).build()))
+        .isInstanceOf(EthTaskChainDownloader.class);
+  }
+
+  @Test
+  public void shouldSyncToBetterChainInMultipleSegments() {
+    otherBlockchainSetup.importFirstBlocks(30);
+    final long targetBlock = otherBlockchain.getChainHeadBlockNumber();
+
+    final RespondingEthPeer peer =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, otherBlockchain);
+    final Responder responder = RespondingEthPeer.blockchainResponder(otherBlockchain);
+
+    final SynchronizerConfiguration syncConfig =
+        SynchronizerConfiguration.builder()
+            .downloaderChainSegmentSize(5)
+            .downloaderHeadersRequestSize(3)
+            .build();
+    final ChainDownloader downloader = downloader(syncConfig);
+    downloader.start();
+
+    peer.respondWhileOtherThreadsWork(
+        responder, () -> localBlockchain.getChainHeadBlockNumber() < targetBlock);
+
+    assertThat(localBlockchain.getChainHeadBlockNumber()).isEqualTo(targetBlock);
+    assertThat(localBlockchain.getChainHeadHeader())
+        .isEqualTo(otherBlockchain.getBlockHeader(targetBlock).get());
+    downloader.cancel();
+  }
+
+  @Test
+  public void shouldSyncToBetterChainInSingleSegment() {
+    otherBlockchainSetup.importFirstBlocks(5);
+    final long targetBlock = otherBlockchain.getChainHeadBlockNumber();
+
+    final RespondingEthPeer peer =
+        EthProtocolManagerTestUtil.createPeer(ethProtocolManager, otherBlockchain);
+    final Responder responder = RespondingEthPeer.blockchainResponder(otherBlockchain);
+
+    final SynchronizerConfiguration syncConfig =
+        SynchronizerConfiguration.builder().downloaderChainSegmentSize(10).build();
+    final ChainDownloader downloader = downloader(syncConfig);
+    downloader.start();
+
+    peer.respondWhileOtherThreadsWork(
+        responder, () -> localBlockchain.getChainHeadBlockNumber() < targetBlock);
+
+    assertThat(localBlockchain.getChainHeadBlockNumber()).isEqualTo(targetBlock);
+    assertThat(localBlockchain.getChainHeadHeader())
+        .isEqualTo(otherBlockchain.getBlockHeader(targetBlock).get());
+    downloader.cancel();
+  }
+}
@@ -36,12 +36,17 @@ import tech.pegasys.pantheon.metrics.prometheus.MetricsConfiguration;
 import tech.pegasys.pantheon.metrics.prometheus.PrometheusMetricsSystem;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 
+@RunWith(Parameterized.class)
 public class IncrementerTest {
   private final MetricsConfiguration metricsConfiguration = MetricsConfiguration.createDefault();
   private ProtocolSchedule<Void> protocolSchedule;
@@ -50,6 +55,16 @@ public class IncrementerTest {
   private SyncState syncState;
   private MutableBlockchain localBlockchain;
   private MetricsSystem metricsSystem;
+  private final boolean fullSyncPipelineEnabled;
+
+  public IncrementerTest(final boolean fullSyncPipelineEnabled) {
+    this.fullSyncPipelineEnabled = fullSyncPipelineEnabled;
+  }
+
+  @Parameters(name = "fullSyncPipelineEnabled={0}")
+  public static Collection<Object[]> parameters() {
+    return Arrays.asList(new Object[][] {{true}, {false}});
+  }
 
   @Test
   public void parallelDownloadPipelineCounterShouldIncrement() {
@@ -82,7 +97,10 @@ public class IncrementerTest {
         RespondingEthPeer.blockchainResponder(otherBlockchain);
 
     final SynchronizerConfiguration syncConfig =
-        SynchronizerConfiguration.builder().downloaderChainSegmentSize(10).build();
+        SynchronizerConfiguration.builder()
+            .downloaderChainSegmentSize(10)
+            .fullSyncPipelineEnabled(fullSyncPipelineEnabled)
+            .build();
     final ChainDownloader downloader = downloader(syncConfig);
     downloader.start();
 
@@ -97,7 +115,36 @@ public class IncrementerTest {
 
     final List<Observation> metrics =
         metricsSystem.getMetrics(MetricCategory.SYNCHRONIZER).collect(Collectors.toList());
+    if (fullSyncPipelineEnabled) {
+      assertPipelineStagesCounted(metrics);
+    } else {
+      assertParallelTasksCounted(metrics);
+    }
+  }
+
+  private void assertPipelineStagesCounted(final List<Observation> metrics) {
+    for (final String stage :
+        Arrays.asList(
+            "fetchCheckpoints",
+            "downloadHeaders",
+            "validateHeadersJoin",
+            "downloadBodies",
+            "extractTxSignatures")) {
+      for (final String action : Arrays.asList("added", "removed")) {
+        final List<String> labels = Arrays.asList(stage + "_outputPipe", action);
+        assertThat(metrics)
+            .filteredOn(
+                observation ->
+                    observation.getMetricName().equals("chain_download_pipeline_processed_total")
+                        && observation.getLabels().equals(labels))
+            .hasSize(1)
+            .allSatisfy(
+                observation -> assertThat((Double) observation.getValue()).isGreaterThan(0));
+      }
+    }
+  }
 
+  private void assertParallelTasksCounted(final List<Observation> metrics) {
     // the first iteration gets the genesis block, which results in no data
     // being passed downstream.  So observed value is 2.
     final Observation headerInboundObservation =
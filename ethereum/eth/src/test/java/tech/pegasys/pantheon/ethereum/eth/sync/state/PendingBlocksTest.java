@@ -13,9 +13,14 @@
 package tech.pegasys.pantheon.ethereum.eth.sync.state;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
 
 import tech.pegasys.pantheon.ethereum.core.Block;
+import tech.pegasys.pantheon.ethereum.core.BlockBody;
 import tech.pegasys.pantheon.ethereum.core.BlockDataGenerator;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.BlockHeaderTestFixture;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -122,4 +127,39 @@ public class PendingBlocksTest {
       assertThat(pendingBlocks.childrenOf(block.getHeader().getParentHash()).size()).isEqualTo(1);
     }
   }
+
+  @Test
+  public void dropBlocksFurthestAheadWhenSizeLimitIsExceeded() {
+    pendingBlocks = new PendingBlocks(300);
+    final Block block10 = blockOfSize(10, 100);
+    final Block block11 = blockOfSize(11, 100);
+    final Block block12 = blockOfSize(12, 100);
+    final Block block13 = blockOfSize(13, 100);
+
+    assertThat(pendingBlocks.registerPendingBlock(block11)).isTrue();
+    assertThat(pendingBlocks.registerPendingBlock(block12)).isTrue();
+    assertThat(pendingBlocks.registerPendingBlock(block13)).isTrue();
+    assertThat(pendingBlocks.sizeInBytes()).isEqualTo(300);
+
+    // A block behind the others makes room for itself by dropping the block furthest ahead
+    assertThat(pendingBlocks.registerPendingBlock(block10)).isTrue();
+    assertThat(pendingBlocks.contains(block13.getHash())).isFalse();
+    assertThat(pendingBlocks.childrenOf(block13.getHeader().getParentHash())).isEmpty();
+    assertThat(pendingBlocks.sizeInBytes()).isEqualTo(300);
+
+    // A block ahead of the others is dropped straight away
+    assertThat(pendingBlocks.registerPendingBlock(block13)).isFalse();
+    assertThat(pendingBlocks.contains(block13.getHash())).isFalse();
+    assertThat(pendingBlocks.sizeInBytes()).isEqualTo(300);
+
+    pendingBlocks.deregisterPendingBlock(block10);
+    assertThat(pendingBlocks.sizeInBytes()).isEqualTo(200);
+  }
+
+  private Block blockOfSize(final long number, final int size) {
+    final BlockHeader header = new BlockHeaderTestFixture().number(number).buildHeader();
+    final Block block = spy(new Block(header, BlockBody.empty()));
+    doReturn(size).when(block).calculateSize();
+    return block;
+  }
 }
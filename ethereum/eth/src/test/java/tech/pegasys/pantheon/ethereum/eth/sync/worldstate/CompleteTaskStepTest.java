@@ -13,6 +13,7 @@
 package tech.pegasys.pantheon.ethereum.eth.sync.worldstate;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.refEq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -36,7 +37,7 @@ public class CompleteTaskStepTest {
       new BlockHeaderTestFixture().stateRoot(ROOT_HASH).buildHeader();
 
   private final CompleteTaskStep completeTaskStep =
-      new CompleteTaskStep(worldStateStorage, new NoOpMetricsSystem());
+      new CompleteTaskStep(worldStateStorage, new NoOpMetricsSystem(), false);
 
   @Test
   public void shouldMarkTaskAsFailedIfItDoesNotHaveData() {
@@ -51,7 +52,47 @@ public class CompleteTaskStepTest {
   }
 
   @Test
-  public void shouldEnqueueChildrenAndMarkCompleteWhenTaskHasData() {
+  public void shouldMarkCompleteWithoutEnqueuingChildrenWhenTaskWasDownloaded() {
+    final StubTask task = createTaskWithValidTrieNode();
+
+    completeTaskStep.markAsCompleteOrFailed(blockHeader, downloadState, task);
+
+    assertThat(task.isCompleted()).isTrue();
+    assertThat(task.isFailed()).isFalse();
+    // Children of downloaded nodes are queued when the node is persisted
+    verify(downloadState, never()).enqueueRequests(any());
+    verify(downloadState).checkCompletion(worldStateStorage, blockHeader);
+  }
+
+  @Test
+  public void shouldEnqueueChildrenAndMarkCompleteWhenTaskWasLoadedFromStorage() {
+    final StubTask task = createTaskWithValidTrieNode();
+    task.getData().setRequiresPersisting(false);
+
+    completeTaskStep.markAsCompleteOrFailed(blockHeader, downloadState, task);
+
+    assertThat(task.isCompleted()).isTrue();
+    assertThat(task.isFailed()).isFalse();
+    verify(downloadState).enqueueRequests(refEq(task.getData().getChildRequests()));
+    verify(downloadState).checkCompletion(worldStateStorage, blockHeader);
+  }
+
+  @Test
+  public void shouldNotEnqueueChildrenOfTaskLoadedFromStorageWhenSkippingStoredSubtrees() {
+    final CompleteTaskStep skippingCompleteTaskStep =
+        new CompleteTaskStep(worldStateStorage, new NoOpMetricsSystem(), true);
+    final StubTask task = createTaskWithValidTrieNode();
+    task.getData().setRequiresPersisting(false);
+
+    skippingCompleteTaskStep.markAsCompleteOrFailed(blockHeader, downloadState, task);
+
+    assertThat(task.isCompleted()).isTrue();
+    assertThat(task.isFailed()).isFalse();
+    verify(downloadState, never()).enqueueRequests(any());
+    verify(downloadState).checkCompletion(worldStateStorage, blockHeader);
+  }
+
+  private StubTask createTaskWithValidTrieNode() {
     // Use an arbitrary but actually valid trie node to get children from.
     final Hash hash =
         Hash.fromHexString("0x601a7b0d0267209790cf4c4d9e0cab11b26c537e2ade006412f48b070010e847");
@@ -60,12 +101,6 @@ public class CompleteTaskStepTest {
             "0xf85180808080a05ac6993e3fbca0bfbd30173396dd5c2412657fae0bad92e401d17b2aa9a3698f80808080a012f96a0812be538c302416dc6e8df19ce18f1cc7b06a3c7a16831d766c87a9b580808080808080");
     final StubTask task = new StubTask(NodeDataRequest.createAccountDataRequest(hash));
     task.getData().setData(data);
-
-    completeTaskStep.markAsCompleteOrFailed(blockHeader, downloadState, task);
-
-    assertThat(task.isCompleted()).isTrue();
-    assertThat(task.isFailed()).isFalse();
-    verify(downloadState).enqueueRequests(refEq(task.getData().getChildRequests()));
-    verify(downloadState).checkCompletion(worldStateStorage, blockHeader);
+    return task;
   }
 }
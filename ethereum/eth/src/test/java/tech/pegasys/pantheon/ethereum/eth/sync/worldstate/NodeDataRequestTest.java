@@ -15,6 +15,9 @@ package tech.pegasys.pantheon.ethereum.eth.sync.worldstate;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import tech.pegasys.pantheon.ethereum.core.BlockDataGenerator;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.rlp.BytesValueRLPOutput;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import org.junit.Test;
 
@@ -47,6 +50,43 @@ public class NodeDataRequestTest {
     assertThat(sedeRequest).isInstanceOf(CodeNodeDataRequest.class);
   }
 
+  @Test
+  public void serializesRequestDepth() {
+    BlockDataGenerator gen = new BlockDataGenerator(0);
+    StorageTrieNodeDataRequest request = NodeDataRequest.createStorageDataRequest(gen.hash(), 12);
+    NodeDataRequest sedeRequest = serializeThenDeserialize(request);
+    assertRequestsEquals(sedeRequest, request);
+    assertThat(sedeRequest.getDepth()).isEqualTo(12);
+  }
+
+  @Test
+  public void serializesToFixedWidthEncoding() {
+    BlockDataGenerator gen = new BlockDataGenerator(0);
+    Hash hash = gen.hash();
+    CodeNodeDataRequest request = NodeDataRequest.createCodeRequest(hash, 300);
+    BytesValue serialized = NodeDataRequest.serialize(request);
+    assertThat(serialized.size()).isEqualTo(35);
+    assertThat(serialized.get(0)).isEqualTo(RequestType.CODE.getValue());
+    assertThat(serialized.slice(1, 32)).isEqualTo(hash);
+    assertThat(NodeDataRequest.deserialize(serialized).getDepth()).isEqualTo(300);
+  }
+
+  @Test
+  public void deserializesRlpEncodedRequestsWithoutDepth() {
+    BlockDataGenerator gen = new BlockDataGenerator(0);
+    Hash hash = gen.hash();
+    BytesValueRLPOutput out = new BytesValueRLPOutput();
+    out.startList();
+    out.writeByte(RequestType.ACCOUNT_TRIE_NODE.getValue());
+    out.writeBytesValue(hash);
+    out.endList();
+
+    NodeDataRequest deserialized = NodeDataRequest.deserialize(out.encoded());
+    assertThat(deserialized).isInstanceOf(AccountTrieNodeDataRequest.class);
+    assertThat(deserialized.getHash()).isEqualTo(hash);
+    assertThat(deserialized.getDepth()).isZero();
+  }
+
   private NodeDataRequest serializeThenDeserialize(final NodeDataRequest request) {
     return NodeDataRequest.deserialize(NodeDataRequest.serialize(request));
   }
@@ -55,5 +95,6 @@ public class NodeDataRequestTest {
     assertThat(actual.getRequestType()).isEqualTo(expected.getRequestType());
     assertThat(actual.getHash()).isEqualTo(expected.getHash());
     assertThat(actual.getData()).isEqualTo(expected.getData());
+    assertThat(actual.getDepth()).isEqualTo(expected.getDepth());
   }
 }
@@ -15,6 +15,9 @@ package tech.pegasys.pantheon.ethereum.eth.sync.worldstate;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.refEq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
@@ -37,7 +40,10 @@ public class PersistDataStepTest {
       new InMemoryStorageProvider().createWorldStateStorage();
   private final WorldDownloadState downloadState = mock(WorldDownloadState.class);
 
-  private final BytesValue rootNodeData = BytesValue.of(1, 1, 1, 1);
+  // An arbitrary but valid trie node so its children can be found
+  private final BytesValue rootNodeData =
+      BytesValue.fromHexString(
+          "0xf85180808080a05ac6993e3fbca0bfbd30173396dd5c2412657fae0bad92e401d17b2aa9a3698f80808080a012f96a0812be538c302416dc6e8df19ce18f1cc7b06a3c7a16831d766c87a9b580808080808080");
   private final BlockHeader blockHeader =
       new BlockHeaderTestFixture().stateRoot(Hash.hash(rootNodeData)).buildHeader();
 
@@ -85,6 +91,38 @@ public class PersistDataStepTest {
     verify(downloadState).setRootNodeData(rootNode.getData().getData());
   }
 
+  @Test
+  public void shouldEnqueueChildrenBeforePersistingNode() {
+    final Hash nodeHash = Hash.hash(rootNodeData);
+    final BlockHeader otherBlockHeader =
+        new BlockHeaderTestFixture().stateRoot(Hash.EMPTY_TRIE_HASH).buildHeader();
+    final StubTask task = new StubTask(NodeDataRequest.createAccountDataRequest(nodeHash));
+    task.getData().setData(rootNodeData);
+    final List<NodeDataRequest> childRequests = task.getData().getChildRequests();
+    assertThat(childRequests).isNotEmpty(); // Sanity check
+    doAnswer(
+            invocation -> {
+              assertThat(worldStateStorage.contains(nodeHash)).isFalse();
+              return null;
+            })
+        .when(downloadState)
+        .enqueueRequests(any());
+
+    persistDataStep.persist(singletonList(task), otherBlockHeader, downloadState);
+
+    verify(downloadState).enqueueRequests(refEq(childRequests));
+    assertThat(worldStateStorage.contains(nodeHash)).isTrue();
+  }
+
+  @Test
+  public void shouldEnqueueChildrenOfRootNode() {
+    final Task<NodeDataRequest> rootNode = createTaskWithData(rootNodeData);
+
+    persistDataStep.persist(singletonList(rootNode), blockHeader, downloadState);
+
+    verify(downloadState).enqueueRequests(refEq(rootNode.getData().getChildRequests()));
+  }
+
   private Task<NodeDataRequest> createTaskWithData(final int... bytes) {
     return createTaskWithData(BytesValue.of(bytes));
   }
@@ -101,8 +139,11 @@ public class PersistDataStepTest {
 
   private StubTask createTaskWithoutData(final BytesValue data) {
     final Hash hash = Hash.hash(data);
-    final AccountTrieNodeDataRequest request = NodeDataRequest.createAccountDataRequest(hash);
-    return new StubTask(request);
+    if (hash.equals(blockHeader.getStateRoot())) {
+      return new StubTask(NodeDataRequest.createAccountDataRequest(hash));
+    }
+    // Code has no children, so any data can be used
+    return new StubTask(NodeDataRequest.createCodeRequest(hash));
   }
 
   private void assertDataPersisted(final List<Task<NodeDataRequest>> tasks) {
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.worldstate;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static tech.pegasys.pantheon.ethereum.core.InMemoryStorageProvider.createInMemoryBlockchain;
+import static tech.pegasys.pantheon.ethereum.core.InMemoryStorageProvider.createInMemoryWorldStateArchive;
+
+import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.core.Account;
+import tech.pegasys.pantheon.ethereum.core.BlockDataGenerator;
+import tech.pegasys.pantheon.ethereum.core.BlockDataGenerator.BlockOptions;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.core.WorldState;
+import tech.pegasys.pantheon.ethereum.eth.EthProtocol;
+import tech.pegasys.pantheon.ethereum.eth.StateRangeProtocol;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManager;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManagerTestUtil;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthScheduler;
+import tech.pegasys.pantheon.ethereum.eth.manager.RespondingEthPeer;
+import tech.pegasys.pantheon.ethereum.eth.manager.RespondingEthPeer.Responder;
+import tech.pegasys.pantheon.ethereum.eth.messages.EthPV63;
+import tech.pegasys.pantheon.ethereum.eth.messages.GetNodeDataMessage;
+import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
+import tech.pegasys.pantheon.ethereum.p2p.api.Message;
+import tech.pegasys.pantheon.ethereum.p2p.api.P2PNetwork;
+import tech.pegasys.pantheon.ethereum.p2p.api.ProtocolManager;
+import tech.pegasys.pantheon.ethereum.p2p.peers.DefaultPeer;
+import tech.pegasys.pantheon.ethereum.p2p.peers.Peer;
+import tech.pegasys.pantheon.ethereum.p2p.testing.MockNetwork;
+import tech.pegasys.pantheon.ethereum.storage.keyvalue.KeyValueStorageWorldStateStorage;
+import tech.pegasys.pantheon.ethereum.trie.MerklePatriciaTrie;
+import tech.pegasys.pantheon.ethereum.trie.StoredMerklePatriciaTrie;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateArchive;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
+import tech.pegasys.pantheon.services.tasks.CachingTaskCollection;
+import tech.pegasys.pantheon.services.tasks.InMemoryTaskQueue;
+import tech.pegasys.pantheon.testutil.TestClock;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+public class RangeWorldStateDownloaderTest {
+
+  @Rule public Timeout globalTimeout = Timeout.seconds(60); // 1 minute max per test
+
+  private final BlockDataGenerator dataGen = new BlockDataGenerator(1);
+  private final Blockchain blockchain = createInMemoryBlockchain(dataGen.genesisBlock());
+  private final EthProtocolManager ethProtocolManager =
+      EthProtocolManagerTestUtil.create(
+          blockchain,
+          createInMemoryWorldStateArchive(),
+          new EthScheduler(1, 1, 1, new NoOpMetricsSystem()));
+  private final WorldStateArchive remoteWorldStateArchive =
+      new WorldStateArchive(new KeyValueStorageWorldStateStorage(new InMemoryKeyValueStorage()));
+  // Serves the remote world state to ethProtocolManager when they are connected over a network
+  private final EthProtocolManager servingProtocolManager =
+      EthProtocolManagerTestUtil.create(
+          blockchain, remoteWorldStateArchive, new EthScheduler(1, 1, 1, new NoOpMetricsSystem()));
+  private final WorldStateStorage localStorage =
+      new KeyValueStorageWorldStateStorage(new InMemoryKeyValueStorage());
+
+  @After
+  public void tearDown() throws Exception {
+    ethProtocolManager.stop();
+    ethProtocolManager.awaitStop();
+    servingProtocolManager.stop();
+    servingProtocolManager.awaitStop();
+  }
+
+  @Test
+  public void shouldDownloadWorldStateInRangesFromPeersWhichHaveIt() {
+    final MutableWorldState remoteWorldState = remoteWorldStateArchive.getMutable();
+    final List<Account> accounts = dataGen.createRandomAccounts(remoteWorldState, 200);
+    final Hash stateRoot = remoteWorldState.rootHash();
+    final BlockHeader header =
+        dataGen.block(BlockOptions.create().setStateRoot(stateRoot).setBlockNumber(10)).getHeader();
+
+    final AtomicInteger servedRangeRequests = new AtomicInteger();
+    final AtomicInteger emptyRangeRequests = new AtomicInteger();
+    final RespondingEthPeer servingPeer =
+        EthProtocolManagerTestUtil.createStateRangePeer(ethProtocolManager, 100);
+    final Responder servingResponder =
+        countingStateRangeRequests(
+            RespondingEthPeer.stateRangeResponder(remoteWorldStateArchive.getStorage()),
+            servedRangeRequests);
+    // Answers every range request with an empty range, as a peer without the state would
+    final RespondingEthPeer emptyRangePeer =
+        EthProtocolManagerTestUtil.createStateRangePeer(ethProtocolManager, 100);
+    final Responder emptyRangeResponder =
+        countingStateRangeRequests(
+            RespondingEthPeer.emptyStateRangeResponder(), emptyRangeRequests);
+
+    final CompletableFuture<Void> result = createDownloader().run(header);
+    while (!result.isDone()) {
+      servingPeer.respond(servingResponder);
+      emptyRangePeer.respond(emptyRangeResponder);
+      LockSupport.parkNanos(200);
+    }
+
+    assertThat(result).isNotCompletedExceptionally();
+    assertThat(servedRangeRequests.get()).isGreaterThan(0);
+    assertThat(emptyRangeRequests.get()).isGreaterThan(0);
+    assertWorldStateDownloaded(stateRoot, accounts);
+  }
+
+  @Test
+  public void shouldDownloadWorldStateFromNodeServingRangesOverNetwork() throws Exception {
+    final MutableWorldState remoteWorldState = remoteWorldStateArchive.getMutable();
+    final List<Account> accounts = dataGen.createRandomAccounts(remoteWorldState, 200);
+    final Hash stateRoot = remoteWorldState.rootHash();
+    // The serving node's chain is only its genesis block, so it can't be ahead of the pivot block
+    final BlockHeader header =
+        dataGen.block(BlockOptions.create().setStateRoot(stateRoot).setBlockNumber(0)).getHeader();
+
+    final AtomicInteger rangeRequests = new AtomicInteger();
+    final Set<Hash> nodeDataRequests = ConcurrentHashMap.newKeySet();
+    final MockNetwork network = new MockNetwork(asList(EthProtocol.ETH63, StateRangeProtocol.PSR1));
+    final Peer servingNode =
+        joinNetwork(
+            network,
+            servingProtocolManager,
+            // The serving node only receives requests on the state range protocol
+            message -> rangeRequests.incrementAndGet(),
+            message -> {
+              if (message.getData().getCode() == EthPV63.GET_NODE_DATA) {
+                GetNodeDataMessage.readFrom(message.getData())
+                    .hashes()
+                    .forEach(nodeDataRequests::add);
+              }
+            });
+    final Peer downloadingNode =
+        joinNetwork(network, ethProtocolManager, message -> {}, message -> {});
+    network.setup(downloadingNode).connect(servingNode).get();
+    Awaitility.await()
+        .atMost(10, TimeUnit.SECONDS)
+        .until(() -> ethProtocolManager.ethContext().getEthPeers().availablePeers().count() == 1);
+
+    createDownloader().run(header).get(30, TimeUnit.SECONDS);
+
+    assertThat(rangeRequests.get()).isGreaterThan(0);
+    assertWorldStateDownloaded(stateRoot, accounts);
+    // Only nodes the ranges couldn't prove, and contract code, are left for the walk to request
+    assertThat(nodeDataRequests)
+        .contains(stateRoot)
+        .isSubsetOf(nodesOutsideRanges(stateRoot, accounts));
+  }
+
+  private void assertWorldStateDownloaded(final Hash stateRoot, final List<Account> accounts) {
+    assertThat(localStorage.isWorldStateAvailable(stateRoot)).isTrue();
+    final WorldState localWorldState = new WorldStateArchive(localStorage).get(stateRoot).get();
+    assertThat(localWorldState.rootHash()).isEqualTo(stateRoot);
+    for (final Account expectedAccount : accounts) {
+      final Account actualAccount = localWorldState.get(expectedAccount.getAddress());
+      assertThat(actualAccount).isNotNull();
+      assertThat(actualAccount.getNonce()).isEqualTo(expectedAccount.getNonce());
+      assertThat(actualAccount.getBalance()).isEqualTo(expectedAccount.getBalance());
+      assertThat(actualAccount.getCode()).isEqualTo(expectedAccount.getCode());
+      final Map<Bytes32, UInt256> actualStorage =
+          actualAccount.storageEntriesFrom(Bytes32.ZERO, 500);
+      assertThat(actualStorage).isEqualTo(expectedAccount.storageEntriesFrom(Bytes32.ZERO, 500));
+    }
+  }
+
+  /**
+   * The nodes a range download can't store: the account trie nodes on the paths to the first and
+   * last accounts of each partition, which may also cover accounts in other partitions, and
+   * contract code. Every storage trie here fits in a single range so is stored in full.
+   */
+  private Set<Hash> nodesOutsideRanges(final Hash stateRoot, final List<Account> accounts) {
+    final Set<Hash> nodes = new HashSet<>();
+    final MerklePatriciaTrie<Bytes32, BytesValue> accountTrie =
+        new StoredMerklePatriciaTrie<>(
+            hash -> {
+              nodes.add(Hash.wrap(hash));
+              return remoteWorldStateArchive.getStorage().getAccountStateTrieNode(hash);
+            },
+            stateRoot,
+            b -> b,
+            b -> b);
+    final int partitionSize = 256 / StateRangeDownloader.PARTITION_COUNT;
+    final Map<Integer, TreeSet<Hash>> accountsByPartition =
+        accounts.stream()
+            .map(Account::getAddressHash)
+            .collect(
+                Collectors.groupingBy(
+                    addressHash -> (addressHash.get(0) & 0xff) / partitionSize,
+                    Collectors.toCollection(TreeSet::new)));
+    for (final TreeSet<Hash> partition : accountsByPartition.values()) {
+      accountTrie.get(partition.first());
+      accountTrie.get(partition.last());
+    }
+    accounts.stream().map(Account::getCodeHash).forEach(nodes::add);
+    return nodes;
+  }
+
+  /** Connects a protocol manager to the network, passing each message it receives to a listener. */
+  private Peer joinNetwork(
+      final MockNetwork network,
+      final EthProtocolManager protocolManager,
+      final Consumer<Message> stateRangeListener,
+      final Consumer<Message> ethListener) {
+    final byte[] id = new byte[DefaultPeer.PEER_ID_SIZE];
+    ThreadLocalRandom.current().nextBytes(id);
+    final Peer peer = new DefaultPeer(BytesValue.wrap(id), "127.0.0.1", 30303, 30303);
+    final P2PNetwork p2pNetwork = network.setup(peer);
+    final ProtocolManager stateRangeProtocolManager = protocolManager.stateRangeProtocolManager();
+    p2pNetwork.subscribe(
+        StateRangeProtocol.PSR1,
+        message -> {
+          stateRangeListener.accept(message);
+          stateRangeProtocolManager.processMessage(StateRangeProtocol.PSR1, message);
+        });
+    p2pNetwork.subscribe(
+        EthProtocol.ETH63,
+        message -> {
+          ethListener.accept(message);
+          protocolManager.processMessage(EthProtocol.ETH63, message);
+        });
+    p2pNetwork.subscribeConnect(protocolManager::handleNewConnection);
+    p2pNetwork.subscribeDisconnect(protocolManager::handleDisconnect);
+    return peer;
+  }
+
+  /**
+   * Answers state range requests with the given responder, counting them, and node data requests
+   * from the remote world state so the walk after the ranges can fill in the gaps.
+   */
+  private Responder countingStateRangeRequests(
+      final Responder stateRangeResponder, final AtomicInteger requestCount) {
+    final Responder nodeDataResponder =
+        RespondingEthPeer.blockchainResponder(mock(Blockchain.class), remoteWorldStateArchive);
+    return (cap, msg) -> {
+      if (cap.equals(StateRangeProtocol.PSR1)) {
+        requestCount.incrementAndGet();
+        return stateRangeResponder.respond(cap, msg);
+      }
+      return nodeDataResponder.respond(cap, msg);
+    };
+  }
+
+  private RangeWorldStateDownloader createDownloader() {
+    final SynchronizerConfiguration config = SynchronizerConfiguration.builder().build();
+    return new RangeWorldStateDownloader(
+        ethProtocolManager.ethContext(),
+        localStorage,
+        new CachingTaskCollection<>(new InMemoryTaskQueue<>()),
+        config.getWorldStateHashCountPerRequest(),
+        config.getWorldStateRequestParallelism(),
+        config.getWorldStateMaxRequestsWithoutProgress(),
+        config.getWorldStateMinMillisBeforeStalling(),
+        TestClock.fixed(),
+        new NoOpMetricsSystem());
+  }
+}
@@ -25,13 +25,17 @@ import static org.mockito.Mockito.when;
 import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.core.BlockHeaderTestFixture;
 import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.eth.manager.exceptions.MaxRetriesReachedException;
 import tech.pegasys.pantheon.ethereum.eth.manager.task.EthTask;
+import tech.pegasys.pantheon.ethereum.eth.sync.AdaptiveLimit;
 import tech.pegasys.pantheon.services.tasks.Task;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
+import java.time.Clock;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 import java.util.function.BiFunction;
 
 import com.google.common.collect.ImmutableMap;
@@ -144,4 +148,79 @@ public class RequestDataStepTest {
     getDataFuture.complete(emptyMap());
     verify(downloadState).removeOutstandingTask(ethTask);
   }
+
+  @Test
+  public void shouldOnlyReduceHashCountWhenResponseIsCappedBySize() {
+    final AdaptiveLimit requestConcurrencyLimit = new AdaptiveLimit(1, 8, 16, 1);
+    final AdaptiveLimit hashCountLimit = new AdaptiveLimit(1, 8, 16, 1);
+
+    // A peer missing some of the data isn't a reason to ask for less
+    respondTo(requestConcurrencyLimit, hashCountLimit, ImmutableMap.of(HASH1, DATA1));
+    assertThat(requestConcurrencyLimit.getAsInt()).isEqualTo(9);
+    assertThat(hashCountLimit.getAsInt()).isEqualTo(9);
+
+    final BytesValue largeData = BytesValue.wrap(new byte[RequestDataStep.CAPPED_RESPONSE_SIZE]);
+    respondTo(requestConcurrencyLimit, hashCountLimit, ImmutableMap.of(HASH1, largeData));
+    assertThat(requestConcurrencyLimit.getAsInt()).isEqualTo(10);
+    assertThat(hashCountLimit.getAsInt()).isEqualTo(4);
+  }
+
+  @Test
+  public void shouldReduceLimitsOnEmptyResponsesAndTimeouts() {
+    final AdaptiveLimit requestConcurrencyLimit = new AdaptiveLimit(1, 16, 16, 1);
+    final AdaptiveLimit hashCountLimit = new AdaptiveLimit(1, 16, 16, 1);
+
+    respondTo(requestConcurrencyLimit, hashCountLimit, emptyMap());
+    assertThat(requestConcurrencyLimit.getAsInt()).isEqualTo(8);
+    assertThat(hashCountLimit.getAsInt()).isEqualTo(8);
+
+    failWith(requestConcurrencyLimit, hashCountLimit, new TimeoutException());
+    assertThat(requestConcurrencyLimit.getAsInt()).isEqualTo(4);
+    assertThat(hashCountLimit.getAsInt()).isEqualTo(4);
+
+    failWith(requestConcurrencyLimit, hashCountLimit, new MaxRetriesReachedException());
+    assertThat(requestConcurrencyLimit.getAsInt()).isEqualTo(2);
+    assertThat(hashCountLimit.getAsInt()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldNotReduceLimitsOnOtherFailures() {
+    final AdaptiveLimit requestConcurrencyLimit = new AdaptiveLimit(1, 16, 16, 1);
+    final AdaptiveLimit hashCountLimit = new AdaptiveLimit(1, 16, 16, 1);
+
+    failWith(requestConcurrencyLimit, hashCountLimit, new RuntimeException());
+    assertThat(requestConcurrencyLimit.getAsInt()).isEqualTo(16);
+    assertThat(hashCountLimit.getAsInt()).isEqualTo(16);
+  }
+
+  private void respondTo(
+      final AdaptiveLimit requestConcurrencyLimit,
+      final AdaptiveLimit hashCountLimit,
+      final Map<Hash, BytesValue> response) {
+    final CompletableFuture<Map<Hash, BytesValue>> future = new CompletableFuture<>();
+    requestBothHashes(requestConcurrencyLimit, hashCountLimit, future);
+    future.complete(response);
+  }
+
+  private void failWith(
+      final AdaptiveLimit requestConcurrencyLimit,
+      final AdaptiveLimit hashCountLimit,
+      final Throwable error) {
+    final CompletableFuture<Map<Hash, BytesValue>> future = new CompletableFuture<>();
+    requestBothHashes(requestConcurrencyLimit, hashCountLimit, future);
+    future.completeExceptionally(error);
+  }
+
+  private void requestBothHashes(
+      final AdaptiveLimit requestConcurrencyLimit,
+      final AdaptiveLimit hashCountLimit,
+      final CompletableFuture<Map<Hash, BytesValue>> response) {
+    final RequestDataStep step =
+        new RequestDataStep(
+            getNodeDataTaskFactory, requestConcurrencyLimit, hashCountLimit, Clock.systemUTC());
+    when(getNodeDataTaskFactory.apply(asList(HASH1, HASH2), BLOCK_NUMBER)).thenReturn(ethTask);
+    when(ethTask.run()).thenReturn(response);
+    step.requestData(
+        asList(StubTask.forHash(HASH1), StubTask.forHash(HASH2)), blockHeader, downloadState);
+  }
 }
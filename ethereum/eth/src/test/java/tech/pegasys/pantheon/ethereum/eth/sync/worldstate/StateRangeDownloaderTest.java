@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.worldstate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.trie.MerklePatriciaTrie;
+import tech.pegasys.pantheon.ethereum.trie.StoredMerklePatriciaTrie;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class StateRangeDownloaderTest {
+
+  private final Map<Bytes32, BytesValue> trieNodes = new HashMap<>();
+  private final MerklePatriciaTrie<Bytes32, BytesValue> trie =
+      new StoredMerklePatriciaTrie<>(
+          hash -> Optional.ofNullable(trieNodes.get(hash)), b -> b, b -> b);
+
+  @Before
+  public void setUp() {
+    for (int i = 0; i < 200; i++) {
+      final BytesValue key = UInt256.of(i).getBytes();
+      trie.put(Hash.hash(key), Hash.hash(Hash.hash(key)));
+    }
+    trie.commit(trieNodes::put);
+  }
+
+  @Test
+  public void shouldKeepAllNodesWhenRangeRebuildsTheExpectedTrie() {
+    final SortedMap<Bytes32, BytesValue> entries =
+        new TreeMap<>(trie.entriesFrom(Bytes32.ZERO, 1000));
+
+    final Map<Bytes32, BytesValue> nodes =
+        StateRangeDownloader.rebuildTrieNodes(entries, Optional.of(Hash.wrap(trie.getRootHash())));
+
+    assertThat(nodes).isEqualTo(trieNodes);
+  }
+
+  @Test
+  public void shouldOnlyKeepNodesIdenticalToTheTrieForPartialRange() {
+    final SortedMap<Bytes32, BytesValue> entries =
+        new TreeMap<>(trie.entriesFrom(Bytes32.ZERO, 100));
+
+    final Map<Bytes32, BytesValue> nodes =
+        StateRangeDownloader.rebuildTrieNodes(entries, Optional.of(Hash.wrap(trie.getRootHash())));
+
+    assertThat(nodes).isNotEmpty();
+    assertThat(trieNodes).containsAllEntriesOf(nodes);
+    assertThat(nodes).doesNotContainKey(trie.getRootHash());
+  }
+
+  @Test
+  public void shouldNotKeepRootNodeWhenNoRootIsExpected() {
+    final SortedMap<Bytes32, BytesValue> entries =
+        new TreeMap<>(trie.entriesFrom(Bytes32.ZERO, 1000));
+
+    final Map<Bytes32, BytesValue> nodes =
+        StateRangeDownloader.rebuildTrieNodes(entries, Optional.empty());
+
+    assertThat(trieNodes).containsAllEntriesOf(nodes);
+    assertThat(nodes).doesNotContainKey(trie.getRootHash());
+  }
+
+  @Test
+  public void shouldRebuildNothingFromEmptyRange() {
+    assertThat(StateRangeDownloader.rebuildTrieNodes(new TreeMap<>(), Optional.empty())).isEmpty();
+  }
+}
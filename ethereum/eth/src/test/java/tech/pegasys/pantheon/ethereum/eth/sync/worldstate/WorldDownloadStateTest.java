@@ -100,6 +100,25 @@ public class WorldDownloadStateTest {
     assertThat(downloadState.isDownloading()).isTrue();
   }
 
+  @Test
+  public void shouldDequeueUpToRequestedNumberOfTasks() {
+    pendingRequests.add(createAccountDataRequest(Hash.EMPTY_TRIE_HASH));
+    pendingRequests.add(createAccountDataRequest(Hash.EMPTY));
+    pendingRequests.add(createAccountDataRequest(ROOT_NODE_HASH));
+
+    assertThat(downloadState.dequeueRequestsBlocking(2)).hasSize(2);
+    assertThat(downloadState.dequeueRequestsBlocking(2)).hasSize(1);
+    assertThat(pendingRequests.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void shouldNotDequeueTasksOnceDownloadIsComplete() {
+    pendingRequests.add(createAccountDataRequest(Hash.EMPTY_TRIE_HASH));
+    future.cancel(true);
+
+    assertThat(downloadState.dequeueRequestsBlocking(2)).isEmpty();
+  }
+
   @Test
   public void shouldCancelOutstandingTasksWhenFutureIsCancelled() {
     final EthTask<?> outstandingTask1 = mock(EthTask.class);
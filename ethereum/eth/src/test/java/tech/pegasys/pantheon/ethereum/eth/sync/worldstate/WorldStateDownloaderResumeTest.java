@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.worldstate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.core.Account;
+import tech.pegasys.pantheon.ethereum.core.BlockDataGenerator;
+import tech.pegasys.pantheon.ethereum.core.BlockDataGenerator.BlockOptions;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.core.WorldState;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManager;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManagerTestUtil;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthScheduler;
+import tech.pegasys.pantheon.ethereum.eth.manager.RespondingEthPeer;
+import tech.pegasys.pantheon.ethereum.eth.manager.RespondingEthPeer.Responder;
+import tech.pegasys.pantheon.ethereum.eth.messages.EthPV63;
+import tech.pegasys.pantheon.ethereum.eth.messages.GetNodeDataMessage;
+import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
+import tech.pegasys.pantheon.ethereum.storage.keyvalue.KeyValueStorageWorldStateStorage;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateArchive;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
+import tech.pegasys.pantheon.services.tasks.RocksDbPriorityTaskQueue;
+import tech.pegasys.pantheon.testutil.TestClock;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.Streams;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+/**
+ * Stops a world state download part way through, as if the process had been killed, and checks
+ * that a new download on the same storage and queue finishes it without requesting any of the
+ * nodes stored by the first one again.
+ */
+public class WorldStateDownloaderResumeTest {
+
+  private static final int HASHES_PER_REQUEST = 10;
+
+  @Rule public Timeout globalTimeout = Timeout.seconds(60); // 1 minute max per test
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  private final BlockDataGenerator dataGen = new BlockDataGenerator(1);
+  private final WorldStateArchive remoteWorldStateArchive =
+      new WorldStateArchive(new KeyValueStorageWorldStateStorage(new InMemoryKeyValueStorage()));
+  private final WorldStateStorage localStorage =
+      new KeyValueStorageWorldStateStorage(new InMemoryKeyValueStorage());
+  private final List<EthProtocolManager> ethProtocolManagers = new ArrayList<>();
+  private final List<RocksDbPriorityTaskQueue<NodeDataRequest>> queues = new ArrayList<>();
+  private Path queueDirectory;
+
+  @Before
+  public void setUp() throws IOException {
+    queueDirectory = folder.newFolder().toPath();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    for (final EthProtocolManager ethProtocolManager : ethProtocolManagers) {
+      ethProtocolManager.stop();
+      ethProtocolManager.awaitStop();
+    }
+    queues.forEach(RocksDbPriorityTaskQueue::close);
+  }
+
+  @Test
+  public void shouldResumeInterruptedDownloadWithoutRequestingStoredNodesAgain() {
+    final MutableWorldState remoteWorldState = remoteWorldStateArchive.getMutable();
+    final List<Account> accounts = dataGen.createRandomAccounts(remoteWorldState, 200);
+    final Hash stateRoot = remoteWorldState.rootHash();
+    final BlockHeader header =
+        dataGen.block(BlockOptions.create().setStateRoot(stateRoot).setBlockNumber(10)).getHeader();
+    final Responder responder =
+        RespondingEthPeer.blockchainResponder(mock(Blockchain.class), remoteWorldStateArchive);
+
+    // Download until part of the state is stored, then stop responding and close the queue so
+    // nothing more can be queued or stored, as if the process had been killed
+    final List<MessageData> firstRunMessages = Collections.synchronizedList(new ArrayList<>());
+    final Responder firstRunResponder =
+        RespondingEthPeer.wrapResponderWithCollector(responder, firstRunMessages);
+    final EthProtocolManager firstRunProtocolManager = createEthProtocolManager();
+    final RespondingEthPeer firstRunPeer =
+        EthProtocolManagerTestUtil.createPeer(firstRunProtocolManager, header.getNumber());
+    final RocksDbPriorityTaskQueue<NodeDataRequest> firstRunQueue = openQueue();
+    final CompletableFuture<Void> firstRun =
+        createDownloader(firstRunProtocolManager, firstRunQueue).run(header);
+    while (!firstRun.isDone() && storedNodes(requestedHashes(firstRunMessages)).size() < 50) {
+      firstRunPeer.respond(firstRunResponder);
+      LockSupport.parkNanos(200);
+    }
+    assertThat(firstRun).isNotDone();
+    firstRunQueue.close();
+    final Set<Hash> storedAtInterruption = storedNodes(requestedHashes(firstRunMessages));
+    assertThat(localStorage.isWorldStateAvailable(stateRoot)).isFalse();
+
+    // Resume on the same storage and queue
+    final List<MessageData> secondRunMessages = Collections.synchronizedList(new ArrayList<>());
+    final Responder secondRunResponder =
+        RespondingEthPeer.wrapResponderWithCollector(responder, secondRunMessages);
+    final EthProtocolManager secondRunProtocolManager = createEthProtocolManager();
+    final RespondingEthPeer secondRunPeer =
+        EthProtocolManagerTestUtil.createPeer(secondRunProtocolManager, header.getNumber());
+    final RocksDbPriorityTaskQueue<NodeDataRequest> secondRunQueue = openQueue();
+    assertThat(secondRunQueue.isEmpty()).isFalse();
+    final CompletableFuture<Void> secondRun =
+        createDownloader(secondRunProtocolManager, secondRunQueue).run(header);
+    secondRunPeer.respondWhileOtherThreadsWork(secondRunResponder, () -> !secondRun.isDone());
+
+    assertThat(secondRun).isCompleted().isNotCompletedExceptionally();
+    final Set<Hash> secondRunRequests = requestedHashes(secondRunMessages);
+    assertThat(secondRunRequests).isNotEmpty().doesNotContainAnyElementsOf(storedAtInterruption);
+    assertThat(localStorage.isWorldStateAvailable(stateRoot)).isTrue();
+    final WorldState localWorldState = new WorldStateArchive(localStorage).get(stateRoot).get();
+    for (final Account expectedAccount : accounts) {
+      final Account actualAccount = localWorldState.get(expectedAccount.getAddress());
+      assertThat(actualAccount).isNotNull();
+      assertThat(actualAccount.getNonce()).isEqualTo(expectedAccount.getNonce());
+      assertThat(actualAccount.getBalance()).isEqualTo(expectedAccount.getBalance());
+      assertThat(actualAccount.getCode()).isEqualTo(expectedAccount.getCode());
+    }
+  }
+
+  private Set<Hash> requestedHashes(final List<MessageData> messages) {
+    synchronized (messages) {
+      return messages.stream()
+          .filter(message -> message.getCode() == EthPV63.GET_NODE_DATA)
+          .map(GetNodeDataMessage::readFrom)
+          .flatMap(message -> Streams.stream(message.hashes()))
+          .collect(Collectors.toSet());
+    }
+  }
+
+  private Set<Hash> storedNodes(final Set<Hash> hashes) {
+    return hashes.stream()
+        .filter(hash -> localStorage.getNodeData(hash).isPresent())
+        .collect(Collectors.toSet());
+  }
+
+  private EthProtocolManager createEthProtocolManager() {
+    final EthProtocolManager ethProtocolManager =
+        EthProtocolManagerTestUtil.create(new EthScheduler(1, 1, 1, new NoOpMetricsSystem()));
+    ethProtocolManagers.add(ethProtocolManager);
+    return ethProtocolManager;
+  }
+
+  private RocksDbPriorityTaskQueue<NodeDataRequest> openQueue() {
+    final RocksDbPriorityTaskQueue<NodeDataRequest> queue =
+        RocksDbPriorityTaskQueue.create(
+            queueDirectory,
+            NodeDataRequest::serialize,
+            NodeDataRequest::deserialize,
+            NodeDataRequest::getDepth,
+            1000,
+            new NoOpMetricsSystem());
+    queues.add(queue);
+    return queue;
+  }
+
+  private WorldStateDownloader createDownloader(
+      final EthProtocolManager ethProtocolManager,
+      final RocksDbPriorityTaskQueue<NodeDataRequest> queue) {
+    return new WorldStateDownloader(
+        ethProtocolManager.ethContext(),
+        localStorage,
+        queue,
+        true,
+        HASHES_PER_REQUEST,
+        4,
+        1000,
+        1000,
+        TestClock.fixed(),
+        new NoOpMetricsSystem());
+  }
+}
@@ -972,6 +972,7 @@ public class WorldStateDownloaderTest {
         context,
         storage,
         taskCollection,
+        false,
         config.getWorldStateHashCountPerRequest(),
         config.getWorldStateRequestParallelism(),
         config.getWorldStateMaxRequestsWithoutProgress(),
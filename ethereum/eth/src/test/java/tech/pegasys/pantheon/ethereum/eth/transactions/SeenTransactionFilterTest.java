@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.transactions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SeenTransactionFilterTest {
+
+  private final Random random = new Random(1);
+  private final SeenTransactionFilter filter = new SeenTransactionFilter();
+
+  @Test
+  public void shouldRememberAddedTransactions() {
+    final Hash hash = randomHash();
+    assertThat(filter.contains(hash)).isFalse();
+
+    filter.add(hash);
+
+    assertThat(filter.contains(hash)).isTrue();
+  }
+
+  @Test
+  public void shouldRememberMostRecentGenerationOfTransactions() {
+    final List<Hash> hashes = addRandomHashes(SeenTransactionFilter.MAX_ENTRIES_PER_GENERATION * 3);
+
+    hashes
+        .subList(hashes.size() - SeenTransactionFilter.MAX_ENTRIES_PER_GENERATION, hashes.size())
+        .forEach(hash -> assertThat(filter.contains(hash)).isTrue());
+  }
+
+  @Test
+  public void shouldForgetOldTransactions() {
+    final List<Hash> oldHashes = addRandomHashes(SeenTransactionFilter.MAX_ENTRIES_PER_GENERATION);
+    addRandomHashes(SeenTransactionFilter.MAX_ENTRIES_PER_GENERATION * 2);
+
+    final long stillContained = oldHashes.stream().filter(filter::contains).count();
+    assertThat(stillContained).isLessThan(SeenTransactionFilter.MAX_ENTRIES_PER_GENERATION / 100);
+  }
+
+  @Test
+  public void shouldRarelyReportUnseenTransactionsAsSeen() {
+    addRandomHashes(SeenTransactionFilter.MAX_ENTRIES_PER_GENERATION * 2);
+
+    int falsePositives = 0;
+    for (int i = 0; i < 10_000; i++) {
+      if (filter.contains(randomHash())) {
+        falsePositives++;
+      }
+    }
+    assertThat(falsePositives).isLessThan(50);
+  }
+
+  private List<Hash> addRandomHashes(final int count) {
+    final List<Hash> hashes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final Hash hash = randomHash();
+      filter.add(hash);
+      hashes.add(hash);
+    }
+    return hashes;
+  }
+
+  private Hash randomHash() {
+    final byte[] bytes = new byte[Bytes32.SIZE];
+    random.nextBytes(bytes);
+    return Hash.wrap(Bytes32.wrap(bytes));
+  }
+}
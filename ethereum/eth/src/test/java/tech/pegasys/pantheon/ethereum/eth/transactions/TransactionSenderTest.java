@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.transactions;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.pantheon.ethereum.core.BlockDataGenerator;
+import tech.pegasys.pantheon.ethereum.core.Transaction;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthPeers;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthScheduler;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class TransactionSenderTest {
+
+  private final BlockDataGenerator generator = new BlockDataGenerator();
+  private final EthContext ethContext = mock(EthContext.class);
+  private final EthPeers ethPeers = mock(EthPeers.class);
+  private final EthScheduler ethScheduler = mock(EthScheduler.class);
+  private final PeerTransactionTracker transactionTracker = new PeerTransactionTracker();
+  private final TransactionsMessageSender transactionsMessageSender =
+      mock(TransactionsMessageSender.class);
+  private final List<EthPeer> peers =
+      IntStream.range(0, 5).mapToObj(i -> mock(EthPeer.class)).collect(Collectors.toList());
+
+  @Before
+  public void setUp() {
+    when(ethContext.getEthPeers()).thenReturn(ethPeers);
+    when(ethContext.getScheduler()).thenReturn(ethScheduler);
+    when(ethPeers.availablePeers()).thenAnswer(invocation -> peers.stream());
+  }
+
+  @Test
+  public void shouldQueueTransactionsForLimitedNumberOfPeers() {
+    final TransactionSender sender = createSender(2);
+    final Transaction transaction = generator.transaction();
+
+    sender.onTransactionsAdded(singletonList(transaction));
+
+    assertThat(transactionTracker.getEthPeersWithUnsentTransactions()).hasSize(2);
+  }
+
+  @Test
+  public void shouldNotQueueTransactionsForPeersWhichHaveSeenThem() {
+    final TransactionSender sender = createSender(5);
+    final Transaction transaction = generator.transaction();
+    transactionTracker.markTransactionsAsSeen(peers.get(0), singletonList(transaction));
+
+    sender.onTransactionsAdded(singletonList(transaction));
+
+    assertThat(transactionTracker.getEthPeersWithUnsentTransactions())
+        .containsOnlyElementsOf(peers.subList(1, peers.size()));
+  }
+
+  @Test
+  public void shouldSendQueuedTransactionsOnTimer() {
+    final TransactionSender sender = createSender(5);
+
+    sender.onTransactionsAdded(singletonList(generator.transaction()));
+    sender.onTransactionsAdded(Arrays.asList(generator.transaction(), generator.transaction()));
+
+    // Transactions added before the timer fires are sent together
+    final ArgumentCaptor<Runnable> broadcast = ArgumentCaptor.forClass(Runnable.class);
+    verify(ethScheduler)
+        .scheduleFutureTask(broadcast.capture(), eq(TransactionSender.BROADCAST_INTERVAL));
+    broadcast.getValue().run();
+    final ArgumentCaptor<Runnable> send = ArgumentCaptor.forClass(Runnable.class);
+    verify(ethScheduler).scheduleSyncWorkerTask(send.capture());
+    send.getValue().run();
+    verify(transactionsMessageSender).sendTransactionsToPeers();
+
+    // Another broadcast is scheduled once the first has fired
+    sender.onTransactionsAdded(singletonList(generator.transaction()));
+    verify(ethScheduler, times(2)).scheduleFutureTask(any(Runnable.class), any());
+  }
+
+  private TransactionSender createSender(final int maxPeersPerTransaction) {
+    return new TransactionSender(
+        transactionTracker, transactionsMessageSender, ethContext, maxPeersPerTransaction);
+  }
+}
@@ -15,11 +15,14 @@ package tech.pegasys.pantheon.ethereum.eth.transactions;
 import static com.google.common.collect.Sets.newHashSet;
 import static java.util.stream.Collectors.toSet;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 import tech.pegasys.pantheon.ethereum.core.BlockDataGenerator;
 import tech.pegasys.pantheon.ethereum.core.Transaction;
@@ -27,12 +30,14 @@ import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer;
 import tech.pegasys.pantheon.ethereum.eth.messages.EthPV62;
 import tech.pegasys.pantheon.ethereum.eth.messages.TransactionsMessage;
 import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
+import tech.pegasys.pantheon.ethereum.rlp.RLP;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.IntStream;
 
-import com.google.common.collect.Sets;
+import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
@@ -49,6 +54,12 @@ public class TransactionsMessageSenderTest {
   private final TransactionsMessageSender messageSender =
       new TransactionsMessageSender(transactionTracker);
 
+  @Before
+  public void setUp() {
+    when(peer1.isWritable()).thenReturn(true);
+    when(peer2.isWritable()).thenReturn(true);
+  }
+
   @Test
   public void shouldSendTransactionsToEachPeer() throws Exception {
     transactionTracker.addToPeerSendQueue(peer1, transaction1);
@@ -59,33 +70,67 @@ public class TransactionsMessageSenderTest {
 
     verify(peer1).send(transactionsMessageContaining(transaction1, transaction2));
     verify(peer2).send(transactionsMessageContaining(transaction3));
+    verify(peer1).isWritable();
+    verify(peer2).isWritable();
     verifyNoMoreInteractions(peer1, peer2);
   }
 
   @Test
-  public void shouldSendTransactionsInBatches() throws Exception {
+  public void shouldHoldBackTransactionsUntilPeerIsWritable() throws Exception {
+    when(peer1.isWritable()).thenReturn(false);
+    transactionTracker.addToPeerSendQueue(peer1, transaction1);
+
+    messageSender.sendTransactionsToPeers();
+
+    verify(peer1, never()).send(any());
+
+    when(peer1.isWritable()).thenReturn(true);
+    messageSender.sendTransactionsToPeers();
+
+    verify(peer1).send(transactionsMessageContaining(transaction1));
+  }
+
+  @Test
+  public void shouldSendTransactionsInSizeBoundedBatches() throws Exception {
     final Set<Transaction> fifteenTransactions =
         IntStream.range(0, 15).mapToObj(number -> generator.transaction()).collect(toSet());
+    final int largestTransactionSize =
+        fifteenTransactions.stream()
+            .mapToInt(transaction -> RLP.encode(transaction::writeTo).size())
+            .max()
+            .getAsInt();
+    final int maxMessageSize = largestTransactionSize * 4;
+    final TransactionsMessageSender sizeLimitedSender =
+        new TransactionsMessageSender(transactionTracker, maxMessageSize);
     fifteenTransactions.forEach(
         transaction -> transactionTracker.addToPeerSendQueue(peer1, transaction));
 
-    messageSender.sendTransactionsToPeers();
+    sizeLimitedSender.sendTransactionsToPeers();
 
     final ArgumentCaptor<MessageData> messageDataArgumentCaptor =
         ArgumentCaptor.forClass(MessageData.class);
-    verify(peer1, times(2)).send(messageDataArgumentCaptor.capture());
+    verify(peer1, atLeast(4)).send(messageDataArgumentCaptor.capture());
 
     final List<MessageData> sentMessages = messageDataArgumentCaptor.getAllValues();
-
-    assertThat(sentMessages).hasSize(2);
     assertThat(sentMessages).allMatch(message -> message.getCode() == EthPV62.TRANSACTIONS);
-    final Set<Transaction> firstBatch = getTransactionsFromMessage(sentMessages.get(0));
-    final Set<Transaction> secondBatch = getTransactionsFromMessage(sentMessages.get(1));
+    // Allow for the list header around the transactions
+    assertThat(sentMessages).allMatch(message -> message.getSize() <= maxMessageSize + 4);
+    final Set<Transaction> sentTransactions = new HashSet<>();
+    sentMessages.forEach(message -> sentTransactions.addAll(getTransactionsFromMessage(message)));
+    assertThat(sentTransactions).isEqualTo(fifteenTransactions);
+  }
+
+  @Test
+  public void shouldSendTransactionLargerThanMaxMessageSizeOnItsOwn() throws Exception {
+    final TransactionsMessageSender sizeLimitedSender =
+        new TransactionsMessageSender(transactionTracker, 1);
+    transactionTracker.addToPeerSendQueue(peer1, transaction1);
+    transactionTracker.addToPeerSendQueue(peer1, transaction2);
 
-    assertThat(firstBatch).hasSize(10);
-    assertThat(secondBatch).hasSize(5);
+    sizeLimitedSender.sendTransactionsToPeers();
 
-    assertThat(Sets.union(firstBatch, secondBatch)).isEqualTo(fifteenTransactions);
+    verify(peer1).send(transactionsMessageContaining(transaction1));
+    verify(peer1).send(transactionsMessageContaining(transaction2));
   }
 
   private MessageData transactionsMessageContaining(final Transaction... transactions) {
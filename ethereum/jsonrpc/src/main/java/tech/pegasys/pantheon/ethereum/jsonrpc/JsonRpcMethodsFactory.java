@@ -20,6 +20,7 @@ import tech.pegasys.pantheon.ethereum.core.PrivacyParameters;
 import tech.pegasys.pantheon.ethereum.core.Synchronizer;
 import tech.pegasys.pantheon.ethereum.core.TransactionPool;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.filter.FilterManager;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.gasprice.GasPriceOracle;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.AdminAddPeer;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.AdminNodeInfo;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.AdminPeers;
@@ -62,6 +63,7 @@ import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthMining;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthNewBlockFilter;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthNewFilter;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthNewPendingTransactionFilter;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthPantheonMulticall;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthProtocolVersion;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthSendRawTransaction;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthSyncing;
@@ -101,7 +103,9 @@ import tech.pegasys.pantheon.ethereum.p2p.wire.Capability;
 import tech.pegasys.pantheon.ethereum.permissioning.AccountWhitelistController;
 import tech.pegasys.pantheon.ethereum.permissioning.NodeLocalConfigPermissioningController;
 import tech.pegasys.pantheon.ethereum.privacy.PrivateTransactionHandler;
+import tech.pegasys.pantheon.ethereum.transaction.TransactionGasEstimator;
 import tech.pegasys.pantheon.ethereum.transaction.TransactionSimulator;
+import tech.pegasys.pantheon.ethereum.worldstate.CachingWorldStateReader;
 import tech.pegasys.pantheon.ethereum.worldstate.WorldStateArchive;
 import tech.pegasys.pantheon.metrics.MetricsSystem;
 
@@ -110,6 +114,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 public class JsonRpcMethodsFactory {
 
@@ -131,6 +136,9 @@ public class JsonRpcMethodsFactory {
       final Set<Capability> supportedCapabilities,
       final Collection<RpcApi> rpcApis,
       final FilterManager filterManager,
+      final GasPriceOracle gasPriceOracle,
+      final CachingWorldStateReader cachingWorldStateReader,
+      final Executor workerExecutor,
       final Optional<AccountWhitelistController> accountsWhitelistController,
       final Optional<NodeLocalConfigPermissioningController> nodeWhitelistController,
       final PrivacyParameters privacyParameters) {
@@ -145,6 +153,9 @@ public class JsonRpcMethodsFactory {
         synchronizer,
         protocolSchedule,
         filterManager,
+        gasPriceOracle,
+        cachingWorldStateReader,
+        workerExecutor,
         transactionPool,
         miningCoordinator,
         metricsSystem,
@@ -164,6 +175,9 @@ public class JsonRpcMethodsFactory {
       final Synchronizer synchronizer,
       final ProtocolSchedule<?> protocolSchedule,
       final FilterManager filterManager,
+      final GasPriceOracle gasPriceOracle,
+      final CachingWorldStateReader cachingWorldStateReader,
+      final Executor workerExecutor,
       final TransactionPool transactionPool,
       final MiningCoordinator miningCoordinator,
       final MetricsSystem metricsSystem,
@@ -189,10 +203,14 @@ public class JsonRpcMethodsFactory {
           new EthCall(
               blockchainQueries,
               new TransactionSimulator(
-                  blockchainQueries.getBlockchain(),
-                  blockchainQueries.getWorldStateArchive(),
-                  protocolSchedule),
+                  blockchainQueries.getBlockchain(), cachingWorldStateReader, protocolSchedule),
               parameter),
+          new EthPantheonMulticall(
+              blockchainQueries,
+              new TransactionSimulator(
+                  blockchainQueries.getBlockchain(), cachingWorldStateReader, protocolSchedule),
+              parameter,
+              workerExecutor),
           new EthGetCode(blockchainQueries, parameter),
           new EthGetLogs(blockchainQueries, parameter),
           new EthGetUncleCountByBlockHash(blockchainQueries, parameter),
@@ -217,15 +235,15 @@ public class JsonRpcMethodsFactory {
           new EthSendRawTransaction(transactionPool, parameter),
           new EthEstimateGas(
               blockchainQueries,
-              new TransactionSimulator(
-                  blockchainQueries.getBlockchain(),
-                  blockchainQueries.getWorldStateArchive(),
-                  protocolSchedule),
+              new TransactionGasEstimator(
+                  new TransactionSimulator(
+                      blockchainQueries.getBlockchain(), cachingWorldStateReader, protocolSchedule),
+                  metricsSystem),
               parameter),
           new EthMining(miningCoordinator),
           new EthCoinbase(miningCoordinator),
           new EthProtocolVersion(supportedCapabilities),
-          new EthGasPrice(miningCoordinator),
+          new EthGasPrice(gasPriceOracle, miningCoordinator),
           new EthGetWork(miningCoordinator),
           new EthHashrate(miningCoordinator),
           new EthChainId(protocolSchedule.getChainId()));
@@ -25,7 +25,9 @@ import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.LogWithMetadata;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.vertx.core.AbstractVerticle;
@@ -34,6 +36,7 @@ import io.vertx.core.AbstractVerticle;
 public class FilterManager extends AbstractVerticle {
 
   private static final int FILTER_TIMEOUT_CHECK_TIMER = 10000;
+  private static final LogsQuery MATCH_ALL_LOGS = new LogsQuery.Builder().build();
 
   private final FilterIdGenerator filterIdGenerator;
   private final FilterRepository filterRepository;
@@ -137,16 +140,27 @@ public class FilterManager extends AbstractVerticle {
   }
 
   private void checkBlockchainForMatchingLogsForFilters() {
-    final Collection<LogFilter> logFilters = filterRepository.getFiltersOfType(LogFilter.class);
-    logFilters.forEach(
-        (filter) -> {
-          final long headBlockNumber = blockchainQueries.headBlockNumber();
-          final long toBlockNumber =
-              filter.getToBlock().getNumber().orElse(blockchainQueries.headBlockNumber());
-          final List<LogWithMetadata> logs =
-              blockchainQueries.matchingLogs(headBlockNumber, toBlockNumber, filter.getLogsQuery());
-          filter.addLog(logs);
-        });
+    final LogsQueryIndex<LogFilter> filterIndex = filterRepository.getLogFilterIndex();
+    if (filterIndex.isEmpty()) {
+      return;
+    }
+
+    final long headBlockNumber = blockchainQueries.headBlockNumber();
+    final Map<LogFilter, List<LogWithMetadata>> logsByFilter = new HashMap<>();
+    for (final LogWithMetadata log :
+        blockchainQueries.matchingLogs(headBlockNumber, headBlockNumber, MATCH_ALL_LOGS)) {
+      for (final LogFilter filter : filterIndex.matching(log.getAddress(), log.getTopics())) {
+        if (isWithinRange(filter, headBlockNumber)) {
+          logsByFilter.computeIfAbsent(filter, key -> new ArrayList<>()).add(log);
+        }
+      }
+    }
+
+    logsByFilter.forEach(LogFilter::addLog);
+  }
+
+  private boolean isWithinRange(final LogFilter filter, final long blockNumber) {
+    return filter.getToBlock().getNumber().orElse(blockNumber) >= blockNumber;
   }
 
   @VisibleForTesting
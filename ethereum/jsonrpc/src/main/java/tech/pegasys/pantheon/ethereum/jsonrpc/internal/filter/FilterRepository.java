@@ -23,6 +23,8 @@ import java.util.stream.Stream;
 public class FilterRepository {
 
   private final Map<String, Filter> filters = new ConcurrentHashMap<>();
+  private final LogsQueryIndex<LogFilter> logFilterIndex =
+      new LogsQueryIndex<>(LogFilter::getLogsQuery);
 
   public FilterRepository() {}
 
@@ -55,6 +57,11 @@ public class FilterRepository {
     return Optional.of((T) filter);
   }
 
+  /** @return an index of the installed log filters, kept up to date as filters change */
+  LogsQueryIndex<LogFilter> getLogFilterIndex() {
+    return logFilterIndex;
+  }
+
   boolean exists(final String id) {
     return filters.containsKey(id);
   }
@@ -70,13 +77,20 @@ public class FilterRepository {
     }
 
     filters.put(filter.getId(), filter);
+    if (filter instanceof LogFilter) {
+      logFilterIndex.add((LogFilter) filter);
+    }
   }
 
   void delete(final String id) {
-    filters.remove(id);
+    final Filter filter = filters.remove(id);
+    if (filter instanceof LogFilter) {
+      logFilterIndex.remove((LogFilter) filter);
+    }
   }
 
   void deleteAll() {
     filters.clear();
+    logFilterIndex.clear();
   }
 }
@@ -33,7 +33,19 @@ public class LogsQuery {
   }
 
   public boolean matches(final Log log) {
-    return matchesAddresses(log.getLogger()) && matchesTopics(log.getTopics());
+    return matches(log.getLogger(), log.getTopics());
+  }
+
+  public boolean matches(final Address logger, final List<LogTopic> topics) {
+    return matchesAddresses(logger) && matchesTopics(topics);
+  }
+
+  List<Address> getAddresses() {
+    return queryAddresses;
+  }
+
+  List<List<LogTopic>> getTopics() {
+    return queryTopics;
   }
 
   private boolean matchesAddresses(final Address address) {
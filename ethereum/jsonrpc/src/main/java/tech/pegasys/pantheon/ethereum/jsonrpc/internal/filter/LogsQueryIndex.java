@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.internal.filter;
+
+import tech.pegasys.pantheon.ethereum.core.Address;
+import tech.pegasys.pantheon.ethereum.core.Log;
+import tech.pegasys.pantheon.ethereum.core.LogTopic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Indexes a set of items (subscriptions or filters) by the {@link LogsQuery} each one carries so
+ * that the items interested in a given log can be found without testing every query.
+ *
+ * <p>Queries restricting the logger address are indexed by address. Queries without an address
+ * restriction but with concrete values for the first topic are indexed by that topic. Anything
+ * else has to be checked against every log. Candidates found through the index are still checked
+ * with {@link LogsQuery#matches(Address, List)} as the index only considers part of each query.
+ *
+ * <p>Items are added and removed as they are installed and uninstalled, rather than the index
+ * being rebuilt for each block. Thread safe.
+ *
+ * @param <T> the type of the indexed items
+ */
+public class LogsQueryIndex<T> {
+
+  private final Function<T, LogsQuery> queryExtractor;
+  private final Map<Address, List<T>> byAddress = new HashMap<>();
+  private final Map<LogTopic, List<T>> byFirstTopic = new HashMap<>();
+  private final List<T> unindexed = new ArrayList<>();
+
+  public LogsQueryIndex(final Function<T, LogsQuery> queryExtractor) {
+    this.queryExtractor = queryExtractor;
+  }
+
+  public synchronized void add(final T item) {
+    final LogsQuery query = queryExtractor.apply(item);
+    if (!query.getAddresses().isEmpty()) {
+      for (final Address address : new HashSet<>(query.getAddresses())) {
+        byAddress.computeIfAbsent(address, key -> new ArrayList<>()).add(item);
+      }
+      return;
+    }
+
+    final Set<LogTopic> firstTopics = indexableFirstTopics(query);
+    if (firstTopics.isEmpty()) {
+      unindexed.add(item);
+      return;
+    }
+    for (final LogTopic topic : firstTopics) {
+      byFirstTopic.computeIfAbsent(topic, key -> new ArrayList<>()).add(item);
+    }
+  }
+
+  public synchronized void remove(final T item) {
+    final LogsQuery query = queryExtractor.apply(item);
+    if (!query.getAddresses().isEmpty()) {
+      for (final Address address : new HashSet<>(query.getAddresses())) {
+        removeFrom(byAddress, address, item);
+      }
+      return;
+    }
+
+    final Set<LogTopic> firstTopics = indexableFirstTopics(query);
+    if (firstTopics.isEmpty()) {
+      unindexed.remove(item);
+      return;
+    }
+    for (final LogTopic topic : firstTopics) {
+      removeFrom(byFirstTopic, topic, item);
+    }
+  }
+
+  public synchronized void clear() {
+    byAddress.clear();
+    byFirstTopic.clear();
+    unindexed.clear();
+  }
+
+  private <K> void removeFrom(final Map<K, List<T>> index, final K key, final T item) {
+    final List<T> items = index.get(key);
+    if (items == null) {
+      return;
+    }
+    items.remove(item);
+    if (items.isEmpty()) {
+      index.remove(key);
+    }
+  }
+
+  private Set<LogTopic> indexableFirstTopics(final LogsQuery query) {
+    if (query.getTopics().isEmpty()) {
+      return Collections.emptySet();
+    }
+    final List<LogTopic> firstTopicCriteria = query.getTopics().get(0);
+    if (firstTopicCriteria.isEmpty() || firstTopicCriteria.contains(null)) {
+      // A null entry is a wildcard so the query matches logs with any first topic.
+      return Collections.emptySet();
+    }
+    return new HashSet<>(firstTopicCriteria);
+  }
+
+  public synchronized boolean isEmpty() {
+    return byAddress.isEmpty() && byFirstTopic.isEmpty() && unindexed.isEmpty();
+  }
+
+  public List<T> matching(final Log log) {
+    return matching(log.getLogger(), log.getTopics());
+  }
+
+  /**
+   * Finds the items whose query matches a log.
+   *
+   * @param logger the address of the account which emitted the log
+   * @param topics the topics of the log
+   * @return the items whose query matches the log, each item appearing at most once
+   */
+  public synchronized List<T> matching(final Address logger, final List<LogTopic> topics) {
+    final List<T> result = new ArrayList<>();
+    addMatching(byAddress.getOrDefault(logger, Collections.emptyList()), logger, topics, result);
+    if (!topics.isEmpty()) {
+      addMatching(
+          byFirstTopic.getOrDefault(topics.get(0), Collections.emptyList()),
+          logger,
+          topics,
+          result);
+    }
+    addMatching(unindexed, logger, topics, result);
+    return result;
+  }
+
+  private void addMatching(
+      final List<T> candidates,
+      final Address logger,
+      final List<LogTopic> topics,
+      final List<T> result) {
+    for (final T candidate : candidates) {
+      if (queryExtractor.apply(candidate).matches(logger, topics)) {
+        result.add(candidate);
+      }
+    }
+  }
+}
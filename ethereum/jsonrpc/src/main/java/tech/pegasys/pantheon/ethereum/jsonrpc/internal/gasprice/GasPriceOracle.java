@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.internal.gasprice;
+
+import tech.pegasys.pantheon.ethereum.chain.BlockAddedEvent;
+import tech.pegasys.pantheon.ethereum.chain.BlockAddedEvent.EventType;
+import tech.pegasys.pantheon.ethereum.chain.BlockAddedObserver;
+import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.core.BlockBody;
+import tech.pegasys.pantheon.ethereum.core.PendingTransactions;
+import tech.pegasys.pantheon.ethereum.core.Transaction;
+import tech.pegasys.pantheon.ethereum.core.Wei;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Suggests a gas price based on the prices paid by transactions in recent blocks.
+ *
+ * <p>The gas prices of the transactions in the last few canonical blocks are kept in a sorted
+ * multiset which is updated incrementally as blocks are added, so nothing is rescanned per block.
+ * The configured percentile of that window and of the transactions currently pending is worked out
+ * once per block and cached, so answering a request doesn't touch the chain or the pool at all.
+ */
+public class GasPriceOracle implements BlockAddedObserver {
+
+  private final GasPriceOracleConfiguration configuration;
+  private final PendingTransactions pendingTransactions;
+
+  private final Deque<List<Wei>> blockGasPrices = new ArrayDeque<>();
+  private final TreeMap<Wei, Integer> windowGasPrices = new TreeMap<>();
+  private int windowSize = 0;
+
+  private volatile Optional<Wei> gasPrice = Optional.empty();
+
+  public GasPriceOracle(
+      final GasPriceOracleConfiguration configuration,
+      final Blockchain blockchain,
+      final PendingTransactions pendingTransactions) {
+    this.configuration = configuration;
+    this.pendingTransactions = pendingTransactions;
+    reload(blockchain);
+  }
+
+  /**
+   * Returns the suggested gas price.
+   *
+   * @return the suggested gas price, or empty if no recent or pending transactions have been seen
+   */
+  public Optional<Wei> getGasPrice() {
+    return gasPrice;
+  }
+
+  @Override
+  public synchronized void onBlockAdded(final BlockAddedEvent event, final Blockchain blockchain) {
+    if (!event.isNewCanonicalHead()) {
+      return;
+    }
+    if (event.getEventType() == EventType.HEAD_ADVANCED) {
+      addBlock(event.getBlock().getBody());
+      updateGasPrice();
+    } else {
+      // A reorg may replace any number of blocks in the window so it's simplest to start again.
+      reload(blockchain);
+    }
+  }
+
+  private synchronized void reload(final Blockchain blockchain) {
+    blockGasPrices.clear();
+    windowGasPrices.clear();
+    windowSize = 0;
+    final long chainHead = blockchain.getChainHeadBlockNumber();
+    final long firstBlock = Math.max(0, chainHead - configuration.getBlocks() + 1);
+    for (long number = firstBlock; number <= chainHead; number++) {
+      blockchain
+          .getBlockHashByNumber(number)
+          .flatMap(blockchain::getBlockBody)
+          .ifPresent(this::addBlock);
+    }
+    updateGasPrice();
+  }
+
+  private void addBlock(final BlockBody body) {
+    final List<Wei> gasPrices =
+        body.getTransactions().stream().map(Transaction::getGasPrice).collect(Collectors.toList());
+    blockGasPrices.addLast(gasPrices);
+    gasPrices.forEach(price -> windowGasPrices.merge(price, 1, Integer::sum));
+    windowSize += gasPrices.size();
+
+    while (blockGasPrices.size() > configuration.getBlocks()) {
+      final List<Wei> expired = blockGasPrices.removeFirst();
+      expired.forEach(price -> windowGasPrices.computeIfPresent(price, (key, count) -> count - 1));
+      windowGasPrices.values().removeIf(count -> count == 0);
+      windowSize -= expired.size();
+    }
+  }
+
+  private void updateGasPrice() {
+    final Optional<Wei> blocksPercentile = percentile(windowGasPrices, windowSize);
+    final Optional<Wei> pendingPercentile = pendingPercentile();
+
+    // Pending transactions only raise the suggestion as they include underpriced ones which may
+    // never be mined, while a congested pool means recent blocks understate the going rate.
+    final Optional<Wei> suggested;
+    if (blocksPercentile.isPresent() && pendingPercentile.isPresent()) {
+      suggested = Optional.of(max(blocksPercentile.get(), pendingPercentile.get()));
+    } else {
+      suggested = blocksPercentile.isPresent() ? blocksPercentile : pendingPercentile;
+    }
+    gasPrice = suggested.map(this::clamp);
+  }
+
+  private Optional<Wei> pendingPercentile() {
+    final TreeMap<Wei, Integer> pendingGasPrices = new TreeMap<>();
+    int pendingSize = 0;
+    for (final PendingTransactions.TransactionInfo info :
+        pendingTransactions.getTransactionInfo()) {
+      pendingGasPrices.merge(info.getTransaction().getGasPrice(), 1, Integer::sum);
+      pendingSize++;
+    }
+    return percentile(pendingGasPrices, pendingSize);
+  }
+
+  private Optional<Wei> percentile(final TreeMap<Wei, Integer> gasPrices, final int size) {
+    if (size == 0) {
+      return Optional.empty();
+    }
+    final int index =
+        Math.max(0, (int) Math.ceil(size * configuration.getPercentile() / 100.0) - 1);
+    int seen = 0;
+    for (final Map.Entry<Wei, Integer> entry : gasPrices.entrySet()) {
+      seen += entry.getValue();
+      if (seen > index) {
+        return Optional.of(entry.getKey());
+      }
+    }
+    return Optional.of(gasPrices.lastKey());
+  }
+
+  private Wei clamp(final Wei price) {
+    if (price.compareTo(configuration.getMinGasPrice()) < 0) {
+      return configuration.getMinGasPrice();
+    }
+    return price.compareTo(configuration.getMaxGasPrice()) > 0
+        ? configuration.getMaxGasPrice()
+        : price;
+  }
+
+  private static Wei max(final Wei a, final Wei b) {
+    return a.compareTo(b) >= 0 ? a : b;
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.internal.gasprice;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import tech.pegasys.pantheon.ethereum.core.Wei;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+public class GasPriceOracleConfiguration {
+
+  public static final int DEFAULT_BLOCKS = 20;
+  public static final int DEFAULT_PERCENTILE = 60;
+  public static final Wei DEFAULT_MIN_GAS_PRICE = Wei.ZERO;
+  public static final Wei DEFAULT_MAX_GAS_PRICE = Wei.of(500_000_000_000L);
+
+  private final int blocks;
+  private final int percentile;
+  private final Wei minGasPrice;
+  private final Wei maxGasPrice;
+
+  private GasPriceOracleConfiguration(
+      final int blocks, final int percentile, final Wei minGasPrice, final Wei maxGasPrice) {
+    checkArgument(blocks > 0, "Gas price oracle must sample at least one block");
+    checkArgument(
+        percentile >= 0 && percentile <= 100, "Gas price percentile must be between 0 and 100");
+    checkArgument(
+        minGasPrice.compareTo(maxGasPrice) <= 0,
+        "Minimum gas price must not be greater than the maximum gas price");
+    this.blocks = blocks;
+    this.percentile = percentile;
+    this.minGasPrice = minGasPrice;
+    this.maxGasPrice = maxGasPrice;
+  }
+
+  public static GasPriceOracleConfiguration createDefault() {
+    return builder().build();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /** @return the number of most recent blocks whose transactions are sampled */
+  public int getBlocks() {
+    return blocks;
+  }
+
+  /** @return the percentile of the sampled gas prices which is suggested */
+  public int getPercentile() {
+    return percentile;
+  }
+
+  public Wei getMinGasPrice() {
+    return minGasPrice;
+  }
+
+  public Wei getMaxGasPrice() {
+    return maxGasPrice;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final GasPriceOracleConfiguration that = (GasPriceOracleConfiguration) o;
+    return blocks == that.blocks
+        && percentile == that.percentile
+        && Objects.equal(minGasPrice, that.minGasPrice)
+        && Objects.equal(maxGasPrice, that.maxGasPrice);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(blocks, percentile, minGasPrice, maxGasPrice);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("blocks", blocks)
+        .add("percentile", percentile)
+        .add("minGasPrice", minGasPrice)
+        .add("maxGasPrice", maxGasPrice)
+        .toString();
+  }
+
+  public static class Builder {
+    private int blocks = DEFAULT_BLOCKS;
+    private int percentile = DEFAULT_PERCENTILE;
+    private Wei minGasPrice = DEFAULT_MIN_GAS_PRICE;
+    private Wei maxGasPrice = DEFAULT_MAX_GAS_PRICE;
+
+    public Builder blocks(final int blocks) {
+      this.blocks = blocks;
+      return this;
+    }
+
+    public Builder percentile(final int percentile) {
+      this.percentile = percentile;
+      return this;
+    }
+
+    public Builder minGasPrice(final Wei minGasPrice) {
+      this.minGasPrice = minGasPrice;
+      return this;
+    }
+
+    public Builder maxGasPrice(final Wei maxGasPrice) {
+      this.maxGasPrice = maxGasPrice;
+      return this;
+    }
+
+    public GasPriceOracleConfiguration build() {
+      return new GasPriceOracleConfiguration(blocks, percentile, minGasPrice, maxGasPrice);
+    }
+  }
+}
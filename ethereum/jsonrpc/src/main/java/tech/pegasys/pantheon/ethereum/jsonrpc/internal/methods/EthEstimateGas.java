@@ -23,23 +23,22 @@ import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcResponse;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcSuccessResponse;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.Quantity;
 import tech.pegasys.pantheon.ethereum.transaction.CallParameter;
-import tech.pegasys.pantheon.ethereum.transaction.TransactionSimulator;
-import tech.pegasys.pantheon.ethereum.transaction.TransactionSimulatorResult;
+import tech.pegasys.pantheon.ethereum.transaction.TransactionGasEstimator;
 
 import java.util.function.Function;
 
 public class EthEstimateGas implements JsonRpcMethod {
 
   private final BlockchainQueries blockchainQueries;
-  private final TransactionSimulator transactionSimulator;
+  private final TransactionGasEstimator transactionGasEstimator;
   private final JsonRpcParameter parameters;
 
   public EthEstimateGas(
       final BlockchainQueries blockchainQueries,
-      final TransactionSimulator transactionSimulator,
+      final TransactionGasEstimator transactionGasEstimator,
       final JsonRpcParameter parameters) {
     this.blockchainQueries = blockchainQueries;
-    this.transactionSimulator = transactionSimulator;
+    this.transactionGasEstimator = transactionGasEstimator;
     this.parameters = parameters;
   }
 
@@ -61,8 +60,8 @@ public class EthEstimateGas implements JsonRpcMethod {
     final JsonCallParameter modifiedCallParams =
         overrideGasLimitAndPrice(callParams, blockHeader.getGasLimit());
 
-    return transactionSimulator
-        .process(modifiedCallParams, blockHeader.getNumber())
+    return transactionGasEstimator
+        .estimate(modifiedCallParams, blockHeader)
         .map(gasEstimateResponse(request))
         .orElse(errorResponse(request));
   }
@@ -83,10 +82,8 @@ public class EthEstimateGas implements JsonRpcMethod {
         callParams.getPayload() != null ? callParams.getPayload().toString() : null);
   }
 
-  private Function<TransactionSimulatorResult, JsonRpcResponse> gasEstimateResponse(
-      final JsonRpcRequest request) {
-    return result ->
-        new JsonRpcSuccessResponse(request.getId(), Quantity.create(result.getGasEstimate()));
+  private Function<Long, JsonRpcResponse> gasEstimateResponse(final JsonRpcRequest request) {
+    return gasEstimate -> new JsonRpcSuccessResponse(request.getId(), Quantity.create(gasEstimate));
   }
 
   private JsonRpcErrorResponse errorResponse(final JsonRpcRequest request) {
@@ -15,15 +15,19 @@ package tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods;
 import tech.pegasys.pantheon.ethereum.blockcreation.MiningCoordinator;
 import tech.pegasys.pantheon.ethereum.core.Wei;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.JsonRpcRequest;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.gasprice.GasPriceOracle;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcResponse;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcSuccessResponse;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.Quantity;
 
 public class EthGasPrice implements JsonRpcMethod {
 
+  private final GasPriceOracle gasPriceOracle;
   private final MiningCoordinator miningCoordinator;
 
-  public EthGasPrice(final MiningCoordinator miningCoordinator) {
+  public EthGasPrice(
+      final GasPriceOracle gasPriceOracle, final MiningCoordinator miningCoordinator) {
+    this.gasPriceOracle = gasPriceOracle;
     this.miningCoordinator = miningCoordinator;
   }
 
@@ -34,12 +38,18 @@ public class EthGasPrice implements JsonRpcMethod {
 
   @Override
   public JsonRpcResponse response(final JsonRpcRequest req) {
-    final Wei gasPrice;
     Object result = null;
-    gasPrice = miningCoordinator.getMinTransactionGasPrice();
+    // Never suggest less than this node accepts, or transactions priced from it would be rejected.
+    final Wei minGasPrice = miningCoordinator.getMinTransactionGasPrice();
+    final Wei gasPrice =
+        gasPriceOracle.getGasPrice().map(price -> atLeast(price, minGasPrice)).orElse(minGasPrice);
     if (gasPrice != null) {
       result = Quantity.create(gasPrice.toLong());
     }
     return new JsonRpcSuccessResponse(req.getId(), result);
   }
+
+  private static Wei atLeast(final Wei price, final Wei minGasPrice) {
+    return minGasPrice != null && price.compareTo(minGasPrice) < 0 ? minGasPrice : price;
+  }
 }
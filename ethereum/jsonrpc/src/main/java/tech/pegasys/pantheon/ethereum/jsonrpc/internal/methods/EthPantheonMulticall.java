@@ -0,0 +1,186 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods;
+
+import static tech.pegasys.pantheon.ethereum.jsonrpc.JsonRpcErrorConverter.convertTransactionInvalidReason;
+
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.JsonRpcRequest;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.exception.InvalidJsonRpcParameters;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.BlockParameter;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.JsonCallParameter;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.JsonRpcParameter;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.BlockchainQueries;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcError;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.CallResult;
+import tech.pegasys.pantheon.ethereum.transaction.CallParameter;
+import tech.pegasys.pantheon.ethereum.transaction.TransactionSimulator;
+import tech.pegasys.pantheon.ethereum.transaction.TransactionSimulatorResult;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Executes a batch of calls against the world state of a single block, returning the result of
+ * each in the order the calls were given.
+ *
+ * <p>All calls share one world state snapshot and each runs with its own updater, so calls don't
+ * see each other's changes and can be executed concurrently on the JSON-RPC worker executor. To
+ * keep the cost of a request bounded, the number of calls is limited, each call's gas limit is
+ * capped at the block gas limit and any call which hasn't completed before the time limit expires
+ * is reported as having exceeded it. Calls which haven't started by then are not executed.
+ */
+public class EthPantheonMulticall extends AbstractBlockParameterMethod {
+
+  static final int MAX_CALLS = 100;
+  static final long TIME_LIMIT_MILLIS = 5_000;
+
+  private final TransactionSimulator transactionSimulator;
+  private final Executor executor;
+  private final Clock clock;
+
+  public EthPantheonMulticall(
+      final BlockchainQueries blockchainQueries,
+      final TransactionSimulator transactionSimulator,
+      final JsonRpcParameter parameters,
+      final Executor executor) {
+    this(blockchainQueries, transactionSimulator, parameters, executor, Clock.systemUTC());
+  }
+
+  EthPantheonMulticall(
+      final BlockchainQueries blockchainQueries,
+      final TransactionSimulator transactionSimulator,
+      final JsonRpcParameter parameters,
+      final Executor executor,
+      final Clock clock) {
+    super(blockchainQueries, parameters);
+    this.transactionSimulator = transactionSimulator;
+    this.executor = executor;
+    this.clock = clock;
+  }
+
+  @Override
+  public String getName() {
+    return "eth_pantheonMulticall";
+  }
+
+  @Override
+  protected BlockParameter blockParameter(final JsonRpcRequest request) {
+    return parameters().required(request.getParams(), 1, BlockParameter.class);
+  }
+
+  @Override
+  protected Object resultByBlockNumber(final JsonRpcRequest request, final long blockNumber) {
+    final List<CallParameter> calls = validateAndGetCallParams(request);
+
+    final Optional<BlockHeader> maybeHeader =
+        blockchainQueries().getBlockHeaderByNumber(blockNumber);
+    if (!maybeHeader.isPresent()) {
+      return null;
+    }
+    final BlockHeader header = maybeHeader.get();
+    final Optional<MutableWorldState> maybeWorldState =
+        transactionSimulator.getWorldStateSnapshot(header);
+    if (!maybeWorldState.isPresent()) {
+      return null;
+    }
+    final MutableWorldState worldState = maybeWorldState.get();
+
+    final long deadline = clock.millis() + TIME_LIMIT_MILLIS;
+    final List<CompletableFuture<CallResult>> results =
+        calls.stream()
+            .map(
+                call ->
+                    CompletableFuture.supplyAsync(
+                        () -> execute(call, header, worldState, deadline), executor))
+            .collect(Collectors.toList());
+    return results.stream()
+        .map(result -> awaitResult(result, deadline))
+        .collect(Collectors.toList());
+  }
+
+  private CallResult awaitResult(final CompletableFuture<CallResult> result, final long deadline) {
+    try {
+      return result.get(Math.max(0, deadline - clock.millis()), TimeUnit.MILLISECONDS);
+    } catch (final TimeoutException e) {
+      // Stops the call from being executed if it hasn't started yet.
+      result.cancel(false);
+      return CallResult.error(JsonRpcError.CALL_TIME_LIMIT_EXCEEDED);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      result.cancel(false);
+      return CallResult.error(JsonRpcError.CALL_TIME_LIMIT_EXCEEDED);
+    } catch (final ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private CallResult execute(
+      final CallParameter callParams,
+      final BlockHeader header,
+      final MutableWorldState worldState,
+      final long deadline) {
+    if (clock.millis() > deadline) {
+      return CallResult.error(JsonRpcError.CALL_TIME_LIMIT_EXCEEDED);
+    }
+    final TransactionSimulatorResult result =
+        transactionSimulator.process(withCappedGasLimit(callParams, header), header, worldState);
+    return result
+        .getValidationResult()
+        .either(
+            () -> CallResult.success(result.getOutput().toString()),
+            reason -> CallResult.error(convertTransactionInvalidReason(reason)));
+  }
+
+  private CallParameter withCappedGasLimit(
+      final CallParameter callParams, final BlockHeader header) {
+    final long gasLimit =
+        callParams.getGasLimit() >= 0
+            ? Math.min(callParams.getGasLimit(), header.getGasLimit())
+            : header.getGasLimit();
+    return new CallParameter(
+        callParams.getFrom(),
+        callParams.getTo(),
+        gasLimit,
+        callParams.getGasPrice(),
+        callParams.getValue(),
+        callParams.getPayload());
+  }
+
+  private List<CallParameter> validateAndGetCallParams(final JsonRpcRequest request) {
+    final JsonCallParameter[] callParams =
+        parameters().required(request.getParams(), 0, JsonCallParameter[].class);
+    if (callParams.length > MAX_CALLS) {
+      throw new InvalidJsonRpcParameters(
+          "Too many calls, at most " + MAX_CALLS + " may be made at once");
+    }
+    for (final JsonCallParameter callParam : callParams) {
+      if (callParam == null || callParam.getTo() == null) {
+        throw new InvalidJsonRpcParameters("Missing \"to\" field in call arguments");
+      }
+    }
+    return Arrays.<CallParameter>asList(callParams);
+  }
+}
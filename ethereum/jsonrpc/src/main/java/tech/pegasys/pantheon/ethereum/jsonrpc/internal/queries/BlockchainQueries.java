@@ -33,7 +33,9 @@ import tech.pegasys.pantheon.util.bytes.BytesValue;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -442,12 +444,55 @@ public class BlockchainQueries {
       return Optional.empty();
     }
     final TransactionLocation location = maybeLocation.get();
-    final BlockBody blockBody = blockchain.getBlockBody(location.getBlockHash()).get();
-    final Transaction transaction = blockBody.getTransactions().get(location.getTransactionIndex());
-
     final Hash blockhash = location.getBlockHash();
     final BlockHeader header = blockchain.getBlockHeader(blockhash).get();
+    final BlockBody blockBody = blockchain.getBlockBody(blockhash).get();
     final List<TransactionReceipt> transactionReceipts = blockchain.getTxReceipts(blockhash).get();
+
+    return Optional.of(
+        transactionReceiptWithMetadata(
+            transactionHash, location, header, blockBody, transactionReceipts));
+  }
+
+  /**
+   * Returns the transaction receipts associated with the given transaction hashes. The header, body
+   * and receipts of each block are only read once, however many of the transactions it contains.
+   *
+   * @param transactionHashes The hashes of the transactions whose receipts should be retrieved.
+   * @return The receipts of the transactions which could be found, in the order requested.
+   */
+  public List<TransactionReceiptWithMetadata> transactionReceiptsByTransactionHashes(
+      final List<Hash> transactionHashes) {
+    final Map<Hash, BlockHeader> headers = new HashMap<>();
+    final Map<Hash, BlockBody> bodies = new HashMap<>();
+    final Map<Hash, List<TransactionReceipt>> receipts = new HashMap<>();
+    final List<TransactionReceiptWithMetadata> result = new ArrayList<>(transactionHashes.size());
+    for (final Hash transactionHash : transactionHashes) {
+      final Optional<TransactionLocation> maybeLocation =
+          blockchain.getTransactionLocation(transactionHash);
+      if (!maybeLocation.isPresent()) {
+        continue;
+      }
+      final TransactionLocation location = maybeLocation.get();
+      final Hash blockhash = location.getBlockHash();
+      result.add(
+          transactionReceiptWithMetadata(
+              transactionHash,
+              location,
+              headers.computeIfAbsent(blockhash, hash -> blockchain.getBlockHeader(hash).get()),
+              bodies.computeIfAbsent(blockhash, hash -> blockchain.getBlockBody(hash).get()),
+              receipts.computeIfAbsent(blockhash, hash -> blockchain.getTxReceipts(hash).get())));
+    }
+    return result;
+  }
+
+  private TransactionReceiptWithMetadata transactionReceiptWithMetadata(
+      final Hash transactionHash,
+      final TransactionLocation location,
+      final BlockHeader header,
+      final BlockBody blockBody,
+      final List<TransactionReceipt> transactionReceipts) {
+    final Transaction transaction = blockBody.getTransactions().get(location.getTransactionIndex());
     final TransactionReceipt transactionReceipt =
         transactionReceipts.get(location.getTransactionIndex());
 
@@ -458,15 +503,14 @@ public class BlockchainQueries {
               - transactionReceipts.get(location.getTransactionIndex() - 1).getCumulativeGasUsed();
     }
 
-    return Optional.of(
-        TransactionReceiptWithMetadata.create(
-            transactionReceipt,
-            transaction,
-            transactionHash,
-            location.getTransactionIndex(),
-            gasUsed,
-            blockhash,
-            header.getNumber()));
+    return TransactionReceiptWithMetadata.create(
+        transactionReceipt,
+        transaction,
+        transactionHash,
+        location.getTransactionIndex(),
+        gasUsed,
+        location.getBlockHash(),
+        header.getNumber());
   }
 
   /**
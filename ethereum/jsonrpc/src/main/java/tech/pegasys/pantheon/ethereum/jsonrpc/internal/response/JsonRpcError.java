@@ -35,6 +35,7 @@ public enum JsonRpcError {
   LOGS_FILTER_NOT_FOUND(-32000, "Logs filter not found"),
   SUBSCRIPTION_NOT_FOUND(-32000, "Subscription not found"),
   NO_MINING_WORK_FOUND(-32000, "No mining work available yet"),
+  CALL_TIME_LIMIT_EXCEEDED(-32000, "Call was not started within the time limit"),
 
   // Transaction validation failures
   NONCE_TOO_LOW(-32001, "Nonce too low"),
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.internal.results;
+
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcError;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+/** The result of one of the calls made by a multicall, holding either its output or an error. */
+@JsonInclude(Include.NON_NULL)
+@JsonPropertyOrder({"output", "error"})
+public class CallResult implements JsonRpcResult {
+
+  private final String output;
+  private final JsonRpcError error;
+
+  private CallResult(final String output, final JsonRpcError error) {
+    this.output = output;
+    this.error = error;
+  }
+
+  public static CallResult success(final String output) {
+    return new CallResult(output, null);
+  }
+
+  public static CallResult error(final JsonRpcError error) {
+    return new CallResult(null, error);
+  }
+
+  @JsonGetter(value = "output")
+  public String getOutput() {
+    return output;
+  }
+
+  @JsonGetter(value = "error")
+  public JsonRpcError getError() {
+    return error;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final CallResult that = (CallResult) o;
+    return Objects.equal(output, that.output) && error == that.error;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(output, error);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("output", output).add("error", error).toString();
+  }
+}
@@ -12,7 +12,9 @@
  */
 package tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription;
 
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.filter.LogsQueryIndex;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.JsonRpcResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.logs.LogsSubscription;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.request.SubscribeRequest;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.request.SubscriptionType;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.request.UnsubscribeRequest;
@@ -49,6 +51,8 @@ public class SubscriptionManager extends AbstractVerticle {
   private final Map<Long, Subscription> subscriptions = new HashMap<>();
   private final Map<String, List<Long>> connectionSubscriptionsMap = new HashMap<>();
   private final SubscriptionBuilder subscriptionBuilder = new SubscriptionBuilder();
+  private final LogsQueryIndex<LogsSubscription> logsSubscriptionIndex =
+      new LogsQueryIndex<>(LogsSubscription::getLogsQuery);
 
   public SubscriptionManager() {}
 
@@ -69,6 +73,9 @@ public class SubscriptionManager extends AbstractVerticle {
 
   private void addSubscription(final Subscription subscription, final String connectionId) {
     subscriptions.put(subscription.getId(), subscription);
+    if (subscription instanceof LogsSubscription) {
+      logsSubscriptionIndex.add((LogsSubscription) subscription);
+    }
     mapSubscriptionToConnection(connectionId, subscription.getId());
   }
 
@@ -102,7 +109,10 @@ public class SubscriptionManager extends AbstractVerticle {
   }
 
   private void destroySubscription(final long subscriptionId, final String connectionId) {
-    subscriptions.remove(subscriptionId);
+    final Subscription subscription = subscriptions.remove(subscriptionId);
+    if (subscription instanceof LogsSubscription) {
+      logsSubscriptionIndex.remove((LogsSubscription) subscription);
+    }
 
     if (connectionSubscriptionsMap.containsKey(connectionId)) {
       removeSubscriptionToConnectionMapping(connectionId, subscriptionId);
@@ -151,6 +161,11 @@ public class SubscriptionManager extends AbstractVerticle {
         .collect(Collectors.toList());
   }
 
+  /** @return an index of the active logs subscriptions, kept up to date as they change */
+  public LogsQueryIndex<LogsSubscription> logsSubscriptionIndex() {
+    return logsSubscriptionIndex;
+  }
+
   public void sendMessage(final Long subscriptionId, final JsonRpcResult msg) {
     final SubscriptionResponse response = new SubscriptionResponse(subscriptionId, msg);
 
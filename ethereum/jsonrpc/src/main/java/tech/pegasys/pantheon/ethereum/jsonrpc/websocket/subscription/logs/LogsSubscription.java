@@ -19,17 +19,18 @@ import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.request.Sub
 
 public class LogsSubscription extends Subscription {
 
-  private final FilterParameter filterParameter;
+  private final LogsQuery logsQuery;
 
   public LogsSubscription(final Long subscriptionId, final FilterParameter filterParameter) {
     super(subscriptionId, SubscriptionType.LOGS);
-    this.filterParameter = filterParameter;
+    this.logsQuery =
+        new LogsQuery.Builder()
+            .addresses(filterParameter.getAddresses())
+            .topics(filterParameter.getTopics())
+            .build();
   }
 
   public LogsQuery getLogsQuery() {
-    return new LogsQuery.Builder()
-        .addresses(filterParameter.getAddresses())
-        .topics(filterParameter.getTopics())
-        .build();
+    return logsQuery;
   }
 }
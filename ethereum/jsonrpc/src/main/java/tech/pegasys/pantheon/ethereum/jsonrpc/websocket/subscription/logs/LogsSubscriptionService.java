@@ -15,16 +15,18 @@ package tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.logs;
 import tech.pegasys.pantheon.ethereum.chain.BlockAddedEvent;
 import tech.pegasys.pantheon.ethereum.chain.BlockAddedObserver;
 import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.ethereum.core.Log;
+import tech.pegasys.pantheon.ethereum.core.Transaction;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.filter.LogsQueryIndex;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.BlockchainQueries;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.LogWithMetadata;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.TransactionReceiptWithMetadata;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.LogResult;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.SubscriptionManager;
-import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.request.SubscriptionType;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Collectors;
 
 public class LogsSubscriptionService implements BlockAddedObserver {
 
@@ -39,44 +41,38 @@ public class LogsSubscriptionService implements BlockAddedObserver {
 
   @Override
   public void onBlockAdded(final BlockAddedEvent event, final Blockchain blockchain) {
-    final List<LogsSubscription> logsSubscriptions =
-        subscriptionManager.subscriptionsOfType(SubscriptionType.LOGS, LogsSubscription.class);
+    final LogsQueryIndex<LogsSubscription> subscriptionIndex =
+        subscriptionManager.logsSubscriptionIndex();
 
-    if (logsSubscriptions.isEmpty()) {
+    if (subscriptionIndex.isEmpty()) {
       return;
     }
 
-    event.getAddedTransactions().stream()
-        .map(tx -> blockchainQueries.transactionReceiptByTransactionHash(tx.hash()))
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .forEachOrdered(
-            receiptWithMetadata -> {
-              final List<Log> logs = receiptWithMetadata.getReceipt().getLogs();
-              sendLogsToMatchingSubscriptions(logs, logsSubscriptions, receiptWithMetadata, false);
-            });
+    blockchainQueries
+        .transactionReceiptsByTransactionHashes(transactionHashes(event.getAddedTransactions()))
+        .forEach(
+            receiptWithMetadata ->
+                sendLogsToMatchingSubscriptions(subscriptionIndex, receiptWithMetadata, false));
 
-    event.getRemovedTransactions().stream()
-        .map(tx -> blockchainQueries.transactionReceiptByTransactionHash(tx.hash()))
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .forEachOrdered(
-            receiptWithMetadata -> {
-              final List<Log> logs = receiptWithMetadata.getReceipt().getLogs();
-              sendLogsToMatchingSubscriptions(logs, logsSubscriptions, receiptWithMetadata, true);
-            });
+    blockchainQueries
+        .transactionReceiptsByTransactionHashes(transactionHashes(event.getRemovedTransactions()))
+        .forEach(
+            receiptWithMetadata ->
+                sendLogsToMatchingSubscriptions(subscriptionIndex, receiptWithMetadata, true));
+  }
+
+  private List<Hash> transactionHashes(final List<Transaction> transactions) {
+    return transactions.stream().map(Transaction::hash).collect(Collectors.toList());
   }
 
   private void sendLogsToMatchingSubscriptions(
-      final List<Log> logs,
-      final List<LogsSubscription> logsSubscriptions,
+      final LogsQueryIndex<LogsSubscription> subscriptionIndex,
       final TransactionReceiptWithMetadata receiptWithMetadata,
       final boolean removed) {
+    final List<Log> logs = receiptWithMetadata.getReceipt().getLogs();
     for (int logIndex = 0; logIndex < logs.size(); logIndex++) {
-      for (final LogsSubscription subscription : logsSubscriptions) {
-        if (subscription.getLogsQuery().matches(logs.get(logIndex))) {
-          sendLogToSubscription(receiptWithMetadata, removed, logIndex, subscription);
-        }
+      for (final LogsSubscription subscription : subscriptionIndex.matching(logs.get(logIndex))) {
+        sendLogToSubscription(receiptWithMetadata, removed, logIndex, subscription);
       }
     }
   }
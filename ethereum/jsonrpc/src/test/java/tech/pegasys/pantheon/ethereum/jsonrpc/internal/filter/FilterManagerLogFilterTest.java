@@ -86,13 +86,35 @@ public class FilterManagerLogFilterTest {
   }
 
   @Test
-  public void shouldUseHeadBlockAsFromBlockNumberWhenCheckingLogsForChanges() {
+  public void shouldOnlyCheckHeadBlockWhenCheckingLogsForChanges() {
     when(blockchainQueries.headBlockNumber()).thenReturn(3L);
 
     filterManager.installLogFilter(blockNum(1L), blockNum(10L), logsQuery());
     recordNewBlockEvent();
 
-    verify(blockchainQueries).matchingLogs(eq(3L), eq(10L), refEq(logsQuery()));
+    verify(blockchainQueries).matchingLogs(eq(3L), eq(3L), refEq(logsQuery()));
+  }
+
+  @Test
+  public void shouldNotAddLogsWhenHeadBlockIsAfterFilterRange() {
+    when(blockchainQueries.headBlockNumber()).thenReturn(11L);
+    when(blockchainQueries.matchingLogs(anyLong(), anyLong(), any()))
+        .thenReturn(Lists.newArrayList(logWithMetadata()));
+
+    final String filterId =
+        filterManager.installLogFilter(blockNum(1L), blockNum(10L), logsQuery());
+    recordNewBlockEvent();
+
+    assertThat(filterManager.logsChanges(filterId)).isEmpty();
+  }
+
+  @Test
+  public void shouldNotCheckLogsOnceLogFiltersAreUninstalled() {
+    final String filterId = filterManager.installLogFilter(latest(), latest(), logsQuery());
+    filterManager.uninstallFilter(filterId);
+    recordNewBlockEvent();
+
+    verify(blockchainQueries, times(0)).matchingLogs(anyLong(), anyLong(), any());
   }
 
   @Test
@@ -111,13 +133,34 @@ public class FilterManagerLogFilterTest {
   }
 
   @Test
-  public void shouldCheckLogsForEveryLogFilter() {
+  public void shouldReadLogsOnceForAllLogFilters() {
     filterManager.installLogFilter(latest(), latest(), logsQuery());
     filterManager.installLogFilter(latest(), latest(), logsQuery());
     filterManager.installLogFilter(latest(), latest(), logsQuery());
     recordNewBlockEvent();
 
-    verify(blockchainQueries, times(3)).matchingLogs(anyLong(), anyLong(), any());
+    verify(blockchainQueries, times(1)).matchingLogs(anyLong(), anyLong(), any());
+  }
+
+  @Test
+  public void shouldOnlyAddLogsMatchingEachLogFilter() {
+    final LogWithMetadata log = logWithMetadata();
+    when(blockchainQueries.matchingLogs(anyLong(), anyLong(), any()))
+        .thenReturn(Lists.newArrayList(log));
+
+    final String matchingFilterId =
+        filterManager.installLogFilter(
+            latest(), latest(), new LogsQuery.Builder().address(log.getAddress()).build());
+    final String otherFilterId =
+        filterManager.installLogFilter(
+            latest(),
+            latest(),
+            new LogsQuery.Builder().address(Address.fromHexString("0x1")).build());
+    recordNewBlockEvent();
+
+    assertThat(filterManager.logsChanges(matchingFilterId))
+        .isEqualToComparingFieldByFieldRecursively(Lists.newArrayList(log));
+    assertThat(filterManager.logsChanges(otherFilterId).size()).isEqualTo(0);
   }
 
   @Test
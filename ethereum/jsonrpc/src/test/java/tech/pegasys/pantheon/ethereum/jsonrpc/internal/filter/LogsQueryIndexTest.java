@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.internal.filter;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.ethereum.core.Address;
+import tech.pegasys.pantheon.ethereum.core.Log;
+import tech.pegasys.pantheon.ethereum.core.LogTopic;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class LogsQueryIndexTest {
+
+  private static final Address ADDRESS_1 =
+      Address.fromHexString("0x1111111111111111111111111111111111111111");
+  private static final Address ADDRESS_2 =
+      Address.fromHexString("0x2222222222222222222222222222222222222222");
+  private static final LogTopic TOPIC_1 =
+      LogTopic.fromHexString("0x1111111111111111111111111111111111111111111111111111111111111111");
+  private static final LogTopic TOPIC_2 =
+      LogTopic.fromHexString("0x2222222222222222222222222222222222222222222222222222222222222222");
+
+  @Test
+  public void shouldMatchQueriesByAddress() {
+    final LogsQuery address1Query = new LogsQuery.Builder().address(ADDRESS_1).build();
+    final LogsQuery address2Query = new LogsQuery.Builder().address(ADDRESS_2).build();
+    final LogsQueryIndex<LogsQuery> index = index(address1Query, address2Query);
+
+    assertThat(index.matching(log(ADDRESS_1, TOPIC_1))).containsExactly(address1Query);
+    assertThat(index.matching(log(ADDRESS_2, TOPIC_1))).containsExactly(address2Query);
+  }
+
+  @Test
+  public void shouldMatchQueriesByFirstTopic() {
+    final LogsQuery topic1Query = topicsQuery(singletonList(singletonList(TOPIC_1)));
+    final LogsQuery topic2Query = topicsQuery(singletonList(singletonList(TOPIC_2)));
+    final LogsQueryIndex<LogsQuery> index = index(topic1Query, topic2Query);
+
+    assertThat(index.matching(log(ADDRESS_1, TOPIC_1))).containsExactly(topic1Query);
+    assertThat(index.matching(log(ADDRESS_2, TOPIC_2))).containsExactly(topic2Query);
+  }
+
+  @Test
+  public void shouldMatchQueriesWithWildcardFirstTopicAgainstAllLogs() {
+    final LogsQuery wildcardQuery =
+        topicsQuery(asList(singletonList(null), singletonList(TOPIC_2)));
+    final LogsQueryIndex<LogsQuery> index = index(wildcardQuery);
+
+    assertThat(index.matching(log(ADDRESS_1, TOPIC_1, TOPIC_2))).containsExactly(wildcardQuery);
+    assertThat(index.matching(log(ADDRESS_1, TOPIC_1, TOPIC_1))).isEmpty();
+  }
+
+  @Test
+  public void shouldMatchEmptyQueryAgainstAllLogs() {
+    final LogsQuery emptyQuery = new LogsQuery.Builder().build();
+    final LogsQueryIndex<LogsQuery> index = index(emptyQuery);
+
+    assertThat(index.matching(log(ADDRESS_1))).containsExactly(emptyQuery);
+    assertThat(index.matching(log(ADDRESS_2, TOPIC_1))).containsExactly(emptyQuery);
+  }
+
+  @Test
+  public void shouldStillApplyRemainingCriteriaToIndexedQueries() {
+    final LogsQuery query =
+        new LogsQuery.Builder()
+            .address(ADDRESS_1)
+            .topics(asList(singletonList(TOPIC_1), singletonList(TOPIC_2)))
+            .build();
+    final LogsQueryIndex<LogsQuery> index = index(query);
+
+    assertThat(index.matching(log(ADDRESS_1, TOPIC_1, TOPIC_2))).containsExactly(query);
+    assertThat(index.matching(log(ADDRESS_1, TOPIC_1, TOPIC_1))).isEmpty();
+    assertThat(index.matching(log(ADDRESS_1))).isEmpty();
+  }
+
+  @Test
+  public void shouldReturnEachQueryOnlyOnce() {
+    final LogsQuery query =
+        new LogsQuery.Builder().addresses(ADDRESS_1, ADDRESS_1, ADDRESS_2).build();
+    final LogsQueryIndex<LogsQuery> index = index(query);
+
+    assertThat(index.matching(log(ADDRESS_1))).containsExactly(query);
+    assertThat(index.matching(log(ADDRESS_2))).containsExactly(query);
+  }
+
+  @Test
+  public void shouldNotMatchRemovedQueries() {
+    final LogsQuery addressQuery = new LogsQuery.Builder().address(ADDRESS_1).build();
+    final LogsQuery topicQuery = topicsQuery(singletonList(singletonList(TOPIC_1)));
+    final LogsQuery emptyQuery = new LogsQuery.Builder().build();
+    final LogsQueryIndex<LogsQuery> index = index(addressQuery, topicQuery, emptyQuery);
+
+    index.remove(addressQuery);
+    index.remove(emptyQuery);
+    assertThat(index.matching(log(ADDRESS_1, TOPIC_1))).containsExactly(topicQuery);
+
+    index.remove(topicQuery);
+    assertThat(index.matching(log(ADDRESS_1, TOPIC_1))).isEmpty();
+    assertThat(index.isEmpty()).isTrue();
+  }
+
+  private LogsQueryIndex<LogsQuery> index(final LogsQuery... queries) {
+    final LogsQueryIndex<LogsQuery> index = new LogsQueryIndex<>(query -> query);
+    asList(queries).forEach(index::add);
+    return index;
+  }
+
+  private LogsQuery topicsQuery(final List<List<LogTopic>> topics) {
+    return new LogsQuery.Builder().topics(topics).build();
+  }
+
+  private Log log(final Address logger, final LogTopic... topics) {
+    return new Log(logger, BytesValue.EMPTY, asList(topics));
+  }
+}
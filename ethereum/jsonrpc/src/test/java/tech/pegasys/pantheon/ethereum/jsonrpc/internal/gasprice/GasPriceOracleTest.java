@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.internal.gasprice;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.pantheon.ethereum.chain.BlockAddedEvent;
+import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.core.Block;
+import tech.pegasys.pantheon.ethereum.core.BlockBody;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.PendingTransactions;
+import tech.pegasys.pantheon.ethereum.core.PendingTransactions.TransactionInfo;
+import tech.pegasys.pantheon.ethereum.core.Transaction;
+import tech.pegasys.pantheon.ethereum.core.Wei;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class GasPriceOracleTest {
+
+  private final Blockchain blockchain = mock(Blockchain.class);
+  private final PendingTransactions pendingTransactions = mock(PendingTransactions.class);
+
+  @Before
+  public void setUp() {
+    when(blockchain.getChainHeadBlockNumber()).thenReturn(0L);
+    when(blockchain.getBlockHashByNumber(0L)).thenReturn(Optional.of(Hash.ZERO));
+    when(blockchain.getBlockBody(Hash.ZERO)).thenReturn(Optional.of(body()));
+    when(pendingTransactions.getTransactionInfo()).thenReturn(emptySet());
+  }
+
+  @Test
+  public void shouldHaveNoSuggestionWithoutAnyTransactions() {
+    final GasPriceOracle oracle = oracle(GasPriceOracleConfiguration.createDefault());
+
+    assertThat(oracle.getGasPrice()).isEmpty();
+  }
+
+  @Test
+  public void shouldSuggestPercentileOfRecentBlockGasPrices() {
+    final GasPriceOracle oracle = oracle(configuration(2, 50));
+
+    addBlock(oracle, 1, 2, 3);
+    addBlock(oracle, 4, 5);
+
+    assertThat(oracle.getGasPrice()).contains(Wei.of(3));
+  }
+
+  @Test
+  public void shouldDropBlocksThatLeaveTheWindow() {
+    final GasPriceOracle oracle = oracle(configuration(2, 100));
+
+    addBlock(oracle, 100);
+    addBlock(oracle, 2);
+    addBlock(oracle, 3);
+
+    assertThat(oracle.getGasPrice()).contains(Wei.of(3));
+  }
+
+  @Test
+  public void shouldIgnoreBlocksAddedToForks() {
+    final GasPriceOracle oracle = oracle(configuration(2, 100));
+    addBlock(oracle, 5);
+
+    oracle.onBlockAdded(BlockAddedEvent.createForFork(block(100)), blockchain);
+
+    assertThat(oracle.getGasPrice()).contains(Wei.of(5));
+  }
+
+  @Test
+  public void shouldUsePendingTransactionsWhenTheyPayMore() {
+    final GasPriceOracle oracle = oracle(configuration(2, 50));
+    addBlock(oracle, 1, 2, 3);
+
+    mockPendingTransactions(10, 20, 30);
+    addBlock(oracle, 1);
+
+    assertThat(oracle.getGasPrice()).contains(Wei.of(20));
+  }
+
+  @Test
+  public void shouldClampSuggestionToConfiguredBounds() {
+    final GasPriceOracleConfiguration configuration =
+        GasPriceOracleConfiguration.builder()
+            .blocks(1)
+            .percentile(50)
+            .minGasPrice(Wei.of(10))
+            .maxGasPrice(Wei.of(20))
+            .build();
+    final GasPriceOracle oracle = oracle(configuration);
+
+    addBlock(oracle, 1);
+    assertThat(oracle.getGasPrice()).contains(Wei.of(10));
+
+    addBlock(oracle, 100);
+    assertThat(oracle.getGasPrice()).contains(Wei.of(20));
+  }
+
+  @Test
+  public void shouldReloadRecentBlocksOnChainReorg() {
+    final GasPriceOracle oracle = oracle(configuration(2, 100));
+    addBlock(oracle, 100);
+
+    final Hash reorgHash = Hash.fromHexStringLenient("0x1");
+    when(blockchain.getChainHeadBlockNumber()).thenReturn(1L);
+    when(blockchain.getBlockHashByNumber(1L)).thenReturn(Optional.of(reorgHash));
+    when(blockchain.getBlockBody(reorgHash)).thenReturn(Optional.of(body(7)));
+    oracle.onBlockAdded(
+        BlockAddedEvent.createForChainReorg(block(7), emptyList(), emptyList()), blockchain);
+
+    assertThat(oracle.getGasPrice()).contains(Wei.of(7));
+  }
+
+  private GasPriceOracle oracle(final GasPriceOracleConfiguration configuration) {
+    return new GasPriceOracle(configuration, blockchain, pendingTransactions);
+  }
+
+  private GasPriceOracleConfiguration configuration(final int blocks, final int percentile) {
+    return GasPriceOracleConfiguration.builder().blocks(blocks).percentile(percentile).build();
+  }
+
+  private void addBlock(final GasPriceOracle oracle, final long... gasPrices) {
+    oracle.onBlockAdded(BlockAddedEvent.createForHeadAdvancement(block(gasPrices)), blockchain);
+  }
+
+  private void mockPendingTransactions(final long... gasPrices) {
+    final Set<TransactionInfo> transactionInfo =
+        Arrays.stream(gasPrices)
+            .mapToObj(
+                gasPrice -> {
+                  final TransactionInfo info = mock(TransactionInfo.class);
+                  final Transaction transaction = transaction(gasPrice);
+                  when(info.getTransaction()).thenReturn(transaction);
+                  return info;
+                })
+            .collect(Collectors.toSet());
+    when(pendingTransactions.getTransactionInfo()).thenReturn(transactionInfo);
+  }
+
+  private Block block(final long... gasPrices) {
+    return new Block(mock(BlockHeader.class), body(gasPrices));
+  }
+
+  private BlockBody body(final long... gasPrices) {
+    return new BlockBody(
+        Arrays.stream(gasPrices).mapToObj(this::transaction).collect(Collectors.toList()),
+        emptyList());
+  }
+
+  private Transaction transaction(final long gasPrice) {
+    final Transaction transaction = mock(Transaction.class);
+    when(transaction.getGasPrice()).thenReturn(Wei.of(gasPrice));
+    return transaction;
+  }
+}
@@ -14,7 +14,6 @@ package tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import tech.pegasys.pantheon.ethereum.chain.Blockchain;
@@ -29,8 +28,7 @@ import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcResponse;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcSuccessResponse;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.Quantity;
 import tech.pegasys.pantheon.ethereum.transaction.CallParameter;
-import tech.pegasys.pantheon.ethereum.transaction.TransactionSimulator;
-import tech.pegasys.pantheon.ethereum.transaction.TransactionSimulatorResult;
+import tech.pegasys.pantheon.ethereum.transaction.TransactionGasEstimator;
 
 import java.util.Optional;
 
@@ -48,7 +46,7 @@ public class EthEstimateGasTest {
   @Mock private BlockHeader blockHeader;
   @Mock private Blockchain blockchain;
   @Mock private BlockchainQueries blockchainQueries;
-  @Mock private TransactionSimulator transactionSimulator;
+  @Mock private TransactionGasEstimator transactionGasEstimator;
 
   @Before
   public void setUp() {
@@ -56,9 +54,9 @@ public class EthEstimateGasTest {
     when(blockchainQueries.getBlockchain()).thenReturn(blockchain);
     when(blockchain.getBlockHeader(eq(1L))).thenReturn(Optional.of(blockHeader));
     when(blockHeader.getGasLimit()).thenReturn(Long.MAX_VALUE);
-    when(blockHeader.getNumber()).thenReturn(1L);
 
-    method = new EthEstimateGas(blockchainQueries, transactionSimulator, new JsonRpcParameter());
+    method =
+        new EthEstimateGas(blockchainQueries, transactionGasEstimator, new JsonRpcParameter());
   }
 
   @Test
@@ -67,9 +65,9 @@ public class EthEstimateGasTest {
   }
 
   @Test
-  public void shouldReturnErrorWhenTransientTransactionProcessorReturnsEmpty() {
+  public void shouldReturnErrorWhenGasEstimatorReturnsEmpty() {
     final JsonRpcRequest request = ethEstimateGasRequest(callParameter());
-    when(transactionSimulator.process(eq(modifiedCallParameter()), eq(1L)))
+    when(transactionGasEstimator.estimate(eq(modifiedCallParameter()), eq(blockHeader)))
         .thenReturn(Optional.empty());
 
     final JsonRpcResponse expectedResponse =
@@ -79,22 +77,16 @@ public class EthEstimateGasTest {
   }
 
   @Test
-  public void shouldReturnGasEstimateWhenTransientTransactionProcessorReturnsResult() {
+  public void shouldReturnGasEstimateWhenGasEstimatorReturnsResult() {
     final JsonRpcRequest request = ethEstimateGasRequest(callParameter());
-    mockTransientProcessorResultGasEstimate(1L);
+    when(transactionGasEstimator.estimate(eq(modifiedCallParameter()), eq(blockHeader)))
+        .thenReturn(Optional.of(1L));
 
     final JsonRpcResponse expectedResponse = new JsonRpcSuccessResponse(null, Quantity.create(1L));
 
     assertThat(method.response(request)).isEqualToComparingFieldByField(expectedResponse);
   }
 
-  private void mockTransientProcessorResultGasEstimate(final long gasEstimate) {
-    final TransactionSimulatorResult result = mock(TransactionSimulatorResult.class);
-    when(result.getGasEstimate()).thenReturn(gasEstimate);
-    when(transactionSimulator.process(eq(modifiedCallParameter()), eq(1L)))
-        .thenReturn(Optional.of(result));
-  }
-
   private JsonCallParameter callParameter() {
     return new JsonCallParameter("0x0", "0x0", "0x0", "0x0", "0x0", "");
   }
@@ -20,9 +20,12 @@ import static org.mockito.Mockito.when;
 import tech.pegasys.pantheon.ethereum.blockcreation.EthHashMiningCoordinator;
 import tech.pegasys.pantheon.ethereum.core.Wei;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.JsonRpcRequest;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.gasprice.GasPriceOracle;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcResponse;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcSuccessResponse;
 
+import java.util.Optional;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -32,6 +35,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 @RunWith(MockitoJUnitRunner.class)
 public class EthGasPriceTest {
 
+  @Mock private GasPriceOracle gasPriceOracle;
   @Mock private EthHashMiningCoordinator miningCoordinator;
   private EthGasPrice method;
   private final String JSON_RPC_VERSION = "2.0";
@@ -39,7 +43,7 @@ public class EthGasPriceTest {
 
   @Before
   public void setUp() {
-    method = new EthGasPrice(miningCoordinator);
+    method = new EthGasPrice(gasPriceOracle, miningCoordinator);
   }
 
   @Test
@@ -48,11 +52,34 @@ public class EthGasPriceTest {
   }
 
   @Test
-  public void shouldReturnExpectedValueWhenMiningCoordinatorExists() {
+  public void shouldReturnGasPriceSuggestedByOracle() {
+    final JsonRpcRequest request = requestWithParams();
+    final JsonRpcResponse expectedResponse = new JsonRpcSuccessResponse(request.getId(), "0x4d2");
+    when(gasPriceOracle.getGasPrice()).thenReturn(Optional.of(Wei.of(1234)));
+    when(miningCoordinator.getMinTransactionGasPrice()).thenReturn(Wei.of(1000));
+
+    final JsonRpcResponse actualResponse = method.response(request);
+    assertThat(actualResponse).isEqualToComparingFieldByField(expectedResponse);
+  }
+
+  @Test
+  public void shouldNotSuggestLessThanMinTransactionGasPrice() {
+    final JsonRpcRequest request = requestWithParams();
+    final JsonRpcResponse expectedResponse = new JsonRpcSuccessResponse(request.getId(), "0x4d2");
+    when(gasPriceOracle.getGasPrice()).thenReturn(Optional.of(Wei.of(1000)));
+    when(miningCoordinator.getMinTransactionGasPrice()).thenReturn(Wei.of(1234));
+
+    final JsonRpcResponse actualResponse = method.response(request);
+    assertThat(actualResponse).isEqualToComparingFieldByField(expectedResponse);
+  }
+
+  @Test
+  public void shouldReturnMinTransactionGasPriceWhenOracleHasNoSuggestion() {
     final JsonRpcRequest request = requestWithParams();
     final String expectedWei = "0x4d2";
     final JsonRpcResponse expectedResponse =
         new JsonRpcSuccessResponse(request.getId(), expectedWei);
+    when(gasPriceOracle.getGasPrice()).thenReturn(Optional.empty());
     when(miningCoordinator.getMinTransactionGasPrice()).thenReturn(Wei.of(1234));
 
     final JsonRpcResponse actualResponse = method.response(request);
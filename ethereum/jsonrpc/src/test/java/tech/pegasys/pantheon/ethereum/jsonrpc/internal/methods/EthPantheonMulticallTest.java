@@ -0,0 +1,219 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.JsonRpcRequest;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.exception.InvalidJsonRpcParameters;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.JsonCallParameter;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.JsonRpcParameter;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.BlockchainQueries;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcError;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcResponse;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcSuccessResponse;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.CallResult;
+import tech.pegasys.pantheon.ethereum.mainnet.TransactionValidator.TransactionInvalidReason;
+import tech.pegasys.pantheon.ethereum.mainnet.ValidationResult;
+import tech.pegasys.pantheon.ethereum.transaction.CallParameter;
+import tech.pegasys.pantheon.ethereum.transaction.TransactionSimulator;
+import tech.pegasys.pantheon.ethereum.transaction.TransactionSimulatorResult;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EthPantheonMulticallTest {
+
+  private static final long BLOCK_GAS_LIMIT = 8_000_000L;
+
+  @Mock private BlockchainQueries blockchainQueries;
+  @Mock private TransactionSimulator transactionSimulator;
+  @Mock private BlockHeader header;
+  @Mock private MutableWorldState worldState;
+  @Mock private Clock clock;
+
+  private EthPantheonMulticall method;
+
+  @Before
+  public void setUp() {
+    method =
+        new EthPantheonMulticall(
+            blockchainQueries, transactionSimulator, new JsonRpcParameter(), Runnable::run, clock);
+  }
+
+  @Test
+  public void shouldReturnCorrectMethodName() {
+    assertThat(method.getName()).isEqualTo("eth_pantheonMulticall");
+  }
+
+  @Test
+  public void shouldThrowInvalidJsonRpcParametersExceptionWhenAnyCallIsMissingToField() {
+    final JsonRpcRequest request =
+        request(callParameter("0x1"), new JsonCallParameter("0x0", null, "0x0", "0x0", "0x0", ""));
+
+    final Throwable thrown = catchThrowable(() -> method.response(request));
+
+    assertThat(thrown)
+        .isInstanceOf(InvalidJsonRpcParameters.class)
+        .hasMessage("Missing \"to\" field in call arguments");
+  }
+
+  @Test
+  public void shouldThrowInvalidJsonRpcParametersExceptionWhenThereAreTooManyCalls() {
+    final JsonCallParameter[] calls = new JsonCallParameter[EthPantheonMulticall.MAX_CALLS + 1];
+    Arrays.fill(calls, callParameter("0x1"));
+
+    final Throwable thrown = catchThrowable(() -> method.response(request(calls)));
+
+    assertThat(thrown).isInstanceOf(InvalidJsonRpcParameters.class);
+  }
+
+  @Test
+  public void shouldReturnNullWhenWorldStateIsNotAvailable() {
+    when(blockchainQueries.getBlockHeaderByNumber(5L)).thenReturn(Optional.of(header));
+    when(transactionSimulator.getWorldStateSnapshot(header)).thenReturn(Optional.empty());
+
+    final JsonRpcResponse response = method.response(request(callParameter("0x1")));
+
+    assertThat(response).isEqualToComparingFieldByField(new JsonRpcSuccessResponse(null, null));
+  }
+
+  @Test
+  public void shouldReturnResultsOfAllCallsInOrderUsingOneWorldState() {
+    mockBlockAndWorldState();
+    final CallParameter first = callParameter("0x1");
+    final CallParameter second = callParameter("0x2");
+    when(transactionSimulator.process(eq(capped(first)), eq(header), eq(worldState)))
+        .thenReturn(successfulResult(BytesValue.of(1)));
+    when(transactionSimulator.process(eq(capped(second)), eq(header), eq(worldState)))
+        .thenReturn(invalidResult(TransactionInvalidReason.INTRINSIC_GAS_EXCEEDS_GAS_LIMIT));
+
+    final JsonRpcResponse response = method.response(request(first, second));
+
+    assertThat(((JsonRpcSuccessResponse) response).getResult())
+        .isEqualTo(
+            Arrays.asList(
+                CallResult.success(BytesValue.of(1).toString()),
+                CallResult.error(JsonRpcError.INTRINSIC_GAS_EXCEEDS_LIMIT)));
+    verify(transactionSimulator).getWorldStateSnapshot(header);
+  }
+
+  @Test
+  public void shouldCapGasLimitOfCallsAtBlockGasLimit() {
+    mockBlockAndWorldState();
+    final CallParameter call =
+        new JsonCallParameter(
+            "0x0", "0x1", "0x" + Long.toHexString(BLOCK_GAS_LIMIT * 2), "0x0", "0x0", "");
+    when(transactionSimulator.process(any(), eq(header), eq(worldState)))
+        .thenReturn(successfulResult(BytesValue.EMPTY));
+
+    method.response(request(call));
+
+    verify(transactionSimulator).process(eq(capped(call)), eq(header), eq(worldState));
+  }
+
+  @Test
+  public void shouldNotStartCallsAfterTimeLimit() {
+    mockBlockAndWorldState();
+    when(clock.millis()).thenReturn(0L, 0L, EthPantheonMulticall.TIME_LIMIT_MILLIS + 1);
+    when(transactionSimulator.process(any(), eq(header), eq(worldState)))
+        .thenReturn(successfulResult(BytesValue.EMPTY));
+
+    final JsonRpcResponse response =
+        method.response(request(callParameter("0x1"), callParameter("0x2")));
+
+    assertThat(((JsonRpcSuccessResponse) response).getResult())
+        .isEqualTo(
+            Arrays.asList(
+                CallResult.success(BytesValue.EMPTY.toString()),
+                CallResult.error(JsonRpcError.CALL_TIME_LIMIT_EXCEEDED)));
+    verify(transactionSimulator, times(1)).process(any(), eq(header), eq(worldState));
+  }
+
+  @Test
+  public void shouldReportCallsWhichHaveNotCompletedByTimeLimit() {
+    when(blockchainQueries.getBlockHeaderByNumber(5L)).thenReturn(Optional.of(header));
+    when(transactionSimulator.getWorldStateSnapshot(header)).thenReturn(Optional.of(worldState));
+    when(clock.millis()).thenReturn(0L, EthPantheonMulticall.TIME_LIMIT_MILLIS + 1);
+    final EthPantheonMulticall stalledMethod =
+        new EthPantheonMulticall(
+            blockchainQueries, transactionSimulator, new JsonRpcParameter(), task -> {}, clock);
+
+    final JsonRpcResponse response = stalledMethod.response(request(callParameter("0x1")));
+
+    assertThat(((JsonRpcSuccessResponse) response).getResult())
+        .isEqualTo(Arrays.asList(CallResult.error(JsonRpcError.CALL_TIME_LIMIT_EXCEEDED)));
+    verify(transactionSimulator, never()).process(any(), any(), any());
+  }
+
+  private void mockBlockAndWorldState() {
+    when(header.getGasLimit()).thenReturn(BLOCK_GAS_LIMIT);
+    when(blockchainQueries.getBlockHeaderByNumber(5L)).thenReturn(Optional.of(header));
+    when(transactionSimulator.getWorldStateSnapshot(header)).thenReturn(Optional.of(worldState));
+  }
+
+  private CallParameter capped(final CallParameter callParameter) {
+    return new CallParameter(
+        callParameter.getFrom(),
+        callParameter.getTo(),
+        Math.min(
+            callParameter.getGasLimit() >= 0 ? callParameter.getGasLimit() : BLOCK_GAS_LIMIT,
+            BLOCK_GAS_LIMIT),
+        callParameter.getGasPrice(),
+        callParameter.getValue(),
+        callParameter.getPayload());
+  }
+
+  private TransactionSimulatorResult successfulResult(final BytesValue output) {
+    final TransactionSimulatorResult result = mock(TransactionSimulatorResult.class);
+    when(result.getValidationResult()).thenReturn(ValidationResult.valid());
+    when(result.getOutput()).thenReturn(output);
+    return result;
+  }
+
+  private TransactionSimulatorResult invalidResult(final TransactionInvalidReason reason) {
+    final TransactionSimulatorResult result = mock(TransactionSimulatorResult.class);
+    when(result.getValidationResult()).thenReturn(ValidationResult.invalid(reason));
+    return result;
+  }
+
+  private JsonCallParameter callParameter(final String to) {
+    return new JsonCallParameter("0x0", to, null, "0x0", "0x0", "");
+  }
+
+  private JsonRpcRequest request(final CallParameter... calls) {
+    final JsonCallParameter[] callParameters =
+        Arrays.copyOf(calls, calls.length, JsonCallParameter[].class);
+    return new JsonRpcRequest(
+        "2.0", "eth_pantheonMulticall", new Object[] {callParameters, "0x5"});
+  }
+}
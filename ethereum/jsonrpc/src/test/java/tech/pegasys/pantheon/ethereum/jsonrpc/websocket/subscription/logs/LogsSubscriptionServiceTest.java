@@ -32,6 +32,7 @@ import tech.pegasys.pantheon.ethereum.core.Log;
 import tech.pegasys.pantheon.ethereum.core.Transaction;
 import tech.pegasys.pantheon.ethereum.core.TransactionReceipt;
 import tech.pegasys.pantheon.ethereum.core.TransactionTestFixture;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.filter.LogsQueryIndex;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.FilterParameter;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.BlockchainQueries;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.LogWithMetadata;
@@ -42,8 +43,10 @@ import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import org.junit.Before;
@@ -65,9 +68,17 @@ public class LogsSubscriptionServiceTest {
   @Mock private BlockchainQueries blockchainQueries;
   @Mock private Blockchain blockchain;
 
+  private final Map<Hash, TransactionReceiptWithMetadata> receiptsByTransactionHash =
+      new HashMap<>();
+  private final LogsQueryIndex<LogsSubscription> subscriptionIndex =
+      new LogsQueryIndex<>(LogsSubscription::getLogsQuery);
+
   @Before
   public void before() {
     logsSubscriptionService = new LogsSubscriptionService(subscriptionManager, blockchainQueries);
+    when(subscriptionManager.logsSubscriptionIndex()).thenReturn(subscriptionIndex);
+    when(blockchainQueries.transactionReceiptsByTransactionHashes(any()))
+        .thenAnswer(invocation -> receiptsFor(invocation.getArgument(0)));
   }
 
   @Test
@@ -134,7 +145,7 @@ public class LogsSubscriptionServiceTest {
     logsSubscriptionService.onBlockAdded(
         createBlockAddedEvent(Collections.emptyList(), Collections.emptyList()), blockchain);
 
-    verify(subscriptionManager).subscriptionsOfType(any(), any());
+    verify(subscriptionManager).logsSubscriptionIndex();
     verify(subscriptionManager, times(0)).sendMessage(any(), any());
   }
 
@@ -147,7 +158,7 @@ public class LogsSubscriptionServiceTest {
 
     logsSubscriptionService.onBlockAdded(createBlockAddedEvent(transaction, null), blockchain);
 
-    verify(subscriptionManager).subscriptionsOfType(any(), any());
+    verify(subscriptionManager).logsSubscriptionIndex();
     verify(subscriptionManager, times(0)).sendMessage(any(), any());
   }
 
@@ -163,8 +174,7 @@ public class LogsSubscriptionServiceTest {
     final FilterParameter filterParameter =
         new FilterParameter(null, null, Lists.newArrayList(address.toString()), null, null);
     final LogsSubscription logsSubscription = new LogsSubscription(1L, filterParameter);
-    when(subscriptionManager.subscriptionsOfType(any(), any()))
-        .thenReturn(Lists.newArrayList(logsSubscription));
+    subscriptionIndex.add(logsSubscription);
     return logsSubscription;
   }
 
@@ -175,8 +185,7 @@ public class LogsSubscriptionServiceTest {
           new FilterParameter(null, null, Lists.newArrayList(address.toString()), null, null);
       subscriptions.add(new LogsSubscription((long) i, filterParameter));
     }
-    when(subscriptionManager.subscriptionsOfType(any(), any()))
-        .thenReturn(Lists.newArrayList(subscriptions));
+    subscriptions.forEach(subscriptionIndex::add);
     return subscriptions;
   }
 
@@ -203,12 +212,18 @@ public class LogsSubscriptionServiceTest {
             blockHeader.getHash(),
             blockHeader.getNumber());
 
-    when(blockchainQueries.transactionReceiptByTransactionHash(eq(transaction.hash())))
-        .thenReturn(Optional.of(transactionReceiptWithMetadata));
+    receiptsByTransactionHash.put(transaction.hash(), transactionReceiptWithMetadata);
 
     return transactionReceiptWithMetadata;
   }
 
+  private List<TransactionReceiptWithMetadata> receiptsFor(final List<Hash> transactionHashes) {
+    return transactionHashes.stream()
+        .filter(receiptsByTransactionHash::containsKey)
+        .map(receiptsByTransactionHash::get)
+        .collect(Collectors.toList());
+  }
+
   private BlockAddedEvent createBlockAddedEvent(
       final Transaction addedTransaction, final Transaction removedTransaction) {
     final Block block = mock(Block.class);
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.p2p.discovery.internal;
+
+import tech.pegasys.pantheon.ethereum.p2p.discovery.DiscoveryPeer;
+import tech.pegasys.pantheon.ethereum.p2p.discovery.PeerDiscoveryStatus;
+import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PeerTable.AddResult;
+import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PeerTable.AddResult.AddOutcome;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Simulates the peer table of a node in a discovery network, with every node in the network offered
+ * to the table as it would be when discovered during refresh rounds.
+ */
+@State(Scope.Benchmark)
+public class PeerTableBenchmark {
+
+  @Param({"10000"})
+  public int networkSize;
+
+  private DiscoveryPeer[] network;
+  private BytesValue[] targets;
+  private DiscoveryPeer[] tablePeers;
+  private PeerTable peerTable;
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    final Random random = new Random(1);
+    network = new DiscoveryPeer[networkSize];
+    for (int i = 0; i < networkSize; i++) {
+      network[i] = new DiscoveryPeer(randomId(random), "127.0.0.1", 30303 + i % 1000);
+      network[i].setStatus(PeerDiscoveryStatus.BONDED);
+    }
+    targets = new BytesValue[1024];
+    for (int i = 0; i < targets.length; i++) {
+      targets[i] = randomId(random);
+    }
+
+    peerTable = new PeerTable(randomId(random), 16);
+    for (final DiscoveryPeer peer : network) {
+      peerTable.tryAdd(peer);
+    }
+    tablePeers = peerTable.getAllPeers().toArray(DiscoveryPeer[]::new);
+  }
+
+  /** Answers a FindNeighbors request, as done for every request received from other nodes. */
+  @Benchmark
+  @Threads(4)
+  public List<DiscoveryPeer> nearestPeers(final Cursor cursor) {
+    return peerTable.nearestPeers(targets[cursor.next(targets.length)], 16);
+  }
+
+  /** Looks up the sender of a packet, as done for every packet received. */
+  @Benchmark
+  @Threads(4)
+  public boolean getKnownPeer(final Cursor cursor) {
+    return peerTable.get(tablePeers[cursor.next(tablePeers.length)]).isPresent();
+  }
+
+  /**
+   * Offers a peer from the network to the table, replacing the eviction candidate if its bucket is
+   * full.
+   */
+  @Benchmark
+  @Threads(1)
+  public AddOutcome addPeer(final Cursor cursor) {
+    final DiscoveryPeer peer = network[cursor.next(network.length)];
+    final AddResult result = peerTable.tryAdd(peer);
+    if (result.getOutcome() == AddOutcome.BUCKET_FULL) {
+      peerTable.tryEvict(result.getEvictionCandidate());
+      peerTable.tryAdd(peer);
+    }
+    return result.getOutcome();
+  }
+
+  private static BytesValue randomId(final Random random) {
+    final byte[] id = new byte[64];
+    random.nextBytes(id);
+    return BytesValue.wrap(id);
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    private final Random random = new Random();
+
+    int next(final int bound) {
+      return random.nextInt(bound);
+    }
+  }
+}
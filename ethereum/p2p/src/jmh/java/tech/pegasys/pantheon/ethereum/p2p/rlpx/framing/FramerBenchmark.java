@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.p2p.rlpx.framing;
+
+import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
+import tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.HandshakeSecrets;
+import tech.pegasys.pantheon.ethereum.p2p.wire.RawMessage;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.Random;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Thread)
+public class FramerBenchmark {
+
+  @Param({"100", "10000", "1000000"})
+  public int messageSize;
+
+  @Param({"false", "true"})
+  public boolean compressionEnabled;
+
+  private Framer framer;
+  private Framer deframer;
+  private MessageData message;
+  private ByteBuf buffer;
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    final Random random = new Random(1);
+    final byte[] aesSecret = new byte[32];
+    final byte[] macSecret = new byte[32];
+    final byte[] token = new byte[32];
+    random.nextBytes(aesSecret);
+    random.nextBytes(macSecret);
+    random.nextBytes(token);
+
+    // Both ends start with empty MACs, so the deframer's ingress state follows the framer's egress.
+    framer = new Framer(new HandshakeSecrets(aesSecret, macSecret, token));
+    deframer = new Framer(new HandshakeSecrets(aesSecret, macSecret, token));
+    if (compressionEnabled) {
+      framer.enableCompression();
+      deframer.enableCompression();
+    }
+
+    // Half random, half zero bytes so compression has something to do.
+    final byte[] data = new byte[messageSize];
+    final byte[] randomBytes = new byte[messageSize / 2];
+    random.nextBytes(randomBytes);
+    System.arraycopy(randomBytes, 0, data, 0, randomBytes.length);
+    message = new RawMessage(0x10, BytesValue.wrap(data));
+
+    buffer = PooledByteBufAllocator.DEFAULT.directBuffer();
+  }
+
+  @TearDown(Level.Trial)
+  public void release() {
+    buffer.release();
+  }
+
+  @Benchmark
+  public MessageData frameAndDeframe() {
+    buffer.clear();
+    framer.frame(message, buffer);
+    return deframer.deframe(buffer);
+  }
+}
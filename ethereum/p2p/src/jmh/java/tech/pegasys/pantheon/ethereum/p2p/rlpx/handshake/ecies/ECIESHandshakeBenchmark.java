@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.ecies;
+
+import tech.pegasys.pantheon.crypto.SECP256K1.KeyPair;
+import tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.HandshakeSecrets;
+
+import io.netty.buffer.ByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures complete RLPx handshakes per second, as done for every connection established with
+ * another node, between two nodes which reconnect to each other repeatedly.
+ */
+@State(Scope.Benchmark)
+public class ECIESHandshakeBenchmark {
+
+  @Param({"true", "false"})
+  public boolean cacheStaticSharedSecrets;
+
+  private KeyPair initiatorKeyPair;
+  private KeyPair responderKeyPair;
+  private StaticSharedSecrets initiatorSecrets;
+  private StaticSharedSecrets responderSecrets;
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    initiatorKeyPair = KeyPair.generate();
+    responderKeyPair = KeyPair.generate();
+    initiatorSecrets = new StaticSharedSecrets(initiatorKeyPair);
+    responderSecrets = new StaticSharedSecrets(responderKeyPair);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public HandshakeSecrets handshake() {
+    final ECIESHandshaker initiator = createHandshaker(initiatorSecrets);
+    final ECIESHandshaker responder = createHandshaker(responderSecrets);
+    initiator.prepareInitiator(initiatorKeyPair, responderKeyPair.getPublicKey());
+    responder.prepareResponder(responderKeyPair);
+
+    final ByteBuf response =
+        responder.handleMessage(initiator.firstMessage()).orElseThrow(IllegalStateException::new);
+    initiator.handleMessage(response);
+    return initiator.secrets();
+  }
+
+  private ECIESHandshaker createHandshaker(final StaticSharedSecrets secrets) {
+    return cacheStaticSharedSecrets ? new ECIESHandshaker(secrets) : new ECIESHandshaker();
+  }
+}
@@ -90,6 +90,18 @@ public interface PeerConnection {
   /** @return True if the peer is disconnected */
   boolean isDisconnected();
 
+  /**
+   * Returns whether messages can be sent to the peer without queuing more data than the
+   * connection's write buffer allows. Senders of messages that can be delayed or dropped, such as
+   * gossip, should hold them back while the peer is not writable so responses to requests aren't
+   * held up behind them.
+   *
+   * @return True if the connection can accept more outbound data
+   */
+  default boolean isWritable() {
+    return true;
+  }
+
   SocketAddress getLocalAddress();
 
   SocketAddress getRemoteAddress();
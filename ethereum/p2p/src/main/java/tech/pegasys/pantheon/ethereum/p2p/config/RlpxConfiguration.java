@@ -15,10 +15,17 @@ package tech.pegasys.pantheon.ethereum.p2p.config;
 import java.util.Objects;
 
 public class RlpxConfiguration {
+  /** Worker thread count which sizes the worker event loop group to the maximum peer count. */
+  public static final int AUTOMATIC_WORKER_THREADS = 0;
+
+  private static final int PEERS_PER_WORKER_THREAD = 10;
+
   private String clientId = "TestClient/1.0.0";
   private String bindHost = "0.0.0.0";
   private int bindPort = 30303;
   private int maxPeers = 25;
+  private int workerThreads = AUTOMATIC_WORKER_THREADS;
+  private boolean nativeTransportEnabled = true;
   private WireProtocolConfig wire = new WireProtocolConfig();
 
   public static RlpxConfiguration create() {
@@ -61,6 +68,35 @@ public class RlpxConfiguration {
     return maxPeers;
   }
 
+  public RlpxConfiguration setWorkerThreads(final int workerThreads) {
+    this.workerThreads = workerThreads;
+    return this;
+  }
+
+  /**
+   * Returns the number of threads handling socket I/O for peer connections.
+   *
+   * @return the configured number of threads, or if set to {@link #AUTOMATIC_WORKER_THREADS} one
+   *     thread for every {@value #PEERS_PER_WORKER_THREAD} peers, up to the number of available
+   *     processors
+   */
+  public int getWorkerThreads() {
+    if (workerThreads != AUTOMATIC_WORKER_THREADS) {
+      return workerThreads;
+    }
+    final int threadsForPeers = (maxPeers + PEERS_PER_WORKER_THREAD - 1) / PEERS_PER_WORKER_THREAD;
+    return Math.max(1, Math.min(threadsForPeers, Runtime.getRuntime().availableProcessors()));
+  }
+
+  public RlpxConfiguration setNativeTransportEnabled(final boolean nativeTransportEnabled) {
+    this.nativeTransportEnabled = nativeTransportEnabled;
+    return this;
+  }
+
+  public boolean isNativeTransportEnabled() {
+    return nativeTransportEnabled;
+  }
+
   public String getClientId() {
     return clientId;
   }
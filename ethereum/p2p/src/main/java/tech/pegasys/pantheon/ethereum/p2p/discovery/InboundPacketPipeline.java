@@ -0,0 +1,199 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.p2p.discovery;
+
+import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.Packet;
+import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PeerDiscoveryController.AsyncExecutor;
+import tech.pegasys.pantheon.ethereum.p2p.peers.Endpoint;
+import tech.pegasys.pantheon.metrics.Counter;
+import tech.pegasys.pantheon.metrics.LabelledMetric;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.OperationTimer;
+import tech.pegasys.pantheon.metrics.OperationTimer.TimingContext;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import io.vertx.core.buffer.Buffer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Takes received discovery packets through the checks needed before they are handled.
+ *
+ * <p>Packets are first rate limited by the IP address they came from and checked for integrity,
+ * which is cheap enough to do on the thread receiving them. Recovering the signature is expensive,
+ * so is done on a worker executor. The number of packets waiting for their signature to be
+ * recovered is bounded and packets which arrive when it has been reached are dropped, so a flood
+ * of packets can't build an unbounded backlog.
+ */
+class InboundPacketPipeline {
+  private static final Logger LOG = LogManager.getLogger();
+
+  static final int MAX_PENDING_PACKETS = 1000;
+  static final double PACKETS_PER_SECOND_PER_IP = 100;
+  static final int MAX_PACKET_BURST_PER_IP = 200;
+  static final int MAX_TRACKED_IPS = 4096;
+
+  private final AsyncExecutor verificationExecutor;
+  private final BiConsumer<Endpoint, Packet> packetHandler;
+  private final Clock clock;
+  private final AtomicInteger pendingPackets = new AtomicInteger();
+  private final Map<String, RateLimit> rateLimits =
+      new LinkedHashMap<String, RateLimit>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, RateLimit> eldest) {
+          return size() > MAX_TRACKED_IPS;
+        }
+      };
+
+  private final LabelledMetric<Counter> droppedPacketsCounter;
+  private final OperationTimer verificationTimer;
+
+  /**
+   * Creates a pipeline which passes packets with a valid signature to a handler.
+   *
+   * @param verificationExecutor runs signature recovery. Results must be delivered on the thread
+   *     receiving packets if the handler is not thread safe.
+   * @param packetHandler handles the verified packets along with the endpoint they came from
+   * @param metricsSystem the metrics system
+   * @param clock the clock used for rate limiting
+   */
+  InboundPacketPipeline(
+      final AsyncExecutor verificationExecutor,
+      final BiConsumer<Endpoint, Packet> packetHandler,
+      final MetricsSystem metricsSystem,
+      final Clock clock) {
+    this.verificationExecutor = verificationExecutor;
+    this.packetHandler = packetHandler;
+    this.clock = clock;
+
+    droppedPacketsCounter =
+        metricsSystem.createLabelledCounter(
+            MetricCategory.NETWORK,
+            "discovery_packets_dropped",
+            "Total number of received P2P discovery packets dropped before being handled",
+            "reason");
+    verificationTimer =
+        metricsSystem.createTimer(
+            MetricCategory.NETWORK,
+            "discovery_packet_verification_seconds",
+            "Time taken to recover the signature of received P2P discovery packets");
+    metricsSystem.createIntegerGauge(
+        MetricCategory.NETWORK,
+        "discovery_packet_verification_queue_depth",
+        "Current number of received P2P discovery packets waiting for signature recovery",
+        pendingPackets::get);
+  }
+
+  /**
+   * Takes a received packet through the pipeline.
+   *
+   * @param host the IP address the packet came from
+   * @param port the port the packet came from
+   * @param data the packet
+   */
+  void receive(final String host, final int port, final Buffer data) {
+    if (!tryAcquire(host)) {
+      drop("rate_limited");
+      return;
+    }
+    try {
+      Packet.checkIntegrity(data);
+    } catch (final PeerDiscoveryPacketDecodingException e) {
+      LOG.debug("Discarding invalid peer discovery packet: {}", e.getMessage());
+      drop("invalid");
+      return;
+    }
+    if (pendingPackets.incrementAndGet() > MAX_PENDING_PACKETS) {
+      pendingPackets.decrementAndGet();
+      drop("overloaded");
+      return;
+    }
+
+    final Endpoint endpoint = new Endpoint(host, port, OptionalInt.empty());
+    verificationExecutor
+        .execute(() -> verify(data))
+        .whenComplete(
+            (packet, error) -> {
+              pendingPackets.decrementAndGet();
+              if (error == null) {
+                packetHandler.accept(endpoint, packet);
+                return;
+              }
+              final Throwable cause =
+                  error instanceof CompletionException && error.getCause() != null
+                      ? error.getCause()
+                      : error;
+              if (cause instanceof PeerDiscoveryPacketDecodingException) {
+                LOG.debug("Discarding invalid peer discovery packet: {}", cause.getMessage());
+                drop("invalid");
+              } else {
+                LOG.error("Encountered error while handling packet", cause);
+              }
+            });
+  }
+
+  private Packet verify(final Buffer data) {
+    final TimingContext timingContext = verificationTimer.startTimer();
+    try {
+      return Packet.decodeIntegrityChecked(data);
+    } finally {
+      timingContext.stopTimer();
+    }
+  }
+
+  private void drop(final String reason) {
+    droppedPacketsCounter.labels(reason).inc();
+  }
+
+  private synchronized boolean tryAcquire(final String host) {
+    final long now = clock.millis();
+    RateLimit rateLimit = rateLimits.get(host);
+    if (rateLimit == null) {
+      rateLimit = new RateLimit(now);
+      rateLimits.put(host, rateLimit);
+    }
+    return rateLimit.tryAcquire(now);
+  }
+
+  /** A token bucket limiting the rate packets are accepted from one IP address. */
+  private static class RateLimit {
+    private double tokens = MAX_PACKET_BURST_PER_IP;
+    private long lastRefillMillis;
+
+    RateLimit(final long now) {
+      this.lastRefillMillis = now;
+    }
+
+    boolean tryAcquire(final long now) {
+      final long elapsed = now - lastRefillMillis;
+      if (elapsed > 0) {
+        tokens =
+            Math.min(MAX_PACKET_BURST_PER_IP, tokens + elapsed * PACKETS_PER_SECOND_PER_IP / 1000);
+        lastRefillMillis = now;
+      }
+      if (tokens < 1) {
+        return false;
+      }
+      tokens--;
+      return true;
+    }
+  }
+}
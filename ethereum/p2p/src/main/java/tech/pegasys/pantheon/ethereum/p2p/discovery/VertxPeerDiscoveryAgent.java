@@ -22,7 +22,6 @@ import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PeerDiscoveryContro
 import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PeerRequirement;
 import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.TimerUtil;
 import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.VertxTimerUtil;
-import tech.pegasys.pantheon.ethereum.p2p.peers.Endpoint;
 import tech.pegasys.pantheon.ethereum.p2p.peers.PeerBlacklist;
 import tech.pegasys.pantheon.ethereum.permissioning.NodeLocalConfigPermissioningController;
 import tech.pegasys.pantheon.ethereum.permissioning.node.NodePermissioningController;
@@ -34,13 +33,16 @@ import java.io.IOException;
 import java.net.BindException;
 import java.net.InetSocketAddress;
 import java.net.SocketException;
+import java.time.Clock;
 import java.util.Optional;
-import java.util.OptionalInt;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
 import io.vertx.core.datagram.DatagramPacket;
 import io.vertx.core.datagram.DatagramSocket;
 import io.vertx.core.datagram.DatagramSocketOptions;
@@ -49,8 +51,13 @@ import org.apache.logging.log4j.Logger;
 
 public class VertxPeerDiscoveryAgent extends PeerDiscoveryAgent {
   private static final Logger LOG = LogManager.getLogger();
+  private static final int VERIFICATION_WORKERS =
+      Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
 
   private final Vertx vertx;
+  /* Recovers the signatures of received packets, keeping the work off the event loop. */
+  private final WorkerExecutor verificationWorkers;
+  private final InboundPacketPipeline inboundPacketPipeline;
   /* The vert.x UDP socket. */
   private DatagramSocket socket;
 
@@ -73,6 +80,14 @@ public class VertxPeerDiscoveryAgent extends PeerDiscoveryAgent {
         metricsSystem);
     checkArgument(vertx != null, "vertx instance cannot be null");
     this.vertx = vertx;
+    this.verificationWorkers =
+        vertx.createSharedWorkerExecutor("discovery-packet-verification", VERIFICATION_WORKERS);
+    this.inboundPacketPipeline =
+        new InboundPacketPipeline(
+            new WorkerPoolAsyncExecutor(),
+            this::handleIncomingPacket,
+            metricsSystem,
+            Clock.systemUTC());
   }
 
   @Override
@@ -155,6 +170,7 @@ public class VertxPeerDiscoveryAgent extends PeerDiscoveryAgent {
   @Override
   public CompletableFuture<?> stop() {
     if (socket == null) {
+      verificationWorkers.close();
       return CompletableFuture.completedFuture(null);
     }
 
@@ -163,6 +179,7 @@ public class VertxPeerDiscoveryAgent extends PeerDiscoveryAgent {
         ar -> {
           if (ar.succeeded()) {
             controller.ifPresent(PeerDiscoveryController::stop);
+            verificationWorkers.close();
             socket = null;
             completion.complete(null);
           } else {
@@ -199,13 +216,10 @@ public class VertxPeerDiscoveryAgent extends PeerDiscoveryAgent {
           "Packet too large. Actual size (bytes): %s",
           length);
 
-      // We allow exceptions to bubble up, as they'll be picked up by the exception handler.
-      final Packet packet = Packet.decode(datagram.data());
       // Acquire the senders coordinates to build a Peer representation from them.
       final String host = datagram.sender().host();
       final int port = datagram.sender().port();
-      final Endpoint endpoint = new Endpoint(host, port, OptionalInt.empty());
-      handleIncomingPacket(endpoint, packet);
+      inboundPacketPipeline.receive(host, port, datagram.data());
     } catch (final PeerDiscoveryPacketDecodingException e) {
       LOG.debug("Discarding invalid peer discovery packet: {}", e.getMessage());
     } catch (final Throwable t) {
@@ -213,27 +227,46 @@ public class VertxPeerDiscoveryAgent extends PeerDiscoveryAgent {
     }
   }
 
+  private static <T> Handler<Future<T>> blockingHandler(final Supplier<T> action) {
+    return future -> {
+      try {
+        future.complete(action.get());
+      } catch (final Throwable t) {
+        future.fail(t);
+      }
+    };
+  }
+
+  private static <T> Handler<AsyncResult<T>> resultHandler(final CompletableFuture<T> result) {
+    return event -> {
+      if (event.succeeded()) {
+        result.complete(event.result());
+      } else {
+        result.completeExceptionally(event.cause());
+      }
+    };
+  }
+
   private class VertxAsyncExecutor implements AsyncExecutor {
 
     @Override
     public <T> CompletableFuture<T> execute(final Supplier<T> action) {
       final CompletableFuture<T> result = new CompletableFuture<>();
-      vertx.<T>executeBlocking(
-          future -> {
-            try {
-              future.complete(action.get());
-            } catch (final Throwable t) {
-              future.fail(t);
-            }
-          },
-          false,
-          event -> {
-            if (event.succeeded()) {
-              result.complete(event.result());
-            } else {
-              result.completeExceptionally(event.cause());
-            }
-          });
+      vertx.<T>executeBlocking(blockingHandler(action), false, resultHandler(result));
+      return result;
+    }
+  }
+
+  /**
+   * Runs actions on the verification workers. As with {@link VertxAsyncExecutor}, the returned
+   * future is completed on the event loop which called execute.
+   */
+  private class WorkerPoolAsyncExecutor implements AsyncExecutor {
+
+    @Override
+    public <T> CompletableFuture<T> execute(final Supplier<T> action) {
+      final CompletableFuture<T> result = new CompletableFuture<>();
+      verificationWorkers.<T>executeBlocking(blockingHandler(action), false, resultHandler(result));
       return result;
     }
   }
@@ -15,6 +15,7 @@ package tech.pegasys.pantheon.ethereum.p2p.discovery.internal;
 import static java.lang.System.arraycopy;
 import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableList;
+import static tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PeerDistanceCalculator.KEY_LONGS;
 
 import tech.pegasys.pantheon.ethereum.p2p.discovery.DiscoveryPeer;
 import tech.pegasys.pantheon.ethereum.p2p.peers.PeerId;
@@ -32,11 +33,14 @@ import java.util.Optional;
  * recently accessed peer</i> and the tail is the <i>least recently accessed peer</i>. If the bucket
  * is full, the <i>least recently accessed peer</i> is proposed for eviction, thus aiming to keep
  * the bucket filled with alive, responsive peers.
+ *
+ * <p>The array is copied on write and never modified once published, so reads don't take a lock.
+ * Alongside each peer the bucket keeps the keccak-256 hash of its ID as a node key, so distances to
+ * the peers can be calculated without allocating.
  */
 public class Bucket {
-  private final DiscoveryPeer[] kBucket;
   private final int bucketSize;
-  private int tailIndex = -1;
+  private volatile Contents contents = Contents.EMPTY;
 
   /**
    * Creates a new bucket with the provided maximum size.
@@ -46,7 +50,6 @@ public class Bucket {
    */
   Bucket(final int bucketSize) {
     this.bucketSize = bucketSize;
-    this.kBucket = new DiscoveryPeer[bucketSize];
   }
 
   /**
@@ -59,23 +62,40 @@ public class Bucket {
    * @return An empty optional if the peer was not a member of this bucket, or a filled optional if
    *     it was.
    */
-  synchronized Optional<DiscoveryPeer> getAndTouch(final BytesValue id) {
-    for (int i = 0; i <= tailIndex; i++) {
-      final DiscoveryPeer p = kBucket[i];
+  Optional<DiscoveryPeer> getAndTouch(final BytesValue id) {
+    final DiscoveryPeer[] peers = contents.peers;
+    for (int i = 0; i < peers.length; i++) {
+      final DiscoveryPeer p = peers[i];
       if (id.equals(p.getId())) {
-        arraycopy(kBucket, 0, kBucket, 1, i);
-        kBucket[0] = p;
+        if (i > 0) {
+          touch(p);
+        }
         return Optional.of(p);
       }
     }
     return Optional.empty();
   }
 
+  private synchronized void touch(final DiscoveryPeer peer) {
+    final Contents current = contents;
+    final int index = current.indexOf(peer);
+    // The peer may have been moved or evicted since it was found.
+    if (index <= 0) {
+      return;
+    }
+    final Contents updated = current.copy();
+    arraycopy(current.peers, 0, updated.peers, 1, index);
+    arraycopy(current.keys, 0, updated.keys, KEY_LONGS, index * KEY_LONGS);
+    updated.peers[0] = peer;
+    arraycopy(current.keys, index * KEY_LONGS, updated.keys, 0, KEY_LONGS);
+    contents = updated;
+  }
+
   /**
    * Appends the specified element to the head of the bucket array if capacity hasn't yet been
    * reached. Shifts the element currently at that position (if any) and any subsequent elements to
-   * the right (adds one to their indices). If the bucket is empty, the last argument (length to
-   * copy) will be 0. This method will not "touch" the peer, i.e. relocate it to the head.
+   * the right (adds one to their indices). This method will not "touch" the peer, i.e. relocate it
+   * to the head.
    *
    * <p>In the case that the bucket is at maximum capacity the peer at the tail of the list,
    * necessarily the peer that has been incomunicative for the longest time is returned as a
@@ -87,20 +107,26 @@ public class Bucket {
    */
   synchronized Optional<DiscoveryPeer> add(final DiscoveryPeer peer)
       throws IllegalArgumentException {
-    assert tailIndex >= -1 && tailIndex < bucketSize;
+    final Contents current = contents;
+    final int size = current.peers.length;
+    assert size <= bucketSize;
 
     // Avoid duplicating the peer if it already exists in the bucket.
-    for (int i = 0; i <= tailIndex; i++) {
-      if (peer.equals(kBucket[i])) {
+    for (final DiscoveryPeer existing : current.peers) {
+      if (peer.equals(existing)) {
         throw new IllegalArgumentException(
             String.format("Tried to add duplicate peer to k-bucket: %s", peer.getId()));
       }
     }
-    if (tailIndex == bucketSize - 1) {
-      return Optional.of(kBucket[tailIndex]);
+    if (size == bucketSize) {
+      return Optional.of(current.peers[size - 1]);
     }
-    arraycopy(kBucket, 0, kBucket, 1, ++tailIndex);
-    kBucket[0] = peer;
+    final Contents updated = new Contents(size + 1);
+    arraycopy(current.peers, 0, updated.peers, 1, size);
+    arraycopy(current.keys, 0, updated.keys, KEY_LONGS, size * KEY_LONGS);
+    updated.peers[0] = peer;
+    PeerDistanceCalculator.toKey(peer.keccak256(), updated.keys, 0);
+    contents = updated;
     return Optional.empty();
   }
 
@@ -112,16 +138,23 @@ public class Bucket {
    * @return <code>true</code>
    */
   synchronized boolean evict(final PeerId peer) {
-    // If the bucket is empty, there's nothing to evict.
-    if (tailIndex < 0) {
-      return false;
-    }
-    // If found, shift all subsequent elements to the left, and decrement tailIndex.
-    for (int i = 0; i <= tailIndex; i++) {
+    final Contents current = contents;
+    final int size = current.peers.length;
+    // If found, copy all other elements, shifting subsequent elements to the left.
+    for (int i = 0; i < size; i++) {
       // Peer comparison here must be done by peer id
-      if (peer.getId().equals(kBucket[i].getId())) {
-        arraycopy(kBucket, i + 1, kBucket, i, tailIndex - i);
-        kBucket[tailIndex--] = null;
+      if (peer.getId().equals(current.peers[i].getId())) {
+        final Contents updated = new Contents(size - 1);
+        arraycopy(current.peers, 0, updated.peers, 0, i);
+        arraycopy(current.peers, i + 1, updated.peers, i, size - i - 1);
+        arraycopy(current.keys, 0, updated.keys, 0, i * KEY_LONGS);
+        arraycopy(
+            current.keys,
+            (i + 1) * KEY_LONGS,
+            updated.keys,
+            i * KEY_LONGS,
+            (size - i - 1) * KEY_LONGS);
+        contents = updated;
         return true;
       }
     }
@@ -134,12 +167,53 @@ public class Bucket {
    *
    * @return immutable view of the peer array
    */
-  synchronized List<DiscoveryPeer> peers() {
-    return unmodifiableList(asList(Arrays.copyOf(kBucket, tailIndex + 1)));
+  List<DiscoveryPeer> peers() {
+    return unmodifiableList(asList(contents.peers));
+  }
+
+  /**
+   * Returns the current contents of the bucket. The returned contents are never modified.
+   *
+   * @return the bucket's peers and their node keys
+   */
+  Contents contents() {
+    return contents;
   }
 
   @Override
   public String toString() {
-    return Arrays.toString(kBucket);
+    return Arrays.toString(contents.peers);
+  }
+
+  /**
+   * The peers in a bucket, most recently accessed first, along with their node keys. The node key
+   * of the peer at index {@code i} is held in {@code keys} starting at index {@code i * KEY_LONGS}.
+   */
+  static class Contents {
+    private static final Contents EMPTY = new Contents(0);
+
+    final DiscoveryPeer[] peers;
+    final long[] keys;
+
+    private Contents(final int size) {
+      this.peers = new DiscoveryPeer[size];
+      this.keys = new long[size * KEY_LONGS];
+    }
+
+    private Contents copy() {
+      final Contents copy = new Contents(peers.length);
+      arraycopy(peers, 0, copy.peers, 0, peers.length);
+      arraycopy(keys, 0, copy.keys, 0, keys.length);
+      return copy;
+    }
+
+    private int indexOf(final DiscoveryPeer peer) {
+      for (int i = 0; i < peers.length; i++) {
+        if (peers[i] == peer) {
+          return i;
+        }
+      }
+      return -1;
+    }
   }
 }
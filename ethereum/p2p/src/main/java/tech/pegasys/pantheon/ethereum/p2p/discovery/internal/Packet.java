@@ -69,13 +69,6 @@ public class Packet {
     final BytesValue signedPayload =
         message.slice(PACKET_TYPE_INDEX, message.size() - PACKET_TYPE_INDEX);
 
-    // Perform hash integrity check.
-    final BytesValue rest = message.slice(SIGNATURE_INDEX, message.size() - SIGNATURE_INDEX);
-    if (!Arrays.equals(keccak256(rest).extractArray(), hash.extractArray())) {
-      throw new PeerDiscoveryPacketDecodingException(
-          "Integrity check failed: non-matching hashes.");
-    }
-
     this.type = packetType;
     this.data = packetData;
     this.hash = hash;
@@ -94,6 +87,19 @@ public class Packet {
   }
 
   public static Packet decode(final Buffer message) {
+    checkIntegrity(message);
+    return decodeIntegrityChecked(message);
+  }
+
+  /**
+   * Checks that a received packet is long enough, has a known type and that its hash matches its
+   * contents. This is cheap compared to recovering the signature, so can be used to discard invalid
+   * packets before doing so.
+   *
+   * @param message the received packet
+   * @throws PeerDiscoveryPacketDecodingException if the packet is invalid
+   */
+  public static void checkIntegrity(final Buffer message) {
     checkGuard(
         message.length() >= PACKET_DATA_INDEX,
         PeerDiscoveryPacketDecodingException::new,
@@ -101,14 +107,28 @@ public class Packet {
         PACKET_DATA_INDEX,
         message.length());
 
-    final byte type = message.getByte(PACKET_TYPE_INDEX);
+    packetType(message);
 
-    final PacketType packetType =
-        PacketType.forByte(type)
-            .orElseThrow(
-                () ->
-                    new PeerDiscoveryPacketDecodingException("Unrecognized packet type: " + type));
+    // Perform hash integrity check.
+    final BytesValue bytes = BytesValue.wrapBuffer(message);
+    final BytesValue hash = bytes.slice(0, SIGNATURE_INDEX);
+    final BytesValue rest = bytes.slice(SIGNATURE_INDEX, bytes.size() - SIGNATURE_INDEX);
+    if (!Arrays.equals(keccak256(rest).extractArray(), hash.extractArray())) {
+      throw new PeerDiscoveryPacketDecodingException(
+          "Integrity check failed: non-matching hashes.");
+    }
+  }
 
+  /**
+   * Decodes a packet which has passed {@link #checkIntegrity(Buffer)}, recovering the public key of
+   * the node which signed it.
+   *
+   * @param message the received packet
+   * @return the decoded packet
+   * @throws PeerDiscoveryPacketDecodingException if the packet data or signature is invalid
+   */
+  public static Packet decodeIntegrityChecked(final Buffer message) {
+    final PacketType packetType = packetType(message);
     final PacketType.Deserializer<?> deserializer = packetType.getDeserializer();
     final PacketData packetData;
     try {
@@ -120,6 +140,13 @@ public class Packet {
     return new Packet(packetType, packetData, BytesValue.wrapBuffer(message));
   }
 
+  private static PacketType packetType(final Buffer message) {
+    final byte type = message.getByte(PACKET_TYPE_INDEX);
+    return PacketType.forByte(type)
+        .orElseThrow(
+            () -> new PeerDiscoveryPacketDecodingException("Unrecognized packet type: " + type));
+  }
+
   public Buffer encode() {
     final BytesValue encodedSignature = encodeSignature(signature);
     final BytesValueRLPOutput encodedData = new BytesValueRLPOutput();
@@ -12,12 +12,14 @@
  */
 package tech.pegasys.pantheon.ethereum.p2p.discovery.internal;
 
+import tech.pegasys.pantheon.util.bytes.Bytes32;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
-import java.util.Arrays;
-
 public class PeerDistanceCalculator {
 
+  /** The number of longs in a node key, the keccak-256 hash of a node ID. */
+  static final int KEY_LONGS = Bytes32.SIZE / Long.BYTES;
+
   /**
    * Calculates the XOR distance between two values.
    *
@@ -27,24 +29,94 @@ public class PeerDistanceCalculator {
    */
   static int distance(final BytesValue v1, final BytesValue v2) {
     assert (v1.size() == v2.size());
-    final byte[] v1b = v1.extractArray();
-    final byte[] v2b = v2.extractArray();
-    if (Arrays.equals(v1b, v2b)) {
-      return 0;
+    final int size = v1.size();
+    for (int i = 0; i < size; i++) {
+      final int xor = (v1.get(i) ^ v2.get(i)) & 0xff;
+      if (xor != 0) {
+        return (size - i) * 8 - (Integer.numberOfLeadingZeros(xor) - 24);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Calculates the XOR distance between a node key and the keccak-256 hash of a node ID.
+   *
+   * @param key the array holding the node key
+   * @param offset the index of the node key's first long in the array
+   * @param hash the hash of the other node's ID
+   * @return the distance
+   */
+  static int distance(final long[] key, final int offset, final Bytes32 hash) {
+    for (int i = 0; i < KEY_LONGS; i++) {
+      final long xor = key[offset + i] ^ hash.getLong(i * Long.BYTES);
+      if (xor != 0) {
+        return (KEY_LONGS - i) * Long.SIZE - Long.numberOfLeadingZeros(xor);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Calculates the XOR distance between two node keys.
+   *
+   * @param key1 the array holding the first node key
+   * @param offset1 the index of the first node key's first long in its array
+   * @param key2 the array holding the second node key
+   * @param offset2 the index of the second node key's first long in its array
+   * @return the distance
+   */
+  static int distance(final long[] key1, final int offset1, final long[] key2, final int offset2) {
+    for (int i = 0; i < KEY_LONGS; i++) {
+      final long xor = key1[offset1 + i] ^ key2[offset2 + i];
+      if (xor != 0) {
+        return (KEY_LONGS - i) * Long.SIZE - Long.numberOfLeadingZeros(xor);
+      }
     }
-    int distance = v1b.length * 8;
-    for (int i = 0; i < v1b.length; i++) {
-      final byte xor = (byte) (0xff & (v1b[i] ^ v2b[i]));
-      if (xor == 0) {
-        distance -= 8;
-      } else {
-        int p = 7;
-        while (((xor >> p--) & 0x01) == 0) {
-          distance--;
-        }
-        break;
+    return 0;
+  }
+
+  /**
+   * Compares how close two node keys are to a target. Unlike {@link #distance(long[], int, long[],
+   * int)}, keys at the same log distance from the target are ordered by their full XOR distance.
+   *
+   * @param target the array holding the target key
+   * @param targetOffset the index of the target key's first long in its array
+   * @param key1 the array holding the first node key
+   * @param offset1 the index of the first node key's first long in its array
+   * @param key2 the array holding the second node key
+   * @param offset2 the index of the second node key's first long in its array
+   * @return a negative number, zero or a positive number as the first key is closer to, as close
+   *     to or further from the target than the second
+   */
+  static int compareDistances(
+      final long[] target,
+      final int targetOffset,
+      final long[] key1,
+      final int offset1,
+      final long[] key2,
+      final int offset2) {
+    for (int i = 0; i < KEY_LONGS; i++) {
+      final long xor1 = target[targetOffset + i] ^ key1[offset1 + i];
+      final long xor2 = target[targetOffset + i] ^ key2[offset2 + i];
+      if (xor1 != xor2) {
+        return Long.compareUnsigned(xor1, xor2);
       }
     }
-    return distance;
+    return 0;
+  }
+
+  /**
+   * Stores a keccak-256 hash in an array as a node key, so distances can be calculated without
+   * allocating.
+   *
+   * @param hash the hash to store
+   * @param key the array to store the key in
+   * @param offset the index at which to store the key's first long
+   */
+  static void toKey(final Bytes32 hash, final long[] key, final int offset) {
+    for (int i = 0; i < KEY_LONGS; i++) {
+      key[offset + i] = hash.getLong(i * Long.BYTES);
+    }
   }
 }
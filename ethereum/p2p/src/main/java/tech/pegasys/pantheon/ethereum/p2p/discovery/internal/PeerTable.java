@@ -12,8 +12,8 @@
  */
 package tech.pegasys.pantheon.ethereum.p2p.discovery.internal;
 
-import static java.util.Comparator.comparingInt;
-import static java.util.stream.Collectors.toList;
+import static tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PeerDistanceCalculator.KEY_LONGS;
+import static tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PeerDistanceCalculator.compareDistances;
 import static tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PeerDistanceCalculator.distance;
 
 import tech.pegasys.pantheon.crypto.Hash;
@@ -26,30 +26,22 @@ import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 
-import com.google.common.hash.BloomFilter;
-
 /**
  * Implements a Kademlia routing table based on k-buckets with a keccak-256 XOR-based distance
  * metric.
+ *
+ * <p>Node keys, the keccak-256 hashes of node IDs, are held as longs so distances are calculated
+ * without allocating. Buckets are copied on write, so lookups don't take a lock.
  */
 public class PeerTable {
   private static final int N_BUCKETS = 256;
   private static final int DEFAULT_BUCKET_SIZE = 16;
-  private static final int BLOOM_FILTER_REGENERATION_THRESHOLD = 50; // evictions
 
   private final Bucket[] table;
-  private final BytesValue keccak256;
-  private final int maxEntriesCnt;
-
-  private final Map<BytesValue, Integer> distanceCache;
-  private BloomFilter<BytesValue> idBloom;
-  private int evictionCnt = 0;
+  private final long[] localKey = new long[KEY_LONGS];
 
   /**
    * Builds a new peer table, where distance is calculated using the provided nodeId as a baseline.
@@ -58,17 +50,9 @@ public class PeerTable {
    * @param bucketSize The maximum length of each k-bucket.
    */
   public PeerTable(final BytesValue nodeId, final int bucketSize) {
-    this.keccak256 = Hash.keccak256(nodeId);
+    PeerDistanceCalculator.toKey(Hash.keccak256(nodeId), localKey, 0);
     this.table =
-        Stream.generate(() -> new Bucket(DEFAULT_BUCKET_SIZE))
-            .limit(N_BUCKETS + 1)
-            .toArray(Bucket[]::new);
-    this.distanceCache = new ConcurrentHashMap<>();
-    this.maxEntriesCnt = N_BUCKETS * bucketSize;
-
-    // A bloom filter with 4096 expected insertions of 64-byte keys with a 0.1% false positive
-    // probability yields a memory footprint of ~7.5kb.
-    buildBloomFilter();
+        Stream.generate(() -> new Bucket(bucketSize)).limit(N_BUCKETS + 1).toArray(Bucket[]::new);
   }
 
   public PeerTable(final BytesValue nodeId) {
@@ -82,9 +66,6 @@ public class PeerTable {
    * @return The stored representation.
    */
   public Optional<DiscoveryPeer> get(final PeerId peer) {
-    if (!idBloom.mightContain(peer.getId())) {
-      return Optional.empty();
-    }
     final int distance = distanceFrom(peer);
     return table[distance].getAndTouch(peer.getId());
   }
@@ -107,7 +88,6 @@ public class PeerTable {
    * @return An object indicating the outcome of the operation.
    */
   public AddResult tryAdd(final DiscoveryPeer peer) {
-    final BytesValue id = peer.getId();
     final int distance = distanceFrom(peer);
 
     // Safeguard against adding ourselves to the peer table.
@@ -117,11 +97,9 @@ public class PeerTable {
 
     final Bucket bucket = table[distance];
     // We add the peer, and two things can happen: (1) either we get an empty optional (peer was
-    // added successfully,
-    // or it was already there), or (2) we get a filled optional, in which case the bucket is full
-    // and an eviction
-    // candidate is proposed. The Bucket#add method will raise an exception if the peer already
-    // existed.
+    // added successfully), or (2) we get a filled optional, in which case the bucket is full and an
+    // eviction candidate is proposed. The Bucket#add method will raise an exception if the peer
+    // already existed.
     final Optional<DiscoveryPeer> res;
     try {
       res = bucket.add(peer);
@@ -129,13 +107,7 @@ public class PeerTable {
       return AddResult.existed();
     }
 
-    if (!res.isPresent()) {
-      idBloom.put(id);
-      distanceCache.put(id, distance);
-      return AddResult.added();
-    }
-
-    return res.map(AddResult::bucketFull).get();
+    return res.map(AddResult::bucketFull).orElseGet(AddResult::added);
   }
 
   /**
@@ -145,57 +117,41 @@ public class PeerTable {
    * @return Whether the peer existed, and hence the eviction took place.
    */
   public EvictResult tryEvict(final PeerId peer) {
-    final BytesValue id = peer.getId();
     final int distance = distanceFrom(peer);
 
     if (distance == 0) {
       return EvictResult.self();
     }
 
-    distanceCache.remove(id);
-
-    if (table[distance].peers().isEmpty()) {
-      return EvictResult.absent();
-    }
-
-    final boolean evicted = table[distance].evict(peer);
-    if (evicted) {
-      evictionCnt++;
-    } else {
-      return EvictResult.absent();
-    }
-
-    // Trigger the bloom filter regeneration if needed.
-    if (evictionCnt >= BLOOM_FILTER_REGENERATION_THRESHOLD) {
-      ForkJoinPool.commonPool().execute(this::buildBloomFilter);
-    }
-
-    return EvictResult.evicted();
-  }
-
-  private void buildBloomFilter() {
-    final BloomFilter<BytesValue> bf =
-        BloomFilter.create((id, val) -> val.putBytes(id.extractArray()), maxEntriesCnt, 0.001);
-    getAllPeers().map(Peer::getId).forEach(bf::put);
-    this.evictionCnt = 0;
-    this.idBloom = bf;
+    return table[distance].evict(peer) ? EvictResult.evicted() : EvictResult.absent();
   }
 
   /**
    * Returns the <code>limit</code> peers (at most) closest to the provided target, based on the XOR
    * distance between the keccak-256 hash of the ID and the keccak-256 hash of the target.
    *
+   * <p>A peer in a bucket further from our node than the target is at that bucket's distance from
+   * the target, while peers in the target's bucket or closer buckets are no further from the target
+   * than the target is from us. So buckets are visited closest first and buckets which can't hold
+   * any of the nearest peers aren't visited at all.
+   *
    * @param target The target node ID.
    * @param limit The amount of results to return.
    * @return The <code>limit</code> closest peers, at most.
    */
   public List<DiscoveryPeer> nearestPeers(final BytesValue target, final int limit) {
-    final BytesValue keccak256 = Hash.keccak256(target);
-    return getAllPeers()
-        .filter(p -> p.getStatus() == PeerDiscoveryStatus.BONDED)
-        .sorted(comparingInt((peer) -> distance(peer.keccak256(), keccak256)))
-        .limit(limit)
-        .collect(toList());
+    final long[] targetKey = new long[KEY_LONGS];
+    PeerDistanceCalculator.toKey(Hash.keccak256(target), targetKey, 0);
+    final int targetDistance = distance(localKey, 0, targetKey, 0);
+
+    final NearestPeers nearestPeers = new NearestPeers(targetKey, limit);
+    for (int i = targetDistance; i > 0; i--) {
+      nearestPeers.offerAll(table[i].contents());
+    }
+    for (int i = targetDistance + 1; i <= N_BUCKETS && !nearestPeers.isFull(); i++) {
+      nearestPeers.offerAll(table[i].contents());
+    }
+    return nearestPeers.toList();
   }
 
   public Stream<DiscoveryPeer> getAllPeers() {
@@ -210,8 +166,105 @@ public class PeerTable {
    * @return The distance.
    */
   private int distanceFrom(final PeerId peer) {
-    final Integer distance = distanceCache.get(peer.getId());
-    return distance == null ? distance(keccak256, peer.keccak256()) : distance;
+    return distance(localKey, 0, peer.keccak256());
+  }
+
+  /**
+   * Selects the bonded peers closest to a target, keeping the furthest selected peer at the root of
+   * a max-heap so each peer offered costs at most O(log limit).
+   */
+  private static class NearestPeers {
+    private final long[] targetKey;
+    private final DiscoveryPeer[] peers;
+    private final long[] keys;
+    private int size = 0;
+
+    NearestPeers(final long[] targetKey, final int limit) {
+      this.targetKey = targetKey;
+      this.peers = new DiscoveryPeer[Math.max(limit, 0)];
+      this.keys = new long[peers.length * KEY_LONGS];
+    }
+
+    boolean isFull() {
+      return size == peers.length;
+    }
+
+    void offerAll(final Bucket.Contents contents) {
+      for (int i = 0; i < contents.peers.length; i++) {
+        if (contents.peers[i].getStatus() == PeerDiscoveryStatus.BONDED) {
+          offer(contents.peers[i], contents.keys, i * KEY_LONGS);
+        }
+      }
+    }
+
+    private void offer(final DiscoveryPeer peer, final long[] key, final int offset) {
+      if (!isFull()) {
+        set(size, peer, key, offset);
+        siftUp(size++);
+      } else if (size > 0 && compareDistances(targetKey, 0, key, offset, keys, 0) < 0) {
+        set(0, peer, key, offset);
+        siftDown(0, size);
+      }
+    }
+
+    List<DiscoveryPeer> toList() {
+      // Sort in place by repeatedly moving the furthest remaining peer to the end.
+      for (int end = size - 1; end > 0; end--) {
+        swap(0, end);
+        siftDown(0, end);
+      }
+      return Arrays.asList(Arrays.copyOf(peers, size));
+    }
+
+    private void siftUp(final int index) {
+      int child = index;
+      while (child > 0) {
+        final int parent = (child - 1) / 2;
+        if (compare(child, parent) <= 0) {
+          return;
+        }
+        swap(child, parent);
+        child = parent;
+      }
+    }
+
+    private void siftDown(final int index, final int heapSize) {
+      int parent = index;
+      while (true) {
+        final int left = 2 * parent + 1;
+        if (left >= heapSize) {
+          return;
+        }
+        final int right = left + 1;
+        final int furthest = right < heapSize && compare(right, left) > 0 ? right : left;
+        if (compare(furthest, parent) <= 0) {
+          return;
+        }
+        swap(furthest, parent);
+        parent = furthest;
+      }
+    }
+
+    private int compare(final int i, final int j) {
+      return compareDistances(targetKey, 0, keys, i * KEY_LONGS, keys, j * KEY_LONGS);
+    }
+
+    private void set(
+        final int index, final DiscoveryPeer peer, final long[] key, final int offset) {
+      peers[index] = peer;
+      System.arraycopy(key, offset, keys, index * KEY_LONGS, KEY_LONGS);
+    }
+
+    private void swap(final int i, final int j) {
+      final DiscoveryPeer peer = peers[i];
+      peers[i] = peers[j];
+      peers[j] = peer;
+      for (int k = 0; k < KEY_LONGS; k++) {
+        final long value = keys[i * KEY_LONGS + k];
+        keys[i * KEY_LONGS + k] = keys[j * KEY_LONGS + k];
+        keys[j * KEY_LONGS + k] = value;
+      }
+    }
   }
 
   /** A class that encapsulates the result of a peer addition to the table. */
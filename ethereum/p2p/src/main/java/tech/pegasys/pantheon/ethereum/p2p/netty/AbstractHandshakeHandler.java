@@ -15,7 +15,6 @@ package tech.pegasys.pantheon.ethereum.p2p.netty;
 import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection;
 import tech.pegasys.pantheon.ethereum.p2p.rlpx.framing.Framer;
 import tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.Handshaker;
-import tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.ecies.ECIESHandshaker;
 import tech.pegasys.pantheon.ethereum.p2p.wire.PeerInfo;
 import tech.pegasys.pantheon.ethereum.p2p.wire.SubProtocol;
 import tech.pegasys.pantheon.ethereum.p2p.wire.messages.DisconnectMessage;
@@ -42,7 +41,7 @@ abstract class AbstractHandshakeHandler extends SimpleChannelInboundHandler<Byte
 
   private static final Logger LOG = LogManager.getLogger();
 
-  protected final Handshaker handshaker = new ECIESHandshaker();
+  protected final Handshaker handshaker;
 
   private final PeerInfo ourInfo;
 
@@ -55,12 +54,14 @@ abstract class AbstractHandshakeHandler extends SimpleChannelInboundHandler<Byte
   private final LabelledMetric<Counter> outboundMessagesCounter;
 
   AbstractHandshakeHandler(
+      final Handshaker handshaker,
       final List<SubProtocol> subProtocols,
       final PeerInfo ourInfo,
       final CompletableFuture<PeerConnection> connectionFuture,
       final Callbacks callbacks,
       final PeerConnectionRegistry peerConnectionRegistry,
       final LabelledMetric<Counter> outboundMessagesCounter) {
+    this.handshaker = handshaker;
     this.subProtocols = subProtocols;
     this.ourInfo = ourInfo;
     this.connectionFuture = connectionFuture;
@@ -38,6 +38,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.DecoderException;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.timeout.IdleStateHandler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -46,6 +47,10 @@ final class DeFramer extends ByteToMessageDecoder {
 
   private static final Logger LOG = LogManager.getLogger();
 
+  // Flushes requested outside of a read are deferred to the next event loop iteration, so messages
+  // sent together go out in one write. This bounds how many are held back before flushing anyway.
+  private static final int MAX_CONSOLIDATED_FLUSHES = 64;
+
   private final CompletableFuture<PeerConnection> connectFuture;
 
   private final Callbacks callbacks;
@@ -114,6 +119,7 @@ final class DeFramer extends ByteToMessageDecoder {
         final AtomicBoolean waitingForPong = new AtomicBoolean(false);
         ctx.channel()
             .pipeline()
+            .addFirst(new FlushConsolidationHandler(MAX_CONSOLIDATED_FLUSHES, true))
             .addLast(
                 new IdleStateHandler(15, 0, 0),
                 new WireKeepAlive(connection, waitingForPong),
@@ -12,9 +12,10 @@
  */
 package tech.pegasys.pantheon.ethereum.p2p.netty;
 
-import tech.pegasys.pantheon.crypto.SECP256K1;
 import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection;
 import tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.Handshaker;
+import tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.ecies.ECIESHandshaker;
+import tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.ecies.StaticSharedSecrets;
 import tech.pegasys.pantheon.ethereum.p2p.wire.PeerInfo;
 import tech.pegasys.pantheon.ethereum.p2p.wire.SubProtocol;
 import tech.pegasys.pantheon.metrics.Counter;
@@ -25,11 +26,14 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
 
 public final class HandshakeHandlerInbound extends AbstractHandshakeHandler {
 
+  private final StaticSharedSecrets staticSharedSecrets;
+
   public HandshakeHandlerInbound(
-      final SECP256K1.KeyPair kp,
+      final StaticSharedSecrets staticSharedSecrets,
       final List<SubProtocol> subProtocols,
       final PeerInfo ourInfo,
       final CompletableFuture<PeerConnection> connectionFuture,
@@ -37,13 +41,20 @@ public final class HandshakeHandlerInbound extends AbstractHandshakeHandler {
       final PeerConnectionRegistry peerConnectionRegistry,
       final LabelledMetric<Counter> outboundMessagesCounter) {
     super(
+        new ECIESHandshaker(staticSharedSecrets),
         subProtocols,
         ourInfo,
         connectionFuture,
         callbacks,
         peerConnectionRegistry,
         outboundMessagesCounter);
-    handshaker.prepareResponder(kp);
+    this.staticSharedSecrets = staticSharedSecrets;
+  }
+
+  @Override
+  public void handlerAdded(final ChannelHandlerContext ctx) throws Exception {
+    super.handlerAdded(ctx);
+    handshaker.prepareResponder(staticSharedSecrets.getKeyPair());
   }
 
   @Override
@@ -15,6 +15,8 @@ package tech.pegasys.pantheon.ethereum.p2p.netty;
 import tech.pegasys.pantheon.crypto.SECP256K1;
 import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection;
 import tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.Handshaker;
+import tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.ecies.ECIESHandshaker;
+import tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.ecies.StaticSharedSecrets;
 import tech.pegasys.pantheon.ethereum.p2p.wire.PeerInfo;
 import tech.pegasys.pantheon.ethereum.p2p.wire.SubProtocol;
 import tech.pegasys.pantheon.metrics.Counter;
@@ -34,10 +36,12 @@ public final class HandshakeHandlerOutbound extends AbstractHandshakeHandler {
 
   private static final Logger LOG = LogManager.getLogger();
 
-  private final ByteBuf first;
+  private final StaticSharedSecrets staticSharedSecrets;
+  private final BytesValue peerId;
+  private ByteBuf first;
 
   public HandshakeHandlerOutbound(
-      final SECP256K1.KeyPair kp,
+      final StaticSharedSecrets staticSharedSecrets,
       final BytesValue peerId,
       final List<SubProtocol> subProtocols,
       final PeerInfo ourInfo,
@@ -46,13 +50,24 @@ public final class HandshakeHandlerOutbound extends AbstractHandshakeHandler {
       final PeerConnectionRegistry peerConnectionRegistry,
       final LabelledMetric<Counter> outboundMessagesCounter) {
     super(
+        new ECIESHandshaker(staticSharedSecrets),
         subProtocols,
         ourInfo,
         connectionFuture,
         callbacks,
         peerConnectionRegistry,
         outboundMessagesCounter);
-    handshaker.prepareInitiator(kp, SECP256K1.PublicKey.create(peerId));
+    this.staticSharedSecrets = staticSharedSecrets;
+    this.peerId = peerId;
+  }
+
+  @Override
+  public void handlerAdded(final ChannelHandlerContext ctx) throws Exception {
+    super.handlerAdded(ctx);
+    // Generating keys and signing the first message is expensive, so it's done on the executor
+    // running this handler rather than when the channel is initialised.
+    handshaker.prepareInitiator(
+        staticSharedSecrets.getKeyPair(), SECP256K1.PublicKey.create(peerId));
     this.first = handshaker.firstMessage();
   }
 
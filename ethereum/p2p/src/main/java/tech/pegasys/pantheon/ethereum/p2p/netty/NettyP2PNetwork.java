@@ -25,6 +25,7 @@ import tech.pegasys.pantheon.ethereum.p2p.api.Message;
 import tech.pegasys.pantheon.ethereum.p2p.api.P2PNetwork;
 import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection;
 import tech.pegasys.pantheon.ethereum.p2p.config.NetworkingConfiguration;
+import tech.pegasys.pantheon.ethereum.p2p.config.RlpxConfiguration;
 import tech.pegasys.pantheon.ethereum.p2p.discovery.DiscoveryPeer;
 import tech.pegasys.pantheon.ethereum.p2p.discovery.PeerDiscoveryAgent;
 import tech.pegasys.pantheon.ethereum.p2p.discovery.PeerDiscoveryEvent.PeerBondedEvent;
@@ -34,6 +35,7 @@ import tech.pegasys.pantheon.ethereum.p2p.discovery.VertxPeerDiscoveryAgent;
 import tech.pegasys.pantheon.ethereum.p2p.peers.Endpoint;
 import tech.pegasys.pantheon.ethereum.p2p.peers.Peer;
 import tech.pegasys.pantheon.ethereum.p2p.peers.PeerBlacklist;
+import tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.ecies.StaticSharedSecrets;
 import tech.pegasys.pantheon.ethereum.p2p.wire.Capability;
 import tech.pegasys.pantheon.ethereum.p2p.wire.PeerInfo;
 import tech.pegasys.pantheon.ethereum.p2p.wire.SubProtocol;
@@ -44,6 +46,8 @@ import tech.pegasys.pantheon.metrics.Counter;
 import tech.pegasys.pantheon.metrics.LabelledMetric;
 import tech.pegasys.pantheon.metrics.MetricCategory;
 import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.OperationTimer;
+import tech.pegasys.pantheon.metrics.OperationTimer.TimingContext;
 import tech.pegasys.pantheon.util.Subscribers;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 import tech.pegasys.pantheon.util.enode.EnodeURL;
@@ -68,6 +72,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -78,10 +83,18 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
 import io.netty.util.concurrent.SingleThreadEventExecutor;
 import io.vertx.core.Vertx;
 import org.apache.logging.log4j.LogManager;
@@ -132,6 +145,11 @@ public class NettyP2PNetwork implements P2PNetwork {
   private static final Logger LOG = LogManager.getLogger();
   private static final int TIMEOUT_SECONDS = 30;
 
+  // Once more than the high water mark is waiting to be sent to a peer, the connection is no longer
+  // writable and gossip to it is held back until the backlog drains below the low water mark.
+  private static final WriteBufferWaterMark WRITE_BUFFER_WATER_MARK =
+      new WriteBufferWaterMark(512 * 1024, 1024 * 1024);
+
   private final ScheduledExecutorService peerConnectionScheduler =
       Executors.newSingleThreadScheduledExecutor();
 
@@ -157,14 +175,28 @@ public class NettyP2PNetwork implements P2PNetwork {
   public final Map<Peer, CompletableFuture<PeerConnection>> pendingConnections =
       new ConcurrentHashMap<>();
 
-  private final EventLoopGroup boss = new NioEventLoopGroup(1);
+  private final EventLoopGroup boss;
+
+  private final EventLoopGroup workers;
+
+  /**
+   * Runs the ECIES handshake and, once it completes, the decryption and decompression of incoming
+   * frames so that this CPU heavy work doesn't hold up socket I/O on the worker event loops.
+   */
+  private final EventExecutorGroup handshakeExecutors;
+
+  private final Class<? extends ServerSocketChannel> serverChannelClass;
 
-  private final EventLoopGroup workers = new NioEventLoopGroup(1);
+  private final Class<? extends SocketChannel> channelClass;
+
+  private final OperationTimer workerTaskLatencyTimer;
 
   private volatile PeerInfo ourPeerInfo;
 
   private final SECP256K1.KeyPair keyPair;
 
+  private final StaticSharedSecrets staticSharedSecrets;
+
   private final ChannelFuture server;
 
   private final int maxPeers;
@@ -230,7 +262,26 @@ public class NettyP2PNetwork implements P2PNetwork {
       final Optional<NodePermissioningController> nodePermissioningController,
       final Blockchain blockchain) {
 
-    maxPeers = config.getRlpx().getMaxPeers();
+    final RlpxConfiguration rlpxConfig = config.getRlpx();
+    maxPeers = rlpxConfig.getMaxPeers();
+    final int workerThreads = rlpxConfig.getWorkerThreads();
+    if (rlpxConfig.isNativeTransportEnabled() && Epoll.isAvailable()) {
+      boss = new EpollEventLoopGroup(1);
+      workers = new EpollEventLoopGroup(workerThreads);
+      serverChannelClass = EpollServerSocketChannel.class;
+      channelClass = EpollSocketChannel.class;
+    } else {
+      boss = new NioEventLoopGroup(1);
+      workers = new NioEventLoopGroup(workerThreads);
+      serverChannelClass = NioServerSocketChannel.class;
+      channelClass = NioSocketChannel.class;
+    }
+    handshakeExecutors = new DefaultEventExecutorGroup(workerThreads);
+    LOG.debug(
+        "Using {} transport with {} worker threads",
+        boss.getClass().getSimpleName(),
+        workerThreads);
+
     connections = new PeerConnectionRegistry(metricsSystem);
     this.peerBlacklist = peerBlacklist;
     this.peerMaintainConnectionList = new HashSet<>();
@@ -260,6 +311,30 @@ public class NettyP2PNetwork implements P2PNetwork {
         "The number of pending tasks in the Netty workers event loop",
         pendingTaskCounter(workers));
 
+    metricsSystem.createIntegerGauge(
+        MetricCategory.NETWORK,
+        "netty_handshake_pending_tasks",
+        "The number of pending tasks in the Netty handshake executors",
+        pendingTaskCounter(handshakeExecutors));
+
+    workerTaskLatencyTimer =
+        metricsSystem.createTimer(
+            MetricCategory.NETWORK,
+            "netty_workers_task_latency_seconds",
+            "Time tasks wait to be run by a Netty workers event loop");
+
+    metricsSystem.createLongGauge(
+        MetricCategory.NETWORK,
+        "p2p_outbound_queue_bytes",
+        "Total number of bytes waiting to be sent to peers",
+        () -> outboundQueueSizes().sum());
+
+    metricsSystem.createLongGauge(
+        MetricCategory.NETWORK,
+        "p2p_outbound_queue_bytes_max",
+        "The largest number of bytes waiting to be sent to a single peer",
+        () -> outboundQueueSizes().max().orElse(0));
+
     metricsSystem.createIntegerGauge(
         MetricCategory.NETWORK,
         "netty_boss_pending_tasks",
@@ -277,12 +352,14 @@ public class NettyP2PNetwork implements P2PNetwork {
     subscribeDisconnect(connections);
 
     this.keyPair = keyPair;
+    this.staticSharedSecrets = new StaticSharedSecrets(keyPair);
     this.subProtocols = config.getSupportedProtocols();
 
     server =
         new ServerBootstrap()
             .group(boss, workers)
-            .channel(NioServerSocketChannel.class)
+            .channel(serverChannelClass)
+            .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, WRITE_BUFFER_WATER_MARK)
             .childHandler(inboundChannelInitializer())
             .bind(config.getRlpx().getBindHost(), config.getRlpx().getBindPort());
     final CountDownLatch latch = new CountDownLatch(1);
@@ -326,14 +403,24 @@ public class NettyP2PNetwork implements P2PNetwork {
         c -> c.subscribeToUpdates(this::checkCurrentConnections));
   }
 
-  private Supplier<Integer> pendingTaskCounter(final EventLoopGroup eventLoopGroup) {
+  private Supplier<Integer> pendingTaskCounter(final EventExecutorGroup executorGroup) {
     return () ->
-        StreamSupport.stream(eventLoopGroup.spliterator(), false)
+        StreamSupport.stream(executorGroup.spliterator(), false)
             .filter(eventExecutor -> eventExecutor instanceof SingleThreadEventExecutor)
             .mapToInt(eventExecutor -> ((SingleThreadEventExecutor) eventExecutor).pendingTasks())
             .sum();
   }
 
+  private void measureWorkerTaskLatency() {
+    workers.forEach(
+        eventLoop -> {
+          if (!eventLoop.isShuttingDown()) {
+            final TimingContext timingContext = workerTaskLatencyTimer.startTimer();
+            eventLoop.execute(timingContext::stopTimer);
+          }
+        });
+  }
+
   /** @return a channel initializer for inbound connections */
   public ChannelInitializer<SocketChannel> inboundChannelInitializer() {
     return new ChannelInitializer<SocketChannel>() {
@@ -348,9 +435,11 @@ public class NettyP2PNetwork implements P2PNetwork {
                     () ->
                         connectionFuture.completeExceptionally(
                             new TimeoutException(
-                                "Timed out waiting to fully establish incoming connection"))),
+                                "Timed out waiting to fully establish incoming connection"))))
+            .addLast(
+                handshakeExecutors,
                 new HandshakeHandlerInbound(
-                    keyPair,
+                    staticSharedSecrets,
                     subProtocols,
                     ourPeerInfo,
                     connectionFuture,
@@ -473,10 +562,11 @@ public class NettyP2PNetwork implements P2PNetwork {
 
     new Bootstrap()
         .group(workers)
-        .channel(NioSocketChannel.class)
+        .channel(channelClass)
         .remoteAddress(new InetSocketAddress(endpoint.getHost(), endpoint.getFunctionalTcpPort()))
         .option(ChannelOption.TCP_NODELAY, true)
         .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, TIMEOUT_SECONDS * 1000)
+        .option(ChannelOption.WRITE_BUFFER_WATER_MARK, WRITE_BUFFER_WATER_MARK)
         .handler(
             new ChannelInitializer<SocketChannel>() {
               @Override
@@ -490,9 +580,11 @@ public class NettyP2PNetwork implements P2PNetwork {
                                 connectionFuture.completeExceptionally(
                                     new TimeoutException(
                                         "Timed out waiting to establish connection with peer: "
-                                            + peer.getId()))),
+                                            + peer.getId()))))
+                    .addLast(
+                        handshakeExecutors,
                         new HandshakeHandlerOutbound(
-                            keyPair,
+                            staticSharedSecrets,
                             peer.getId(),
                             subProtocols,
                             ourPeerInfo,
@@ -575,6 +667,8 @@ public class NettyP2PNetwork implements P2PNetwork {
         this::checkMaintainedConnectionPeers, 60, 60, TimeUnit.SECONDS);
     peerConnectionScheduler.scheduleWithFixedDelay(
         this::attemptPeerConnections, 30, 30, TimeUnit.SECONDS);
+    peerConnectionScheduler.scheduleWithFixedDelay(
+        this::measureWorkerTaskLatency, 1, 1, TimeUnit.SECONDS);
   }
 
   @VisibleForTesting
@@ -687,6 +781,7 @@ public class NettyP2PNetwork implements P2PNetwork {
     blockAddedObserverId = OptionalLong.empty();
     peerDiscoveryAgent.stop().join();
     workers.shutdownGracefully();
+    handshakeExecutors.shutdownGracefully();
     boss.shutdownGracefully();
   }
 
@@ -756,6 +851,12 @@ public class NettyP2PNetwork implements P2PNetwork {
         .build();
   }
 
+  private LongStream outboundQueueSizes() {
+    return connections.getPeerConnections().stream()
+        .filter(NettyPeerConnection.class::isInstance)
+        .mapToLong(connection -> ((NettyPeerConnection) connection).getOutboundQueueSize());
+  }
+
   private void onConnectionEstablished(final PeerConnection connection) {
     connections.registerConnection(connection);
     connectCallbacks.forEach(callback -> callback.accept(connection));
@@ -35,8 +35,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import com.google.common.base.MoreObjects;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.WriteBufferWaterMark;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -104,9 +106,27 @@ final class NettyPeerConnection implements PeerConnection {
     }
 
     LOG.trace("Writing {} to {} via protocol {}", message, peerInfo, capability);
+    // Flushes are consolidated by the FlushConsolidationHandler at the head of the pipeline
     ctx.channel().writeAndFlush(new OutboundMessage(capability, message));
   }
 
+  @Override
+  public boolean isWritable() {
+    return ctx.channel().isWritable();
+  }
+
+  /** @return the number of bytes written to the connection but not yet sent to the peer */
+  long getOutboundQueueSize() {
+    // The outbound buffer may only be used from the event loop, so the size is derived from the
+    // distance to the write buffer water marks, which the channel exposes to any thread.
+    final Channel channel = ctx.channel();
+    final WriteBufferWaterMark waterMark = channel.config().getWriteBufferWaterMark();
+    if (channel.isWritable()) {
+      return waterMark.high() - channel.bytesBeforeUnwritable();
+    }
+    return channel.isOpen() ? waterMark.low() + channel.bytesBeforeWritable() : 0;
+  }
+
   @Override
   public PeerInfo getPeer() {
     return peerInfo;
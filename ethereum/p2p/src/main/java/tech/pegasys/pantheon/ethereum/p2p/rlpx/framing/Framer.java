@@ -13,26 +13,24 @@
 package tech.pegasys.pantheon.ethereum.p2p.rlpx.framing;
 
 import static io.netty.buffer.ByteBufUtil.hexDump;
-import static io.netty.buffer.Unpooled.wrappedBuffer;
-import static org.bouncycastle.pqc.math.linearalgebra.ByteUtils.xor;
 
 import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
 import tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.HandshakeSecrets;
 import tech.pegasys.pantheon.ethereum.p2p.wire.RawMessage;
 import tech.pegasys.pantheon.ethereum.rlp.RLP;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
 import java.util.Arrays;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import io.netty.buffer.ByteBuf;
-import org.bouncycastle.crypto.BlockCipher;
-import org.bouncycastle.crypto.StreamCipher;
-import org.bouncycastle.crypto.engines.AESEngine;
-import org.bouncycastle.crypto.modes.SICBlockCipher;
-import org.bouncycastle.crypto.params.KeyParameter;
-import org.bouncycastle.crypto.params.ParametersWithIV;
 
 /**
  * This component is responsible for reading and composing RLPx protocol frames, conformant to the
@@ -45,6 +43,11 @@ import org.bouncycastle.crypto.params.ParametersWithIV;
  * fragmented frames, as well as streams of multiple messages within the same incoming buffer, as
  * long as the order of incoming bytes matches the underlying TCP sequence.
  *
+ * <p>Frames are encrypted and decrypted in place in the buffers they are written to and read from,
+ * using the JDK's AES implementation which is intrinsified on most platforms. Incoming and outgoing
+ * frames keep separate state, so one thread may deframe while another frames, but each direction
+ * must only be used by a single thread at a time.
+ *
  * @see <a href="https://github.com/ethereum/devp2p/blob/master/rlpx.md#framing">RLPx framing</a>
  */
 public class Framer {
@@ -54,6 +57,11 @@ public class Framer {
   private static final int LENGTH_FRAME_SIZE = 3;
   private static final int LENGTH_MESSAGE_ID = 1;
   private static final int LENGTH_MAX_MESSAGE_FRAME = 0xFFFFFF;
+  private static final int LENGTH_MAC_UPDATE_CHUNK = 1024;
+
+  private static final String AES_ALGORITHM = "AES";
+  private static final String FRAME_CIPHER = "AES/CTR/NoPadding";
+  private static final String MAC_CIPHER = "AES/ECB/NoPadding";
 
   private static final byte[] IV = {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
   private static final byte[] PROTOCOL_HEADER =
@@ -68,12 +76,24 @@ public class Framer {
 
   private final HandshakeSecrets secrets;
   private static final SnappyCompressor compressor = new SnappyCompressor();
-  private final StreamCipher encryptor;
-  private final StreamCipher decryptor;
-  private final BlockCipher macEncryptor;
+  private final Cipher encryptor;
+  private final Cipher decryptor;
+  private final Cipher egressMacEncryptor;
+  private final Cipher ingressMacEncryptor;
+
+  // Scratch space reused for every frame, kept separately for each direction.
+  private final byte[] egressHeader = new byte[LENGTH_HEADER_DATA];
+  private final byte[] egressMac = new byte[Bytes32.SIZE];
+  private final byte[] egressMacSeed = new byte[LENGTH_MAC];
+  private final byte[] egressMacChunk = new byte[LENGTH_MAC_UPDATE_CHUNK];
+  private final byte[] ingressHeader = new byte[LENGTH_HEADER_DATA];
+  private final byte[] ingressMac = new byte[Bytes32.SIZE];
+  private final byte[] ingressMacSeed = new byte[LENGTH_MAC];
+  private final byte[] ingressMacChunk = new byte[LENGTH_MAC_UPDATE_CHUNK];
+
   private boolean headerProcessed;
   private int frameSize;
-  private boolean compressionEnabled = false;
+  private volatile boolean compressionEnabled = false;
 
   /**
    * Creates a new framer out of the handshake secrets derived during the cryptographic handshake.
@@ -83,17 +103,24 @@ public class Framer {
   public Framer(final HandshakeSecrets secrets) {
     this.secrets = secrets;
 
-    final KeyParameter aesKey = new KeyParameter(secrets.getAesSecret());
-    final KeyParameter macKey = new KeyParameter(secrets.getMacSecret());
+    final SecretKeySpec aesKey = new SecretKeySpec(secrets.getAesSecret(), AES_ALGORITHM);
+    final SecretKeySpec macKey = new SecretKeySpec(secrets.getMacSecret(), AES_ALGORITHM);
 
-    encryptor = new SICBlockCipher(new AESEngine());
-    encryptor.init(true, new ParametersWithIV(aesKey, IV));
+    try {
+      encryptor = Cipher.getInstance(FRAME_CIPHER);
+      encryptor.init(Cipher.ENCRYPT_MODE, aesKey, new IvParameterSpec(IV));
 
-    decryptor = new SICBlockCipher(new AESEngine());
-    decryptor.init(false, new ParametersWithIV(aesKey, IV));
+      decryptor = Cipher.getInstance(FRAME_CIPHER);
+      decryptor.init(Cipher.DECRYPT_MODE, aesKey, new IvParameterSpec(IV));
 
-    macEncryptor = new AESEngine();
-    macEncryptor.init(true, macKey);
+      egressMacEncryptor = Cipher.getInstance(MAC_CIPHER);
+      egressMacEncryptor.init(Cipher.ENCRYPT_MODE, macKey);
+
+      ingressMacEncryptor = Cipher.getInstance(MAC_CIPHER);
+      ingressMacEncryptor.init(Cipher.ENCRYPT_MODE, macKey);
+    } catch (final GeneralSecurityException e) {
+      throw new IllegalStateException("Unable to initialise RLPx frame ciphers", e);
+    }
   }
 
   public void enableCompression() {
@@ -122,6 +149,8 @@ public class Framer {
    * consuming it from the byte buffer. The caller should call this method again with the same byte
    * buffer to continue extracting more messages, if possible.
    *
+   * <p>The consumed bytes are decrypted in place, so their original contents are lost.
+   *
    * <p>When this method throws an exception, it is recommended that the caller scraps away the RLPx
    * connection, as the digests and stream ciphers could have become corrupted.
    *
@@ -130,7 +159,7 @@ public class Framer {
    *     could be extracted yet.
    * @throws FramingException Thrown when a decryption or internal error occurs.
    */
-  public synchronized MessageData deframe(final ByteBuf buf) throws FramingException {
+  public MessageData deframe(final ByteBuf buf) throws FramingException {
     if (buf == null || !buf.isReadable()) {
       return null;
     }
@@ -142,7 +171,6 @@ public class Framer {
       }
       frameSize = processHeader(buf.readSlice(LENGTH_FULL_HEADER));
       headerProcessed = true;
-      buf.discardReadBytes();
     }
 
     final int size = frameSize + padding16(frameSize) + LENGTH_MAC;
@@ -151,7 +179,6 @@ public class Framer {
     }
 
     final MessageData msg = processFrame(buf.readSlice(size), frameSize);
-    buf.discardReadBytes();
     headerProcessed = false;
     return msg;
   }
@@ -173,50 +200,38 @@ public class Framer {
           LENGTH_FULL_HEADER, encryptedHeader.readableBytes());
     }
 
-    // Decrypt the header.
-    final byte[] hCipher = new byte[LENGTH_HEADER_DATA];
-    final byte[] hMac = new byte[LENGTH_MAC];
-    encryptedHeader.readBytes(hCipher).readBytes(hMac);
+    final byte[] h = ingressHeader;
+    encryptedHeader.readBytes(h);
 
     // Header MAC validation.
-    byte[] expectedMac = new byte[16];
-    macEncryptor.processBlock(secrets.getIngressMac(), 0, expectedMac, 0);
-    expectedMac = secrets.updateIngress(xor(expectedMac, hCipher)).getIngressMac();
-    expectedMac = Arrays.copyOf(expectedMac, LENGTH_MAC);
+    secrets.getIngressMac(ingressMac);
+    macSeed(ingressMacEncryptor, ingressMac, h, ingressMacSeed);
+    secrets.updateIngress(ingressMacSeed, 0, LENGTH_MAC);
+    secrets.getIngressMac(ingressMac);
 
-    validateMac(hMac, expectedMac);
+    validateMac(encryptedHeader, encryptedHeader.readerIndex(), ingressMac);
+    encryptedHeader.skipBytes(LENGTH_MAC);
 
     // Perform the header decryption.
-    decryptor.processBytes(hCipher, 0, hCipher.length, hCipher, 0);
-    final ByteBuf h = wrappedBuffer(hCipher);
+    crypt(decryptor, h, 0, LENGTH_HEADER_DATA);
 
     // Read the frame length.
-    final byte[] length = new byte[3];
-    h.readBytes(length);
-    int frameSize = length[0] & 0xff;
-    frameSize = (frameSize << 8) + (length[1] & 0xff);
-    frameSize = (frameSize << 8) + (length[2] & 0xff);
+    int frameSize = h[0] & 0xff;
+    frameSize = (frameSize << 8) + (h[1] & 0xff);
+    frameSize = (frameSize << 8) + (h[2] & 0xff);
 
     // Discard the header data (RLP): being set to fixed value 0xc28080 (list of two null
-    // elements) by other clients.
-    final int headerDataLength = RLP.calculateSize(BytesValue.wrapBuffer(h.nioBuffer()));
-    if (h.readableBytes() < headerDataLength) {
+    // elements) by other clients. The remainder of the header is zero-fill to the 16-byte
+    // boundary.
+    final int remaining = LENGTH_HEADER_DATA - LENGTH_FRAME_SIZE;
+    final int headerDataLength =
+        RLP.calculateSize(BytesValue.wrap(h, LENGTH_FRAME_SIZE, remaining));
+    if (remaining < headerDataLength) {
       throw error(
           "Expected at least %d readable bytes while processing header, remaining: %s",
-          headerDataLength, h.readableBytes());
-    }
-    h.skipBytes(headerDataLength);
-
-    // Discard padding in header (= zero-fill to 16-byte boundary).
-    h.skipBytes(padding16(LENGTH_FRAME_SIZE + headerDataLength));
-
-    if (h.readableBytes() != 0) {
-      throw error(
-          "Expected no more readable bytes while processing header, remaining: %s",
-          h.readableBytes());
+          headerDataLength, remaining);
     }
 
-    h.discardReadBytes();
     return frameSize;
   }
 
@@ -236,50 +251,63 @@ public class Framer {
       throw error("Expected %s bytes in header, got %s", expectedSize, f.readableBytes());
     }
 
-    final byte[] frameData = new byte[frameSize + pad];
-    final byte[] fMac = new byte[LENGTH_MAC];
-    f.readBytes(frameData).readBytes(fMac);
+    final int frameIndex = f.readerIndex();
+    final int frameLength = frameSize + pad;
 
     // Validate the frame's MAC.
-    final byte[] fMacSeed = secrets.updateIngress(frameData).getIngressMac();
-    final byte[] fMacSeedEnc = new byte[16];
-    macEncryptor.processBlock(fMacSeed, 0, fMacSeedEnc, 0);
-    byte[] expectedMac = secrets.updateIngress(xor(fMacSeedEnc, fMacSeed)).getIngressMac();
-    expectedMac = Arrays.copyOf(expectedMac, LENGTH_MAC);
+    updateMac(f, frameIndex, frameLength, ingressMacChunk, secrets::updateIngress);
+    secrets.getIngressMac(ingressMac);
+    macSeed(ingressMacEncryptor, ingressMac, ingressMac, ingressMacSeed);
+    secrets.updateIngress(ingressMacSeed, 0, LENGTH_MAC);
+    secrets.getIngressMac(ingressMac);
 
-    validateMac(fMac, expectedMac);
+    validateMac(f, frameIndex + frameLength, ingressMac);
 
     // Decrypt frame data.
-    decryptor.processBytes(frameData, 0, frameData.length, frameData, 0);
+    crypt(decryptor, f, frameIndex, frameLength);
 
     // Read the id.
-    final BytesValue idbv = RLP.decodeOne(BytesValue.of(frameData[0]));
+    final BytesValue idbv = RLP.decodeOne(BytesValue.of(f.getByte(frameIndex)));
     final int id = idbv.isZero() || idbv.size() == 0 ? 0 : idbv.get(0);
 
-    // Write message data to ByteBuf, decompressing as necessary
-    final BytesValue data;
+    // Copy the message data out of the frame, decompressing as necessary.
+    final int messageIndex = frameIndex + LENGTH_MESSAGE_ID;
+    final int messageLength = frameSize - LENGTH_MESSAGE_ID;
+    final byte[] messageData;
     if (compressionEnabled) {
-      final byte[] compressedMessageData = Arrays.copyOfRange(frameData, 1, frameData.length - pad);
-      final int uncompressedLength = compressor.uncompressedLength(compressedMessageData);
+      final byte[] compressedMessageData;
+      final int offset;
+      if (f.hasArray()) {
+        compressedMessageData = f.array();
+        offset = f.arrayOffset() + messageIndex;
+      } else {
+        compressedMessageData = new byte[messageLength];
+        f.getBytes(messageIndex, compressedMessageData);
+        offset = 0;
+      }
+      final int uncompressedLength =
+          compressor.uncompressedLength(compressedMessageData, offset, messageLength);
       if (uncompressedLength >= LENGTH_MAX_MESSAGE_FRAME) {
         throw error("Message size %s in excess of maximum length.", uncompressedLength);
       }
-      final byte[] decompressedMessageData = compressor.decompress(compressedMessageData);
-      data = BytesValue.wrap(decompressedMessageData);
+      messageData = new byte[uncompressedLength];
+      compressor.decompress(compressedMessageData, offset, messageLength, messageData, 0);
     } else {
-      // Move data to a ByteBuf
-      final int messageLength = frameSize - LENGTH_MESSAGE_ID;
-      data = BytesValue.wrap(frameData, 1, messageLength);
+      messageData = new byte[messageLength];
+      f.getBytes(messageIndex, messageData);
     }
+    f.skipBytes(expectedSize);
 
-    return new RawMessage(id, data);
+    return new RawMessage(id, BytesValue.wrap(messageData));
   }
 
-  private void validateMac(final byte[] candidateMac, final byte[] expectedMac) {
-    if (!Arrays.equals(expectedMac, candidateMac)) {
-      throw error(
-          "Frame MAC did not match expected MAC; expected: %s, received: %s",
-          hexDump(expectedMac), hexDump(candidateMac));
+  private void validateMac(final ByteBuf buf, final int index, final byte[] expectedMac) {
+    for (int i = 0; i < LENGTH_MAC; i++) {
+      if (buf.getByte(index + i) != expectedMac[i]) {
+        throw error(
+            "Frame MAC did not match expected MAC; expected: %s, received: %s",
+            hexDump(expectedMac, 0, LENGTH_MAC), hexDump(buf, index, LENGTH_MAC));
+      }
     }
   }
 
@@ -290,16 +318,19 @@ public class Framer {
    * @param message The message to frame.
    * @param output The {@link ByteBuf} to write framed data to.
    */
-  public synchronized void frame(final MessageData message, final ByteBuf output) {
+  public void frame(final MessageData message, final ByteBuf output) {
     Preconditions.checkArgument(
         message.getSize() < LENGTH_MAX_MESSAGE_FRAME, "Message size in excess of maximum length.");
     // Compress message
     if (compressionEnabled) {
-      // Extract data from message
-      // Compress data
-      final byte[] compressed = compressor.compress(message.getData().getArrayUnsafe());
+      final byte[] uncompressed = message.getData().getArrayUnsafe();
+      final byte[] compressed = new byte[compressor.maxCompressedLength(message.getSize())];
+      final int compressedLength =
+          compressor.compress(uncompressed, 0, message.getSize(), compressed, 0);
       // Construct new, compressed message
-      frameMessage(new RawMessage(message.getCode(), BytesValue.wrap(compressed)), output);
+      frameMessage(
+          new RawMessage(message.getCode(), BytesValue.wrap(compressed, 0, compressedLength)),
+          output);
     } else {
       frameMessage(message, output);
     }
@@ -309,43 +340,106 @@ public class Framer {
   void frameMessage(final MessageData message, final ByteBuf buf) {
     final int frameSize = message.getSize() + LENGTH_MESSAGE_ID;
     final int pad = padding16(frameSize);
+    final int frameLength = frameSize + pad;
 
     final byte id = (byte) message.getCode();
 
+    buf.ensureWritable(LENGTH_FULL_HEADER + frameLength + LENGTH_MAC);
+
     // Generate the header data.
-    final byte[] h = new byte[LENGTH_HEADER_DATA];
+    final byte[] h = egressHeader;
     h[0] = (byte) ((frameSize >> 16) & 0xff);
     h[1] = (byte) ((frameSize >> 8) & 0xff);
     h[2] = (byte) (frameSize & 0xff);
     System.arraycopy(PROTOCOL_HEADER, 0, h, LENGTH_FRAME_SIZE, PROTOCOL_HEADER.length);
-    Arrays.fill(h, LENGTH_FRAME_SIZE + PROTOCOL_HEADER.length, h.length - 1, (byte) 0x00);
-    encryptor.processBytes(h, 0, LENGTH_HEADER_DATA, h, 0);
+    Arrays.fill(h, LENGTH_FRAME_SIZE + PROTOCOL_HEADER.length, h.length, (byte) 0x00);
+    crypt(encryptor, h, 0, LENGTH_HEADER_DATA);
 
     // Generate the header MAC.
-    byte[] hMac = Arrays.copyOf(secrets.getEgressMac(), LENGTH_MAC);
-    macEncryptor.processBlock(hMac, 0, hMac, 0);
-    hMac = secrets.updateEgress(xor(h, hMac)).getEgressMac();
-    hMac = Arrays.copyOf(hMac, LENGTH_MAC);
-    buf.writeBytes(h).writeBytes(hMac);
-
-    // Encrypt payload.
-    final byte[] f = new byte[frameSize + pad];
-
+    secrets.getEgressMac(egressMac);
+    macSeed(egressMacEncryptor, egressMac, h, egressMacSeed);
+    secrets.updateEgress(egressMacSeed, 0, LENGTH_MAC);
+    secrets.getEgressMac(egressMac);
+    buf.writeBytes(h).writeBytes(egressMac, 0, LENGTH_MAC);
+
+    // Write the payload, zero-padded to 16-byte boundary, and encrypt it in place.
+    final int frameIndex = buf.writerIndex();
     final BytesValue bv = id == 0 ? RLP.NULL : RLP.encodeOne(BytesValue.of(id));
     assert bv.size() == 1;
-    f[0] = bv.get(0);
-
-    // Zero-padded to 16-byte boundary.
-    message.getData().copyTo(f, 0, 1);
-    encryptor.processBytes(f, 0, f.length, f, 0);
+    buf.writeByte(bv.get(0));
+    buf.writeBytes(message.getData().getArrayUnsafe(), 0, message.getSize());
+    buf.writeZero(pad);
+    crypt(encryptor, buf, frameIndex, frameLength);
 
     // Calculate the frame MAC.
-    final byte[] fMacSeed = Arrays.copyOf(secrets.updateEgress(f).getEgressMac(), LENGTH_MAC);
-    byte[] fMac = new byte[16];
-    macEncryptor.processBlock(fMacSeed, 0, fMac, 0);
-    fMac = Arrays.copyOf(secrets.updateEgress(xor(fMac, fMacSeed)).getEgressMac(), LENGTH_MAC);
+    updateMac(buf, frameIndex, frameLength, egressMacChunk, secrets::updateEgress);
+    secrets.getEgressMac(egressMac);
+    macSeed(egressMacEncryptor, egressMac, egressMac, egressMacSeed);
+    secrets.updateEgress(egressMacSeed, 0, LENGTH_MAC);
+    secrets.getEgressMac(egressMac);
 
-    buf.writeBytes(f).writeBytes(fMac);
+    buf.writeBytes(egressMac, 0, LENGTH_MAC);
+  }
+
+  /**
+   * Computes the value the MAC is updated with after a header or frame: the encryption of the
+   * current MAC XORed with the given data.
+   */
+  private static void macSeed(
+      final Cipher macEncryptor, final byte[] mac, final byte[] data, final byte[] seed) {
+    try {
+      macEncryptor.update(mac, 0, LENGTH_MAC, seed, 0);
+    } catch (final GeneralSecurityException e) {
+      throw new IllegalStateException("Unable to encrypt MAC", e);
+    }
+    for (int i = 0; i < LENGTH_MAC; i++) {
+      seed[i] ^= data[i];
+    }
+  }
+
+  private static void updateMac(
+      final ByteBuf buf,
+      final int index,
+      final int length,
+      final byte[] chunk,
+      final MacUpdater macUpdater) {
+    if (buf.hasArray()) {
+      macUpdater.update(buf.array(), buf.arrayOffset() + index, length);
+      return;
+    }
+    for (int offset = 0; offset < length; offset += chunk.length) {
+      final int chunkLength = Math.min(chunk.length, length - offset);
+      buf.getBytes(index + offset, chunk, 0, chunkLength);
+      macUpdater.update(chunk, 0, chunkLength);
+    }
+  }
+
+  private static void crypt(
+      final Cipher cipher, final byte[] bytes, final int offset, final int length) {
+    try {
+      cipher.update(bytes, offset, length, bytes, offset);
+    } catch (final GeneralSecurityException e) {
+      throw new IllegalStateException("Unable to process RLPx frame", e);
+    }
+  }
+
+  private static void crypt(
+      final Cipher cipher, final ByteBuf buf, final int index, final int length) {
+    if (buf.hasArray()) {
+      crypt(cipher, buf.array(), buf.arrayOffset() + index, length);
+    } else if (buf.nioBufferCount() == 1) {
+      final ByteBuffer region = buf.nioBuffer(index, length);
+      try {
+        cipher.update(region, region.duplicate());
+      } catch (final GeneralSecurityException e) {
+        throw new IllegalStateException("Unable to process RLPx frame", e);
+      }
+    } else {
+      final byte[] bytes = new byte[length];
+      buf.getBytes(index, bytes);
+      crypt(cipher, bytes, 0, length);
+      buf.setBytes(index, bytes);
+    }
   }
 
   private static int padding16(final int size) {
@@ -356,4 +450,9 @@ public class Framer {
   private static FramingException error(final String s, final Object... params) {
     return new FramingException(String.format(s, params));
   }
+
+  @FunctionalInterface
+  private interface MacUpdater {
+    void update(byte[] bytes, int offset, int length);
+  }
 }
@@ -44,8 +44,11 @@ public class HandshakeSecrets {
   private final byte[] aesSecret;
   private final byte[] macSecret;
   private final byte[] token;
-  private final KeccakDigest egressMac = new KeccakDigest(Bytes32.SIZE * 8);
-  private final KeccakDigest ingressMac = new KeccakDigest(Bytes32.SIZE * 8);
+  private final CopyableKeccakDigest egressMac = new CopyableKeccakDigest();
+  private final CopyableKeccakDigest ingressMac = new CopyableKeccakDigest();
+  // Reused to finalise copies of the MACs for every frame, without allocating a digest each time.
+  private final CopyableKeccakDigest egressMacCopy = new CopyableKeccakDigest();
+  private final CopyableKeccakDigest ingressMacCopy = new CopyableKeccakDigest();
 
   /**
    * Creates an instance with empty MACs.
@@ -71,7 +74,19 @@ public class HandshakeSecrets {
    * @return Returns this instance for fluent chaining.
    */
   public HandshakeSecrets updateEgress(final byte[] bytes) {
-    egressMac.update(bytes, 0, bytes.length);
+    return updateEgress(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Updates the egress mac with a range of the provided bytes.
+   *
+   * @param bytes The bytes of the outgoing message.
+   * @param offset The offset of the first byte to update the mac with.
+   * @param length The number of bytes to update the mac with.
+   * @return Returns this instance for fluent chaining.
+   */
+  public HandshakeSecrets updateEgress(final byte[] bytes, final int offset, final int length) {
+    egressMac.update(bytes, offset, length);
     return this;
   }
 
@@ -82,7 +97,19 @@ public class HandshakeSecrets {
    * @return Returns this instance for fluent chaining.
    */
   public HandshakeSecrets updateIngress(final byte[] bytes) {
-    ingressMac.update(bytes, 0, bytes.length);
+    return updateIngress(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Updates the ingress mac with a range of the provided bytes.
+   *
+   * @param bytes The bytes of the incoming message.
+   * @param offset The offset of the first byte to update the mac with.
+   * @param length The number of bytes to update the mac with.
+   * @return Returns this instance for fluent chaining.
+   */
+  public HandshakeSecrets updateIngress(final byte[] bytes, final int offset, final int length) {
+    ingressMac.update(bytes, offset, length);
     return this;
   }
 
@@ -122,6 +149,16 @@ public class HandshakeSecrets {
     return snapshot(egressMac);
   }
 
+  /**
+   * Writes a snapshot of the current egress MAC to the given array, without finalising the
+   * underlying digest.
+   *
+   * @param out The array of at least 32 bytes to write the snapshot to.
+   */
+  public void getEgressMac(final byte[] out) {
+    snapshot(egressMac, egressMacCopy, out);
+  }
+
   /**
    * Returns a snapshot of the current ingress MAC, without finalising the underlying digest.
    *
@@ -131,6 +168,16 @@ public class HandshakeSecrets {
     return snapshot(ingressMac);
   }
 
+  /**
+   * Writes a snapshot of the current ingress MAC to the given array, without finalising the
+   * underlying digest.
+   *
+   * @param out The array of at least 32 bytes to write the snapshot to.
+   */
+  public void getIngressMac(final byte[] out) {
+    snapshot(ingressMac, ingressMacCopy, out);
+  }
+
   /**
    * TODO: It's not wise to print secrets. Maybe print only the first and last 8 bytes (ellipsize
    * the middle). That might be enough for testing.
@@ -157,6 +204,12 @@ public class HandshakeSecrets {
     return out;
   }
 
+  private static void snapshot(
+      final CopyableKeccakDigest digest, final CopyableKeccakDigest copy, final byte[] out) {
+    copy.copyFrom(digest);
+    copy.doFinal(out, 0);
+  }
+
   @Override
   public boolean equals(final Object obj) {
     return equals(obj, false);
@@ -197,4 +250,21 @@ public class HandshakeSecrets {
         egressMac,
         ingressMac);
   }
+
+  /** A Keccak digest whose state can be copied into an existing instance. */
+  private static class CopyableKeccakDigest extends KeccakDigest {
+
+    CopyableKeccakDigest() {
+      super(Bytes32.SIZE * 8);
+    }
+
+    void copyFrom(final CopyableKeccakDigest source) {
+      System.arraycopy(source.state, 0, state, 0, state.length);
+      System.arraycopy(source.dataQueue, 0, dataQueue, 0, dataQueue.length);
+      rate = source.rate;
+      bitsInQueue = source.bitsInQueue;
+      fixedOutputLength = source.fixedOutputLength;
+      squeezing = source.squeezing;
+    }
+  }
 }
@@ -69,13 +69,12 @@ public class ECIESEncryptionEngine {
   private static final int CIPHER_KEY_SIZE = PARAM.getCipherKeySize();
   private static final int CIPHER_MAC_KEY_SIZE = PARAM.getMacKeySize();
 
-  // Configure the components of the Integrated Encryption Scheme.
-  private final Digest hash = new SHA256Digest();
-  private final DerivationFunction kdf = new ECIESHandshakeKDFFunction();
-  private final Mac mac = new HMac(new SHA256Digest());
-  private final BufferedBlockCipher cipher =
-      new BufferedBlockCipher(new SICBlockCipher(new AESEngine()));
+  // The components of the Integrated Encryption Scheme are reinitialised on each use, so are shared
+  // by the engines used on the same thread.
+  private static final ThreadLocal<Components> COMPONENTS =
+      ThreadLocal.withInitial(Components::new);
 
+  private final byte[] sharedSecret;
   private final SECP256K1.PublicKey ephPubKey;
   private final byte[] iv;
 
@@ -94,10 +93,7 @@ public class ECIESEncryptionEngine {
     final BasicAgreement agree = new ECDHBasicAgreement();
     agree.init(privParam);
     final BigInteger z = agree.calculateAgreement(pubParam);
-    final byte[] Z = BigIntegers.asUnsignedByteArray(agree.getFieldSize(), z);
-
-    // Initialise the KDF.
-    this.kdf.init(new KDFParameters(Z, PARAM.getDerivationV()));
+    this.sharedSecret = BigIntegers.asUnsignedByteArray(agree.getFieldSize(), z);
   }
 
   /**
@@ -133,7 +129,7 @@ public class ECIESEncryptionEngine {
    */
   public static ECIESEncryptionEngine forEncryption(final SECP256K1.PublicKey pubKey) {
     // Create an ephemeral key pair for IES whose public key we can later append in the message.
-    final SECP256K1.KeyPair ephKeyPair = SECP256K1.KeyPair.generate();
+    final SECP256K1.KeyPair ephKeyPair = ECIESHandshaker.generateKeyPair();
 
     // Create random iv.
     final byte[] ivb = ECIESHandshaker.random(CIPHER_BLOCK_SIZE).extractArray();
@@ -165,6 +161,11 @@ public class ECIESEncryptionEngine {
 
   private byte[] encrypt(final byte[] in, final int inOff, final int inLen, final byte[] macData)
       throws InvalidCipherTextException {
+    final Components components = COMPONENTS.get();
+    final Digest hash = components.hash;
+    final DerivationFunction kdf = components.kdf;
+    final Mac mac = components.mac;
+    final BufferedBlockCipher cipher = components.cipher;
     final byte[] C;
     final byte[] K;
     final byte[] K1;
@@ -177,6 +178,7 @@ public class ECIESEncryptionEngine {
     K2 = new byte[CIPHER_MAC_KEY_SIZE / 8];
     K = new byte[K1.length + K2.length];
 
+    kdf.init(new KDFParameters(sharedSecret, PARAM.getDerivationV()));
     kdf.generateBytes(K, 0, K.length);
     System.arraycopy(K, 0, K1, 0, K1.length);
     System.arraycopy(K, K1.length, K2, 0, K2.length);
@@ -245,6 +247,11 @@ public class ECIESEncryptionEngine {
   private byte[] decrypt(
       final byte[] inEnc, final int inOff, final int inLen, final byte[] commonMac)
       throws InvalidCipherTextException {
+    final Components components = COMPONENTS.get();
+    final Digest hash = components.hash;
+    final DerivationFunction kdf = components.kdf;
+    final Mac mac = components.mac;
+    final BufferedBlockCipher cipher = components.cipher;
     final byte[] M;
     final byte[] K;
     final byte[] K1;
@@ -262,6 +269,7 @@ public class ECIESEncryptionEngine {
     K2 = new byte[CIPHER_MAC_KEY_SIZE / 8];
     K = new byte[K1.length + K2.length];
 
+    kdf.init(new KDFParameters(sharedSecret, PARAM.getDerivationV()));
     kdf.generateBytes(K, 0, K.length);
     System.arraycopy(K, 0, K1, 0, K1.length);
     System.arraycopy(K, K1.length, K2, 0, K2.length);
@@ -337,6 +345,15 @@ public class ECIESEncryptionEngine {
     return ephPubKey;
   }
 
+  /** The reusable components of the Integrated Encryption Scheme. */
+  private static class Components {
+    private final Digest hash = new SHA256Digest();
+    private final DerivationFunction kdf = new ECIESHandshakeKDFFunction();
+    private final Mac mac = new HMac(new SHA256Digest());
+    private final BufferedBlockCipher cipher =
+        new BufferedBlockCipher(new SICBlockCipher(new AESEngine()));
+  }
+
   /**
    * Key generation function as defined in NIST SP 800-56A, but swapping the order of the digested
    * values (counter first, shared secret second) to comply with Ethereum's approach.
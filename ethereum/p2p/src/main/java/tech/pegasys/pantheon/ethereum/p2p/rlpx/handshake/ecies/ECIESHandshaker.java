@@ -26,9 +26,11 @@ import tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.Handshaker;
 import tech.pegasys.pantheon.util.bytes.Bytes32;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
+import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.netty.buffer.ByteBuf;
@@ -54,8 +56,11 @@ public class ECIESHandshaker implements Handshaker {
   static final int NONCE_LENGTH = 32;
   static final int TOKEN_FLAG_LENGTH = 1;
 
+  private final Optional<StaticSharedSecrets> staticSharedSecrets;
+
   // Keypairs under our control.
   private SECP256K1.KeyPair identityKeyPair;
+  private Function<PublicKey, Bytes32> staticKeyAgreement;
   private SECP256K1.KeyPair ephKeyPair;
 
   // Party's material, only public keys.
@@ -82,6 +87,20 @@ public class ECIESHandshaker implements Handshaker {
 
   private boolean version4 = true;
 
+  public ECIESHandshaker() {
+    this.staticSharedSecrets = Optional.empty();
+  }
+
+  /**
+   * Creates a handshaker which takes static shared secrets from the given cache when our identity
+   * key is the one the cache was created for.
+   *
+   * @param staticSharedSecrets the static shared secrets between this node and remote nodes
+   */
+  public ECIESHandshaker(final StaticSharedSecrets staticSharedSecrets) {
+    this.staticSharedSecrets = Optional.of(staticSharedSecrets);
+  }
+
   @Override
   public void prepareInitiator(final SECP256K1.KeyPair ourKeypair, final PublicKey theirPubKey) {
     checkState(
@@ -91,7 +110,8 @@ public class ECIESHandshaker implements Handshaker {
 
     this.initiator = true;
     this.identityKeyPair = ourKeypair;
-    this.ephKeyPair = SECP256K1.KeyPair.generate();
+    this.staticKeyAgreement = staticKeyAgreement(ourKeypair);
+    this.ephKeyPair = generateKeyPair();
     this.partyPubKey = theirPubKey;
     this.initiatorNonce = Bytes32.wrap(random(32), 0);
     LOG.trace(
@@ -108,7 +128,8 @@ public class ECIESHandshaker implements Handshaker {
 
     this.initiator = false;
     this.identityKeyPair = ourKeypair;
-    this.ephKeyPair = SECP256K1.KeyPair.generate();
+    this.staticKeyAgreement = staticKeyAgreement(ourKeypair);
+    this.ephKeyPair = generateKeyPair();
     this.responderNonce = Bytes32.wrap(random(32), 0);
     LOG.trace("Prepared ECIES handshake under RESPONDER role");
   }
@@ -121,8 +142,7 @@ public class ECIESHandshaker implements Handshaker {
             Handshaker.HandshakeStatus.PREPARED, Handshaker.HandshakeStatus.IN_PROGRESS),
         "illegal invocation of firstMessage, handshake had already started");
 
-    final Bytes32 staticSharedSecret =
-        SECP256K1.calculateKeyAgreement(identityKeyPair.getPrivateKey(), partyPubKey);
+    final Bytes32 staticSharedSecret = staticKeyAgreement.apply(partyPubKey);
     if (version4) {
       initiatorMsg =
           InitiatorHandshakeMessageV4.create(
@@ -246,9 +266,9 @@ public class ECIESHandshaker implements Handshaker {
       // Store the message, as we need it to generating our ingress and egress MACs.
       initiatorMsgEnc = encryptedMsg;
       if (version4) {
-        initiatorMsg = InitiatorHandshakeMessageV4.decode(bytes, identityKeyPair);
+        initiatorMsg = InitiatorHandshakeMessageV4.decode(bytes, staticKeyAgreement);
       } else {
-        initiatorMsg = InitiatorHandshakeMessageV1.decode(bytes, identityKeyPair);
+        initiatorMsg = InitiatorHandshakeMessageV1.decode(bytes, staticKeyAgreement);
       }
 
       LOG.trace(
@@ -366,6 +386,31 @@ public class ECIESHandshaker implements Handshaker {
     this.secrets = secrets;
   }
 
+  private Function<PublicKey, Bytes32> staticKeyAgreement(final SECP256K1.KeyPair ourKeypair) {
+    return staticSharedSecrets
+        .filter(cache -> cache.getKeyPair().equals(ourKeypair))
+        .<Function<PublicKey, Bytes32>>map(cache -> cache::get)
+        .orElse(pubKey -> SECP256K1.calculateKeyAgreement(ourKeypair.getPrivateKey(), pubKey));
+  }
+
+  /**
+   * Generates a key pair for one-off use during a handshake.
+   *
+   * <p>The public key is derived with the precomputed multiples of the curve's generator kept by
+   * {@link SECP256K1.KeyPair#create(SECP256K1.PrivateKey)}, avoiding the JCA key pair generator
+   * which would otherwise be shared by every connection being established.
+   *
+   * @return a new random key pair
+   */
+  static SECP256K1.KeyPair generateKeyPair() {
+    final BigInteger curveOrder = SECP256K1.CURVE.getN();
+    BigInteger privateKey;
+    do {
+      privateKey = new BigInteger(curveOrder.bitLength(), RANDOM);
+    } while (privateKey.signum() == 0 || privateKey.compareTo(curveOrder) >= 0);
+    return SECP256K1.KeyPair.create(SECP256K1.PrivateKey.create(privateKey));
+  }
+
   static BytesValue random(final int size) {
     final byte[] iv = new byte[size];
     RANDOM.nextBytes(iv);
@@ -13,7 +13,6 @@
 package tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.ecies;
 
 import static com.google.common.base.Preconditions.checkState;
-import static tech.pegasys.pantheon.crypto.SECP256K1.calculateKeyAgreement;
 import static tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.ecies.ECIESHandshaker.HASH_EPH_PUBKEY_LENGTH;
 import static tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.ecies.ECIESHandshaker.NONCE_LENGTH;
 import static tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.ecies.ECIESHandshaker.PUBKEY_LENGTH;
@@ -28,6 +27,8 @@ import tech.pegasys.pantheon.util.bytes.BytesValue;
 import tech.pegasys.pantheon.util.bytes.MutableBytes32;
 import tech.pegasys.pantheon.util.bytes.MutableBytesValue;
 
+import java.util.function.Function;
+
 /**
  * The initiator's handshake message.
  *
@@ -102,6 +103,20 @@ public final class InitiatorHandshakeMessageV1 implements InitiatorHandshakeMess
    */
   public static InitiatorHandshakeMessageV1 decode(
       final BytesValue bytes, final SECP256K1.KeyPair keyPair) {
+    return decode(
+        bytes, pubKey -> SECP256K1.calculateKeyAgreement(keyPair.getPrivateKey(), pubKey));
+  }
+
+  /**
+   * Decodes this message.
+   *
+   * @param bytes The raw bytes.
+   * @param staticSharedSecret Calculates the ECDH key agreement between our identity key and the
+   *     initiator's.
+   * @return The decoded message.
+   */
+  public static InitiatorHandshakeMessageV1 decode(
+      final BytesValue bytes, final Function<SECP256K1.PublicKey, Bytes32> staticSharedSecret) {
     checkState(bytes.size() == MESSAGE_LENGTH);
 
     int offset = 0;
@@ -114,8 +129,7 @@ public final class InitiatorHandshakeMessageV1 implements InitiatorHandshakeMess
     final Bytes32 nonce = Bytes32.wrap(bytes.slice(offset += PUBKEY_LENGTH, NONCE_LENGTH), 0);
     final boolean token = bytes.get(offset) == 0x01;
 
-    final Bytes32 staticSharedSecret = calculateKeyAgreement(keyPair.getPrivateKey(), pubKey);
-    final Bytes32 toSign = Bytes32s.xor(staticSharedSecret, nonce);
+    final Bytes32 toSign = Bytes32s.xor(staticSharedSecret.apply(pubKey), nonce);
     final SECP256K1.PublicKey ephPubKey =
         SECP256K1.PublicKey.recoverFromSignature(toSign, signature)
             .orElseThrow(() -> new RuntimeException("Could not recover public key from signature"));
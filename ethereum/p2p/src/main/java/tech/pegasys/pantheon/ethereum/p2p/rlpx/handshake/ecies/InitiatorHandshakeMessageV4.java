@@ -22,6 +22,8 @@ import tech.pegasys.pantheon.util.bytes.Bytes32s;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 import tech.pegasys.pantheon.util.bytes.MutableBytes32;
 
+import java.util.function.Function;
+
 public final class InitiatorHandshakeMessageV4 implements InitiatorHandshakeMessage {
 
   public static final int VERSION = 4;
@@ -52,14 +54,26 @@ public final class InitiatorHandshakeMessageV4 implements InitiatorHandshakeMess
    */
   public static InitiatorHandshakeMessageV4 decode(
       final BytesValue bytes, final SECP256K1.KeyPair keyPair) {
+    return decode(
+        bytes, pubKey -> SECP256K1.calculateKeyAgreement(keyPair.getPrivateKey(), pubKey));
+  }
+
+  /**
+   * Decodes this message.
+   *
+   * @param bytes The raw bytes.
+   * @param staticSharedSecret Calculates the ECDH key agreement between our identity key and the
+   *     initiator's.
+   * @return The decoded message.
+   */
+  public static InitiatorHandshakeMessageV4 decode(
+      final BytesValue bytes, final Function<SECP256K1.PublicKey, Bytes32> staticSharedSecret) {
     final RLPInput input = new BytesValueRLPInput(bytes, true);
     input.enterList();
     final SECP256K1.Signature signature = SECP256K1.Signature.decode(input.readBytesValue());
     final SECP256K1.PublicKey pubKey = SECP256K1.PublicKey.create(input.readBytesValue());
     final Bytes32 nonce = input.readBytes32();
-    final Bytes32 staticSharedSecret =
-        SECP256K1.calculateKeyAgreement(keyPair.getPrivateKey(), pubKey);
-    final Bytes32 toSign = Bytes32s.xor(staticSharedSecret, nonce);
+    final Bytes32 toSign = Bytes32s.xor(staticSharedSecret.apply(pubKey), nonce);
     final SECP256K1.PublicKey ephPubKey =
         SECP256K1.PublicKey.recoverFromSignature(toSign, signature)
             .orElseThrow(() -> new RuntimeException("Could not recover public key from signature"));
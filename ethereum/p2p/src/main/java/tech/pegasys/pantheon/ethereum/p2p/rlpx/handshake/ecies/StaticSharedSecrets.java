@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.ecies;
+
+import tech.pegasys.pantheon.crypto.SECP256K1;
+import tech.pegasys.pantheon.crypto.SECP256K1.PublicKey;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Calculates the static shared secrets between this node's identity key and the identity keys of
+ * remote nodes, as used to sign and recover the ephemeral key in the initiator's handshake
+ * message.
+ *
+ * <p>The secret for a pair of identity keys never changes, so secrets are remembered for a while
+ * to save an elliptic curve multiplication each time we reconnect to, or are reconnected to by, the
+ * same node. Thread safe.
+ */
+public class StaticSharedSecrets {
+  static final int DEFAULT_MAX_ENTRIES = 4096;
+  static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(30);
+
+  private final SECP256K1.KeyPair keyPair;
+  private final LoadingCache<PublicKey, Bytes32> secrets;
+
+  public StaticSharedSecrets(final SECP256K1.KeyPair keyPair) {
+    this(keyPair, DEFAULT_MAX_ENTRIES, DEFAULT_TIME_TO_LIVE, Ticker.systemTicker());
+  }
+
+  StaticSharedSecrets(
+      final SECP256K1.KeyPair keyPair,
+      final int maxEntries,
+      final Duration timeToLive,
+      final Ticker ticker) {
+    this.keyPair = keyPair;
+    this.secrets =
+        CacheBuilder.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(timeToLive.toMillis(), TimeUnit.MILLISECONDS)
+            .ticker(ticker)
+            .build(
+                CacheLoader.from(
+                    theirPubKey ->
+                        SECP256K1.calculateKeyAgreement(keyPair.getPrivateKey(), theirPubKey)));
+  }
+
+  /** @return this node's identity key pair */
+  public SECP256K1.KeyPair getKeyPair() {
+    return keyPair;
+  }
+
+  /**
+   * Returns the static shared secret between this node and a remote node.
+   *
+   * @param theirPubKey the identity public key of the remote node
+   * @return the result of the ECDH key agreement between the two identity keys
+   */
+  public Bytes32 get(final PublicKey theirPubKey) {
+    return secrets.getUnchecked(theirPubKey);
+  }
+
+  long size() {
+    secrets.cleanUp();
+    return secrets.size();
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.p2p.discovery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.pantheon.crypto.SECP256K1.KeyPair;
+import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.BlockingAsyncExecutor;
+import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.FindNeighborsPacketData;
+import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.Packet;
+import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PacketType;
+import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PeerDiscoveryController.AsyncExecutor;
+import tech.pegasys.pantheon.ethereum.p2p.peers.Endpoint;
+import tech.pegasys.pantheon.ethereum.p2p.peers.Peer;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import io.vertx.core.buffer.Buffer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InboundPacketPipelineTest {
+
+  private static final KeyPair KEY_PAIR = KeyPair.generate();
+
+  private final Clock clock = mock(Clock.class);
+  private final List<Endpoint> handledEndpoints = new ArrayList<>();
+  private final List<Packet> handledPackets = new ArrayList<>();
+  private Buffer packet;
+
+  @Before
+  public void setUp() {
+    when(clock.millis()).thenReturn(0L);
+    packet =
+        Packet.create(
+                PacketType.FIND_NEIGHBORS,
+                FindNeighborsPacketData.create(Peer.randomId()),
+                KEY_PAIR)
+            .encode();
+  }
+
+  @Test
+  public void shouldHandleValidPackets() {
+    final InboundPacketPipeline pipeline = createPipeline(new BlockingAsyncExecutor());
+
+    pipeline.receive("10.0.0.1", 30303, packet);
+
+    assertThat(handledEndpoints).extracting(Endpoint::getHost).containsExactly("10.0.0.1");
+    assertThat(handledEndpoints).extracting(Endpoint::getUdpPort).containsExactly(30303);
+    assertThat(handledPackets).hasSize(1);
+    assertThat(handledPackets.get(0).getNodeId())
+        .isEqualTo(KEY_PAIR.getPublicKey().getEncodedBytes());
+  }
+
+  @Test
+  public void shouldDropPacketsFailingIntegrityCheckBeforeVerification() {
+    final DeferredAsyncExecutor executor = new DeferredAsyncExecutor();
+    final InboundPacketPipeline pipeline = createPipeline(executor);
+    final Buffer garbled = packet.copy();
+    final int last = garbled.length() - 1;
+    garbled.setByte(last, (byte) (garbled.getByte(last) + 1));
+
+    pipeline.receive("10.0.0.1", 30303, garbled);
+
+    assertThat(executor.pendingActions()).isZero();
+    assertThat(handledPackets).isEmpty();
+  }
+
+  @Test
+  public void shouldRateLimitPacketsFromEachIp() {
+    final InboundPacketPipeline pipeline = createPipeline(new BlockingAsyncExecutor());
+
+    for (int i = 0; i < InboundPacketPipeline.MAX_PACKET_BURST_PER_IP + 1; i++) {
+      pipeline.receive("10.0.0.1", 30303, packet);
+    }
+    assertThat(handledPackets).hasSize(InboundPacketPipeline.MAX_PACKET_BURST_PER_IP);
+
+    pipeline.receive("10.0.0.2", 30303, packet);
+    assertThat(handledPackets).hasSize(InboundPacketPipeline.MAX_PACKET_BURST_PER_IP + 1);
+
+    when(clock.millis()).thenReturn(1000L);
+    pipeline.receive("10.0.0.1", 30303, packet);
+    assertThat(handledPackets).hasSize(InboundPacketPipeline.MAX_PACKET_BURST_PER_IP + 2);
+  }
+
+  @Test
+  public void shouldDropPacketsWhenTooManyAreWaitingForVerification() {
+    final DeferredAsyncExecutor executor = new DeferredAsyncExecutor();
+    final InboundPacketPipeline pipeline = createPipeline(executor);
+
+    for (int i = 0; i < InboundPacketPipeline.MAX_PENDING_PACKETS + 1; i++) {
+      pipeline.receive("10.0.0." + (i % 100), 30303, packet);
+    }
+    assertThat(executor.pendingActions()).isEqualTo(InboundPacketPipeline.MAX_PENDING_PACKETS);
+
+    executor.runPendingActions();
+    assertThat(handledPackets).hasSize(InboundPacketPipeline.MAX_PENDING_PACKETS);
+
+    // Once verified packets are handled, new packets are accepted again
+    pipeline.receive("10.0.1.1", 30303, packet);
+    assertThat(executor.pendingActions()).isEqualTo(1);
+  }
+
+  private InboundPacketPipeline createPipeline(final AsyncExecutor executor) {
+    return new InboundPacketPipeline(
+        executor,
+        (endpoint, received) -> {
+          handledEndpoints.add(endpoint);
+          handledPackets.add(received);
+        },
+        new NoOpMetricsSystem(),
+        clock);
+  }
+
+  private static class DeferredAsyncExecutor implements AsyncExecutor {
+    private final List<Runnable> pendingActions = new ArrayList<>();
+
+    @Override
+    public <T> CompletableFuture<T> execute(final Supplier<T> action) {
+      final CompletableFuture<T> result = new CompletableFuture<>();
+      pendingActions.add(
+          () -> {
+            try {
+              result.complete(action.get());
+            } catch (final Throwable t) {
+              result.completeExceptionally(t);
+            }
+          });
+      return result;
+    }
+
+    int pendingActions() {
+      return pendingActions.size();
+    }
+
+    void runPendingActions() {
+      final List<Runnable> actions = new ArrayList<>(pendingActions);
+      pendingActions.clear();
+      actions.forEach(Runnable::run);
+    }
+  }
+}
@@ -15,6 +15,7 @@ package tech.pegasys.pantheon.ethereum.p2p.discovery.internal;
 import static org.assertj.core.api.Assertions.assertThat;
 import static tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PeerDistanceCalculator.distance;
 
+import tech.pegasys.pantheon.util.bytes.Bytes32;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.util.Random;
@@ -78,4 +79,26 @@ public class PeerDiscoveryControllerDistanceCalculatorTest {
     final BytesValue id2 = BytesValue.EMPTY;
     assertThat(distance(id1, id2)).isEqualTo(0);
   }
+
+  @Test
+  public void keyDistanceMatchesByteDistance() {
+    final Random random = new Random(1);
+    final long[] keys = new long[2 * PeerDistanceCalculator.KEY_LONGS];
+    for (int i = 0; i < 100; i++) {
+      final byte[] bytes1 = new byte[32];
+      final byte[] bytes2 = new byte[32];
+      random.nextBytes(bytes1);
+      random.nextBytes(bytes2);
+      // Share a random length prefix so all distances are exercised
+      System.arraycopy(bytes1, 0, bytes2, 0, random.nextInt(33));
+      final Bytes32 hash1 = Bytes32.wrap(bytes1);
+      final Bytes32 hash2 = Bytes32.wrap(bytes2);
+      PeerDistanceCalculator.toKey(hash1, keys, 0);
+      PeerDistanceCalculator.toKey(hash2, keys, PeerDistanceCalculator.KEY_LONGS);
+
+      final int expected = distance(hash1, hash2);
+      assertThat(distance(keys, 0, hash2)).isEqualTo(expected);
+      assertThat(distance(keys, 0, keys, PeerDistanceCalculator.KEY_LONGS)).isEqualTo(expected);
+    }
+  }
 }
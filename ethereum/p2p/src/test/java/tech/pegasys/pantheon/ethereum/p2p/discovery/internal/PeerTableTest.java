@@ -12,15 +12,21 @@
  */
 package tech.pegasys.pantheon.ethereum.p2p.discovery.internal;
 
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import tech.pegasys.pantheon.crypto.Hash;
 import tech.pegasys.pantheon.ethereum.p2p.discovery.DiscoveryPeer;
+import tech.pegasys.pantheon.ethereum.p2p.discovery.PeerDiscoveryStatus;
 import tech.pegasys.pantheon.ethereum.p2p.discovery.PeerDiscoveryTestHelper;
 import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PeerTable.AddResult.AddOutcome;
 import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PeerTable.EvictResult;
 import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PeerTable.EvictResult.EvictOutcome;
 import tech.pegasys.pantheon.ethereum.p2p.peers.Peer;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
 
+import java.math.BigInteger;
 import java.util.List;
 
 import org.junit.Test;
@@ -105,4 +111,40 @@ public class PeerTableTest {
     EvictResult evictResult = table.tryEvict(peer);
     assertThat(evictResult.getOutcome()).isEqualTo(EvictOutcome.SELF);
   }
+
+  @Test
+  public void nearestPeersShouldReturnClosestBondedPeersInOrder() {
+    final PeerTable table = new PeerTable(Peer.randomId(), 16);
+    final List<DiscoveryPeer> peers = helper.createDiscoveryPeers(60);
+    for (int i = 0; i < peers.size(); i++) {
+      if (i % 5 != 0) {
+        peers.get(i).setStatus(PeerDiscoveryStatus.BONDED);
+      }
+      table.tryAdd(peers.get(i));
+    }
+    final BytesValue target = Peer.randomId();
+    final BigInteger targetHash = new BigInteger(1, Hash.keccak256(target).extractArray());
+
+    final List<DiscoveryPeer> expected =
+        table
+            .getAllPeers()
+            .filter(peer -> peer.getStatus() == PeerDiscoveryStatus.BONDED)
+            .sorted(
+                comparing(
+                    peer -> new BigInteger(1, peer.keccak256().extractArray()).xor(targetHash)))
+            .limit(16)
+            .collect(toList());
+
+    assertThat(table.nearestPeers(target, 16)).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  public void nearestPeersShouldReturnAllBondedPeersWhenFewerThanLimit() {
+    final PeerTable table = new PeerTable(Peer.randomId(), 16);
+    final List<DiscoveryPeer> peers = helper.createDiscoveryPeers(3);
+    peers.forEach(peer -> peer.setStatus(PeerDiscoveryStatus.BONDED));
+    peers.forEach(table::tryAdd);
+
+    assertThat(table.nearestPeers(Peer.randomId(), 16)).containsExactlyInAnyOrderElementsOf(peers);
+  }
 }
@@ -160,6 +160,7 @@ public class DeFramerTest {
     assertThat(out).isEmpty();
 
     // Next phase of pipeline should be setup
+    verify(pipeline, times(1)).addFirst(any());
     verify(pipeline, times(1)).addLast(any());
 
     // Next message should be pushed out
@@ -24,9 +24,11 @@ import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.EventLoop;
+import io.netty.channel.WriteBufferWaterMark;
 import org.assertj.core.api.Assertions;
 import org.junit.Before;
 import org.junit.Test;
@@ -37,6 +39,7 @@ public class NettyPeerConnectionTest {
   private final Channel channel = mock(Channel.class);
   private final ChannelFuture closeFuture = mock(ChannelFuture.class);
   private final EventLoop eventLoop = mock(EventLoop.class);
+  private final ChannelConfig channelConfig = mock(ChannelConfig.class);
   private final CapabilityMultiplexer multiplexer = mock(CapabilityMultiplexer.class);
   private final Callbacks callbacks = mock(Callbacks.class);
   private final PeerInfo peerInfo = new PeerInfo(5, "foo", emptyList(), 0, BytesValue.of(1));
@@ -48,6 +51,8 @@ public class NettyPeerConnectionTest {
     when(context.channel()).thenReturn(channel);
     when(channel.closeFuture()).thenReturn(closeFuture);
     when(channel.eventLoop()).thenReturn(eventLoop);
+    when(channel.config()).thenReturn(channelConfig);
+    when(channelConfig.getWriteBufferWaterMark()).thenReturn(new WriteBufferWaterMark(100, 200));
     connection =
         new NettyPeerConnection(
             context, peerInfo, multiplexer, callbacks, NoOpMetricsSystem.NO_OP_LABELLED_3_COUNTER);
@@ -59,4 +64,32 @@ public class NettyPeerConnectionTest {
     Assertions.assertThatThrownBy(() -> connection.send(null, HelloMessage.create(peerInfo)))
         .isInstanceOfAny(PeerNotConnected.class);
   }
+
+  @Test
+  public void shouldNotBeWritableWhenChannelIsNotWritable() {
+    when(channel.isWritable()).thenReturn(false);
+    Assertions.assertThat(connection.isWritable()).isFalse();
+  }
+
+  @Test
+  public void shouldReportOutboundQueueSizeBelowHighWaterMark() {
+    when(channel.isWritable()).thenReturn(true);
+    when(channel.bytesBeforeUnwritable()).thenReturn(150L);
+    Assertions.assertThat(connection.getOutboundQueueSize()).isEqualTo(50);
+  }
+
+  @Test
+  public void shouldReportOutboundQueueSizeAboveLowWaterMarkWhenNotWritable() {
+    when(channel.isWritable()).thenReturn(false);
+    when(channel.isOpen()).thenReturn(true);
+    when(channel.bytesBeforeWritable()).thenReturn(150L);
+    Assertions.assertThat(connection.getOutboundQueueSize()).isEqualTo(250);
+  }
+
+  @Test
+  public void shouldReportEmptyOutboundQueueWhenChannelIsClosed() {
+    when(channel.isWritable()).thenReturn(false);
+    when(channel.isOpen()).thenReturn(false);
+    Assertions.assertThat(connection.getOutboundQueueSize()).isEqualTo(0);
+  }
 }
@@ -240,6 +240,29 @@ public class FramerTest {
     assertThatThrownBy(() -> receivingFramer.deframe(out)).isInstanceOf(FramingException.class);
   }
 
+  @Test
+  public void shouldDeframeCompressedMessagesFramedIntoDirectBuffer() throws IOException {
+    final JsonNode td = MAPPER.readTree(FramerTest.class.getResource("/peer1.json"));
+    final Framer framer = new Framer(secretsFrom(td, false));
+    framer.enableCompression();
+    final Framer deframer = new Framer(secretsFrom(td, true));
+    deframer.enableCompression();
+
+    final byte[] data = new byte[3000];
+    new Random().nextBytes(data);
+    final ByteBuf framedMessages = Unpooled.directBuffer();
+    for (int code = 0; code < 3; code++) {
+      framer.frame(new RawMessage(code, BytesValue.wrap(data)), framedMessages);
+    }
+
+    for (int code = 0; code < 3; code++) {
+      final MessageData message = deframer.deframe(framedMessages);
+      assertThat(message.getCode()).isEqualTo(code);
+      assertThat(message.getData()).isEqualTo(BytesValue.wrap(data));
+    }
+    assertThat(framedMessages.readableBytes()).isZero();
+  }
+
   private HandshakeSecrets secretsFrom(final JsonNode td, final boolean swap) {
     final byte[] aes = decodeHexDump(td.get("aes_secret").asText());
     final byte[] mac = decodeHexDump(td.get("mac_secret").asText());
@@ -198,6 +198,31 @@ public class ECIESHandshakeTest {
     assertThat(responder.secrets().getEgressMac()).isEqualTo(Expectations.initialIngressMac);
   }
 
+  @Test
+  public void handshakeWithCachedStaticSharedSecrets() {
+    final StaticSharedSecrets initiatorSecrets = new StaticSharedSecrets(Input.initiatorKeyPair);
+    final StaticSharedSecrets responderSecrets = new StaticSharedSecrets(Input.responderKeyPair);
+
+    for (int i = 0; i < 2; i++) {
+      final ECIESHandshaker initiator = new ECIESHandshaker(initiatorSecrets);
+      initiator.prepareInitiator(Input.initiatorKeyPair, Input.responderKeyPair.getPublicKey());
+      final ECIESHandshaker responder = new ECIESHandshaker(responderSecrets);
+      responder.prepareResponder(Input.responderKeyPair);
+
+      final ByteBuf responderRp =
+          responder
+              .handleMessage(initiator.firstMessage())
+              .orElseThrow(() -> new AssertionFailedError("Expected responder message"));
+      initiator.handleMessage(responderRp);
+
+      assertThat(initiator.getStatus()).isEqualTo(HandshakeStatus.SUCCESS);
+      assertThat(responder.getStatus()).isEqualTo(HandshakeStatus.SUCCESS);
+      assertThat(responder.partyPubKey()).isEqualTo(Input.initiatorKeyPair.getPublicKey());
+      assertThat(initiator.secrets().getAesSecret()).isEqualTo(responder.secrets().getAesSecret());
+      assertThat(initiator.secrets().getEgressMac()).isEqualTo(responder.secrets().getIngressMac());
+    }
+  }
+
   private static BytesValue h(final String hex) {
     return BytesValue.fromHexString(hex);
   }
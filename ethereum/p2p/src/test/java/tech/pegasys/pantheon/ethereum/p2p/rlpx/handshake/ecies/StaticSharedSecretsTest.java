@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.ecies;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.crypto.SECP256K1;
+import tech.pegasys.pantheon.crypto.SECP256K1.KeyPair;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Ticker;
+import org.junit.Test;
+
+public class StaticSharedSecretsTest {
+
+  private static final KeyPair OUR_KEY_PAIR = KeyPair.generate();
+  private static final KeyPair THEIR_KEY_PAIR = KeyPair.generate();
+
+  private final AtomicLong nanoTime = new AtomicLong();
+  private final Ticker ticker =
+      new Ticker() {
+        @Override
+        public long read() {
+          return nanoTime.get();
+        }
+      };
+
+  @Test
+  public void shouldCalculateTheSameSecretAsBothEnds() {
+    final StaticSharedSecrets ours = new StaticSharedSecrets(OUR_KEY_PAIR);
+    final StaticSharedSecrets theirs = new StaticSharedSecrets(THEIR_KEY_PAIR);
+
+    assertThat(ours.get(THEIR_KEY_PAIR.getPublicKey()))
+        .isEqualTo(
+            SECP256K1.calculateKeyAgreement(
+                OUR_KEY_PAIR.getPrivateKey(), THEIR_KEY_PAIR.getPublicKey()))
+        .isEqualTo(theirs.get(OUR_KEY_PAIR.getPublicKey()));
+  }
+
+  @Test
+  public void shouldForgetSecretsAfterTheirTimeToLive() {
+    final StaticSharedSecrets secrets =
+        new StaticSharedSecrets(OUR_KEY_PAIR, 10, Duration.ofMinutes(1), ticker);
+
+    secrets.get(THEIR_KEY_PAIR.getPublicKey());
+    assertThat(secrets.size()).isEqualTo(1);
+
+    nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(1));
+    assertThat(secrets.size()).isZero();
+  }
+
+  @Test
+  public void shouldLimitNumberOfSecretsRemembered() {
+    final StaticSharedSecrets secrets =
+        new StaticSharedSecrets(OUR_KEY_PAIR, 2, Duration.ofMinutes(1), ticker);
+
+    for (int i = 0; i < 3; i++) {
+      secrets.get(KeyPair.generate().getPublicKey());
+    }
+    assertThat(secrets.size()).isLessThanOrEqualTo(2);
+  }
+}
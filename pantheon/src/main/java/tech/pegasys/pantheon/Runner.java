@@ -27,6 +27,7 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -44,6 +45,7 @@ public class Runner implements AutoCloseable {
   private final Optional<JsonRpcHttpService> jsonRpc;
   private final Optional<WebSocketService> websocketRpc;
   private final Optional<MetricsService> metrics;
+  private final ExecutorService jsonRpcWorkerExecutor;
 
   private final PantheonController<?> pantheonController;
   private final Path dataDir;
@@ -54,6 +56,7 @@ public class Runner implements AutoCloseable {
       final Optional<JsonRpcHttpService> jsonRpc,
       final Optional<WebSocketService> websocketRpc,
       final Optional<MetricsService> metrics,
+      final ExecutorService jsonRpcWorkerExecutor,
       final PantheonController<?> pantheonController,
       final Path dataDir) {
     this.vertx = vertx;
@@ -61,6 +64,7 @@ public class Runner implements AutoCloseable {
     this.jsonRpc = jsonRpc;
     this.websocketRpc = websocketRpc;
     this.metrics = metrics;
+    this.jsonRpcWorkerExecutor = jsonRpcWorkerExecutor;
     this.pantheonController = pantheonController;
     this.dataDir = dataDir;
   }
@@ -102,6 +106,7 @@ public class Runner implements AutoCloseable {
       websocketRpc.ifPresent(service -> waitForServiceToStop("websocketRpc", service.stop()));
       metrics.ifPresent(service -> waitForServiceToStop("metrics", service.stop()));
     } finally {
+      jsonRpcWorkerExecutor.shutdownNow();
       try {
         vertx.close();
       } finally {
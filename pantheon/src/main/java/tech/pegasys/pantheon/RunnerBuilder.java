@@ -21,6 +21,7 @@ import tech.pegasys.pantheon.ethereum.chain.Blockchain;
 import tech.pegasys.pantheon.ethereum.core.PrivacyParameters;
 import tech.pegasys.pantheon.ethereum.core.Synchronizer;
 import tech.pegasys.pantheon.ethereum.core.TransactionPool;
+import tech.pegasys.pantheon.ethereum.eth.manager.MonitoredExecutors;
 import tech.pegasys.pantheon.ethereum.jsonrpc.JsonRpcConfiguration;
 import tech.pegasys.pantheon.ethereum.jsonrpc.JsonRpcHttpService;
 import tech.pegasys.pantheon.ethereum.jsonrpc.JsonRpcMethodsFactory;
@@ -28,6 +29,8 @@ import tech.pegasys.pantheon.ethereum.jsonrpc.RpcApi;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.filter.FilterIdGenerator;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.filter.FilterManager;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.filter.FilterRepository;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.gasprice.GasPriceOracle;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.gasprice.GasPriceOracleConfiguration;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.JsonRpcMethod;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.BlockchainQueries;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.WebSocketConfiguration;
@@ -64,6 +67,7 @@ import tech.pegasys.pantheon.ethereum.permissioning.NodePermissioningControllerF
 import tech.pegasys.pantheon.ethereum.permissioning.PermissioningConfiguration;
 import tech.pegasys.pantheon.ethereum.permissioning.node.NodePermissioningController;
 import tech.pegasys.pantheon.ethereum.transaction.TransactionSimulator;
+import tech.pegasys.pantheon.ethereum.worldstate.CachingWorldStateReader;
 import tech.pegasys.pantheon.ethereum.worldstate.WorldStateArchive;
 import tech.pegasys.pantheon.metrics.MetricsSystem;
 import tech.pegasys.pantheon.metrics.prometheus.MetricsConfiguration;
@@ -79,6 +83,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 import com.google.common.base.Preconditions;
@@ -94,7 +99,11 @@ public class RunnerBuilder {
   private String discoveryHost;
   private int listenPort;
   private int maxPeers;
+  private int p2pWorkerThreads = RlpxConfiguration.AUTOMATIC_WORKER_THREADS;
+  private boolean p2pNativeTransportEnabled = true;
   private JsonRpcConfiguration jsonRpcConfiguration;
+  private GasPriceOracleConfiguration gasPriceOracleConfiguration =
+      GasPriceOracleConfiguration.createDefault();
   private WebSocketConfiguration webSocketConfiguration;
   private Path dataDir;
   private Collection<String> bannedNodeIds;
@@ -152,11 +161,27 @@ public class RunnerBuilder {
     return this;
   }
 
+  public RunnerBuilder p2pWorkerThreads(final int p2pWorkerThreads) {
+    this.p2pWorkerThreads = p2pWorkerThreads;
+    return this;
+  }
+
+  public RunnerBuilder p2pNativeTransportEnabled(final boolean p2pNativeTransportEnabled) {
+    this.p2pNativeTransportEnabled = p2pNativeTransportEnabled;
+    return this;
+  }
+
   public RunnerBuilder jsonRpcConfiguration(final JsonRpcConfiguration jsonRpcConfiguration) {
     this.jsonRpcConfiguration = jsonRpcConfiguration;
     return this;
   }
 
+  public RunnerBuilder gasPriceOracleConfiguration(
+      final GasPriceOracleConfiguration gasPriceOracleConfiguration) {
+    this.gasPriceOracleConfiguration = gasPriceOracleConfiguration;
+    return this;
+  }
+
   public RunnerBuilder webSocketConfiguration(final WebSocketConfiguration webSocketConfiguration) {
     this.webSocketConfiguration = webSocketConfiguration;
     return this;
@@ -231,7 +256,12 @@ public class RunnerBuilder {
 
     final NetworkingConfiguration networkConfig =
         new NetworkingConfiguration()
-            .setRlpx(RlpxConfiguration.create().setBindPort(listenPort).setMaxPeers(maxPeers))
+            .setRlpx(
+                RlpxConfiguration.create()
+                    .setBindPort(listenPort)
+                    .setMaxPeers(maxPeers)
+                    .setWorkerThreads(p2pWorkerThreads)
+                    .setNativeTransportEnabled(p2pNativeTransportEnabled))
             .setDiscovery(discoveryConfiguration)
             .setClientId(PantheonInfo.version())
             .setSupportedProtocols(subProtocols);
@@ -250,9 +280,15 @@ public class RunnerBuilder {
 
     final Synchronizer synchronizer = pantheonController.getSynchronizer();
 
+    final CachingWorldStateReader cachingWorldStateReader =
+        new CachingWorldStateReader(context.getWorldStateArchive());
+    final ExecutorService jsonRpcWorkerExecutor =
+        MonitoredExecutors.newFixedThreadPool(
+            "JsonRpc-Worker", Runtime.getRuntime().availableProcessors(), metricsSystem);
+
     final TransactionSimulator transactionSimulator =
         new TransactionSimulator(
-            context.getBlockchain(), context.getWorldStateArchive(), protocolSchedule);
+            context.getBlockchain(), cachingWorldStateReader, protocolSchedule);
 
     final Optional<NodePermissioningController> nodePermissioningController =
         buildNodePermissioningController(bootnodesAsEnodeURLs, synchronizer, transactionSimulator);
@@ -311,6 +347,7 @@ public class RunnerBuilder {
 
     final PrivacyParameters privacyParameters = pantheonController.getPrivacyParameters();
     final FilterManager filterManager = createFilterManager(vertx, context, transactionPool);
+    final GasPriceOracle gasPriceOracle = createGasPriceOracle(context, transactionPool);
 
     final P2PNetwork peerNetwork = networkRunner.getNetwork();
 
@@ -338,6 +375,9 @@ public class RunnerBuilder {
               supportedCapabilities,
               jsonRpcConfiguration.getRpcApis(),
               filterManager,
+              gasPriceOracle,
+              cachingWorldStateReader,
+              jsonRpcWorkerExecutor,
               accountWhitelistController,
               nodeWhitelistController,
               privacyParameters);
@@ -362,6 +402,9 @@ public class RunnerBuilder {
               supportedCapabilities,
               webSocketConfiguration.getRpcApis(),
               filterManager,
+              gasPriceOracle,
+              cachingWorldStateReader,
+              jsonRpcWorkerExecutor,
               accountWhitelistController,
               nodeWhitelistController,
               privacyParameters);
@@ -394,6 +437,7 @@ public class RunnerBuilder {
         jsonRpcHttpService,
         webSocketService,
         metricsService,
+        jsonRpcWorkerExecutor,
         pantheonController,
         dataDir);
   }
@@ -425,6 +469,17 @@ public class RunnerBuilder {
     return filterManager;
   }
 
+  private GasPriceOracle createGasPriceOracle(
+      final ProtocolContext<?> context, final TransactionPool transactionPool) {
+    final GasPriceOracle gasPriceOracle =
+        new GasPriceOracle(
+            gasPriceOracleConfiguration,
+            context.getBlockchain(),
+            transactionPool.getPendingTransactions());
+    context.getBlockchain().observeBlockAdded(gasPriceOracle);
+    return gasPriceOracle;
+  }
+
   private Map<String, JsonRpcMethod> jsonRpcMethods(
       final ProtocolContext<?> context,
       final ProtocolSchedule<?> protocolSchedule,
@@ -437,6 +492,9 @@ public class RunnerBuilder {
       final Set<Capability> supportedCapabilities,
       final Collection<RpcApi> jsonRpcApis,
       final FilterManager filterManager,
+      final GasPriceOracle gasPriceOracle,
+      final CachingWorldStateReader cachingWorldStateReader,
+      final ExecutorService jsonRpcWorkerExecutor,
       final Optional<AccountWhitelistController> accountWhitelistController,
       final Optional<NodeLocalConfigPermissioningController> nodeWhitelistController,
       final PrivacyParameters privacyParameters) {
@@ -457,6 +515,9 @@ public class RunnerBuilder {
                 supportedCapabilities,
                 jsonRpcApis,
                 filterManager,
+                gasPriceOracle,
+                cachingWorldStateReader,
+                jsonRpcWorkerExecutor,
                 accountWhitelistController,
                 nodeWhitelistController,
                 privacyParameters);
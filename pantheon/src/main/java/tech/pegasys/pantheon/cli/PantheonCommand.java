@@ -51,7 +51,9 @@ import tech.pegasys.pantheon.ethereum.eth.sync.TrailingPeerRequirements;
 import tech.pegasys.pantheon.ethereum.jsonrpc.JsonRpcConfiguration;
 import tech.pegasys.pantheon.ethereum.jsonrpc.RpcApi;
 import tech.pegasys.pantheon.ethereum.jsonrpc.RpcApis;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.gasprice.GasPriceOracleConfiguration;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.WebSocketConfiguration;
+import tech.pegasys.pantheon.ethereum.p2p.config.RlpxConfiguration;
 import tech.pegasys.pantheon.ethereum.p2p.peers.StaticNodesParser;
 import tech.pegasys.pantheon.ethereum.permissioning.LocalPermissioningConfiguration;
 import tech.pegasys.pantheon.ethereum.permissioning.PermissioningConfiguration;
@@ -250,6 +252,23 @@ public class PantheonCommand implements DefaultCommandValues, Runnable {
       arity = "1")
   private final Integer p2pPort = DEFAULT_PORT;
 
+  @Option(
+      hidden = true,
+      names = {"--p2p-worker-threads"},
+      paramLabel = MANDATORY_INTEGER_FORMAT_HELP,
+      description =
+          "Number of threads handling P2P connections, 0 to size it to the maximum peer count (default: ${DEFAULT-VALUE})",
+      arity = "1")
+  private final Integer p2pWorkerThreads = RlpxConfiguration.AUTOMATIC_WORKER_THREADS;
+
+  @Option(
+      hidden = true,
+      names = {"--p2p-native-transport-enabled"},
+      description =
+          "Use the native epoll transport for P2P connections when available (default: ${DEFAULT-VALUE})",
+      arity = "1")
+  private final Boolean p2pNativeTransportEnabled = true;
+
   @Option(
       names = {"--network-id"},
       paramLabel = MANDATORY_INTEGER_FORMAT_HELP,
@@ -445,6 +464,39 @@ public class PantheonCommand implements DefaultCommandValues, Runnable {
       arity = "1")
   private final BytesValue extraData = DEFAULT_EXTRA_DATA;
 
+  @Option(
+      hidden = true,
+      names = {"--gas-price-oracle-blocks"},
+      paramLabel = MANDATORY_INTEGER_FORMAT_HELP,
+      description =
+          "Number of recent blocks sampled to suggest a gas price for eth_gasPrice (default: ${DEFAULT-VALUE})",
+      arity = "1")
+  private final Integer gasPriceOracleBlocks = GasPriceOracleConfiguration.DEFAULT_BLOCKS;
+
+  @Option(
+      hidden = true,
+      names = {"--gas-price-oracle-percentile"},
+      paramLabel = MANDATORY_INTEGER_FORMAT_HELP,
+      description =
+          "Percentile of sampled gas prices suggested by eth_gasPrice (default: ${DEFAULT-VALUE})",
+      arity = "1")
+  private final Integer gasPriceOraclePercentile = GasPriceOracleConfiguration.DEFAULT_PERCENTILE;
+
+  @Option(
+      hidden = true,
+      names = {"--gas-price-oracle-min-price"},
+      description = "Lowest gas price (in Wei) suggested by eth_gasPrice (default: ${DEFAULT-VALUE})",
+      arity = "1")
+  private final Wei gasPriceOracleMinPrice = GasPriceOracleConfiguration.DEFAULT_MIN_GAS_PRICE;
+
+  @Option(
+      hidden = true,
+      names = {"--gas-price-oracle-max-price"},
+      description =
+          "Highest gas price (in Wei) suggested by eth_gasPrice (default: ${DEFAULT-VALUE})",
+      arity = "1")
+  private final Wei gasPriceOracleMaxPrice = GasPriceOracleConfiguration.DEFAULT_MAX_GAS_PRICE;
+
   @Option(
       names = {"--permissions-nodes-config-file-enabled"},
       description = "Enable node level permissions (default: ${DEFAULT-VALUE})")
@@ -626,6 +678,11 @@ public class PantheonCommand implements DefaultCommandValues, Runnable {
         !isMiningEnabled,
         asList("--miner-coinbase", "--min-gas-price", "--miner-extra-data"));
 
+    if (p2pWorkerThreads < 0) {
+      throw new ParameterException(
+          commandLine, "--p2p-worker-threads must be greater than or equal to 0");
+    }
+
     // Check that fast sync options are able to work or send an error
     if (fastSyncMaxWaitTime < 0) {
       throw new ParameterException(
@@ -635,7 +692,7 @@ public class PantheonCommand implements DefaultCommandValues, Runnable {
         logger,
         commandLine,
         "--sync-mode",
-        !SyncMode.FAST.equals(syncMode),
+        !syncMode.isFastSync(),
         asList("--fast-sync-min-peers", "--fast-sync-max-wait-time"));
 
     //noinspection ConstantConditions
@@ -725,6 +782,19 @@ public class PantheonCommand implements DefaultCommandValues, Runnable {
     }
   }
 
+  private GasPriceOracleConfiguration gasPriceOracleConfiguration() {
+    try {
+      return GasPriceOracleConfiguration.builder()
+          .blocks(gasPriceOracleBlocks)
+          .percentile(gasPriceOraclePercentile)
+          .minGasPrice(gasPriceOracleMinPrice)
+          .maxGasPrice(gasPriceOracleMaxPrice)
+          .build();
+    } catch (final IllegalArgumentException e) {
+      throw new ParameterException(commandLine, e.getMessage());
+    }
+  }
+
   private JsonRpcConfiguration jsonRpcConfiguration() {
 
     checkOptionDependencies(
@@ -979,7 +1049,10 @@ public class PantheonCommand implements DefaultCommandValues, Runnable {
             .discoveryHost(discoveryHost)
             .discoveryPort(discoveryPort)
             .maxPeers(maxPeers)
+            .p2pWorkerThreads(p2pWorkerThreads)
+            .p2pNativeTransportEnabled(p2pNativeTransportEnabled)
             .jsonRpcConfiguration(jsonRpcConfiguration)
+            .gasPriceOracleConfiguration(gasPriceOracleConfiguration())
             .webSocketConfiguration(webSocketConfiguration)
             .dataDir(dataDir())
             .bannedNodeIds(bannedNodeIds)
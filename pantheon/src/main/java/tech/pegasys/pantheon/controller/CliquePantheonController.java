@@ -42,16 +42,15 @@ import tech.pegasys.pantheon.ethereum.core.TransactionPool;
 import tech.pegasys.pantheon.ethereum.core.Util;
 import tech.pegasys.pantheon.ethereum.eth.EthProtocol;
 import tech.pegasys.pantheon.ethereum.eth.EthereumWireProtocolConfiguration;
+import tech.pegasys.pantheon.ethereum.eth.StateRangeProtocol;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManager;
 import tech.pegasys.pantheon.ethereum.eth.sync.DefaultSynchronizer;
-import tech.pegasys.pantheon.ethereum.eth.sync.SyncMode;
 import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
 import tech.pegasys.pantheon.ethereum.eth.sync.state.SyncState;
 import tech.pegasys.pantheon.ethereum.eth.transactions.TransactionPoolFactory;
 import tech.pegasys.pantheon.ethereum.jsonrpc.RpcApi;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.JsonRpcMethod;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
-import tech.pegasys.pantheon.ethereum.p2p.api.ProtocolManager;
 import tech.pegasys.pantheon.ethereum.p2p.config.SubProtocolConfiguration;
 import tech.pegasys.pantheon.ethereum.storage.StorageProvider;
 import tech.pegasys.pantheon.metrics.MetricsSystem;
@@ -74,7 +73,8 @@ public class CliquePantheonController implements PantheonController<CliqueContex
   private final ProtocolContext<CliqueContext> context;
   private final GenesisConfigOptions genesisConfigOptions;
   private final Synchronizer synchronizer;
-  private final ProtocolManager ethProtocolManager;
+  private final boolean stateRangeProtocolEnabled;
+  private final EthProtocolManager ethProtocolManager;
   private final KeyPair keyPair;
   private final TransactionPool transactionPool;
   private final Runnable closer;
@@ -86,8 +86,9 @@ public class CliquePantheonController implements PantheonController<CliqueContex
       final ProtocolSchedule<CliqueContext> protocolSchedule,
       final ProtocolContext<CliqueContext> context,
       final GenesisConfigOptions genesisConfigOptions,
-      final ProtocolManager ethProtocolManager,
+      final EthProtocolManager ethProtocolManager,
       final Synchronizer synchronizer,
+      final boolean stateRangeProtocolEnabled,
       final KeyPair keyPair,
       final TransactionPool transactionPool,
       final MiningCoordinator miningCoordinator,
@@ -99,6 +100,7 @@ public class CliquePantheonController implements PantheonController<CliqueContex
     this.genesisConfigOptions = genesisConfigOptions;
     this.ethProtocolManager = ethProtocolManager;
     this.synchronizer = synchronizer;
+    this.stateRangeProtocolEnabled = stateRangeProtocolEnabled;
     this.keyPair = keyPair;
     this.transactionPool = transactionPool;
     this.closer = closer;
@@ -148,7 +150,7 @@ public class CliquePantheonController implements PantheonController<CliqueContex
                     epochManager));
     final MutableBlockchain blockchain = protocolContext.getBlockchain();
 
-    final boolean fastSyncEnabled = syncConfig.syncMode().equals(SyncMode.FAST);
+    final boolean fastSyncEnabled = syncConfig.syncMode().isFastSync();
     final EthProtocolManager ethProtocolManager =
         new EthProtocolManager(
             blockchain,
@@ -215,6 +217,7 @@ public class CliquePantheonController implements PantheonController<CliqueContex
         genesisConfig.getConfigOptions(),
         ethProtocolManager,
         synchronizer,
+        syncConfig.stateRangeProtocolEnabled(),
         nodeKeys,
         transactionPool,
         miningCoordinator,
@@ -260,7 +263,13 @@ public class CliquePantheonController implements PantheonController<CliqueContex
 
   @Override
   public SubProtocolConfiguration subProtocolConfiguration() {
-    return new SubProtocolConfiguration().withSubProtocol(EthProtocol.get(), ethProtocolManager);
+    final SubProtocolConfiguration subProtocolConfiguration =
+        new SubProtocolConfiguration().withSubProtocol(EthProtocol.get(), ethProtocolManager);
+    if (stateRangeProtocolEnabled) {
+      subProtocolConfiguration.withSubProtocol(
+          StateRangeProtocol.get(), ethProtocolManager.stateRangeProtocolManager());
+    }
+    return subProtocolConfiguration;
   }
 
   @Override
@@ -38,7 +38,6 @@ import tech.pegasys.pantheon.ethereum.core.TransactionPool;
 import tech.pegasys.pantheon.ethereum.eth.EthereumWireProtocolConfiguration;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManager;
 import tech.pegasys.pantheon.ethereum.eth.sync.DefaultSynchronizer;
-import tech.pegasys.pantheon.ethereum.eth.sync.SyncMode;
 import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
 import tech.pegasys.pantheon.ethereum.eth.sync.state.SyncState;
 import tech.pegasys.pantheon.ethereum.eth.transactions.TransactionPoolFactory;
@@ -135,7 +134,7 @@ public class IbftLegacyPantheonController implements PantheonController<IbftCont
             });
     final MutableBlockchain blockchain = protocolContext.getBlockchain();
 
-    final boolean fastSyncEnabled = syncConfig.syncMode().equals(SyncMode.FAST);
+    final boolean fastSyncEnabled = syncConfig.syncMode().isFastSync();
     final EthProtocolManager istanbul64ProtocolManager;
     final SubProtocol istanbul64SubProtocol;
     LOG.info("Operating on IBFT-1.0 network.");
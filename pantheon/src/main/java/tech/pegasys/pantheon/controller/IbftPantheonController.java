@@ -62,17 +62,16 @@ import tech.pegasys.pantheon.ethereum.core.TransactionPool;
 import tech.pegasys.pantheon.ethereum.core.Util;
 import tech.pegasys.pantheon.ethereum.eth.EthProtocol;
 import tech.pegasys.pantheon.ethereum.eth.EthereumWireProtocolConfiguration;
+import tech.pegasys.pantheon.ethereum.eth.StateRangeProtocol;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManager;
 import tech.pegasys.pantheon.ethereum.eth.sync.DefaultSynchronizer;
-import tech.pegasys.pantheon.ethereum.eth.sync.SyncMode;
 import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
 import tech.pegasys.pantheon.ethereum.eth.sync.state.SyncState;
 import tech.pegasys.pantheon.ethereum.eth.transactions.TransactionPoolFactory;
 import tech.pegasys.pantheon.ethereum.jsonrpc.RpcApi;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.JsonRpcMethod;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
-import tech.pegasys.pantheon.ethereum.p2p.api.ProtocolManager;
 import tech.pegasys.pantheon.ethereum.p2p.config.SubProtocolConfiguration;
 import tech.pegasys.pantheon.ethereum.p2p.wire.SubProtocol;
 import tech.pegasys.pantheon.ethereum.storage.StorageProvider;
@@ -98,8 +97,9 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
   private final ProtocolContext<IbftContext> context;
   private final GenesisConfigOptions genesisConfigOptions;
   private final Synchronizer synchronizer;
+  private final boolean stateRangeProtocolEnabled;
   private final SubProtocol ethSubProtocol;
-  private final ProtocolManager ethProtocolManager;
+  private final EthProtocolManager ethProtocolManager;
   private final IbftProtocolManager ibftProtocolManager;
   private final KeyPair keyPair;
   private final TransactionPool transactionPool;
@@ -112,9 +112,10 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
       final ProtocolContext<IbftContext> context,
       final GenesisConfigOptions genesisConfigOptions,
       final SubProtocol ethSubProtocol,
-      final ProtocolManager ethProtocolManager,
+      final EthProtocolManager ethProtocolManager,
       final IbftProtocolManager ibftProtocolManager,
       final Synchronizer synchronizer,
+      final boolean stateRangeProtocolEnabled,
       final KeyPair keyPair,
       final TransactionPool transactionPool,
       final MiningCoordinator ibftMiningCoordinator,
@@ -127,6 +128,7 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
     this.ethProtocolManager = ethProtocolManager;
     this.ibftProtocolManager = ibftProtocolManager;
     this.synchronizer = synchronizer;
+    this.stateRangeProtocolEnabled = stateRangeProtocolEnabled;
     this.keyPair = keyPair;
     this.transactionPool = transactionPool;
     this.ibftMiningCoordinator = ibftMiningCoordinator;
@@ -173,7 +175,7 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
             });
     final MutableBlockchain blockchain = protocolContext.getBlockchain();
 
-    final boolean fastSyncEnabled = syncConfig.syncMode().equals(SyncMode.FAST);
+    final boolean fastSyncEnabled = syncConfig.syncMode().isFastSync();
     final EthProtocolManager ethProtocolManager =
         new EthProtocolManager(
             protocolContext.getBlockchain(),
@@ -328,6 +330,7 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
         ethProtocolManager,
         new IbftProtocolManager(ibftEventQueue, peers),
         synchronizer,
+        syncConfig.stateRangeProtocolEnabled(),
         nodeKeys,
         transactionPool,
         ibftMiningCoordinator,
@@ -357,9 +360,15 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
 
   @Override
   public SubProtocolConfiguration subProtocolConfiguration() {
-    return new SubProtocolConfiguration()
-        .withSubProtocol(ethSubProtocol, ethProtocolManager)
-        .withSubProtocol(IbftSubProtocol.get(), ibftProtocolManager);
+    final SubProtocolConfiguration subProtocolConfiguration =
+        new SubProtocolConfiguration()
+            .withSubProtocol(ethSubProtocol, ethProtocolManager)
+            .withSubProtocol(IbftSubProtocol.get(), ibftProtocolManager);
+    if (stateRangeProtocolEnabled) {
+      subProtocolConfiguration.withSubProtocol(
+          StateRangeProtocol.get(), ethProtocolManager.stateRangeProtocolManager());
+    }
+    return subProtocolConfiguration;
   }
 
   @Override
@@ -28,18 +28,17 @@ import tech.pegasys.pantheon.ethereum.core.Synchronizer;
 import tech.pegasys.pantheon.ethereum.core.TransactionPool;
 import tech.pegasys.pantheon.ethereum.eth.EthProtocol;
 import tech.pegasys.pantheon.ethereum.eth.EthereumWireProtocolConfiguration;
+import tech.pegasys.pantheon.ethereum.eth.StateRangeProtocol;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManager;
 import tech.pegasys.pantheon.ethereum.eth.peervalidation.DaoForkPeerValidator;
 import tech.pegasys.pantheon.ethereum.eth.peervalidation.PeerValidatorRunner;
 import tech.pegasys.pantheon.ethereum.eth.sync.DefaultSynchronizer;
-import tech.pegasys.pantheon.ethereum.eth.sync.SyncMode;
 import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
 import tech.pegasys.pantheon.ethereum.eth.sync.state.SyncState;
 import tech.pegasys.pantheon.ethereum.eth.transactions.TransactionPoolFactory;
 import tech.pegasys.pantheon.ethereum.mainnet.MainnetBlockHeaderValidator;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
-import tech.pegasys.pantheon.ethereum.p2p.api.ProtocolManager;
 import tech.pegasys.pantheon.ethereum.p2p.config.SubProtocolConfiguration;
 import tech.pegasys.pantheon.ethereum.storage.StorageProvider;
 import tech.pegasys.pantheon.metrics.MetricsSystem;
@@ -62,9 +61,10 @@ public class MainnetPantheonController implements PantheonController<Void> {
   private final ProtocolSchedule<Void> protocolSchedule;
   private final ProtocolContext<Void> protocolContext;
   private final GenesisConfigOptions genesisConfigOptions;
-  private final ProtocolManager ethProtocolManager;
+  private final EthProtocolManager ethProtocolManager;
   private final KeyPair keyPair;
   private final Synchronizer synchronizer;
+  private final boolean stateRangeProtocolEnabled;
 
   private final TransactionPool transactionPool;
   private final MiningCoordinator miningCoordinator;
@@ -75,8 +75,9 @@ public class MainnetPantheonController implements PantheonController<Void> {
       final ProtocolSchedule<Void> protocolSchedule,
       final ProtocolContext<Void> protocolContext,
       final GenesisConfigOptions genesisConfigOptions,
-      final ProtocolManager ethProtocolManager,
+      final EthProtocolManager ethProtocolManager,
       final Synchronizer synchronizer,
+      final boolean stateRangeProtocolEnabled,
       final KeyPair keyPair,
       final TransactionPool transactionPool,
       final MiningCoordinator miningCoordinator,
@@ -87,6 +88,7 @@ public class MainnetPantheonController implements PantheonController<Void> {
     this.genesisConfigOptions = genesisConfigOptions;
     this.ethProtocolManager = ethProtocolManager;
     this.synchronizer = synchronizer;
+    this.stateRangeProtocolEnabled = stateRangeProtocolEnabled;
     this.keyPair = keyPair;
     this.transactionPool = transactionPool;
     this.miningCoordinator = miningCoordinator;
@@ -115,7 +117,7 @@ public class MainnetPantheonController implements PantheonController<Void> {
             storageProvider, genesisState, protocolSchedule, metricsSystem, (a, b) -> null);
     final MutableBlockchain blockchain = protocolContext.getBlockchain();
 
-    final boolean fastSyncEnabled = syncConfig.syncMode().equals(SyncMode.FAST);
+    final boolean fastSyncEnabled = syncConfig.syncMode().isFastSync();
     final EthProtocolManager ethProtocolManager =
         new EthProtocolManager(
             blockchain,
@@ -186,6 +188,7 @@ public class MainnetPantheonController implements PantheonController<Void> {
         genesisConfig.getConfigOptions(),
         ethProtocolManager,
         synchronizer,
+        syncConfig.stateRangeProtocolEnabled(),
         nodeKeys,
         transactionPool,
         miningCoordinator,
@@ -231,7 +234,13 @@ public class MainnetPantheonController implements PantheonController<Void> {
 
   @Override
   public SubProtocolConfiguration subProtocolConfiguration() {
-    return new SubProtocolConfiguration().withSubProtocol(EthProtocol.get(), ethProtocolManager);
+    final SubProtocolConfiguration subProtocolConfiguration =
+        new SubProtocolConfiguration().withSubProtocol(EthProtocol.get(), ethProtocolManager);
+    if (stateRangeProtocolEnabled) {
+      subProtocolConfiguration.withSubProtocol(
+          StateRangeProtocol.get(), ethProtocolManager.stateRangeProtocolManager());
+    }
+    return subProtocolConfiguration;
   }
 
   @Override
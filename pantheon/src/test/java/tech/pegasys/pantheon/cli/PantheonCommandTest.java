@@ -20,6 +20,7 @@ import static org.junit.Assume.assumeTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNotNull;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static tech.pegasys.pantheon.cli.NetworkName.DEV;
@@ -1040,6 +1041,29 @@ public class PantheonCommandTest extends CommandTestAbstract {
     assertThat(commandErrorOutput.toString()).isEmpty();
   }
 
+  @Test
+  public void p2pWorkerThreadsOptionsMustBeUsed() {
+    parseCommand("--p2p-worker-threads", "4", "--p2p-native-transport-enabled", "false");
+
+    verify(mockRunnerBuilder).p2pWorkerThreads(eq(4));
+    verify(mockRunnerBuilder).p2pNativeTransportEnabled(eq(false));
+    verify(mockRunnerBuilder).build();
+
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString()).isEmpty();
+  }
+
+  @Test
+  public void p2pWorkerThreadsOptionMustNotBeNegative() {
+    parseCommand("--p2p-worker-threads", "-1");
+
+    verifyZeroInteractions(mockRunnerBuilder);
+
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString())
+        .contains("--p2p-worker-threads must be greater than or equal to 0");
+  }
+
   @Test
   public void syncModeOptionMustBeUsed() {
 
@@ -1229,6 +1253,47 @@ public class PantheonCommandTest extends CommandTestAbstract {
     assertThat(commandErrorOutput.toString()).isEmpty();
   }
 
+  @Test
+  public void gasPriceOracleOptionsMustBeUsed() {
+    parseCommand(
+        "--gas-price-oracle-blocks",
+        "5",
+        "--gas-price-oracle-percentile",
+        "40",
+        "--gas-price-oracle-min-price",
+        "1000",
+        "--gas-price-oracle-max-price",
+        "2000");
+
+    final ArgumentCaptor<GasPriceOracleConfiguration> configArg =
+        ArgumentCaptor.forClass(GasPriceOracleConfiguration.class);
+    verify(mockRunnerBuilder).gasPriceOracleConfiguration(configArg.capture());
+    verify(mockRunnerBuilder).build();
+
+    assertThat(configArg.getValue())
+        .isEqualTo(
+            GasPriceOracleConfiguration.builder()
+                .blocks(5)
+                .percentile(40)
+                .minGasPrice(Wei.of(1000))
+                .maxGasPrice(Wei.of(2000))
+                .build());
+
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString()).isEmpty();
+  }
+
+  @Test
+  public void gasPriceOraclePercentileMustBeValid() {
+    parseCommand("--gas-price-oracle-percentile", "101");
+
+    verify(mockRunnerBuilder, never()).build();
+
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString())
+        .contains("Gas price percentile must be between 0 and 100");
+  }
+
   @Test
   public void rpcApisPropertyIgnoresDuplicatesAndMustBeUsed() {
     parseCommand("--rpc-http-api", "ETH,NET,NET", "--rpc-http-enabled");
@@ -22,6 +22,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
+import java.util.function.IntSupplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -32,21 +33,30 @@ class AsyncOperationProcessor<I, O> implements Processor<I, O> {
   private final List<CompletableFuture<O>> inProgress;
   private CompletableFuture<?> nextOutputAvailableFuture = completedFuture(null);
   private final boolean preserveOrder;
-  private final int maxConcurrency;
+  private final IntSupplier maxConcurrency;
 
   public AsyncOperationProcessor(
       final Function<I, CompletableFuture<O>> processor,
       final int maxConcurrency,
       final boolean preserveOrder) {
+    this(processor, () -> maxConcurrency, preserveOrder);
+  }
+
+  public AsyncOperationProcessor(
+      final Function<I, CompletableFuture<O>> processor,
+      final IntSupplier maxConcurrency,
+      final boolean preserveOrder) {
     this.processor = processor;
     this.maxConcurrency = maxConcurrency;
-    this.inProgress = new ArrayList<>(maxConcurrency);
+    this.inProgress = new ArrayList<>();
     this.preserveOrder = preserveOrder;
   }
 
   @Override
   public void processNextInput(final ReadPipe<I> inputPipe, final WritePipe<O> outputPipe) {
-    if (inProgress.size() < maxConcurrency) {
+    // The limit may change between calls, new items are only started once enough of the items in
+    // progress have completed to be under it.
+    if (inProgress.size() < maxConcurrency.getAsInt()) {
       final I value = inputPipe.get();
       if (value != null) {
         final CompletableFuture<O> future = processor.apply(value);
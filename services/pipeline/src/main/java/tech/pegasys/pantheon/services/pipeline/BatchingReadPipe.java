@@ -17,15 +17,21 @@ import tech.pegasys.pantheon.metrics.Counter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.IntSupplier;
 
 public class BatchingReadPipe<T> implements ReadPipe<List<T>> {
 
   private final ReadPipe<T> input;
-  private final int maximumBatchSize;
+  private final IntSupplier maximumBatchSize;
   private final Counter batchCounter;
 
   public BatchingReadPipe(
       final ReadPipe<T> input, final int maximumBatchSize, final Counter batchCounter) {
+    this(input, () -> maximumBatchSize, batchCounter);
+  }
+
+  public BatchingReadPipe(
+      final ReadPipe<T> input, final IntSupplier maximumBatchSize, final Counter batchCounter) {
     this.input = input;
     this.maximumBatchSize = maximumBatchSize;
     this.batchCounter = batchCounter;
@@ -51,7 +57,7 @@ public class BatchingReadPipe<T> implements ReadPipe<List<T>> {
     }
     final List<T> batch = new ArrayList<>();
     batch.add(firstItem);
-    input.drainTo(batch, maximumBatchSize - 1);
+    input.drainTo(batch, maximumBatchSize.getAsInt() - 1);
     batchCounter.inc();
     return batch;
   }
@@ -59,7 +65,7 @@ public class BatchingReadPipe<T> implements ReadPipe<List<T>> {
   @Override
   public List<T> poll() {
     final List<T> batch = new ArrayList<>();
-    input.drainTo(batch, maximumBatchSize);
+    input.drainTo(batch, maximumBatchSize.getAsInt());
     if (batch.isEmpty()) {
       // Poll has to return null if the pipe is empty
       return null;
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -167,6 +168,25 @@ public class PipelineBuilder<I, T> {
     return addStage(new AsyncOperationProcessor<>(processor, maxConcurrency, false), stageName);
   }
 
+  /**
+   * Adds a 1-to-1, asynchronous processing stage to the pipeline, as {@link
+   * #thenProcessAsync(String, Function, int)}, with a limit on the number of items being processed
+   * concurrently which may change while the pipeline runs.
+   *
+   * @param stageName the name of this stage. Used as the label for the output count metric.
+   * @param processor the processing to apply to each item.
+   * @param maxConcurrency supplies the current maximum number of items being processed
+   *     concurrently. Must always be greater than 0.
+   * @param <O> the output type for this processing step.
+   * @return a {@link PipelineBuilder} ready to extend the pipeline with additional stages.
+   */
+  public <O> PipelineBuilder<I, O> thenProcessAsync(
+      final String stageName,
+      final Function<T, CompletableFuture<O>> processor,
+      final IntSupplier maxConcurrency) {
+    return addStage(new AsyncOperationProcessor<>(processor, maxConcurrency, false), stageName);
+  }
+
   /**
    * Adds a 1-to-1, asynchronous processing stage to the pipeline. A single thread reads items from
    * the input and calls <i>processor</i> to begin processing. While a single thread is used to
@@ -191,6 +211,25 @@ public class PipelineBuilder<I, T> {
     return addStage(new AsyncOperationProcessor<>(processor, maxConcurrency, true), stageName);
   }
 
+  /**
+   * Adds a 1-to-1, asynchronous processing stage to the pipeline, as {@link
+   * #thenProcessAsyncOrdered(String, Function, int)}, with a limit on the number of items being
+   * processed concurrently which may change while the pipeline runs.
+   *
+   * @param stageName the name of this stage. Used as the label for the output count metric.
+   * @param processor the processing to apply to each item.
+   * @param maxConcurrency supplies the current maximum number of items being processed
+   *     concurrently. Must always be greater than 0.
+   * @param <O> the output type for this processing step.
+   * @return a {@link PipelineBuilder} ready to extend the pipeline with additional stages.
+   */
+  public <O> PipelineBuilder<I, O> thenProcessAsyncOrdered(
+      final String stageName,
+      final Function<T, CompletableFuture<O>> processor,
+      final IntSupplier maxConcurrency) {
+    return addStage(new AsyncOperationProcessor<>(processor, maxConcurrency, true), stageName);
+  }
+
   /**
    * Batches items into groups of at most <i>maximumBatchSize</i>. Batches are created eagerly to
    * minimize delay so may not be full.
@@ -203,6 +242,25 @@ public class PipelineBuilder<I, T> {
    * @return a {@link PipelineBuilder} ready to extend the pipeline with additional stages.
    */
   public PipelineBuilder<I, List<T>> inBatches(final int maximumBatchSize) {
+    return inBatches(maximumBatchSize, () -> maximumBatchSize);
+  }
+
+  /**
+   * Batches items into groups of at most the size given by <i>batchSize</i> when each batch is
+   * created, which may change while the pipeline runs but never exceeds <i>maximumBatchSize</i>.
+   * Batches are created eagerly to minimize delay so may not be full.
+   *
+   * <p>Order of items is preserved.
+   *
+   * <p>The output buffer size is reduced to <code>bufferSize / maximumBatchSize + 1</code>.
+   *
+   * @param maximumBatchSize the maximum number of items to include in a batch.
+   * @param batchSize supplies the current maximum number of items to include in a batch. Must
+   *     always be greater than 0.
+   * @return a {@link PipelineBuilder} ready to extend the pipeline with additional stages.
+   */
+  public PipelineBuilder<I, List<T>> inBatches(
+      final int maximumBatchSize, final IntSupplier batchSize) {
     checkArgument(maximumBatchSize > 0, "Maximum batch size must be greater than 0");
     return new PipelineBuilder<>(
         inputPipe,
@@ -211,7 +269,7 @@ public class PipelineBuilder<I, T> {
         lastStageName,
         new BatchingReadPipe<>(
             pipeEnd,
-            maximumBatchSize,
+            () -> Math.min(maximumBatchSize, batchSize.getAsInt()),
             outputCounter.labels(lastStageName + "_outputPipe", "batches")),
         (int) Math.ceil(((double) bufferSize) / maximumBatchSize),
         outputCounter);
@@ -22,6 +22,7 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import org.junit.Test;
@@ -76,6 +77,34 @@ public class AsyncOperationProcessorTest {
     verify(readPipe, times(4)).get();
   }
 
+  @Test
+  public void shouldApplyChangesToConcurrentJobLimit() {
+    final AtomicInteger maxConcurrency = new AtomicInteger(2);
+    final AsyncOperationProcessor<CompletableFuture<String>, String> processor =
+        new AsyncOperationProcessor<>(Function.identity(), maxConcurrency::get, false);
+    final CompletableFuture<String> task1 = new CompletableFuture<>();
+    final CompletableFuture<String> task2 = new CompletableFuture<>();
+    final CompletableFuture<String> task3 = new CompletableFuture<>();
+    when(readPipe.get()).thenReturn(task1).thenReturn(task2).thenReturn(task3);
+
+    processor.processNextInput(readPipe, writePipe);
+    processor.processNextInput(readPipe, writePipe);
+    verify(readPipe, times(2)).get();
+
+    // Lowering the limit stops new tasks starting until enough in progress tasks complete
+    maxConcurrency.set(1);
+    task1.complete("a");
+    processor.processNextInput(readPipe, writePipe);
+    verify(writePipe).put("a");
+    processor.processNextInput(readPipe, writePipe);
+    verify(readPipe, times(2)).get();
+
+    // Raising it allows more tasks to start straight away
+    maxConcurrency.set(2);
+    processor.processNextInput(readPipe, writePipe);
+    verify(readPipe, times(3)).get();
+  }
+
   @Test
   public void shouldOutputRemainingInProgressTasksWhenFinalizing() {
     final AsyncOperationProcessor<CompletableFuture<String>, String> processor =
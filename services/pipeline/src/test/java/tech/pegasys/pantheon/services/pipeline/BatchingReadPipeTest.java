@@ -24,6 +24,7 @@ import tech.pegasys.pantheon.metrics.Counter;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
@@ -44,6 +45,22 @@ public class BatchingReadPipeTest {
     assertThat(batchingPipe.get()).containsExactly("a", "b", "c");
   }
 
+  @Test
+  public void shouldApplyChangesToBatchSize() {
+    final AtomicInteger batchSize = new AtomicInteger(2);
+    final BatchingReadPipe<String> pipe =
+        new BatchingReadPipe<>(source, batchSize::get, batchCounter);
+    source.put("a");
+    source.put("b");
+    source.put("c");
+    source.put("d");
+    source.put("e");
+
+    assertThat(pipe.get()).containsExactly("a", "b");
+    batchSize.set(3);
+    assertThat(pipe.get()).containsExactly("c", "d", "e");
+  }
+
   @Test
   public void shouldNotWaitToFillBatch() {
     source.put("a");
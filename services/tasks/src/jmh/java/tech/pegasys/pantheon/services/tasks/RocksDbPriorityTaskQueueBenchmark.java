@@ -18,6 +18,8 @@ import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
 
 import com.google.common.io.Files;
@@ -31,20 +33,32 @@ import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
 
 @State(Scope.Benchmark)
-public class RocksDbTaskQueueBenchmark {
+public class RocksDbPriorityTaskQueueBenchmark {
+  private static final int BATCH_SIZE = 384;
+  private static final int MAX_TASKS_IN_MEMORY = 100_000;
 
   private File tempDir;
-  private RocksDbTaskQueue<BytesValue> queue;
+  private RocksDbPriorityTaskQueue<BytesValue> queue;
+  private final List<BytesValue> batch = new ArrayList<>(BATCH_SIZE);
 
   @Setup(Level.Trial)
   public void prepare() {
     tempDir = Files.createTempDir();
+    // Tasks are prioritised by their last byte so new tasks are spread among the existing ones
     queue =
-        RocksDbTaskQueue.create(
-            tempDir.toPath(), Function.identity(), Function.identity(), new NoOpMetricsSystem());
+        RocksDbPriorityTaskQueue.create(
+            tempDir.toPath(),
+            Function.identity(),
+            Function.identity(),
+            task -> task.get(task.size() - 1) & 0xff,
+            MAX_TASKS_IN_MEMORY,
+            new NoOpMetricsSystem());
     for (int i = 0; i < 1_000_000; i++) {
       queue.add(UInt256.of(i).getBytes());
     }
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      batch.add(UInt256.of(i).getBytes());
+    }
   }
 
   @TearDown
@@ -57,4 +71,25 @@ public class RocksDbTaskQueueBenchmark {
   public Task<BytesValue> dequeue() {
     return queue.remove();
   }
+
+  @Benchmark
+  public List<Task<BytesValue>> dequeueBatch() {
+    return queue.removeUpTo(BATCH_SIZE);
+  }
+
+  @Benchmark
+  public void enqueueAndComplete() {
+    for (final BytesValue value : batch) {
+      queue.add(value);
+    }
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      queue.remove().markCompleted();
+    }
+  }
+
+  @Benchmark
+  public void enqueueAndCompleteBatch() {
+    queue.addAll(batch);
+    queue.removeUpTo(BATCH_SIZE).forEach(Task::markCompleted);
+  }
 }
@@ -0,0 +1,485 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.services.tasks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import tech.pegasys.pantheon.metrics.Counter;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.services.tasks.RocksDbTaskQueue.StorageException;
+import tech.pegasys.pantheon.services.util.RocksDbUtil;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import com.google.common.collect.MinMaxPriorityQueue;
+import com.google.common.io.Files;
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Longs;
+import com.google.common.primitives.UnsignedBytes;
+import org.rocksdb.FlushOptions;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+
+/**
+ * A task queue stored in RocksDB which hands out tasks with the highest priority first. Tasks with
+ * the same priority are handed out most recently added first.
+ *
+ * <p>Like {@link RocksDbTaskQueue}, every task stays in the database until it is marked completed
+ * so the queue survives restarts. The highest priority pending tasks are also held in memory, up to
+ * a fixed limit. When the limit is reached the lowest priority task in memory is spilled, leaving
+ * it only in the database, and spilled tasks are loaded back once the tasks in memory run out.
+ *
+ * <p>Tasks are keyed by their priority and then the order they were added, inverted so that the
+ * database holds them in the same order they are handed out. Reloading spilled tasks then only
+ * reads from the first spilled task onwards, until memory is full, rather than scanning the whole
+ * queue.
+ *
+ * <p>As with {@link RocksDbTaskQueue}, writes skip the write ahead log and are only flushed to disk
+ * when the queue is closed or RocksDB flushes its memtable, and completed tasks are deleted in
+ * batches, using range deletes for runs of adjacent keys. If the process stops without closing the
+ * queue, tasks added since the last flush may be lost as well as completed tasks repeated. A marker
+ * file is kept in the storage directory while the queue is open so that {@link
+ * #tasksMayHaveBeenLost()} can report this when the queue is next opened.
+ */
+public class RocksDbPriorityTaskQueue<T> implements TaskCollection<T> {
+
+  // Keys are compared as unsigned bytes, the same as the default RocksDB comparator
+  private static final Comparator<byte[]> KEY_ORDER = UnsignedBytes.lexicographicalComparator();
+  private static final byte[] FIRST_KEY = new byte[2 * Long.BYTES];
+  // Priorities and sequences are never negative so every key starts with a byte below 0x80
+  private static final byte[] AFTER_LAST_KEY = {(byte) 0x80};
+  private static final int MIN_COMPLETED_TASKS_TO_DELETE = 1000;
+  private static final String OPEN_MARKER_FILE_NAME = "QUEUE_OPEN";
+
+  private final Options options;
+  private final WriteOptions writeOptions;
+  private final RocksDB db;
+  private final File openMarkerFile;
+  private final boolean tasksMayHaveBeenLost;
+
+  private final Function<T, BytesValue> serializer;
+  private final Function<BytesValue, T> deserializer;
+  private final ToLongFunction<T> priority;
+  private final int maxTasksInMemory;
+
+  private final MinMaxPriorityQueue<PendingTask<T>> tasksInMemory;
+  private final Map<Long, RocksDbTask<T>> outstandingTasks = new HashMap<>();
+  private final NavigableSet<byte[]> completedKeys = new TreeSet<>(KEY_ORDER);
+  private long lastEnqueuedSequence = 0;
+  private long spilledTaskCount = 0;
+  // The database key of the first spilled task, or null if no tasks are spilled
+  private byte[] firstSpilledKey;
+
+  private boolean closed = false;
+
+  private final Counter spilledTasksCounter;
+  private final Counter reloadCounter;
+
+  private RocksDbPriorityTaskQueue(
+      final Path storageDirectory,
+      final Function<T, BytesValue> serializer,
+      final Function<BytesValue, T> deserializer,
+      final ToLongFunction<T> priority,
+      final int maxTasksInMemory,
+      final MetricsSystem metricsSystem) {
+    checkArgument(maxTasksInMemory > 0, "Must be able to hold at least one task in memory");
+    this.serializer = serializer;
+    this.deserializer = deserializer;
+    this.priority = priority;
+    this.maxTasksInMemory = maxTasksInMemory;
+    this.tasksInMemory =
+        MinMaxPriorityQueue.orderedBy(
+                Comparator.<PendingTask<T>>comparingLong(task -> task.priority)
+                    .thenComparingLong(task -> task.sequence)
+                    .reversed())
+            .create();
+    try {
+      RocksDbUtil.loadNativeLibrary();
+      options = new Options().setCreateIfMissing(true);
+      writeOptions = new WriteOptions().setDisableWAL(true);
+      db = RocksDB.open(options, storageDirectory.toString());
+      loadExistingTasks();
+      // The marker is only removed once the queue has been flushed and closed
+      openMarkerFile = storageDirectory.resolve(OPEN_MARKER_FILE_NAME).toFile();
+      tasksMayHaveBeenLost = openMarkerFile.exists();
+      Files.touch(openMarkerFile);
+
+      spilledTasksCounter =
+          metricsSystem.createCounter(
+              MetricCategory.BIG_QUEUE,
+              "priority_queue_spilled_tasks_total",
+              "Total number of tasks evicted from memory to make room for higher priority tasks");
+      reloadCounter =
+          metricsSystem.createCounter(
+              MetricCategory.BIG_QUEUE,
+              "priority_queue_reloads_total",
+              "Total number of times spilled tasks were loaded back into memory");
+    } catch (final RocksDBException | IOException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  private void loadExistingTasks() {
+    try (final RocksIterator iterator = db.newIterator()) {
+      for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+        final byte[] key = iterator.key();
+        lastEnqueuedSequence = Math.max(lastEnqueuedSequence, sequenceOf(key));
+        // Existing tasks are loaded into memory the first time one is removed
+        if (spilledTaskCount++ == 0) {
+          firstSpilledKey = key;
+        }
+      }
+    }
+  }
+
+  public static <T> RocksDbPriorityTaskQueue<T> create(
+      final Path storageDirectory,
+      final Function<T, BytesValue> serializer,
+      final Function<BytesValue, T> deserializer,
+      final ToLongFunction<T> priority,
+      final int maxTasksInMemory,
+      final MetricsSystem metricsSystem) {
+    return new RocksDbPriorityTaskQueue<>(
+        storageDirectory, serializer, deserializer, priority, maxTasksInMemory, metricsSystem);
+  }
+
+  @Override
+  public synchronized void add(final T taskData) {
+    addAll(Collections.singletonList(taskData));
+  }
+
+  @Override
+  public synchronized void addAll(final Collection<T> taskData) {
+    assertNotClosed();
+    if (taskData.isEmpty()) {
+      return;
+    }
+    final List<PendingTask<T>> pendingTasks = new ArrayList<>(taskData.size());
+    try (final WriteBatch batch = new WriteBatch()) {
+      long sequence = lastEnqueuedSequence;
+      for (final T data : taskData) {
+        final PendingTask<T> task = new PendingTask<>(data, ++sequence, priority.applyAsLong(data));
+        batch.put(task.databaseKey(), serializer.apply(data).getArrayUnsafe());
+        pendingTasks.add(task);
+      }
+      db.write(writeOptions, batch);
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+    pendingTasks.forEach(this::addToMemory);
+    lastEnqueuedSequence += pendingTasks.size();
+  }
+
+  private void addToMemory(final PendingTask<T> task) {
+    if (tasksInMemory.size() < maxTasksInMemory) {
+      tasksInMemory.add(task);
+      return;
+    }
+    final PendingTask<T> lowestPriorityTask = tasksInMemory.peekLast();
+    if (tasksInMemory.comparator().compare(task, lowestPriorityTask) > 0) {
+      spill(task);
+      return;
+    }
+    spill(tasksInMemory.pollLast());
+    tasksInMemory.add(task);
+  }
+
+  private void spill(final PendingTask<T> task) {
+    // The task is already in the database, so spilling it just means forgetting it for now
+    spilledTaskCount++;
+    spilledTasksCounter.inc();
+    final byte[] key = task.databaseKey();
+    if (firstSpilledKey == null || KEY_ORDER.compare(key, firstSpilledKey) < 0) {
+      firstSpilledKey = key;
+    }
+  }
+
+  @Override
+  public synchronized Task<T> remove() {
+    final List<Task<T>> tasks = removeUpTo(1);
+    return tasks.isEmpty() ? null : tasks.get(0);
+  }
+
+  @Override
+  public synchronized List<Task<T>> removeUpTo(final int maxTasks) {
+    assertNotClosed();
+    if (maxTasks <= 0) {
+      return Collections.emptyList();
+    }
+    final List<Task<T>> tasks = new ArrayList<>(Math.min(maxTasks, tasksInMemory.size()));
+    while (tasks.size() < maxTasks) {
+      if (tasksInMemory.isEmpty()) {
+        if (spilledTaskCount == 0) {
+          break;
+        }
+        reloadSpilledTasks();
+        continue;
+      }
+      final PendingTask<T> pendingTask = tasksInMemory.poll();
+      final RocksDbTask<T> task = new RocksDbTask<>(this, pendingTask);
+      outstandingTasks.put(pendingTask.sequence, task);
+      tasks.add(task);
+    }
+    return tasks;
+  }
+
+  private void reloadSpilledTasks() {
+    // Only called once memory is empty, so every task from the first spilled one onwards is either
+    // spilled, outstanding or completed and the first spilled tasks are the ones to hand out next
+    reloadCounter.inc();
+    try (final RocksIterator iterator = db.newIterator()) {
+      iterator.seek(firstSpilledKey);
+      while (iterator.isValid() && tasksInMemory.size() < maxTasksInMemory) {
+        final byte[] key = iterator.key();
+        final long sequence = sequenceOf(key);
+        if (!outstandingTasks.containsKey(sequence) && !completedKeys.contains(key)) {
+          final T data = deserializer.apply(BytesValue.wrap(iterator.value()));
+          tasksInMemory.add(new PendingTask<>(data, sequence, priorityOf(key)));
+          spilledTaskCount--;
+        }
+        iterator.next();
+      }
+      firstSpilledKey = iterator.isValid() && spilledTaskCount > 0 ? iterator.key() : null;
+    }
+    if (firstSpilledKey == null) {
+      spilledTaskCount = 0;
+    }
+  }
+
+  /**
+   * Whether the queue was last opened without being closed, for example because the process was
+   * killed. Tasks added since RocksDB last flushed its memtable are lost in that case, so callers
+   * can't rely on every task that was added still being pending or completed.
+   *
+   * @return true if tasks may have been lost before this queue was opened
+   */
+  public boolean tasksMayHaveBeenLost() {
+    return tasksMayHaveBeenLost;
+  }
+
+  @Override
+  public synchronized long size() {
+    if (closed) {
+      return 0;
+    }
+    return tasksInMemory.size() + spilledTaskCount;
+  }
+
+  /** @return the number of pending tasks currently held in memory */
+  public synchronized int inMemorySize() {
+    return tasksInMemory.size();
+  }
+
+  /** @return the number of pending tasks currently held only in the database */
+  public synchronized long spilledSize() {
+    return spilledTaskCount;
+  }
+
+  @Override
+  public synchronized boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public synchronized void clear() {
+    assertNotClosed();
+    try {
+      db.deleteRange(writeOptions, FIRST_KEY, AFTER_LAST_KEY);
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+    tasksInMemory.clear();
+    outstandingTasks.clear();
+    completedKeys.clear();
+    lastEnqueuedSequence = 0;
+    spilledTaskCount = 0;
+    firstSpilledKey = null;
+  }
+
+  @Override
+  public synchronized boolean allTasksCompleted() {
+    return isEmpty() && outstandingTasks.isEmpty();
+  }
+
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try (final FlushOptions flushOptions = new FlushOptions().setWaitForFlush(true)) {
+      deleteCompletedTasks();
+      db.flush(flushOptions);
+      if (!openMarkerFile.delete() && openMarkerFile.exists()) {
+        throw new IOException("Unable to delete " + openMarkerFile.getAbsolutePath());
+      }
+    } catch (final RocksDBException | IOException e) {
+      throw new StorageException(e);
+    } finally {
+      writeOptions.close();
+      options.close();
+      db.close();
+    }
+  }
+
+  private void assertNotClosed() {
+    if (closed) {
+      throw new IllegalStateException("Attempt to access closed " + getClass().getSimpleName());
+    }
+  }
+
+  private synchronized void markTaskCompleted(final RocksDbTask<T> task) {
+    if (outstandingTasks.remove(task.pendingTask.sequence, task) && !closed) {
+      completedKeys.add(task.pendingTask.databaseKey());
+      if (completedKeys.size() >= MIN_COMPLETED_TASKS_TO_DELETE) {
+        deleteCompletedTasks();
+      }
+    }
+  }
+
+  private void deleteCompletedTasks() {
+    if (completedKeys.isEmpty()) {
+      return;
+    }
+    // Completed tasks whose keys are next to each other in the database are deleted as a range.
+    // Seeking to each completed key which doesn't follow the previous one skips over the keys of
+    // pending tasks in between without reading them.
+    try (final WriteBatch batch = new WriteBatch();
+        final RocksIterator iterator = db.newIterator()) {
+      byte[] rangeStart = null;
+      byte[] rangeEnd = null;
+      for (final byte[] key : completedKeys) {
+        if (rangeStart != null && iterator.isValid() && Arrays.equals(iterator.key(), key)) {
+          rangeEnd = key;
+        } else {
+          if (rangeStart != null) {
+            deleteRange(batch, iterator, rangeStart, rangeEnd);
+          }
+          iterator.seek(key);
+          rangeStart = key;
+          rangeEnd = key;
+        }
+        iterator.next();
+      }
+      deleteRange(batch, iterator, rangeStart, rangeEnd);
+      db.write(writeOptions, batch);
+      completedKeys.clear();
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  private void deleteRange(
+      final WriteBatch batch,
+      final RocksIterator iterator,
+      final byte[] rangeStart,
+      final byte[] rangeEnd)
+      throws RocksDBException {
+    if (rangeStart == rangeEnd) {
+      batch.delete(rangeStart);
+    } else {
+      // The iterator is on the first key after the range, if there is one
+      batch.deleteRange(rangeStart, iterator.isValid() ? iterator.key() : AFTER_LAST_KEY);
+    }
+  }
+
+  private synchronized void handleFailedTask(final RocksDbTask<T> task) {
+    if (outstandingTasks.remove(task.pendingTask.sequence, task) && !closed) {
+      // The task is still in the database so only needs to be made pending again
+      addToMemory(task.pendingTask);
+    }
+  }
+
+  private static byte[] keyFor(final long priority, final long sequence) {
+    checkArgument(priority >= 0, "Task priority must not be negative");
+    return Bytes.concat(
+        Longs.toByteArray(Long.MAX_VALUE - priority), Longs.toByteArray(Long.MAX_VALUE - sequence));
+  }
+
+  private static long priorityOf(final byte[] key) {
+    return Long.MAX_VALUE - ByteBuffer.wrap(key).getLong(0);
+  }
+
+  private static long sequenceOf(final byte[] key) {
+    return Long.MAX_VALUE - ByteBuffer.wrap(key).getLong(Long.BYTES);
+  }
+
+  private static class PendingTask<T> {
+    private final T data;
+    private final long sequence;
+    private final long priority;
+
+    private PendingTask(final T data, final long sequence, final long priority) {
+      this.data = data;
+      this.sequence = sequence;
+      this.priority = priority;
+    }
+
+    private byte[] databaseKey() {
+      return keyFor(priority, sequence);
+    }
+  }
+
+  private static class RocksDbTask<T> implements Task<T> {
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+    private final RocksDbPriorityTaskQueue<T> parentQueue;
+    private final PendingTask<T> pendingTask;
+
+    private RocksDbTask(
+        final RocksDbPriorityTaskQueue<T> parentQueue, final PendingTask<T> pendingTask) {
+      this.parentQueue = parentQueue;
+      this.pendingTask = pendingTask;
+    }
+
+    @Override
+    public T getData() {
+      return pendingTask.data;
+    }
+
+    @Override
+    public void markCompleted() {
+      if (completed.compareAndSet(false, true)) {
+        parentQueue.markTaskCompleted(this);
+      }
+    }
+
+    @Override
+    public void markFailed() {
+      if (completed.compareAndSet(false, true)) {
+        parentQueue.handleFailedTask(this);
+      }
+    }
+  }
+}
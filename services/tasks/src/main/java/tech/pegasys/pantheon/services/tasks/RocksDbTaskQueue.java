@@ -19,27 +19,51 @@ import tech.pegasys.pantheon.services.util.RocksDbUtil;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.nio.file.Path;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 import com.google.common.primitives.Longs;
+import org.rocksdb.FlushOptions;
 import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
 
+/**
+ * A task queue stored in RocksDB so it can hold more tasks than fit in memory.
+ *
+ * <p>Tasks stay in the database until they are marked completed, so the queue survives restarts.
+ * When an existing database is opened, every task in it is available to be removed again,
+ * including tasks which had been removed but not completed before the restart.
+ *
+ * <p>The queue is scratch data which can be rebuilt, so writes skip the write ahead log and are
+ * only flushed to disk when the queue is closed or RocksDB flushes its memtable. If the process
+ * stops without closing the queue, the tasks that survive are the queue as it was at some earlier
+ * point, so tasks may be repeated but never skipped. Completed tasks are likewise deleted in
+ * ranges once every task before them has completed, rather than one at a time.
+ */
 public class RocksDbTaskQueue<T> implements TaskCollection<T> {
+  private static final int MIN_COMPLETED_TASKS_TO_DELETE = 1000;
 
   private final Options options;
+  private final WriteOptions writeOptions;
   private final RocksDB db;
 
   private long lastEnqueuedKey = 0;
   private long lastDequeuedKey = 0;
+  // All tasks with keys up to and including this one have been deleted
+  private long lastDeletedKey = 0;
+  private long pendingTaskCount = 0;
   private RocksIterator dequeueIterator;
   private long lastValidKeyFromIterator;
-  private final Set<RocksDbTask<T>> outstandingTasks = new HashSet<>();
+  private final TreeMap<Long, RocksDbTask<T>> outstandingTasks = new TreeMap<>();
 
   private boolean closed = false;
 
@@ -58,10 +82,10 @@ public class RocksDbTaskQueue<T> implements TaskCollection<T> {
     this.deserializer = deserializer;
     try {
       RocksDbUtil.loadNativeLibrary();
-      // We don't support reloading data so ensure we're starting from a clean slate.
-      RocksDB.destroyDB(storageDirectory.toString(), new Options());
-      options = new Options().setCreateIfMissing(true).setErrorIfExists(true);
+      options = new Options().setCreateIfMissing(true);
+      writeOptions = new WriteOptions().setDisableWAL(true);
       db = RocksDB.open(options, storageDirectory.toString());
+      loadExistingTasks();
 
       enqueueLatency =
           metricsSystem.createTimer(
@@ -79,6 +103,22 @@ public class RocksDbTaskQueue<T> implements TaskCollection<T> {
     }
   }
 
+  private void loadExistingTasks() {
+    try (final RocksIterator iterator = db.newIterator()) {
+      iterator.seekToFirst();
+      if (!iterator.isValid()) {
+        return;
+      }
+      // Keys of tasks completed before the restart may leave gaps, but are always increasing.
+      lastDequeuedKey = Longs.fromByteArray(iterator.key()) - 1;
+      lastDeletedKey = lastDequeuedKey;
+      for (; iterator.isValid(); iterator.next()) {
+        lastEnqueuedKey = Longs.fromByteArray(iterator.key());
+        pendingTaskCount++;
+      }
+    }
+  }
+
   public static <T> RocksDbTaskQueue<T> create(
       final Path storageDirectory,
       final Function<T, BytesValue> serializer,
@@ -89,10 +129,24 @@ public class RocksDbTaskQueue<T> implements TaskCollection<T> {
 
   @Override
   public synchronized void add(final T taskData) {
+    addAll(Collections.singletonList(taskData));
+  }
+
+  @Override
+  public synchronized void addAll(final Collection<T> taskData) {
     assertNotClosed();
-    try (final OperationTimer.TimingContext ignored = enqueueLatency.startTimer()) {
-      final long key = ++lastEnqueuedKey;
-      db.put(Longs.toByteArray(key), serializer.apply(taskData).getArrayUnsafe());
+    if (taskData.isEmpty()) {
+      return;
+    }
+    try (final OperationTimer.TimingContext ignored = enqueueLatency.startTimer();
+        final WriteBatch batch = new WriteBatch()) {
+      long key = lastEnqueuedKey;
+      for (final T data : taskData) {
+        batch.put(Longs.toByteArray(++key), serializer.apply(data).getArrayUnsafe());
+      }
+      db.write(writeOptions, batch);
+      lastEnqueuedKey = key;
+      pendingTaskCount += taskData.size();
     } catch (final RocksDBException e) {
       throw new StorageException(e);
     }
@@ -100,30 +154,50 @@ public class RocksDbTaskQueue<T> implements TaskCollection<T> {
 
   @Override
   public synchronized Task<T> remove() {
+    final List<Task<T>> tasks = removeUpTo(1);
+    return tasks.isEmpty() ? null : tasks.get(0);
+  }
+
+  @Override
+  public synchronized List<Task<T>> removeUpTo(final int maxTasks) {
     assertNotClosed();
-    if (isEmpty()) {
-      return null;
+    if (isEmpty() || maxTasks <= 0) {
+      return Collections.emptyList();
     }
+    final List<Task<T>> tasks = new ArrayList<>((int) Math.min(maxTasks, pendingTaskCount));
     try (final OperationTimer.TimingContext ignored = dequeueLatency.startTimer()) {
-      if (dequeueIterator == null) {
-        createNewIterator();
-      }
-      final long key = ++lastDequeuedKey;
-      dequeueIterator.seek(Longs.toByteArray(key));
-      if (key > lastValidKeyFromIterator || !dequeueIterator.isValid()) {
-        // Reached the end of the snapshot this iterator was loaded with
-        dequeueIterator.close();
-        createNewIterator();
-        dequeueIterator.seek(Longs.toByteArray(key));
-        if (!dequeueIterator.isValid()) {
-          throw new IllegalStateException("Next expected value is missing");
+      while (tasks.size() < maxTasks && pendingTaskCount > 0) {
+        seekToNextTask();
+        // Read as many tasks as are wanted from this iterator's snapshot in a single pass
+        while (tasks.size() < maxTasks && dequeueIterator.isValid()) {
+          final long key = Longs.fromByteArray(dequeueIterator.key());
+          lastDequeuedKey = key;
+          pendingTaskCount--;
+          final BytesValue data = BytesValue.wrap(dequeueIterator.value());
+          final RocksDbTask<T> task = new RocksDbTask<>(this, deserializer.apply(data), key);
+          outstandingTasks.put(key, task);
+          tasks.add(task);
+          dequeueIterator.next();
         }
       }
-      final byte[] value = dequeueIterator.value();
-      final BytesValue data = BytesValue.of(value);
-      final RocksDbTask<T> task = new RocksDbTask<>(this, deserializer.apply(data), key);
-      outstandingTasks.add(task);
-      return task;
+    }
+    return tasks;
+  }
+
+  private void seekToNextTask() {
+    if (dequeueIterator == null) {
+      createNewIterator();
+    }
+    final long nextKey = lastDequeuedKey + 1;
+    dequeueIterator.seek(Longs.toByteArray(nextKey));
+    if (nextKey > lastValidKeyFromIterator || !dequeueIterator.isValid()) {
+      // Reached the end of the snapshot this iterator was loaded with
+      dequeueIterator.close();
+      createNewIterator();
+      dequeueIterator.seek(Longs.toByteArray(nextKey));
+      if (!dequeueIterator.isValid()) {
+        throw new IllegalStateException("Next expected value is missing");
+      }
     }
   }
 
@@ -137,7 +211,7 @@ public class RocksDbTaskQueue<T> implements TaskCollection<T> {
     if (closed) {
       return 0;
     }
-    return lastEnqueuedKey - lastDequeuedKey;
+    return pendingTaskCount;
   }
 
   @Override
@@ -152,13 +226,15 @@ public class RocksDbTaskQueue<T> implements TaskCollection<T> {
     final byte[] from = Longs.toByteArray(0);
     final byte[] to = Longs.toByteArray(lastEnqueuedKey + 1);
     try {
-      db.deleteRange(from, to);
+      db.deleteRange(writeOptions, from, to);
       if (dequeueIterator != null) {
         dequeueIterator.close();
         dequeueIterator = null;
       }
       lastDequeuedKey = 0;
       lastEnqueuedKey = 0;
+      lastDeletedKey = 0;
+      pendingTaskCount = 0;
     } catch (final RocksDBException e) {
       throw new StorageException(e);
     }
@@ -178,8 +254,16 @@ public class RocksDbTaskQueue<T> implements TaskCollection<T> {
     if (dequeueIterator != null) {
       dequeueIterator.close();
     }
-    options.close();
-    db.close();
+    try (final FlushOptions flushOptions = new FlushOptions().setWaitForFlush(true)) {
+      deleteCompletedTasks();
+      db.flush(flushOptions);
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    } finally {
+      writeOptions.close();
+      options.close();
+      db.close();
+    }
   }
 
   private void assertNotClosed() {
@@ -188,16 +272,49 @@ public class RocksDbTaskQueue<T> implements TaskCollection<T> {
     }
   }
 
-  private synchronized boolean markTaskCompleted(final RocksDbTask<T> task) {
-    return outstandingTasks.remove(task);
+  private synchronized void markTaskCompleted(final RocksDbTask<T> task) {
+    if (outstandingTasks.remove(task.getKey(), task)) {
+      maybeDeleteCompletedTasks();
+    }
   }
 
   private synchronized void handleFailedTask(final RocksDbTask<T> task) {
-    if (markTaskCompleted(task)) {
+    if (outstandingTasks.remove(task.getKey(), task)) {
+      // The task is added again under a new key, and the old key deleted with completed tasks.
       add(task.getData());
+      maybeDeleteCompletedTasks();
+    }
+  }
+
+  private void maybeDeleteCompletedTasks() {
+    if (!closed && firstIncompleteKey() - lastDeletedKey > MIN_COMPLETED_TASKS_TO_DELETE) {
+      deleteCompletedTasks();
     }
   }
 
+  private void deleteCompletedTasks() {
+    final long firstIncompleteKey = firstIncompleteKey();
+    if (firstIncompleteKey <= lastDeletedKey + 1) {
+      return;
+    }
+    try {
+      db.deleteRange(
+          writeOptions,
+          Longs.toByteArray(lastDeletedKey + 1),
+          Longs.toByteArray(firstIncompleteKey));
+      lastDeletedKey = firstIncompleteKey - 1;
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  private long firstIncompleteKey() {
+    final long nextPendingKey = lastDequeuedKey + 1;
+    return outstandingTasks.isEmpty()
+        ? nextPendingKey
+        : Math.min(outstandingTasks.firstKey(), nextPendingKey);
+  }
+
   public static class StorageException extends RuntimeException {
     StorageException(final Throwable t) {
       super(t);
@@ -13,6 +13,9 @@
 package tech.pegasys.pantheon.services.tasks;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public interface TaskCollection<T> extends Closeable {
   /**
@@ -22,6 +25,15 @@ public interface TaskCollection<T> extends Closeable {
    */
   void add(T taskData);
 
+  /**
+   * Add several pieces of data that need to be processed.
+   *
+   * @param taskData The data to be processed.
+   */
+  default void addAll(final Collection<T> taskData) {
+    taskData.forEach(this::add);
+  }
+
   /**
    * Get a task for processing. This task will be tracked as a pending task until either {@code
    * Task.markCompleted} or {@code Task.requeue} is called.
@@ -30,6 +42,25 @@ public interface TaskCollection<T> extends Closeable {
    */
   Task<T> remove();
 
+  /**
+   * Get up to {@code maxTasks} tasks for processing, tracked as pending tasks in the same way as
+   * tasks returned by {@link #remove()}.
+   *
+   * @param maxTasks The maximum number of tasks to return.
+   * @return The tasks to be processed, which is empty if there are no tasks in the queue.
+   */
+  default List<Task<T>> removeUpTo(final int maxTasks) {
+    final List<Task<T>> tasks = new ArrayList<>();
+    while (tasks.size() < maxTasks) {
+      final Task<T> task = remove();
+      if (task == null) {
+        break;
+      }
+      tasks.add(task);
+    }
+    return tasks;
+  }
+
   /** @return The number of tasks in the queue. */
   long size();
 
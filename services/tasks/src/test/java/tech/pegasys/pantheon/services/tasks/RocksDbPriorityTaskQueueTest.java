@@ -0,0 +1,242 @@
+/*
+ * Copyright 2019 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.services.tasks;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RocksDbPriorityTaskQueueTest {
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void shouldRemoveHighestPriorityTasksFirst() throws Exception {
+    try (final RocksDbPriorityTaskQueue<BytesValue> queue = createQueue(10)) {
+      queue.add(BytesValue.of(1));
+      queue.add(BytesValue.of(3));
+      queue.add(BytesValue.of(2));
+
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(3));
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(2));
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(1));
+      assertThat(queue.remove()).isNull();
+    }
+  }
+
+  @Test
+  public void shouldRemoveMostRecentlyAddedTaskFirstWhenPrioritiesAreEqual() throws Exception {
+    try (final RocksDbPriorityTaskQueue<BytesValue> queue = createQueue(10)) {
+      queue.add(BytesValue.of(1, 1));
+      queue.add(BytesValue.of(1, 2));
+      queue.add(BytesValue.of(1, 3));
+
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(1, 3));
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(1, 2));
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(1, 1));
+    }
+  }
+
+  @Test
+  public void shouldSpillLowestPriorityTasksAndReloadThemLater() throws Exception {
+    try (final RocksDbPriorityTaskQueue<BytesValue> queue = createQueue(2)) {
+      queue.add(BytesValue.of(2));
+      queue.add(BytesValue.of(3));
+      queue.add(BytesValue.of(1));
+      queue.add(BytesValue.of(4));
+
+      assertThat(queue.size()).isEqualTo(4);
+      assertThat(queue.inMemorySize()).isEqualTo(2);
+      assertThat(queue.spilledSize()).isEqualTo(2);
+
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(4));
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(3));
+      assertThat(queue.spilledSize()).isEqualTo(2);
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(2));
+      assertThat(queue.spilledSize()).isZero();
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(1));
+      assertThat(queue.remove()).isNull();
+      assertThat(queue.isEmpty()).isTrue();
+    }
+  }
+
+  @Test
+  public void shouldReloadTasksSpilledAfterAnEarlierReload() throws Exception {
+    try (final RocksDbPriorityTaskQueue<BytesValue> queue = createQueue(2)) {
+      queue.addAll(
+          asList(BytesValue.of(1), BytesValue.of(2), BytesValue.of(3), BytesValue.of(4)));
+      assertThat(queue.removeUpTo(2))
+          .extracting(Task::getData)
+          .containsExactly(BytesValue.of(4), BytesValue.of(3));
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(2));
+      queue.add(BytesValue.of(5));
+      queue.add(BytesValue.of(6));
+      queue.add(BytesValue.of(7));
+      assertThat(queue.spilledSize()).isEqualTo(2);
+
+      assertThat(queue.removeUpTo(4))
+          .extracting(Task::getData)
+          .containsExactly(BytesValue.of(7), BytesValue.of(6), BytesValue.of(5), BytesValue.of(1));
+      assertThat(queue.isEmpty()).isTrue();
+    }
+  }
+
+  @Test
+  public void shouldRemoveTasksInBatchesReloadingSpilledTasksAsNeeded() throws Exception {
+    try (final RocksDbPriorityTaskQueue<BytesValue> queue = createQueue(2)) {
+      queue.addAll(
+          asList(BytesValue.of(2), BytesValue.of(3), BytesValue.of(1), BytesValue.of(4)));
+
+      assertThat(queue.removeUpTo(3))
+          .extracting(Task::getData)
+          .containsExactly(BytesValue.of(4), BytesValue.of(3), BytesValue.of(2));
+      assertThat(queue.removeUpTo(3)).extracting(Task::getData).containsExactly(BytesValue.of(1));
+      assertThat(queue.removeUpTo(3)).isEmpty();
+      assertThat(queue.isEmpty()).isTrue();
+      assertThat(queue.allTasksCompleted()).isFalse();
+    }
+  }
+
+  @Test
+  public void shouldNotReloadOutstandingTasks() throws Exception {
+    try (final RocksDbPriorityTaskQueue<BytesValue> queue = createQueue(1)) {
+      queue.add(BytesValue.of(2));
+      queue.add(BytesValue.of(1));
+
+      final Task<BytesValue> outstanding = queue.remove();
+      assertThat(outstanding.getData()).isEqualTo(BytesValue.of(2));
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(1));
+      assertThat(queue.remove()).isNull();
+      assertThat(queue.allTasksCompleted()).isFalse();
+
+      outstanding.markFailed();
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(2));
+    }
+  }
+
+  @Test
+  public void shouldResumeIncompleteTasksAfterRestart() throws Exception {
+    final Path dataDir = folder.newFolder().toPath();
+
+    try (final RocksDbPriorityTaskQueue<BytesValue> queue = createQueue(dataDir, 10)) {
+      queue.add(BytesValue.of(1));
+      queue.add(BytesValue.of(2));
+      queue.add(BytesValue.of(3));
+      queue.remove().markCompleted();
+      // Stop without completing this task, as if the node had crashed while processing it
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(2));
+    }
+
+    try (final RocksDbPriorityTaskQueue<BytesValue> queue = createQueue(dataDir, 10)) {
+      assertThat(queue.size()).isEqualTo(2);
+      assertThat(queue.allTasksCompleted()).isFalse();
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(2));
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(1));
+      assertThat(queue.remove()).isNull();
+    }
+  }
+
+  @Test
+  public void shouldNotResumeTasksAfterClear() throws Exception {
+    final Path dataDir = folder.newFolder().toPath();
+
+    try (final RocksDbPriorityTaskQueue<BytesValue> queue = createQueue(dataDir, 10)) {
+      queue.add(BytesValue.of(1));
+      queue.add(BytesValue.of(2));
+      final Task<BytesValue> outstanding = queue.remove();
+      queue.clear();
+
+      outstanding.markFailed();
+      assertThat(queue.isEmpty()).isTrue();
+      assertThat(queue.allTasksCompleted()).isTrue();
+    }
+
+    try (final RocksDbPriorityTaskQueue<BytesValue> queue = createQueue(dataDir, 10)) {
+      assertThat(queue.isEmpty()).isTrue();
+      assertThat(queue.remove()).isNull();
+    }
+  }
+
+  @Test
+  public void shouldOnlyDeleteCompletedTasks() throws Exception {
+    final Path dataDir = folder.newFolder().toPath();
+    final List<BytesValue> tasks = new ArrayList<>();
+    for (int i = 0; i < 2500; i++) {
+      tasks.add(BytesValue.of(i % 3, i / 256, i % 256));
+    }
+
+    try (final RocksDbPriorityTaskQueue<BytesValue> queue = createQueue(dataDir, 100)) {
+      queue.addAll(tasks);
+      final List<Task<BytesValue>> removed = queue.removeUpTo(tasks.size());
+      // Complete every task except those with a last byte of zero, so completed tasks are deleted
+      // in several ranges between the incomplete ones
+      removed.stream().filter(task -> task.getData().get(2) != 0).forEach(Task::markCompleted);
+    }
+
+    try (final RocksDbPriorityTaskQueue<BytesValue> queue = createQueue(dataDir, 100)) {
+      assertThat(queue.removeUpTo(tasks.size()))
+          .extracting(Task::getData)
+          .containsExactlyInAnyOrderElementsOf(
+              tasks.stream().filter(task -> task.get(2) == 0).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void shouldReportTasksMayHaveBeenLostWhenNotClosedBeforeReopening() throws Exception {
+    final Path dataDir = folder.newFolder().toPath();
+    try (final RocksDbPriorityTaskQueue<BytesValue> queue = createQueue(dataDir, 10)) {
+      assertThat(queue.tasksMayHaveBeenLost()).isFalse();
+      queue.add(BytesValue.of(1));
+    }
+
+    try (final RocksDbPriorityTaskQueue<BytesValue> queue = createQueue(dataDir, 10)) {
+      assertThat(queue.tasksMayHaveBeenLost()).isFalse();
+    }
+
+    // Left behind when the process stops while the queue is open
+    assertThat(dataDir.resolve("QUEUE_OPEN").toFile().createNewFile()).isTrue();
+    try (final RocksDbPriorityTaskQueue<BytesValue> queue = createQueue(dataDir, 10)) {
+      assertThat(queue.tasksMayHaveBeenLost()).isTrue();
+      assertThat(queue.remove().getData()).isEqualTo(BytesValue.of(1));
+    }
+  }
+
+  private RocksDbPriorityTaskQueue<BytesValue> createQueue(final int maxTasksInMemory)
+      throws Exception {
+    return createQueue(folder.newFolder().toPath(), maxTasksInMemory);
+  }
+
+  private RocksDbPriorityTaskQueue<BytesValue> createQueue(
+      final Path dataDir, final int maxTasksInMemory) {
+    // Tasks are prioritised by their first byte
+    return RocksDbPriorityTaskQueue.create(
+        dataDir,
+        Function.identity(),
+        Function.identity(),
+        task -> task.get(0),
+        maxTasksInMemory,
+        new NoOpMetricsSystem());
+  }
+}
@@ -12,14 +12,19 @@
  */
 package tech.pegasys.pantheon.services.tasks;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Function;
 
 import org.junit.Rule;
+import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 public class RocksDbTaskQueueTest extends AbstractTaskQueueTest<RocksDbTaskQueue<BytesValue>> {
@@ -32,6 +37,84 @@ public class RocksDbTaskQueueTest extends AbstractTaskQueueTest<RocksDbTaskQueue
     return createQueue(dataDir);
   }
 
+  @Test
+  public void shouldResumeIncompleteTasksAfterRestart() throws Exception {
+    final Path dataDir = folder.newFolder().toPath();
+    final BytesValue completed = BytesValue.of(1);
+    final BytesValue failed = BytesValue.of(2);
+    final BytesValue inFlight = BytesValue.of(3);
+    final BytesValue pending = BytesValue.of(4);
+
+    try (final RocksDbTaskQueue<BytesValue> queue = createQueue(dataDir)) {
+      queue.add(completed);
+      queue.add(failed);
+      queue.add(inFlight);
+      queue.add(pending);
+      queue.remove().markCompleted();
+      queue.remove().markFailed();
+      // Stop without completing this task, as if the node had crashed while processing it
+      assertThat(queue.remove().getData()).isEqualTo(inFlight);
+    }
+
+    try (final RocksDbTaskQueue<BytesValue> queue = createQueue(dataDir)) {
+      assertThat(queue.size()).isEqualTo(3);
+      assertThat(queue.allTasksCompleted()).isFalse();
+      assertThat(queue.remove().getData()).isEqualTo(inFlight);
+      assertThat(queue.remove().getData()).isEqualTo(pending);
+      assertThat(queue.remove().getData()).isEqualTo(failed);
+      assertThat(queue.remove()).isNull();
+
+      // New tasks are added after the resumed ones
+      queue.add(completed);
+      assertThat(queue.remove().getData()).isEqualTo(completed);
+    }
+  }
+
+  @Test
+  public void shouldNotResumeTasksAfterClear() throws Exception {
+    final Path dataDir = folder.newFolder().toPath();
+
+    try (final RocksDbTaskQueue<BytesValue> queue = createQueue(dataDir)) {
+      queue.add(BytesValue.of(1));
+      queue.add(BytesValue.of(2));
+      queue.remove();
+      queue.clear();
+    }
+
+    try (final RocksDbTaskQueue<BytesValue> queue = createQueue(dataDir)) {
+      assertThat(queue.isEmpty()).isTrue();
+      assertThat(queue.allTasksCompleted()).isTrue();
+      assertThat(queue.remove()).isNull();
+    }
+  }
+
+  @Test
+  public void shouldAddAndRemoveTasksInBatches() throws Exception {
+    final Path dataDir = folder.newFolder().toPath();
+    final BytesValue one = BytesValue.of(1);
+    final BytesValue two = BytesValue.of(2);
+    final BytesValue three = BytesValue.of(3);
+
+    try (final RocksDbTaskQueue<BytesValue> queue = createQueue(dataDir)) {
+      queue.addAll(Arrays.asList(one, two, three));
+      assertThat(queue.size()).isEqualTo(3);
+
+      final List<Task<BytesValue>> tasks = queue.removeUpTo(2);
+      assertThat(tasks).extracting(Task::getData).containsExactly(one, two);
+      assertThat(queue.size()).isEqualTo(1);
+      tasks.forEach(Task::markCompleted);
+
+      assertThat(queue.removeUpTo(2)).extracting(Task::getData).containsExactly(three);
+      assertThat(queue.removeUpTo(2)).isEmpty();
+    }
+
+    // Only the task which was never completed is resumed
+    try (final RocksDbTaskQueue<BytesValue> queue = createQueue(dataDir)) {
+      assertThat(queue.size()).isEqualTo(1);
+      assertThat(queue.remove().getData()).isEqualTo(three);
+    }
+  }
+
   private RocksDbTaskQueue<BytesValue> createQueue(final Path dataDir) {
     return RocksDbTaskQueue.create(
         dataDir, Function.identity(), Function.identity(), new NoOpMetricsSystem());